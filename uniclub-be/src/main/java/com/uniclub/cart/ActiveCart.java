@@ -0,0 +1,220 @@
+package com.uniclub.cart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.uniclub.util.OrderPricing;
+
+/**
+ * Giỏ hàng đang hoạt động của một user: các dòng theo SKU, tổng tiền / số lượng cộng dồn theo từng thay đổi (O(1))
+ * và những thay đổi chưa ghi xuống DB
+ * Đọc từ bên ngoài luôn trả bản sao; thay đổi chỉ đi qua CartStore khi đang giữ lock
+ * (ReentrantLock thay cho synchronized để không ghim virtual thread)
+ */
+public class ActiveCart {
+
+    /**
+     * Tổng của giỏ: itemCount = tổng số lượng, lineCount = số dòng, subtotal = tổng quantity * unitPrice
+     * Phí ship theo cùng ngưỡng miễn phí với đơn hàng; giỏ rỗng không tính phí ship
+     */
+    public record Totals(int itemCount, int lineCount, int subtotal) {
+
+        public int shippingFee() {
+            return itemCount == 0 ? 0 : OrderPricing.shippingFee(subtotal);
+        }
+
+        public int total() {
+            return subtotal + shippingFee();
+        }
+    }
+
+    /**
+     * Thay đổi đã lấy ra để ghi: dòng cần UPDATE (giá trị tại thời điểm lấy), id dòng cần DELETE
+     * và tổng của giỏ để ghi vào bảng cart
+     */
+    record Pending(ActiveCart cart, List<CartLine> changed, List<Integer> removed, Totals totals, long dirtySince) {
+    }
+
+    final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    private final int cartId;
+    private final int userId;
+    private final Map<Integer, CartLine> lines = new LinkedHashMap<>();
+    private final Set<Integer> changed = new HashSet<>();
+    private final Set<Integer> removed = new HashSet<>();
+    private int itemCount;
+    private int subtotal;
+    // Thời điểm thay đổi đầu tiên chưa ghi, 0 = không có gì chờ ghi
+    private volatile long dirtySince;
+    // Thay đổi đã lấy ra (drain) nhưng lượt flush chưa xong
+    private boolean flushing;
+
+    public ActiveCart(int cartId, int userId, Collection<CartLine> lines) {
+        this.cartId = cartId;
+        this.userId = userId;
+        for (CartLine line : lines) {
+            if (this.lines.putIfAbsent(line.sku(), line) == null) {
+                count(line, 1);
+            }
+        }
+    }
+
+    public int getCartId() {
+        return cartId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public List<CartLine> getLines() {
+        lock.lock();
+        try {
+            return new ArrayList<>(lines.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Totals totals() {
+        lock.lock();
+        try {
+            return new Totals(itemCount, lines.size(), subtotal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<CartLine> line(int sku) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(lines.get(sku));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<CartLine> lineById(int lineId) {
+        lock.lock();
+        try {
+            for (CartLine line : lines.values()) {
+                if (line.id() == lineId) {
+                    return Optional.of(line);
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Các hàm dưới đây: người gọi đang giữ lock
+
+    // Dòng mới đã có trong DB, chỉ còn tổng của giỏ cần ghi
+    void insert(CartLine line, long now) {
+        replace(line);
+        markDirty(now);
+    }
+
+    void change(CartLine line, long now) {
+        replace(line);
+        changed.add(line.id());
+        markDirty(now);
+    }
+
+    void remove(CartLine line, long now) {
+        if (lines.remove(line.sku()) != null) {
+            count(line, -1);
+        }
+        changed.remove(line.id());
+        removed.add(line.id());
+        markDirty(now);
+    }
+
+    void reset() {
+        lines.clear();
+        changed.clear();
+        removed.clear();
+        itemCount = 0;
+        subtotal = 0;
+        dirtySince = 0;
+    }
+
+    boolean isDirty() {
+        return dirtySince != 0;
+    }
+
+    long dirtySince() {
+        return dirtySince;
+    }
+
+    Pending drain() {
+        if (!isDirty()) {
+            return null;
+        }
+        List<CartLine> changedLines = new ArrayList<>();
+        for (CartLine line : lines.values()) {
+            if (changed.contains(line.id())) {
+                changedLines.add(line);
+            }
+        }
+        Pending pending = new Pending(this, changedLines, new ArrayList<>(removed),
+                new Totals(itemCount, lines.size(), subtotal), dirtySince);
+        changed.clear();
+        removed.clear();
+        dirtySince = 0;
+        flushing = true;
+        return pending;
+    }
+
+    void flushDone() {
+        flushing = false;
+        flushed.signalAll();
+    }
+
+    // Chờ lượt flush đang ghi giỏ này xong (trả lock trong lúc chờ)
+    void awaitFlush() {
+        while (flushing) {
+            flushed.awaitUninterruptibly();
+        }
+    }
+
+    // Ghi lỗi: đánh dấu lại để lần flush sau ghi giá trị hiện tại
+    void restore(Pending pending) {
+        for (CartLine line : pending.changed()) {
+            if (lines.containsKey(line.sku()) && lines.get(line.sku()).id() == line.id()) {
+                changed.add(line.id());
+            }
+        }
+        removed.addAll(pending.removed());
+        dirtySince = dirtySince == 0 ? pending.dirtySince() : Math.min(dirtySince, pending.dirtySince());
+    }
+
+    void markDirty(long now) {
+        if (dirtySince == 0) {
+            dirtySince = now;
+        }
+    }
+
+    private void replace(CartLine line) {
+        CartLine previous = lines.put(line.sku(), line);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        count(line, 1);
+    }
+
+    private void count(CartLine line, int sign) {
+        itemCount += sign * line.quantity();
+        subtotal += sign * line.subtotal();
+    }
+}
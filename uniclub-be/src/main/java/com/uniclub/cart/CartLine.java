@@ -0,0 +1,21 @@
+package com.uniclub.cart;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng cart_item trong bộ nhớ (bất biến, thay đổi = thay bản ghi mới)
+ */
+public record CartLine(int id, int sku, int quantity, int unitPrice, LocalDateTime addedAt) {
+
+    public CartLine withQuantity(int newQuantity) {
+        return new CartLine(id, sku, newQuantity, unitPrice, addedAt);
+    }
+
+    public CartLine withUnitPrice(int newUnitPrice) {
+        return new CartLine(id, sku, quantity, newUnitPrice, addedAt);
+    }
+
+    public int subtotal() {
+        return quantity * unitPrice;
+    }
+}
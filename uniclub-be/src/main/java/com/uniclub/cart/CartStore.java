@@ -0,0 +1,455 @@
+package com.uniclub.cart;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uniclub.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giỏ hàng trong bộ nhớ với ghi trễ (write-behind):
+ * - Giỏ đang hoạt động nằm trong cache Caffeine theo userId (giới hạn số giỏ + hết hạn khi không dùng),
+ *   nạp từ DB bằng một query ở lần dùng đầu (ngoài compute của cache, rồi putIfAbsent)
+ * - Đổi số lượng / giá / xóa dòng chỉ sửa bộ nhớ và đánh dấu giỏ "bẩn"; flushDue() gom các giỏ bẩn quá max-delay
+ *   và ghi bằng batch UPDATE / DELETE, mỗi batch-size giỏ một transaction, nên nhiều lần bấm "+1" thành 1 câu UPDATE
+ * - Dòng mới được INSERT ngay vì API trả về id của cart_item
+ * - Giỏ bẩn được giữ trong map riêng tới khi ghi xong: bị đẩy khỏi cache thì vẫn được flush,
+ *   và lần nạp lại dùng chính object đó thay vì đọc dữ liệu cũ từ DB
+ * - Tổng tiền / số lượng được giữ cộng dồn trong ActiveCart và ghi vào bảng cart cùng lượt flush;
+ *   giỏ nạp lên có tổng trong DB lệch (dữ liệu cũ) thì được đánh dấu để ghi lại
+ * - Thanh toán (clear) xóa giỏ trong DB ngay, trong transaction của đơn hàng, sau khi lượt flush đang ghi giỏ
+ *   đó (nếu có) commit xong
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private static final String LOAD_SQL = """
+            SELECT c.id AS cart_id, c.total_price, c.shipping_fee, c.item_count,
+                   ci.id, ci.id_sku, ci.quantity, ci.unit_price, ci.added_at
+            FROM cart c
+            LEFT JOIN cart_item ci ON ci.id_cart = c.id
+            WHERE c.id_user = ?
+            ORDER BY c.id, ci.id
+            """;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_item (id_cart, id_sku, quantity, unit_price, added_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE cart_item SET quantity = ?, unit_price = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM cart_item WHERE id = ?";
+
+    private static final String SUMMARY_SQL = """
+            SELECT c.id, c.total_price, c.item_count,
+                   (SELECT COUNT(*) FROM cart_item ci WHERE ci.id_cart = c.id) AS line_count
+            FROM cart c
+            WHERE c.id_user = ?
+            ORDER BY c.id
+            """;
+
+    private static final String TOTALS_SQL =
+            "UPDATE cart SET total_price = ?, shipping_fee = ?, item_count = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxDelayMillis;
+    private final int batchSize;
+
+    // userId -> giỏ
+    private final Cache<Integer, ActiveCart> carts;
+    // cart.id -> userId, cart_item.id -> userId
+    private final Cache<Integer, Integer> cartOwners;
+    private final Cache<Integer, Integer> lineOwners;
+    // userId -> giỏ còn thay đổi chưa ghi (hoặc đang ghi)
+    private final Map<Integer, ActiveCart> dirty = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+
+    public CartStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                     @Value("${app.cart.max-carts:100000}") int maxCarts,
+                     @Value("${app.cart.idle:30m}") Duration idle,
+                     @Value("${app.cart.max-delay:2s}") Duration maxDelay,
+                     @Value("${app.cart.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.batchSize = batchSize;
+        this.carts = Caffeine.newBuilder().maximumSize(maxCarts).expireAfterAccess(idle).build();
+        this.cartOwners = Caffeine.newBuilder().maximumSize(maxCarts).build();
+        this.lineOwners = Caffeine.newBuilder().maximumSize(maxCarts * 10L).build();
+
+        Gauge.builder("cart.store.active", carts, Cache::estimatedSize)
+                .description("Số giỏ hàng đang nằm trong bộ nhớ")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirty, Map::size)
+                .description("Số giỏ hàng có thay đổi chưa ghi xuống DB")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cart.flush")
+                .description("Thời gian ghi một batch giỏ hàng xuống DB")
+                .register(meterRegistry);
+    }
+
+    public ActiveCart getByUserId(int userId) {
+        ActiveCart cart = carts.getIfPresent(userId);
+        if (cart != null) {
+            return cart;
+        }
+        // Nạp ngoài compute của Caffeine (query trong compute giữ khóa của map và ghim virtual thread)
+        // Hai request cùng nạp thì bản vào map trước được dùng, bản còn lại bỏ đi
+        ActiveCart loaded = load(userId);
+        ActiveCart existing = carts.asMap().putIfAbsent(userId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (loaded.isDirty()) {
+            dirty.putIfAbsent(userId, loaded);
+        }
+        return loaded;
+    }
+
+    public ActiveCart getByCartId(int cartId) {
+        Integer userId = owner(cartOwners, cartId, "SELECT id_user FROM cart WHERE id = ?");
+        if (userId == null) {
+            throw new ResourceNotFoundException("Cart", "id", cartId);
+        }
+        return getByUserId(userId);
+    }
+
+    public Optional<ActiveCart> findByLineId(int lineId) {
+        Integer userId = owner(lineOwners, lineId,
+                "SELECT c.id_user FROM cart_item ci JOIN cart c ON c.id = ci.id_cart WHERE ci.id = ?");
+        if (userId == null) {
+            return Optional.empty();
+        }
+        ActiveCart cart = getByUserId(userId);
+        return cart.lineById(lineId).isPresent() ? Optional.of(cart) : Optional.empty();
+    }
+
+    /**
+     * Cộng thêm vào dòng có sẵn (giữ giá cũ) hoặc INSERT dòng mới
+     */
+    public CartLine add(ActiveCart cart, int sku, int quantity, int unitPrice) {
+        cart.lock.lock();
+        try {
+            Optional<CartLine> existing = cart.line(sku);
+            if (existing.isPresent()) {
+                CartLine updated = existing.get().withQuantity(existing.get().quantity() + quantity);
+                change(cart, updated);
+                return updated;
+            }
+            LocalDateTime addedAt = LocalDateTime.now();
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL, new String[]{"id"});
+                ps.setInt(1, cart.getCartId());
+                ps.setInt(2, sku);
+                ps.setInt(3, quantity);
+                ps.setInt(4, unitPrice);
+                ps.setTimestamp(5, Timestamp.valueOf(addedAt));
+                return ps;
+            }, keyHolder);
+            CartLine line = new CartLine(keyHolder.getKey().intValue(), sku, quantity, unitPrice, addedAt);
+            cart.insert(line, System.currentTimeMillis());
+            dirty.put(cart.getUserId(), cart);
+            lineOwners.put(line.id(), cart.getUserId());
+            return line;
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    public CartLine update(ActiveCart cart, int lineId, Integer quantity, Integer unitPrice) {
+        cart.lock.lock();
+        try {
+            CartLine line = cart.lineById(lineId)
+                    .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", lineId));
+            if (quantity != null) {
+                line = line.withQuantity(quantity);
+            }
+            if (unitPrice != null) {
+                line = line.withUnitPrice(unitPrice);
+            }
+            change(cart, line);
+            return line;
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    public void remove(ActiveCart cart, int lineId) {
+        cart.lock.lock();
+        try {
+            CartLine line = cart.lineById(lineId)
+                    .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", lineId));
+            cart.remove(line, System.currentTimeMillis());
+            dirty.put(cart.getUserId(), cart);
+            lineOwners.invalidate(lineId);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    /**
+     * Xóa toàn bộ giỏ của user (sau khi đặt hàng), ghi ngay trong transaction hiện tại
+     * Transaction rollback thì bỏ giỏ khỏi bộ nhớ để lần sau nạp lại từ DB
+     */
+    public void clear(int userId) {
+        ActiveCart cart = getByUserId(userId);
+        cart.lock.lock();
+        try {
+            // Thay đổi đã được lấy ra để ghi thì chờ lượt flush đó commit trước,
+            // nếu không nó sẽ ghi số lượng / tổng tiền cũ đè lên giỏ vừa xóa
+            cart.awaitFlush();
+            jdbcTemplate.update("DELETE FROM cart_item WHERE id_cart = ?", cart.getCartId());
+            jdbcTemplate.update(TOTALS_SQL, 0, 0, 0, Timestamp.valueOf(LocalDateTime.now()), cart.getCartId());
+            cart.getLines().forEach(line -> lineOwners.invalidate(line.id()));
+            cart.reset();
+            dirty.remove(userId, cart);
+        } finally {
+            cart.lock.unlock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        invalidate(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Tóm tắt giỏ cho badge / mini-cart: lấy từ bộ nhớ nếu giỏ đang hoạt động, không thì đọc một dòng bảng cart
+     * mà không nạp các dòng (giỏ chưa từng được tính tổng thì nạp lên để tính, lượt flush sau ghi lại)
+     */
+    public CartSummary summary(int userId) {
+        Optional<CartSummary> active = activeSummary(userId);
+        if (active.isPresent()) {
+            return active.get();
+        }
+        List<CartSummary> stored = jdbcTemplate.query(SUMMARY_SQL, (rs, rowNum) -> {
+            int itemCount = rs.getInt("item_count");
+            return rs.wasNull() ? null : new CartSummary(rs.getInt("id"), userId,
+                    new ActiveCart.Totals(itemCount, rs.getInt("line_count"), rs.getInt("total_price")));
+        }, userId);
+        if (!stored.isEmpty() && stored.get(0) != null) {
+            return stored.get(0);
+        }
+        ActiveCart cart = getByUserId(userId);
+        return new CartSummary(cart.getCartId(), userId, cart.totals());
+    }
+
+    /**
+     * Tổng của giỏ nếu giỏ đang nằm trong bộ nhớ, không nạp giỏ từ DB
+     */
+    public Optional<CartSummary> activeSummary(int userId) {
+        ActiveCart cart = dirty.get(userId);
+        if (cart == null) {
+            cart = carts.getIfPresent(userId);
+        }
+        return Optional.ofNullable(cart).map(active -> new CartSummary(active.getCartId(), userId, active.totals()));
+    }
+
+    /**
+     * Bỏ giỏ khỏi bộ nhớ (kể cả thay đổi chưa ghi), dùng khi giỏ bị xóa
+     */
+    public void evictCart(int cartId) {
+        Integer userId = cartOwners.getIfPresent(cartId);
+        cartOwners.invalidate(cartId);
+        if (userId != null) {
+            invalidate(userId);
+        }
+    }
+
+    public void invalidate(int userId) {
+        carts.invalidate(userId);
+        dirty.remove(userId);
+    }
+
+    /**
+     * Ghi các giỏ có thay đổi cũ hơn max-delay, trả về số dòng cart_item đã ghi
+     */
+    public int flushDue() {
+        return flush(System.currentTimeMillis() - maxDelayMillis);
+    }
+
+    @PreDestroy
+    public int flushAll() {
+        return flush(Long.MAX_VALUE);
+    }
+
+    public int dirtyCount() {
+        return dirty.size();
+    }
+
+    private void change(ActiveCart cart, CartLine line) {
+        cart.change(line, System.currentTimeMillis());
+        dirty.put(cart.getUserId(), cart);
+    }
+
+    private Integer owner(Cache<Integer, Integer> owners, int id, String sql) {
+        Integer userId = owners.getIfPresent(id);
+        if (userId == null) {
+            userId = DataAccessUtils.singleResult(jdbcTemplate.queryForList(sql, Integer.class, id));
+            if (userId != null) {
+                owners.put(id, userId);
+            }
+        }
+        return userId;
+    }
+
+    private ActiveCart load(int userId) {
+        ActiveCart pending = dirty.get(userId);
+        if (pending != null) {
+            return pending;
+        }
+        ActiveCart cart = jdbcTemplate.query(LOAD_SQL, rs -> {
+            Integer cartId = null;
+            ActiveCart.Totals stored = null;
+            List<CartLine> lines = new ArrayList<>();
+            while (rs.next()) {
+                int rowCartId = rs.getInt("cart_id");
+                if (cartId == null) {
+                    cartId = rowCartId;
+                    int itemCount = rs.getInt("item_count");
+                    if (!rs.wasNull()) {
+                        stored = new ActiveCart.Totals(itemCount, 0, rs.getInt("total_price"));
+                    }
+                }
+                int lineId = rs.getInt("id");
+                if (rs.wasNull() || rowCartId != cartId) {
+                    continue;
+                }
+                Timestamp addedAt = rs.getTimestamp("added_at");
+                lines.add(new CartLine(lineId, rs.getInt("id_sku"), rs.getInt("quantity"), rs.getInt("unit_price"),
+                        addedAt == null ? null : addedAt.toLocalDateTime()));
+            }
+            if (cartId == null) {
+                return null;
+            }
+            ActiveCart loaded = new ActiveCart(cartId, userId, lines);
+            // Tổng trong bảng cart lệch với các dòng (dữ liệu cũ còn để 0) thì ghi lại ở lượt flush sau
+            ActiveCart.Totals totals = loaded.totals();
+            if (stored == null || stored.itemCount() != totals.itemCount() || stored.subtotal() != totals.subtotal()) {
+                loaded.markDirty(System.currentTimeMillis());
+            }
+            return loaded;
+        }, userId);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Cart", "userId", userId);
+        }
+        cartOwners.put(cart.getCartId(), userId);
+        cart.getLines().forEach(line -> lineOwners.put(line.id(), userId));
+        return cart;
+    }
+
+    private int flush(long dirtyBefore) {
+        List<ActiveCart> due = new ArrayList<>();
+        for (ActiveCart cart : dirty.values()) {
+            long since = cart.dirtySince();
+            if (since != 0 && since <= dirtyBefore) {
+                due.add(cart);
+            }
+        }
+        int written = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            written += flushBatch(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+        if (written > 0) {
+            log.debug("Flushed {} cart rows from {} carts", written, due.size());
+        }
+        return written;
+    }
+
+    private int flushBatch(List<ActiveCart> batch) {
+        List<ActiveCart.Pending> pending = new ArrayList<>();
+        for (ActiveCart cart : batch) {
+            cart.lock.lock();
+            try {
+                ActiveCart.Pending drained = cart.drain();
+                if (drained != null) {
+                    pending.add(drained);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        boolean written = false;
+        long start = System.nanoTime();
+        try {
+            List<Object[]> totals = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (ActiveCart.Pending entry : pending) {
+                ActiveCart.Totals cartTotals = entry.totals();
+                totals.add(new Object[]{cartTotals.subtotal(), cartTotals.shippingFee(), cartTotals.itemCount(), now,
+                        entry.cart().getCartId()});
+                entry.changed().forEach(line -> updates.add(new Object[]{line.quantity(), line.unitPrice(), line.id()}));
+                entry.removed().forEach(id -> deletes.add(new Object[]{id}));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                }
+                if (!deletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                }
+                jdbcTemplate.batchUpdate(TOTALS_SQL, totals);
+            });
+            written = true;
+        } catch (RuntimeException e) {
+            log.error("Flushing {} carts failed, will retry on next tick", pending.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (ActiveCart.Pending entry : pending) {
+                ActiveCart cart = entry.cart();
+                cart.lock.lock();
+                try {
+                    if (!written) {
+                        cart.restore(entry);
+                    } else if (!cart.isDirty()) {
+                        dirty.remove(cart.getUserId(), cart);
+                    }
+                    // clear() đang chờ lượt ghi này thì chạy tiếp
+                    cart.flushDone();
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+        }
+        return written ? updates.size() + deletes.size() : 0;
+    }
+}
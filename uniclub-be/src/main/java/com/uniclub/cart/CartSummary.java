@@ -0,0 +1,7 @@
+package com.uniclub.cart;
+
+/**
+ * Tổng của một giỏ hàng, không kèm các dòng
+ */
+public record CartSummary(int cartId, int userId, ActiveCart.Totals totals) {
+}
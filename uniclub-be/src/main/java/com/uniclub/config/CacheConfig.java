@@ -0,0 +1,44 @@
+package com.uniclub.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache danh mục cho storefront (Caffeine: giới hạn kích thước + TTL, cấu hình ở app.cache.catalog-spec)
+ * Hit ratio, size, evictions xem qua /actuator/caches và /actuator/metrics/cache.*
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String VARIANTS = "variants";
+    public static final String VARIANT_LISTS = "variantLists";
+    public static final String BRANDS = "brands";
+    public static final String CATEGORIES = "categories";
+    public static final String SIZES = "sizes";
+    public static final String COLORS = "colors";
+
+    // Key của danh sách đầy đủ trong cache products/brands/categories/sizes/colors
+    public static final String ALL = "'all'";
+
+    @Value("${app.cache.catalog-spec:maximumSize=2000,expireAfterWrite=10m,recordStats}")
+    private String catalogSpec;
+
+    /**
+     * Bọc transaction-aware: evict chỉ chạy sau khi commit, tránh request song song nạp lại dữ liệu cũ trước commit
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(
+                PRODUCTS, VARIANTS, VARIANT_LISTS, BRANDS, CATEGORIES, SIZES, COLORS);
+        caffeine.setCacheSpecification(catalogSpec);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,31 @@
+package com.uniclub.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Migration Flyway (db/migration) chạy sau khi Hibernate tạo / cập nhật bảng (ddl-auto),
+ * thay vì trước như mặc định: bảng và cột vẫn theo entity, index và thay đổi dữ liệu đi qua migration có version
+ * Schema đã có sẵn (init-database.sql, DB đang chạy) được baseline ở version 0 nên mọi migration đều được áp dụng
+ */
+@Configuration
+public class FlywayConfig {
+
+    // Bỏ lượt migrate mặc định (chạy trước EntityManagerFactory)
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigration() {
+        return flyway -> { };
+    }
+
+    @Bean
+    public InitializingBean flywayMigrationAfterJpa(ObjectProvider<Flyway> flyway,
+                                                    EntityManagerFactory entityManagerFactory) {
+        return () -> flyway.ifAvailable(Flyway::migrate);
+    }
+}
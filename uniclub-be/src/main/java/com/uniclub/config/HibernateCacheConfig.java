@@ -0,0 +1,104 @@
+package com.uniclub.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Hibernate second-level cache cho dữ liệu tham chiếu (brand, category, size, color, role, supplier):
+ * proxy LAZY @ManyToOne trong ProductResponse / OrderVariantResponse / UserResponse lấy từ cache thay vì SELECT,
+ * và các lookup existsByNameIgnoreCase / findByName dùng query cache (region referenceLookups)
+ * Mỗi region cấu hình riêng ở app.cache.hibernate.<region> (maximumSize, expireAfterWrite, expireAfterAccess),
+ * thiếu thì dùng app.cache.hibernate.default
+ * Hit/miss theo region xem qua /actuator/metrics/hibernate.second.level.cache.requests và hibernate.cache.query.requests
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String SIZE = "size";
+    public static final String COLOR = "color";
+    public static final String ROLE = "role";
+    public static final String SUPPLIER = "supplier";
+    public static final String REFERENCE_LOOKUPS = "referenceLookups";
+
+    private static final List<String> REGIONS = List.of(
+            BRAND, CATEGORY, SIZE, COLOR, ROLE, SUPPLIER, REFERENCE_LOOKUPS,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    private static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=1h";
+
+    /**
+     * Mỗi context một CacheManager riêng (URI ngẫu nhiên): test với nhiều DB trong cùng JVM không dùng chung entity
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("uniclub-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        String defaultSpec = environment.getProperty("app.cache.hibernate.default", DEFAULT_SPEC);
+        for (String region : REGIONS) {
+            cacheManager.createCache(region,
+                    configuration(environment.getProperty("app.cache.hibernate." + region, defaultSpec)));
+        }
+        // Mốc thời gian cập nhật bảng cho query cache: không giới hạn, không hết hạn (mất mốc = đọc kết quả cũ)
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Cùng cú pháp với app.cache.catalog-spec: maximumSize=1000,expireAfterWrite=1h
+    static CaffeineConfiguration<Object, Object> configuration(String spec) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        for (String option : StringUtils.commaDelimitedListToStringArray(spec)) {
+            String[] pair = option.trim().split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Cấu hình cache không hợp lệ: " + spec);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim()) {
+                case "maximumSize" -> configuration.setMaximumSize(OptionalLong.of(Long.parseLong(value)));
+                case "expireAfterWrite" -> configuration.setExpireAfterWrite(OptionalLong.of(nanos(value)));
+                case "expireAfterAccess" -> configuration.setExpireAfterAccess(OptionalLong.of(nanos(value)));
+                default -> throw new IllegalArgumentException("Cấu hình cache không hợp lệ: " + spec);
+            }
+        }
+        return configuration;
+    }
+
+    private static long nanos(String value) {
+        Duration duration = DurationStyle.detectAndParse(value);
+        return duration.toNanos();
+    }
+}
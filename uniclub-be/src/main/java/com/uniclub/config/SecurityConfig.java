@@ -2,14 +2,17 @@ package com.uniclub.config;
 
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -18,6 +21,12 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Tên role trong bảng role, JwtAuthenticationFilter gắn thành authority ROLE_<tên>
+    public static final String ADMIN_ROLE = "SysAdmin";
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -25,8 +34,12 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Export toàn bộ đơn hàng (tên, số điện thoại, địa chỉ khách) chỉ dành cho quản trị viên
+                .requestMatchers(HttpMethod.GET, "/api/orders/export").hasRole(ADMIN_ROLE)
                 .anyRequest().permitAll()  // ✅ Cho phép TẤT CẢ requests
-            );
+            )
+            // Không đăng ký filter như @Component để tránh Spring Boot gắn thêm vào servlet chain
+            .addFilterBefore(new JwtAuthenticationFilter(jwtConfig), UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -1,8 +1,11 @@
 package com.uniclub.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.uniclub.util.VNPaySigner;
+
 @Configuration
 public class VNPayConfig {
     
@@ -29,6 +32,12 @@ public class VNPayConfig {
     
     @Value("${vnpay.order-type:other}")
     private String orderType;
+
+    // Mac đã init sẵn với hash secret, dùng chung cho tạo URL và verify IPN/return
+    @Bean
+    public VNPaySigner vnPaySigner() {
+        return new VNPaySigner(hashSecret);
+    }
     
     public String getTmnCode() {
         return tmnCode;
@@ -0,0 +1,138 @@
+package com.uniclub.config;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chẩn đoán chế độ virtual thread khi khởi động (spring.threads.virtual.enabled phủ Tomcat, @Async và @Scheduled):
+ * - Pool HikariCP là giới hạn thật của số request chạm DB cùng lúc, request vượt quá sẽ chờ connection-timeout
+ * - Driver JDBC / JDK còn dùng synchronized sẽ ghim (pin) virtual thread vào carrier thread khi chờ I/O
+ * Bật app.threads.pinned-events.enabled để theo dõi sự kiện JFR jdk.VirtualThreadPinned lúc chạy
+ */
+@Slf4j
+@Component
+public class VirtualThreadDiagnostics {
+
+    // JDK 24 (JEP 491): synchronized không còn ghim virtual thread
+    private static final int UNPINNED_SYNCHRONIZED_JDK = 24;
+    // Connector/J 9.0 thay synchronized bằng ReentrantLock
+    private static final int MYSQL_LOCK_FREE_MAJOR = 9;
+
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final boolean pinnedEventsEnabled;
+    private final Duration pinnedThreshold;
+    private RecordingStream pinnedEvents;
+
+    public VirtualThreadDiagnostics(Environment environment, DataSource dataSource, MeterRegistry meterRegistry,
+                                    @Value("${app.threads.pinned-events.enabled:false}") boolean pinnedEventsEnabled,
+                                    @Value("${app.threads.pinned-events.threshold:20ms}") Duration pinnedThreshold) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.pinnedEventsEnabled = pinnedEventsEnabled;
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        int jdk = Runtime.version().feature();
+
+        log.info("========================================");
+        log.info("Thread mode: {} (JDK {})", virtual ? "virtual threads" : "platform threads", jdk);
+        if (!virtual) {
+            log.info("Tomcat max threads: {}", environment.getProperty("server.tomcat.threads.max", "200"));
+            log.info("========================================");
+            return;
+        }
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            log.info("HikariCP pool: max {} connections, connection timeout {} ms",
+                    hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+            log.info("Requests beyond the pool size wait for a connection instead of a Tomcat thread");
+        }
+
+        jdbcDriver().ifPresent(driver -> {
+            String name = driver.getClass().getName();
+            log.info("JDBC driver: {} {}.{}", name, driver.getMajorVersion(), driver.getMinorVersion());
+            if (name.startsWith("com.mysql") && driver.getMajorVersion() < MYSQL_LOCK_FREE_MAJOR) {
+                log.warn("MySQL Connector/J < {} uses synchronized around socket I/O and pins virtual threads",
+                        MYSQL_LOCK_FREE_MAJOR);
+            }
+        });
+
+        if (jdk < UNPINNED_SYNCHRONIZED_JDK) {
+            log.warn("JDK {} pins virtual threads inside synchronized blocks (fixed in JDK {}); "
+                    + "run with -Djdk.tracePinnedThreads=short or app.threads.pinned-events.enabled=true to find them",
+                    jdk, UNPINNED_SYNCHRONIZED_JDK);
+        }
+        if (pinnedEventsEnabled) {
+            startPinnedEventStream();
+        }
+        log.info("========================================");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+        }
+    }
+
+    private Optional<Driver> jdbcDriver() {
+        String driverClass = dataSource instanceof HikariDataSource hikari
+                ? hikari.getDriverClassName()
+                : environment.getProperty("spring.datasource.driver-class-name");
+        if (driverClass == null) {
+            return Optional.empty();
+        }
+        return DriverManager.drivers()
+                .filter(driver -> driver.getClass().getName().equals(driverClass))
+                .findFirst();
+    }
+
+    /**
+     * Log và đếm (jvm.threads.virtual.pinned) mỗi lần virtual thread bị ghim lâu hơn ngưỡng
+     */
+    private void startPinnedEventStream() {
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Số lần virtual thread bị ghim vào carrier thread lâu hơn ngưỡng")
+                .register(meterRegistry);
+        pinnedEvents = new RecordingStream();
+        pinnedEvents.enable("jdk.VirtualThreadPinned").withThreshold(pinnedThreshold).withStackTrace();
+        pinnedEvents.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinned.increment();
+            String frame = event.getStackTrace() == null ? "unknown" : event.getStackTrace().getFrames().stream()
+                    .filter(RecordedFrame::isJavaFrame)
+                    .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName())
+                    .filter(method -> !method.startsWith("java.") && !method.startsWith("jdk."))
+                    .findFirst()
+                    .orElse("unknown");
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frame);
+        });
+        pinnedEvents.startAsync();
+        log.info("Watching jdk.VirtualThreadPinned events longer than {} ms", pinnedThreshold.toMillis());
+    }
+}
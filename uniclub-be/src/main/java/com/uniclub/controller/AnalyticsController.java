@@ -0,0 +1,64 @@
+package com.uniclub.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.uniclub.dto.response.Analytics.DailySalesResponse;
+import com.uniclub.dto.response.Analytics.TopSellerResponse;
+import com.uniclub.entity.enums.SalesDimension;
+import com.uniclub.service.SalesAnalyticsService;
+import com.uniclub.service.SalesRollupService;
+
+/**
+ * Dashboard doanh số, đọc từ bảng tổng hợp theo ngày (sales_daily_rollup)
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    // Doanh số từng ngày: /api/analytics/sales/daily?from=2025-01-01&to=2025-01-31
+    @GetMapping("/sales/daily")
+    public ResponseEntity<List<DailySalesResponse>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesAnalyticsService.getDailySales(from, to));
+    }
+
+    // Bán chạy: /api/analytics/sales/top?dimension=product&from=2025-01-01&to=2025-01-31&sortBy=units&limit=10
+    @GetMapping("/sales/top")
+    public ResponseEntity<List<TopSellerResponse>> getTopSellers(
+            @RequestParam(defaultValue = "product") String dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getTopSellers(SalesDimension.parse(dimension), from, to,
+                sortBy, limit));
+    }
+
+    // Dựng lại tổng hợp từ dữ liệu đơn hàng cho một khoảng ngày (backfill / sửa lệch)
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(Map.of("days", salesRollupService.rebuild(from, to)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.uniclub.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,6 +16,7 @@ import com.uniclub.dto.request.User.RegisterRequest;
 import com.uniclub.dto.request.User.VerifyCodeRequest;
 import com.uniclub.dto.response.Auth.LoginResponse;
 import com.uniclub.dto.response.User.UserResponse;
+import com.uniclub.exception.TooManyAttemptsException;
 import com.uniclub.exception.UnverifiedAccountException;
 import com.uniclub.service.AuthService;
 import com.uniclub.service.UserService;
@@ -51,6 +53,8 @@ public class AuthController {
         try {
             UserResponse user = userService.registerNewUser(request);
             return ResponseEntity.ok("Registration successful! Please check your email for verification code.");
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -65,6 +69,8 @@ public class AuthController {
             } else {
                 return ResponseEntity.badRequest().body("Invalid or expired verification code.");
             }
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -75,6 +81,8 @@ public class AuthController {
         try {
             userService.resendVerificationCode(email);
             return ResponseEntity.ok("Verification code has been resent to your email.");
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.uniclub.dto.request.Cart.CreateCartRequest;
 import com.uniclub.dto.request.Cart.UpdateCartRequest;
 import com.uniclub.dto.response.Cart.CartResponse;
+import com.uniclub.dto.response.Cart.CartSummaryResponse;
 import com.uniclub.service.CartService;
 
 import jakarta.validation.Valid;
@@ -67,6 +68,12 @@ public class CartController {
         return ResponseEntity.ok(cartService.getCartByUserId(userId));
     }
 
+    // GET SUMMARY BY USER ID (số lượng, tạm tính, phí ship, tổng)
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<CartSummaryResponse> getSummaryByUserId(@PathVariable Integer userId) {
+        return ResponseEntity.ok(cartService.getCartSummary(userId));
+    }
+
     // DELETE
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Integer id) {
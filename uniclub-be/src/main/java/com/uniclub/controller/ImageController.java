@@ -0,0 +1,62 @@
+package com.uniclub.controller;
+
+import com.uniclub.dto.response.Variant.VariantResponse;
+import com.uniclub.exception.ResourceNotFoundException;
+import com.uniclub.image.ImageDerivativeCache;
+import com.uniclub.image.ImageDerivativeService;
+import com.uniclub.image.ImageSize;
+import com.uniclub.service.VariantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Ảnh dẫn xuất của variant cho storefront: GET /api/images/variants/{sku}/{thumbnail|medium|large}
+ * ETag mạnh theo nội dung ảnh gốc + kích thước, trình duyệt/CDN revalidate bằng If-None-Match (304)
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    @Autowired
+    private VariantService variantService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Value("${app.image.max-age:1d}")
+    private Duration maxAge;
+
+    @GetMapping("/variants/{sku}/{size}")
+    public ResponseEntity<Resource> getVariantImage(@PathVariable Integer sku,
+                                                    @PathVariable String size,
+                                                    WebRequest request) throws IOException {
+        ImageSize imageSize = ImageSize.fromPath(size);
+        VariantResponse variant = variantService.getBySku(sku);
+        if (variant.getImages() == null || variant.getImages().isBlank()) {
+            throw new ResourceNotFoundException("Image", "sku", sku);
+        }
+
+        ImageDerivativeCache.CachedImage image = imageDerivativeService.get(variant.getImages(), imageSize);
+        if (request.checkNotModified(image.etag())) {
+            return null; // 304 Not Modified, header đã được set
+        }
+
+        return ResponseEntity.ok()
+                .eTag(image.etag())
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .contentLength(image.length())
+                .body(new FileSystemResource(image.path()));
+    }
+}
@@ -1,9 +1,14 @@
 package com.uniclub.controller;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,12 +19,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.response.Order.OrderPageResponse;
 import com.uniclub.dto.response.Order.OrderResponse;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.service.OrderExportService;
 import com.uniclub.service.OrderService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -31,6 +41,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
     // CREATE
     @PostMapping
     public ResponseEntity<OrderResponse> create(@Valid @RequestBody CreateOrderRequest request) {
@@ -54,6 +67,37 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
     
+    // GET PAGE (keyset) - ?size=20&cursor=...&status=PENDING&userId=1&from=2025-01-01T00:00:00&to=...
+    @GetMapping("/page")
+    public ResponseEntity<OrderPageResponse> getPage(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrdersPage(status, userId, from, to, cursor, size));
+    }
+    
+    // EXPORT cho kế toán, ghi streaming thẳng ra response (không giới hạn số đơn)
+    // ?format=csv|ndjson&from=2025-01-01T00:00:00&to=2025-02-01T00:00:00&status=DELIVERED&status=CANCELLED
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "csv") String format,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                       @RequestParam(required = false) List<OrderStatus> status,
+                       HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders." + (csv ? "csv" : "ndjson"))
+                .build()
+                .toString());
+        orderExportService.export(from, to, status, exportFormat, response.getOutputStream());
+        response.flushBuffer();
+    }
+
     // GET BY USER ID
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<OrderResponse>> getByUserId(@PathVariable Integer userId) {
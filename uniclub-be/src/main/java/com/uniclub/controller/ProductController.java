@@ -3,13 +3,22 @@ package com.uniclub.controller;
 import com.uniclub.dto.request.Product.CreateProductRequest;
 import com.uniclub.dto.request.Product.UpdateProductRequest;
 import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.dto.response.Product.ProductFacetResponse;
+import com.uniclub.service.CatalogImportService;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.ProductSearchService;
 import com.uniclub.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -22,6 +31,15 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
     // CREATE
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody CreateProductRequest request) {
@@ -37,6 +55,39 @@ public class ProductController {
         }
     }
 
+    // IMPORT hàng loạt sản phẩm + variant từ file CSV / JSON Lines, trả về báo cáo lỗi theo từng dòng
+    // multipart (field file, giới hạn spring.servlet.multipart.max-file-size)
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importCatalog(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(required = false) String format) {
+        try (InputStream input = file.getInputStream()) {
+            CatalogImportService.Format resolved = format != null
+                    ? CatalogImportService.Format.parse(format)
+                    : CatalogImportService.Format.fromFilename(file.getOriginalFilename());
+            return ResponseEntity.ok(catalogImportService.importCatalog(input, resolved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Không đọc được file import");
+        }
+    }
+
+    // File lớn: gửi thẳng nội dung file làm body (text/csv, application/x-ndjson), đọc streaming không qua multipart
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<?> importCatalogStream(HttpServletRequest request,
+                                                 @RequestParam(required = false) String format) {
+        try (InputStream input = request.getInputStream()) {
+            CatalogImportService.Format resolved = format != null
+                    ? CatalogImportService.Format.parse(format)
+                    : CatalogImportService.Format.fromContentType(request.getContentType());
+            return ResponseEntity.ok(catalogImportService.importCatalog(input, resolved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Không đọc được file import");
+        }
+    }
+
     // UPDATE
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> update(@PathVariable Integer id,
@@ -69,12 +120,31 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductsByCategoryId(categoryId));
     }
 
-    // SEARCH BY NAME
+    // SEARCH: mode=name (mặc định, LIKE theo tên) | mode=index (inverted index: bỏ dấu, prefix, xếp hạng, phân trang)
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchByName(@RequestParam String keyword) {
+    public ResponseEntity<?> search(@RequestParam String keyword,
+                                    @RequestParam(defaultValue = "name") String mode,
+                                    @RequestParam(required = false) Integer page,
+                                    @RequestParam(required = false) Integer size) {
+        if ("index".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(productSearchService.search(keyword, page, size));
+        }
         return ResponseEntity.ok(productService.searchByName(keyword));
     }
 
+    // FACETS: lọc brand/category/size/color/khoảng giá (OR trong một facet, AND giữa các facet) + số lượng mỗi facet
+    // VD: /api/products/facets?brandId=1&brandId=2&sizeId=3&price=1&page=0&size=20
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResponse> browse(@RequestParam(required = false) List<Integer> brandId,
+                                                       @RequestParam(required = false) List<Integer> categoryId,
+                                                       @RequestParam(required = false) List<Integer> sizeId,
+                                                       @RequestParam(required = false) List<Integer> colorId,
+                                                       @RequestParam(required = false) List<Integer> price,
+                                                       @RequestParam(required = false) Integer page,
+                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productFacetService.browse(brandId, categoryId, sizeId, colorId, price, page, size));
+    }
+
     // DELETE
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Integer id) {
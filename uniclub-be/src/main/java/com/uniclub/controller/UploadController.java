@@ -1,6 +1,6 @@
 package com.uniclub.controller;
 
-import com.uniclub.service.CloudinaryService;
+import com.uniclub.service.ImageUploadService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +8,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,67 +17,54 @@ import java.util.Map;
 public class UploadController {
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageUploadService imageUploadService;
 
     @PostMapping("/image")
     public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("File is empty");
-            }
+        return upload(file, "Image uploaded successfully");
+    }
 
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest().body("File must be an image");
-            }
+    @PostMapping("/image/variant")
+    public ResponseEntity<?> uploadVariantImage(@RequestParam("file") MultipartFile file) {
+        return upload(file, "Variant image uploaded successfully");
+    }
 
-            // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                return ResponseEntity.badRequest().body("File size must be less than 5MB");
-            }
+    // Upload nhiều ảnh variant trong một request, kết quả theo thứ tự file
+    @PostMapping("/images/variant")
+    public ResponseEntity<?> uploadVariantImages(@RequestParam("files") List<MultipartFile> files) {
+        try {
+            List<ImageUploadService.UploadResult> results =
+                    imageUploadService.uploadImages(files, ImageUploadService.DEFAULT_FOLDER);
+            long uploaded = results.stream().filter(ImageUploadService.UploadResult::success).count();
 
-            String imageUrl = cloudinaryService.uploadImage(file);
-            
-            Map<String, String> response = new HashMap<>();
-            response.put("url", imageUrl);
-            response.put("message", "Image uploaded successfully");
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("uploaded", uploaded);
+            response.put("failed", results.size() - uploaded);
+            response.put("message", uploaded + "/" + results.size() + " images uploaded");
 
             return ResponseEntity.ok(response);
 
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().body("Failed to upload image: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
         }
     }
 
-    @PostMapping("/image/variant")
-    public ResponseEntity<?> uploadVariantImage(@RequestParam("file") MultipartFile file) {
+    private ResponseEntity<?> upload(MultipartFile file, String message) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("File is empty");
-            }
-
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest().body("File must be an image");
-            }
-
-            // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                return ResponseEntity.badRequest().body("File size must be less than 5MB");
-            }
+            // Kiểm tra rỗng, kích thước, magic bytes nằm trong ImageUploadService
+            String imageUrl = imageUploadService.uploadImage(file, ImageUploadService.DEFAULT_FOLDER);
 
-            String imageUrl = cloudinaryService.uploadImage(file, "uniclub/variants");
-            
             Map<String, String> response = new HashMap<>();
             response.put("url", imageUrl);
-            response.put("message", "Variant image uploaded successfully");
+            response.put("message", message);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Failed to upload image: " + e.getMessage());
         } catch (Exception e) {
@@ -87,13 +75,10 @@ public class UploadController {
     @DeleteMapping("/image")
     public ResponseEntity<?> deleteImage(@RequestParam("url") String imageUrl) {
         try {
-            String publicId = cloudinaryService.getPublicIdFromUrl(imageUrl);
-            if (publicId != null) {
-                cloudinaryService.deleteImage(publicId);
-                return ResponseEntity.ok("Image deleted successfully");
-            } else {
-                return ResponseEntity.badRequest().body("Invalid image URL");
-            }
+            imageUploadService.deleteImage(imageUrl);
+            return ResponseEntity.ok("Image deleted successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Failed to delete image: " + e.getMessage());
         } catch (Exception e) {
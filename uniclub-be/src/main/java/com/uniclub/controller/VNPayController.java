@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.uniclub.dto.request.VNPayPaymentRequest;
 import com.uniclub.dto.response.VNPayPaymentResponse;
 import com.uniclub.service.VNPayService;
+import com.uniclub.util.ClientIpUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -38,7 +39,7 @@ public class VNPayController {
             HttpServletRequest httpRequest) {
         
         try {
-            String ipAddr = getClientIp(httpRequest);
+            String ipAddr = ClientIpUtil.getClientIp(httpRequest);
             String paymentUrl = vnPayService.createPaymentUrl(
                     request.getOrderId(),
                     request.getOrderInfo(),
@@ -81,28 +82,4 @@ public class VNPayController {
         
         return ResponseEntity.ok(result);
     }
-    
-    /**
-     * Get client IP address from request
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String ipAddress = request.getHeader("X-Forwarded-For");
-        
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getRemoteAddr();
-        }
-        
-        // If multiple IPs, take the first one
-        if (ipAddress != null && ipAddress.contains(",")) {
-            ipAddress = ipAddress.split(",")[0].trim();
-        }
-        
-        return ipAddress != null ? ipAddress : "127.0.0.1";
-    }
 }
@@ -3,8 +3,8 @@ package com.uniclub.controller;
 import com.uniclub.dto.request.Variant.CreateVariantRequest;
 import com.uniclub.dto.request.Variant.UpdateVariantRequest;
 import com.uniclub.dto.response.Variant.VariantResponse;
+import com.uniclub.service.ImageUploadService;
 import com.uniclub.service.VariantService;
-import com.uniclub.service.CloudinaryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +14,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +29,7 @@ public class VariantController {
     private VariantService variantService;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageUploadService imageUploadService;
 
     // CREATE
     @PostMapping
@@ -89,23 +90,8 @@ public class VariantController {
     public ResponseEntity<?> uploadVariantImage(@PathVariable Integer sku, 
                                                @RequestParam("file") MultipartFile file) {
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("File is empty");
-            }
-
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest().body("File must be an image");
-            }
-
-            // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                return ResponseEntity.badRequest().body("File size must be less than 5MB");
-            }
-
-            // Upload image to Cloudinary
-            String imageUrl = cloudinaryService.uploadImage(file, "uniclub/variants");
+            // Upload image to Cloudinary (validates size and magic bytes)
+            String imageUrl = imageUploadService.uploadImage(file, ImageUploadService.DEFAULT_FOLDER);
             
             // Update variant with new image URL
             VariantResponse updated = variantService.updateVariantImage(sku, imageUrl);
@@ -117,6 +103,8 @@ public class VariantController {
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Failed to upload image: " + e.getMessage());
         } catch (Exception e) {
@@ -124,6 +112,50 @@ public class VariantController {
         }
     }
 
+    // UPLOAD IMAGES FOR MANY VARIANTS: files[i] là ảnh của skus[i]
+    @PostMapping("/upload-images")
+    public ResponseEntity<?> uploadVariantImages(@RequestParam("skus") List<Integer> skus,
+                                                 @RequestParam("files") List<MultipartFile> files) {
+        if (skus.size() != files.size()) {
+            return ResponseEntity.badRequest().body("Number of skus and files must match");
+        }
+        try {
+            List<ImageUploadService.UploadResult> uploads =
+                    imageUploadService.uploadImages(files, ImageUploadService.DEFAULT_FOLDER);
+
+            List<Map<String, Object>> results = new ArrayList<>(uploads.size());
+            for (int i = 0; i < uploads.size(); i++) {
+                ImageUploadService.UploadResult upload = uploads.get(i);
+                Map<String, Object> result = new HashMap<>();
+                result.put("sku", skus.get(i));
+                result.put("filename", upload.filename());
+                if (!upload.success()) {
+                    result.put("error", upload.error());
+                } else {
+                    try {
+                        result.put("variant", variantService.updateVariantImage(skus.get(i), upload.url()));
+                        result.put("imageUrl", upload.url());
+                    } catch (RuntimeException e) {
+                        result.put("error", e.getMessage());
+                    }
+                }
+                results.add(result);
+            }
+
+            long updated = results.stream().filter(result -> !result.containsKey("error")).count();
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("message", updated + "/" + results.size() + " variant images uploaded");
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
+
     // DELETE
     @DeleteMapping("/{sku}")
     public ResponseEntity<Void> delete(@PathVariable Integer sku) {
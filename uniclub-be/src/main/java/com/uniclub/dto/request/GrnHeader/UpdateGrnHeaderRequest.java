@@ -1,6 +1,7 @@
 package com.uniclub.dto.request.GrnHeader;
 
 import lombok.Data;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import com.uniclub.entity.enums.GrnStatus;
 
@@ -13,4 +14,8 @@ public class UpdateGrnHeaderRequest {
 
     private LocalDate receivedDate;
     private GrnStatus status;
+
+    // Version đọc được cùng dữ liệu đang sửa, đã bị ghi tiếp thì trả 409
+    @NotNull(message = "Version không được để trống")
+    private Long version;
 }
@@ -2,6 +2,7 @@ package com.uniclub.dto.request.Payment;
 
 import lombok.Data;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import com.uniclub.entity.enums.PaymentStatus;
 
@@ -14,4 +15,8 @@ public class UpdatePaymentRequest {
     private Integer amount;
 
     private PaymentStatus paymentStatus;
+
+    // Version đọc được cùng dữ liệu đang sửa, đã bị ghi tiếp thì trả 409
+    @NotNull(message = "Version không được để trống")
+    private Long version;
 }
@@ -21,4 +21,8 @@ public class UpdateVariantRequest {
     private Integer price;
 
     private Byte status;
+
+    // Version đọc được cùng dữ liệu đang sửa, đã bị ghi tiếp thì trả 409
+    @NotNull(message = "Version không được để trống")
+    private Long version;
 }
@@ -0,0 +1,20 @@
+package com.uniclub.dto.response.Analytics;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesResponse {
+    private LocalDate date;
+    private long orders;
+    private long units;
+    private long revenue; // tổng tiền hàng (không gồm phí ship) của mọi đơn đặt trong ngày
+    private long cancelledOrders;
+    private long cancelledRevenue;
+    private long netRevenue; // revenue - cancelledRevenue
+}
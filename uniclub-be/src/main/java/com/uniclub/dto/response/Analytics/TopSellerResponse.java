@@ -0,0 +1,19 @@
+package com.uniclub.dto.response.Analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopSellerResponse {
+    private Integer id; // sku / id sản phẩm / id brand / id category tùy dimension
+    private String name;
+    private long orders;
+    private long units;
+    private long revenue;
+    private long cancelledOrders;
+    private long netUnits;
+    private long netRevenue;
+}
@@ -13,6 +13,7 @@ public class CartResponse {
     private Integer id;
     private Integer totalPrice;
     private Integer shippingFee;
+    private Integer itemCount;
     private String note;
     private Byte status;
     private LocalDateTime createdAt;
@@ -26,6 +27,7 @@ public class CartResponse {
                 .id(cart.getId())
                 .totalPrice(cart.getTotalPrice())
                 .shippingFee(cart.getShippingFee())
+                .itemCount(cart.getItemCount())
                 .note(cart.getNote())
                 .status(cart.getStatus())
                 .createdAt(cart.getCreatedAt())
@@ -0,0 +1,38 @@
+package com.uniclub.dto.response.Cart;
+
+import com.uniclub.cart.ActiveCart;
+import com.uniclub.cart.CartSummary;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tóm tắt giỏ hàng cho badge / mini-cart
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartSummaryResponse {
+
+    private Integer cartId;
+    private Integer userId;
+    private Integer itemCount;
+    private Integer lineCount;
+    private Integer subtotal;
+    private Integer shippingFee;
+    private Integer total;
+
+    public static CartSummaryResponse from(CartSummary summary) {
+        ActiveCart.Totals totals = summary.totals();
+        return CartSummaryResponse.builder()
+                .cartId(summary.cartId())
+                .userId(summary.userId())
+                .itemCount(totals.itemCount())
+                .lineCount(totals.lineCount())
+                .subtotal(totals.subtotal())
+                .shippingFee(totals.shippingFee())
+                .total(totals.total())
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.uniclub.dto.response.CartItem;
 
 import lombok.*;
 import java.time.LocalDateTime;
+import com.uniclub.cart.CartLine;
 import com.uniclub.entity.CartItem;
 
 @Data
@@ -31,4 +32,18 @@ public class CartItemResponse {
                 .variantSku(cartItem.getVariant() != null ? cartItem.getVariant().getSku() : null)
                 .build();
     }
+
+    // Dòng giỏ hàng trong bộ nhớ (CartStore)
+    public static CartItemResponse fromCartLine(Integer cartId, CartLine line) {
+        if (line == null) return null;
+        return CartItemResponse.builder()
+                .id(line.id())
+                .quantity(line.quantity())
+                .unitPrice(line.unitPrice())
+                .subtotal(line.subtotal())
+                .addedAt(line.addedAt())
+                .cartId(cartId)
+                .variantSku(line.sku())
+                .build();
+    }
 }
@@ -21,6 +21,7 @@ public class GrnHeaderResponse {
     private LocalDateTime updatedAt;
     private Integer supplierId;
     private String supplierName;
+    private Long version;
 
     //Hàm chuyển từ Entity sang DTO Response
     public static GrnHeaderResponse fromEntity(GrnHeader grnHeader) {
@@ -35,6 +36,7 @@ public class GrnHeaderResponse {
                 .updatedAt(grnHeader.getUpdatedAt())
                 .supplierId(grnHeader.getSupplier() != null ? grnHeader.getSupplier().getId() : null)
                 .supplierName(grnHeader.getSupplier() != null ? grnHeader.getSupplier().getName() : null)
+                .version(grnHeader.getVersion())
                 .build();
     }
 }
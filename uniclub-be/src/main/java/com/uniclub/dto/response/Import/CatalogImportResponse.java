@@ -0,0 +1,28 @@
+package com.uniclub.dto.response.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CatalogImportResponse {
+    private long totalRows;
+    private long productsCreated;
+    private long variantsCreated;
+    private long failedRows;
+    private List<RowError> errors = new ArrayList<>(); // tối đa app.catalog.import.max-errors dòng đầu tiên
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line; // số dòng trong file (CSV tính cả header)
+        private String message;
+    }
+}
@@ -0,0 +1,17 @@
+package com.uniclub.dto.response.Order;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponse {
+    private List<OrderResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // truyền lại vào ?cursor= để lấy trang tiếp theo
+}
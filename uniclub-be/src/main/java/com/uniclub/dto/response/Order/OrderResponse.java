@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.uniclub.dto.response.User.UserResponse;
 import com.uniclub.entity.Order;
+import com.uniclub.repository.projection.OrderSummaryView;
 
 import lombok.Data;
 
@@ -58,4 +59,35 @@ public class OrderResponse {
 
         return res;
     }
-}
\ No newline at end of file
+
+    // Dùng cho danh sách phân trang: build từ projection, không chạm entity/lazy load
+    public static OrderResponse fromView(OrderSummaryView view, List<OrderVariantResponse> orderVariants) {
+        OrderResponse res = new OrderResponse();
+
+        res.setId(view.getId());
+        res.setTotal(view.getTotal());
+        res.setShippingFee(view.getShippingFee());
+        res.setNote(view.getNote());
+        res.setRecipientName(view.getRecipientName());
+        res.setRecipientPhone(view.getRecipientPhone());
+        res.setShippingAddress(view.getShippingAddress());
+        res.setStatus(view.getStatus() != null ? view.getStatus().name() : null);
+        res.setPaymentExpiresAt(view.getPaymentExpiresAt());
+        res.setPaymentMethod(view.getPaymentMethod() != null ? view.getPaymentMethod().name() : "COD");
+
+        if (view.getUserId() != null) {
+            res.setUser(UserResponse.builder()
+                    .id(view.getUserId())
+                    .email(view.getUserEmail())
+                    .fullname(view.getUserFullname())
+                    .phone(view.getUserPhone())
+                    .build());
+        }
+
+        res.setOrderVariants(orderVariants);
+        res.setCreatedAt(view.getCreatedAt());
+        res.setUpdatedAt(view.getUpdatedAt());
+
+        return res;
+    }
+}
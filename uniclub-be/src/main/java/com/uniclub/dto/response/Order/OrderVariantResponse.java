@@ -1,6 +1,7 @@
 package com.uniclub.dto.response.Order;
 
 import com.uniclub.entity.OrderVariant;
+import com.uniclub.repository.projection.OrderLineView;
 
 import lombok.Data;
 
@@ -42,4 +43,17 @@ public class OrderVariantResponse {
         res.setPrice(ov.getPrice());
         return res;
     }
+
+    public static OrderVariantResponse fromView(OrderLineView line) {
+        OrderVariantResponse res = new OrderVariantResponse();
+        res.setVariantSku(line.getVariantSku());
+        res.setProductId(line.getProductId());
+        res.setProductName(line.getProductName());
+        res.setSizeName(line.getSizeName());
+        res.setColorName(line.getColorName());
+        res.setImages(line.getImages());
+        res.setQuantity(line.getQuantity());
+        res.setPrice(line.getPrice());
+        return res;
+    }
 }
@@ -30,6 +30,7 @@ public class PaymentResponse {
     private LocalDateTime updatedAt;
     
     private Integer orderId;
+    private Long version;
 
     //Hàm chuyển từ Entity sang DTO Response
     public static PaymentResponse fromEntity(Payment payment) {
@@ -44,6 +45,7 @@ public class PaymentResponse {
                 .createdAt(payment.getCreatedAt())
                 .updatedAt(payment.getUpdatedAt())
                 .orderId(payment.getOrder() != null ? payment.getOrder().getId() : null)
+                .version(payment.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,14 @@
+package com.uniclub.dto.response.Product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountResponse {
+    private Integer value; // id của brand/category/size/color, hoặc số thứ tự khoảng giá
+    private String label;  // chỉ có với khoảng giá, VD "200000-500000"
+    private int count;
+}
@@ -0,0 +1,19 @@
+package com.uniclub.dto.response.Product;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResponse {
+    private List<ProductResponse> content; // sản phẩm mới nhất trước
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, List<FacetCountResponse>> facets; // brand, category, size, color, price
+}
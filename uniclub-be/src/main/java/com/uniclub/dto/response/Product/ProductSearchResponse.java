@@ -0,0 +1,17 @@
+package com.uniclub.dto.response.Product;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductResponse> content; // đã xếp hạng theo độ liên quan
+    private int page;
+    private int size;
+    private long totalElements;
+}
@@ -18,6 +18,7 @@ public class VariantResponse {
     private Byte status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
 
     public static VariantResponse fromEntity(Variant variant) {
@@ -32,6 +33,7 @@ public class VariantResponse {
         response.setStatus(variant.getStatus());
         response.setCreatedAt(variant.getCreatedAt());
         response.setUpdatedAt(variant.getUpdatedAt());
+        response.setVersion(variant.getVersion());
 
         return response;
     }
@@ -27,12 +27,16 @@ public class Cart {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "total_price")
+    // Tổng tiền / phí ship / số lượng do CartStore tính cộng dồn và ghi bằng JDBC, JPA không ghi đè khi lưu cart
+    @Column(name = "total_price", updatable = false)
     private Integer totalPrice = 0;
 
-    @Column(name = "shipping_fee")
+    @Column(name = "shipping_fee", updatable = false)
     private Integer shippingFee = 0;
 
+    @Column(name = "item_count", updatable = false)
+    private Integer itemCount = 0;
+
     @Column(length = 255)
     private String note;
 
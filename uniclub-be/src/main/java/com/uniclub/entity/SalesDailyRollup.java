@@ -0,0 +1,59 @@
+package com.uniclub.entity;
+
+import java.time.LocalDate;
+
+import com.uniclub.entity.enums.SalesDimension;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tổng hợp doanh số theo ngày đặt đơn cho từng SKU / sản phẩm / brand / category (và TOTAL cho cả cửa hàng)
+ * Doanh thu = tổng quantity * price của dòng hàng (không gồm phí ship); cancelled_* là phần của các đơn đã hủy,
+ * doanh thu thuần = revenue - cancelled_revenue
+ * Được cập nhật cộng dồn trong transaction đổi trạng thái đơn (SalesRollupService), dựng lại được từ orders
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "sales_daily_rollup")
+@IdClass(SalesDailyRollupId.class) // composite key
+public class SalesDailyRollup {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private SalesDimension dimension;
+
+    @Id
+    @Column(name = "dim_id")
+    private Integer dimId;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount = 0;
+
+    @Column(nullable = false)
+    private Long units = 0L;
+
+    @Column(nullable = false)
+    private Long revenue = 0L;
+
+    @Column(name = "cancelled_orders", nullable = false)
+    private Integer cancelledOrders = 0;
+
+    @Column(name = "cancelled_units", nullable = false)
+    private Long cancelledUnits = 0L;
+
+    @Column(name = "cancelled_revenue", nullable = false)
+    private Long cancelledRevenue = 0L;
+}
@@ -0,0 +1,15 @@
+package com.uniclub.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import com.uniclub.entity.enums.SalesDimension;
+
+import lombok.Data;
+
+@Data
+public class SalesDailyRollupId implements Serializable {
+    private LocalDate salesDate;
+    private SalesDimension dimension;
+    private Integer dimId;
+}
@@ -16,8 +16,11 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
@@ -48,6 +51,10 @@ public class Variant {
             columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "id_product", nullable = false,
@@ -64,6 +71,9 @@ public class Variant {
             foreignKey = @ForeignKey(name = "FK_variant_color"))
     private Color color;
 
+    // Quan hệ ngược: không đưa vào equals/hashCode/toString để tránh đệ quy Variant <-> OrderVariant
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "variant", fetch = FetchType.LAZY)
     private Set<OrderVariant> orderVariants;
 
@@ -0,0 +1,17 @@
+package com.uniclub.entity.enums;
+
+public enum SalesDimension {
+    TOTAL,    // toàn cửa hàng, dim_id = 0
+    SKU,
+    PRODUCT,
+    BRAND,
+    CATEGORY;
+
+    public static SalesDimension parse(String value) {
+        try {
+            return SalesDimension.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Dimension không hợp lệ: " + value + " (sku | product | brand | category)");
+        }
+    }
+}
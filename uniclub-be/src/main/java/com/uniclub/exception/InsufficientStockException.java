@@ -0,0 +1,22 @@
+package com.uniclub.exception;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exception thrown when one or more variants cannot cover the requested quantity
+ * Extends IllegalArgumentException so it keeps mapping to 400 Bad Request
+ */
+public class InsufficientStockException extends IllegalArgumentException {
+    private final List<Integer> failedSkus;
+
+    public InsufficientStockException(List<Integer> failedSkus) {
+        super("Sản phẩm " + failedSkus.stream().map(String::valueOf).collect(Collectors.joining(", "))
+                + " không đủ số lượng");
+        this.failedSkus = List.copyOf(failedSkus);
+    }
+
+    public List<Integer> getFailedSkus() {
+        return failedSkus;
+    }
+}
@@ -0,0 +1,12 @@
+package com.uniclub.exception;
+
+/**
+ * Exception thrown when an email or client IP exceeds the allowed number of
+ * verification attempts within the rate-limit window (HTTP 429)
+ */
+public class TooManyAttemptsException extends RuntimeException {
+
+    public TooManyAttemptsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,110 @@
+package com.uniclub.image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+
+/**
+ * Lưu ảnh trên Cloudinary; SDK stream file từ đĩa khi upload
+ * open() chỉ tải https từ host Cloudinary của đúng cloud này (URL lấy từ Variant.images, ai cũng sửa được),
+ * không theo redirect và từ chối ảnh lớn hơn giới hạn upload
+ */
+@Component
+@ConditionalOnProperty(name = "app.image.store", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStore implements ImageStore {
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private Cloudinary cloudinary;
+
+    @Value("${app.image.cloudinary-host:res.cloudinary.com}")
+    private String deliveryHost;
+
+    @Value("${spring.servlet.multipart.max-file-size:5MB}")
+    private DataSize maxOriginalSize;
+
+    @Override
+    public String save(File file, String folder) throws IOException {
+        Map<?, ?> uploadResult = cloudinary.uploader().upload(
+            file,
+            ObjectUtils.asMap(
+                "folder", folder,
+                "resource_type", "image",
+                "transformation", "f_auto,q_auto"
+            )
+        );
+        return (String) uploadResult.get("secure_url");
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        URI uri = deliveryUri(url);
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("Cannot fetch image " + uri + ": HTTP " + status);
+        }
+        if (connection.getContentLengthLong() > maxOriginalSize.toBytes()) {
+            connection.disconnect();
+            throw new IllegalArgumentException("Image is larger than " + maxOriginalSize);
+        }
+        return connection.getInputStream();
+    }
+
+    private URI deliveryUri(String url) {
+        URI uri;
+        try {
+            uri = url == null ? null : URI.create(url).normalize();
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        String cloudPath = "/" + cloudinary.config.cloudName + "/";
+        if (uri == null || !"https".equalsIgnoreCase(uri.getScheme()) || !deliveryHost.equalsIgnoreCase(uri.getHost())
+                || uri.getPort() != -1 || uri.getUserInfo() != null
+                || uri.getPath() == null || !uri.getPath().startsWith(cloudPath)) {
+            throw new IllegalArgumentException("Invalid image URL");
+        }
+        return uri;
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        String publicId = getPublicIdFromUrl(url);
+        if (publicId == null) {
+            throw new IllegalArgumentException("Invalid image URL");
+        }
+        cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+    }
+
+    static String getPublicIdFromUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+
+        // Extract public ID from Cloudinary URL
+        // Example: https://res.cloudinary.com/your-cloud/image/upload/v1234567890/uniclub/variants/abc123.jpg
+        // Returns: uniclub/variants/abc123
+        String[] parts = url.split("/");
+        if (parts.length >= 2) {
+            return parts[parts.length - 2] + "/" + parts[parts.length - 1].split("\\.")[0];
+        }
+        return null;
+    }
+}
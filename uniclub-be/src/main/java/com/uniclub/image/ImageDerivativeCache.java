@@ -0,0 +1,205 @@
+package com.uniclub.image;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache ảnh dẫn xuất trên đĩa, định danh theo nội dung: file "<sha256 ảnh gốc>-<size>.<ext>"
+ * Cùng một ảnh gốc (dù upload nhiều lần) dùng chung dẫn xuất; ETag mạnh suy ra từ tên file
+ * Tổng dung lượng bị giới hạn bởi app.image.cache.max-size, vượt quá thì xóa file ít được dùng nhất (LRU)
+ * Khi khởi động, nạp lại các file đã có theo thứ tự thời gian sửa đổi
+ */
+@Slf4j
+@Component
+public class ImageDerivativeCache {
+
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})-(thumbnail|medium|large)\\.(jpg|png|gif|webp)");
+
+    /**
+     * Dẫn xuất đã có trên đĩa
+     */
+    public record CachedImage(Path path, String etag, String contentType, long length) {
+    }
+
+    private record Entry(Path path, String extension, long length) {
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // access-order: phần tử đầu là ít được dùng nhất
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public ImageDerivativeCache(@Value("${app.image.cache.dir:${java.io.tmpdir}/uniclub-image-cache}") Path dir,
+                                @Value("${app.image.cache.max-size:512MB}") DataSize maxSize,
+                                MeterRegistry meterRegistry) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.maxBytes = maxSize.toBytes();
+        load();
+
+        Gauge.builder("image.cache.bytes", this, ImageDerivativeCache::totalBytes)
+                .description("Dung lượng cache ảnh dẫn xuất trên đĩa")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("image.cache.files", this, ImageDerivativeCache::size)
+                .description("Số file trong cache ảnh dẫn xuất")
+                .register(meterRegistry);
+    }
+
+    public Optional<CachedImage> get(String hash, ImageSize size) {
+        String key = key(hash, size);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new CachedImage(entry.path(), "\"" + key + "\"", contentType(entry.extension()), entry.length()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean containsAll(String hash) {
+        lock.lock();
+        try {
+            for (ImageSize size : ImageSize.values()) {
+                if (!entries.containsKey(key(hash, size))) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ghi dẫn xuất (ghi file tạm rồi move nguyên tử), sau đó evict LRU nếu vượt dung lượng
+     */
+    public void put(String hash, ImageSize size, byte[] data, String extension) throws IOException {
+        String key = key(hash, size);
+        Path target = dir.resolve(key + "." + extension);
+        Path temp = Files.createTempFile(dir, key, ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        List<Path> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(target, extension, data.length));
+            if (previous != null) {
+                totalBytes -= previous.length();
+                if (!previous.path().equals(target)) {
+                    evicted.add(previous.path());
+                }
+            }
+            totalBytes += data.length;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    continue; // Không evict chính file vừa ghi
+                }
+                totalBytes -= eldest.getValue().length();
+                evicted.add(eldest.getValue().path());
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Path path : evicted) {
+            Files.deleteIfExists(path);
+        }
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted {} image derivatives, cache size {} bytes", evicted.size(), totalBytes());
+        }
+    }
+
+    public long totalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        record Existing(String key, Entry entry, FileTime modified) {
+        }
+        List<Existing> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(path); // File tạm của lần ghi dở trước khi tắt
+                    continue;
+                }
+                Matcher matcher = FILE_NAME.matcher(name);
+                if (matcher.matches()) {
+                    String key = matcher.group(1) + "-" + matcher.group(2);
+                    existing.add(new Existing(key, new Entry(path, matcher.group(3), Files.size(path)),
+                            Files.getLastModifiedTime(path)));
+                }
+            }
+        }
+        existing.sort(Comparator.comparing(Existing::modified));
+        for (Existing e : existing) {
+            entries.put(e.key(), e.entry());
+            totalBytes += e.entry().length();
+        }
+        if (!existing.isEmpty()) {
+            log.info("Image derivative cache loaded {} files ({} bytes) from {}", existing.size(), totalBytes, dir);
+        }
+    }
+
+    private static String key(String hash, ImageSize size) {
+        return hash + "-" + size.pathName();
+    }
+
+    private static String contentType(String extension) {
+        return switch (extension) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "image/jpeg";
+        };
+    }
+}
@@ -0,0 +1,198 @@
+package com.uniclub.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uniclub.util.ImageTypeDetector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ảnh dẫn xuất (thumbnail/medium/large) của ảnh gốc trong ImageStore:
+ * - Lúc upload: register() tạo dẫn xuất từ file gốc đang có trên đĩa
+ * - Lần đầu được yêu cầu (ảnh cũ, hoặc dẫn xuất đã bị evict): tải ảnh gốc từ store rồi tạo
+ * URL -> hash nội dung được nhớ trong AsyncCache nên nhiều request cùng lúc cho một ảnh chỉ tải/tạo một lần
+ * Ảnh gốc tải về bị giới hạn maxOriginalSize, số ảnh decode cùng lúc bị giới hạn maxConcurrentDecodes
+ * (mỗi lần decode giữ cả ảnh trên heap, virtual thread không tự giới hạn)
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private final ImageStore imageStore;
+    private final ImageDerivativeCache cache;
+    private final AsyncCache<String, String> hashesByUrl;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long maxOriginalBytes;
+    private final long maxPixels;
+    private final Semaphore decodes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ImageDerivativeService(ImageStore imageStore, ImageDerivativeCache cache, MeterRegistry meterRegistry,
+                                  @Value("${app.image.index-size:10000}") long indexSize,
+                                  @Value("${spring.servlet.multipart.max-file-size:5MB}") DataSize maxOriginalSize,
+                                  @Value("${app.image.max-pixels:50000000}") long maxPixels,
+                                  @Value("${app.image.max-concurrent-decodes:4}") int maxConcurrentDecodes) {
+        this.imageStore = imageStore;
+        this.cache = cache;
+        this.maxOriginalBytes = maxOriginalSize.toBytes();
+        this.maxPixels = maxPixels;
+        this.decodes = new Semaphore(maxConcurrentDecodes);
+        this.hashesByUrl = Caffeine.newBuilder().maximumSize(indexSize).executor(executor).buildAsync();
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("image.derivative.requests")
+                .description("Yêu cầu ảnh dẫn xuất: hit = có sẵn trong cache, miss = phải tạo lại")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tạo dẫn xuất từ file gốc vừa upload và ghi nhớ URL của nó
+     */
+    public void register(String url, Path original) throws IOException {
+        String hash = generate(original);
+        hashesByUrl.put(url, CompletableFuture.completedFuture(hash));
+    }
+
+    /**
+     * Dẫn xuất của ảnh theo URL gốc, tạo nếu chưa có
+     */
+    public ImageDerivativeCache.CachedImage get(String url, ImageSize size) throws IOException {
+        String hash = await(hashesByUrl.get(url, (key, ignored) ->
+                CompletableFuture.supplyAsync(() -> fetchAndGenerate(key), executor)));
+        Optional<ImageDerivativeCache.CachedImage> cached = cache.get(hash, size);
+        if (cached.isPresent()) {
+            hits.increment();
+            return cached.get();
+        }
+
+        // Dẫn xuất đã bị evict khỏi đĩa: tạo lại từ ảnh gốc
+        misses.increment();
+        hash = fetchAndGenerate(url);
+        hashesByUrl.put(url, CompletableFuture.completedFuture(hash));
+        return cache.get(hash, size)
+                .orElseThrow(() -> new IllegalStateException("Image derivative evicted right after generation, cache too small"));
+    }
+
+    private String fetchAndGenerate(String url) {
+        try {
+            Path original = Files.createTempFile("image-original-", ".tmp");
+            try {
+                try (InputStream in = imageStore.open(url); OutputStream out = Files.newOutputStream(original)) {
+                    copyLimited(in, out);
+                }
+                return generate(original);
+            } finally {
+                Files.deleteIfExists(original);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hash nội dung ảnh gốc rồi tạo các dẫn xuất còn thiếu; ảnh có cùng nội dung dùng lại dẫn xuất đã có
+     */
+    private String generate(Path original) throws IOException {
+        String hash = sha256(original);
+        if (cache.containsAll(hash)) {
+            return hash;
+        }
+
+        Map<ImageSize, ImageResizer.Derivative> derivatives;
+        decodes.acquireUninterruptibly();
+        try (InputStream in = Files.newInputStream(original)) {
+            derivatives = ImageResizer.resizeAll(in, maxPixels);
+        } finally {
+            decodes.release();
+        }
+        if (derivatives != null) {
+            for (Map.Entry<ImageSize, ImageResizer.Derivative> entry : derivatives.entrySet()) {
+                cache.put(hash, entry.getKey(), entry.getValue().data(), entry.getValue().extension());
+            }
+        } else {
+            // ImageIO không decode được (VD: WebP): mọi kích thước dùng ảnh gốc
+            byte[] data = Files.readAllBytes(original);
+            String mimeType = ImageTypeDetector.detect(data)
+                    .orElseThrow(() -> new IllegalArgumentException("File must be an image"));
+            String extension = mimeType.substring(mimeType.indexOf('/') + 1).replace("jpeg", "jpg");
+            log.debug("Cannot decode {} image {}, serving original for all sizes", mimeType, hash);
+            for (ImageSize size : ImageSize.values()) {
+                cache.put(hash, size, data, extension);
+            }
+        }
+        return hash;
+    }
+
+    private void copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        for (int read; (read = in.read(buffer)) != -1; ) {
+            total += read;
+            if (total > maxOriginalBytes) {
+                throw new IllegalArgumentException("Image is larger than " + DataSize.ofBytes(maxOriginalBytes));
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
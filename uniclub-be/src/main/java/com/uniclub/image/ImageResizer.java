@@ -0,0 +1,120 @@
+package com.uniclub.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Tạo ảnh dẫn xuất bằng ImageIO: ảnh có kênh alpha giữ PNG, còn lại JPEG chất lượng 0.85
+ * Định dạng ImageIO không đọc được (VD: WebP) thì trả về null để dùng ảnh gốc
+ * Kích thước được đọc từ header trước khi decode: ảnh quá maxPixels bị từ chối (ảnh nén nhỏ nhưng giải nén hàng GB),
+ * ảnh lớn được decode lấy mẫu thưa (subsampling) xuống gần kích thước dẫn xuất lớn nhất
+ */
+final class ImageResizer {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private static final int LARGEST_WIDTH = Arrays.stream(ImageSize.values()).mapToInt(ImageSize::getMaxWidth).max().orElseThrow();
+
+    record Derivative(byte[] data, String extension) {
+    }
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Decode ảnh gốc một lần rồi tạo đủ các kích thước
+     */
+    static Map<ImageSize, Derivative> resizeAll(InputStream original, long maxPixels) throws IOException {
+        BufferedImage source = decode(original, maxPixels);
+        if (source == null) {
+            return null;
+        }
+        Map<ImageSize, Derivative> derivatives = new EnumMap<>(ImageSize.class);
+        for (ImageSize size : ImageSize.values()) {
+            derivatives.put(size, encode(scale(source, size.getMaxWidth())));
+        }
+        return derivatives;
+    }
+
+    private static BufferedImage decode(InputStream original, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image is too large: " + width + "x" + height);
+                }
+                // Bước lấy mẫu giữ chiều rộng sau decode >= dẫn xuất lớn nhất, cùng bước cho hai chiều để giữ tỉ lệ
+                int step = Math.max(1, width / LARGEST_WIDTH);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxWidth) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static Derivative encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return new Derivative(out.toByteArray(), "png");
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Derivative(out.toByteArray(), "jpg");
+    }
+}
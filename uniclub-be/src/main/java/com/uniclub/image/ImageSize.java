@@ -0,0 +1,35 @@
+package com.uniclub.image;
+
+import java.util.Locale;
+
+/**
+ * Các kích thước ảnh dẫn xuất (chiều rộng tối đa, giữ tỉ lệ, không phóng to ảnh nhỏ hơn)
+ */
+public enum ImageSize {
+    THUMBNAIL(150),
+    MEDIUM(480),
+    LARGE(1080);
+
+    private final int maxWidth;
+
+    ImageSize(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public String pathName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ImageSize fromPath(String value) {
+        for (ImageSize size : values()) {
+            if (size.pathName().equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Unknown image size: " + value + " (thumbnail, medium, large)");
+    }
+}
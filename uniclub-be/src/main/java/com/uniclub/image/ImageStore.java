@@ -0,0 +1,27 @@
+package com.uniclub.image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Nơi lưu ảnh gốc (mặc định CloudinaryImageStore; LocalImageStore lưu trên đĩa, dùng cho local/test)
+ * Chọn bằng app.image.store = cloudinary | local
+ */
+public interface ImageStore {
+
+    /**
+     * Lưu file ảnh vào folder, trả về URL công khai của ảnh
+     */
+    String save(File file, String folder) throws IOException;
+
+    /**
+     * Mở stream đọc ảnh gốc theo URL do save() trả về
+     */
+    InputStream open(String url) throws IOException;
+
+    /**
+     * Xóa ảnh theo URL, IllegalArgumentException nếu URL không thuộc store này
+     */
+    void delete(String url) throws IOException;
+}
@@ -0,0 +1,66 @@
+package com.uniclub.image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lưu ảnh gốc trong thư mục local (app.image.local.dir), URL là file: URI
+ * Dùng khi chạy local không có Cloudinary và trong test
+ */
+@Component
+@ConditionalOnProperty(name = "app.image.store", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+
+    private final Path root;
+
+    public LocalImageStore(@Value("${app.image.local.dir:${java.io.tmpdir}/uniclub-images}") Path root) throws IOException {
+        this.root = Files.createDirectories(root).toRealPath();
+    }
+
+    @Override
+    public String save(File file, String folder) throws IOException {
+        Path dir = Files.createDirectories(resolve(root.resolve(folder)));
+        String name = file.getName();
+        String extension = name.contains(".") ? name.substring(name.lastIndexOf('.')) : "";
+        Path target = dir.resolve(UUID.randomUUID() + extension);
+        Files.copy(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        return target.toUri().toString();
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        return Files.newInputStream(pathOf(url));
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        Files.deleteIfExists(pathOf(url));
+    }
+
+    private Path pathOf(String url) {
+        if (url == null || !url.startsWith("file:")) {
+            throw new IllegalArgumentException("Invalid image URL");
+        }
+        return resolve(Paths.get(URI.create(url)));
+    }
+
+    // Chỉ cho phép đường dẫn nằm trong thư mục gốc
+    private Path resolve(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid image URL");
+        }
+        return normalized;
+    }
+}
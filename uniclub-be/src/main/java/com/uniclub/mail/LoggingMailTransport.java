@@ -0,0 +1,20 @@
+package com.uniclub.mail;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chỉ ghi log nội dung email, dùng khi chạy local không có SendGrid (app.mail.transport=log)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.mail.transport", havingValue = "log")
+public class LoggingMailTransport implements MailTransport {
+
+    @Override
+    public void send(MailMessage message) {
+        log.info("📧 [mail:log] to={} subject={}\n{}", message.to(), message.subject(), message.body());
+    }
+}
@@ -0,0 +1,7 @@
+package com.uniclub.mail;
+
+/**
+ * Một email text/plain cần gửi
+ */
+public record MailMessage(String to, String subject, String body) {
+}
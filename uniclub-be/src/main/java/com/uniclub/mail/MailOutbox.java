@@ -0,0 +1,175 @@
+package com.uniclub.mail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hàng đợi gửi email trong bộ nhớ: request chỉ enqueue rồi trả về ngay, một nhóm worker virtual thread cố định
+ * gửi qua MailTransport, lỗi thì thử lại với backoff lũy thừa (đưa lại vào DelayQueue, worker không bị chặn)
+ * Có giới hạn số email chờ (kể cả email đang chờ retry) để provider chậm không làm phình bộ nhớ
+ */
+@Slf4j
+@Component
+public class MailOutbox {
+
+    private final MailTransport transport;
+    private final int capacity;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final DelayQueue<Envelope> queue = new DelayQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Timer deliveryTimer;
+    private final Counter retried;
+    private final Counter dropped;
+    private final Counter rejected;
+
+    public MailOutbox(MailTransport transport, MeterRegistry meterRegistry,
+                      @Value("${app.mail.outbox.capacity:1000}") int capacity,
+                      @Value("${app.mail.outbox.workers:4}") int workerCount,
+                      @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+                      @Value("${app.mail.outbox.initial-backoff:2s}") Duration initialBackoff,
+                      @Value("${app.mail.outbox.max-backoff:1m}") Duration maxBackoff) {
+        this.transport = transport;
+        this.capacity = capacity;
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("mail.outbox.depth", pending, AtomicInteger::get)
+                .description("Số email đang chờ gửi (kể cả chờ retry)")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("mail.delivery")
+                .description("Thời gian từ lúc enqueue tới khi gửi thành công")
+                .register(meterRegistry);
+        this.retried = failureCounter(meterRegistry, "retry");
+        this.dropped = failureCounter(meterRegistry, "dropped");
+        this.rejected = failureCounter(meterRegistry, "rejected");
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("mail.delivery.failures")
+                .description("Lần gửi lỗi: retry = sẽ thử lại, dropped = hết lượt thử, rejected = outbox đầy")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("mail-outbox-" + i).start(this::work));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+        if (pending.get() > 0) {
+            log.warn("Mail outbox stopped with {} undelivered emails", pending.get());
+        }
+    }
+
+    /**
+     * Đưa email vào hàng đợi, trả về false nếu outbox đã đầy
+     */
+    public boolean enqueue(MailMessage message) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            log.warn("Mail outbox full ({}), dropping email to {}", capacity, message.to());
+            return false;
+        }
+        queue.offer(new Envelope(message, 1, System.currentTimeMillis(), System.nanoTime(), sequence.incrementAndGet()));
+        return true;
+    }
+
+    public int depth() {
+        return pending.get();
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                deliver(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(Envelope envelope) {
+        try {
+            transport.send(envelope.message());
+            deliveryTimer.record(System.nanoTime() - envelope.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            pending.decrementAndGet();
+        } catch (Exception e) {
+            if (envelope.attempt() < maxAttempts) {
+                long backoffMillis = backoffMillis(envelope.attempt());
+                retried.increment();
+                log.warn("Sending email to {} failed (attempt {}/{}), retrying in {} ms: {}",
+                        envelope.message().to(), envelope.attempt(), maxAttempts, backoffMillis, e.getMessage());
+                queue.offer(envelope.retryAt(System.currentTimeMillis() + backoffMillis, sequence.incrementAndGet()));
+            } else {
+                dropped.increment();
+                pending.decrementAndGet();
+                log.error("Giving up sending email to {} after {} attempts", envelope.message().to(), maxAttempts, e);
+            }
+        }
+    }
+
+    // initialBackoff * 2^(attempt - 1), chặn trên bởi maxBackoff
+    private long backoffMillis(int attempt) {
+        long backoff = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        return Math.min(backoff, maxBackoff.toMillis());
+    }
+
+    private record Envelope(MailMessage message, int attempt, long dueAtMillis, long enqueuedNanos, long seq)
+            implements Delayed {
+
+        Envelope retryAt(long dueAt, long nextSeq) {
+            return new Envelope(message, attempt + 1, dueAt, enqueuedNanos, nextSeq);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Envelope envelope) {
+                int byTime = Long.compare(dueAtMillis, envelope.dueAtMillis);
+                return byTime != 0 ? byTime : Long.compare(seq, envelope.seq);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.uniclub.mail;
+
+import java.io.IOException;
+
+/**
+ * Kênh gửi email thật sự (SendGrid, log, stub trong test)
+ * Lỗi ném ra sẽ được MailOutbox thử lại với backoff
+ */
+public interface MailTransport {
+
+    void send(MailMessage message) throws IOException;
+}
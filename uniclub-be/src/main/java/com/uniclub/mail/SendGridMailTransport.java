@@ -0,0 +1,48 @@
+package com.uniclub.mail;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+
+/**
+ * Gửi qua SendGrid REST API
+ * Dùng chung một client (và pool HTTP connection bên trong) thay vì tạo SendGrid mới mỗi email
+ */
+@Component
+@ConditionalOnProperty(name = "app.mail.transport", havingValue = "sendgrid", matchIfMissing = true)
+public class SendGridMailTransport implements MailTransport {
+
+    private final SendGrid sendGrid;
+    private final Email from;
+
+    public SendGridMailTransport(@Value("${sendgrid.api-key}") String apiKey,
+                                 @Value("${app.mail.from}") String fromEmail) {
+        this.sendGrid = new SendGrid(apiKey);
+        this.from = new Email(fromEmail, "UniClub");
+    }
+
+    @Override
+    public void send(MailMessage message) throws IOException {
+        Mail mail = new Mail(from, message.subject(), new Email(message.to()), new Content("text/plain", message.body()));
+
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+
+        Response response = sendGrid.api(request);
+        if (response.getStatusCode() >= 400) {
+            throw new IOException("SendGrid API error " + response.getStatusCode() + ": " + response.getBody());
+        }
+    }
+}
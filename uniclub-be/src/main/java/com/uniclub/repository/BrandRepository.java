@@ -1,8 +1,14 @@
 package com.uniclub.repository;
 
+import com.uniclub.config.HibernateCacheConfig;
 import com.uniclub.entity.Brand;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface BrandRepository extends JpaRepository<Brand, Integer>{
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.REFERENCE_LOOKUPS)})
     boolean existsByNameIgnoreCase(String name);
 }
@@ -11,8 +11,10 @@ import com.uniclub.entity.Cart;
 
 public interface CartRepository extends JpaRepository<Cart, Integer>{
     
-    // ✅ Eager load User khi tìm theo userId  
-    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.user WHERE c.user.id = :userId")
+    // ✅ Eager load User khi tìm theo userId
+    // id_user bắt buộc nên JOIN thường: optimizer đi từ user (PK) sang cart qua unique index id_user,
+    // LEFT JOIN thì bảng cart luôn được đọc trước và bị quét toàn bộ
+    @Query("SELECT c FROM Cart c JOIN FETCH c.user u WHERE u.id = :userId")
     Optional<Cart> findByUserId(@Param("userId") Integer userId);
     
     // ✅ Check existence
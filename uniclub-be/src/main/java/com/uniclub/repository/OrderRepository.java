@@ -1,14 +1,26 @@
 package com.uniclub.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.uniclub.entity.Order;
 import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.repository.projection.ExpiredPaymentView;
+import com.uniclub.repository.projection.OrderExpiryView;
+import com.uniclub.repository.projection.OrderSummaryView;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
@@ -19,4 +31,53 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByStatus(@Param("status") OrderStatus status);
     
     boolean existsByUserId(Integer userId);
+
+    // Range scan trên (status, payment_expires_at): chỉ đọc đơn có hạn thanh toán trước mốc cho trước
+    @Query("SELECT o.id AS id, o.paymentExpiresAt AS paymentExpiresAt FROM Order o "
+            + "WHERE o.status = :status AND o.paymentExpiresAt < :before")
+    List<OrderExpiryView> findExpiriesBefore(@Param("status") OrderStatus status,
+                                             @Param("before") LocalDateTime before);
+
+    // Khóa các đơn (và payment mới nhất) thật sự hết hạn trong 1 chunk, theo thứ tự id để tránh deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS orderId, p.id AS paymentId FROM Payment p JOIN p.order o "
+            + "WHERE o.id IN :orderIds AND o.status = :status AND o.paymentExpiresAt <= :now "
+            + "AND p.paymentMethod = :method AND p.paymentStatus <> :paidStatus "
+            + "AND p.id = (SELECT MAX(p2.id) FROM Payment p2 WHERE p2.order = o) "
+            + "ORDER BY o.id")
+    List<ExpiredPaymentView> lockExpiredPayments(@Param("orderIds") Collection<Integer> orderIds,
+                                                 @Param("status") OrderStatus status,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("method") PaymentMethod method,
+                                                 @Param("paidStatus") PaymentStatus paidStatus);
+
+    // Cập nhật hàng loạt không qua entity: tự tăng version để các transaction đang giữ bản cũ bị từ chối
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = CURRENT_TIMESTAMP, "
+            + "o.version = o.version + 1 WHERE o.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Integer> ids, @Param("status") OrderStatus status);
+
+    // Keyset (seek) pagination trên (created_at, id): chỉ đọc các dòng sau cursor, không OFFSET
+    // Payment method lấy từ payment đầu tiên của đơn, giống enrichOrderResponseWithPaymentMethod
+    @Query("SELECT o.id AS id, o.total AS total, o.shippingFee AS shippingFee, o.note AS note, "
+            + "o.recipientName AS recipientName, o.recipientPhone AS recipientPhone, o.shippingAddress AS shippingAddress, "
+            + "o.status AS status, o.paymentExpiresAt AS paymentExpiresAt, o.createdAt AS createdAt, o.updatedAt AS updatedAt, "
+            + "u.id AS userId, u.email AS userEmail, u.fullname AS userFullname, u.phone AS userPhone, "
+            + "(SELECT p.paymentMethod FROM Payment p WHERE p.id = "
+            + "(SELECT MIN(p2.id) FROM Payment p2 WHERE p2.order.id = o.id)) AS paymentMethod "
+            + "FROM Order o LEFT JOIN o.user u "
+            + "WHERE (:status IS NULL OR o.status = :status) "
+            + "AND (:userId IS NULL OR o.user.id = :userId) "
+            + "AND (:fromDate IS NULL OR o.createdAt >= :fromDate) "
+            + "AND (:toDate IS NULL OR o.createdAt < :toDate) "
+            + "AND (:cursorCreatedAt IS NULL OR o.createdAt < :cursorCreatedAt "
+            + "OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryView> findPageByKeyset(@Param("status") OrderStatus status,
+                                            @Param("userId") Integer userId,
+                                            @Param("fromDate") LocalDateTime fromDate,
+                                            @Param("toDate") LocalDateTime toDate,
+                                            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                            @Param("cursorId") Integer cursorId,
+                                            Pageable pageable);
 }
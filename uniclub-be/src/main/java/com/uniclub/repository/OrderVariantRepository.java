@@ -3,11 +3,14 @@ package com.uniclub.repository;
 import com.uniclub.entity.Order;
 import com.uniclub.entity.OrderVariant;
 import com.uniclub.entity.OrderVariantId;
+import com.uniclub.repository.projection.OrderLineView;
+import com.uniclub.repository.projection.SkuQuantityView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,4 +19,16 @@ public interface OrderVariantRepository extends JpaRepository<OrderVariant, Orde
     
     @Query("SELECT ov FROM OrderVariant ov WHERE ov.order.id = :orderId")
     List<OrderVariant> findByOrderId(@Param("orderId") Integer orderId);
+
+    // Lấy dòng hàng của nhiều đơn trong 1 query (dùng cho danh sách phân trang)
+    @Query("SELECT ov.order.id AS orderId, v.sku AS variantSku, p.id AS productId, p.name AS productName, "
+            + "s.name AS sizeName, c.name AS colorName, v.images AS images, ov.quantity AS quantity, ov.price AS price "
+            + "FROM OrderVariant ov JOIN ov.variant v LEFT JOIN v.product p LEFT JOIN v.size s LEFT JOIN v.color c "
+            + "WHERE ov.order.id IN :orderIds")
+    List<OrderLineView> findLinesByOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Cộng dồn số lượng theo SKU của nhiều đơn (hoàn kho theo lô)
+    @Query("SELECT ov.variant.sku AS sku, SUM(ov.quantity) AS quantity FROM OrderVariant ov "
+            + "WHERE ov.order.id IN :orderIds GROUP BY ov.variant.sku")
+    List<SkuQuantityView> sumQuantityBySkuForOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
 }
@@ -1,10 +1,13 @@
 package com.uniclub.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.uniclub.entity.Payment;
@@ -22,5 +25,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     // Get latest payment for an order (sorted by created_at descending)
     @Query("SELECT p FROM Payment p WHERE p.order.id = ?1 ORDER BY p.createdAt DESC LIMIT 1")
     Optional<Payment> findLatestByOrderId(Integer orderId);
+
+    // Payment mới nhất của đơn kèm đơn, không khóa dòng: ghi trạng thái dựa vào @Version của Payment / Order
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order o WHERE o.id = :orderId AND p.paymentMethod = :method "
+            + "AND p.id = (SELECT MAX(p2.id) FROM Payment p2 WHERE p2.order = o AND p2.paymentMethod = :method)")
+    Optional<Payment> findLatestWithOrderByOrderId(@Param("orderId") Integer orderId, @Param("method") PaymentMethod method);
+
+    // Cập nhật hàng loạt không qua entity: tự tăng version để các transaction đang giữ bản cũ bị từ chối
+    @Modifying
+    @Query("UPDATE Payment p SET p.paymentStatus = :status, p.updatedAt = CURRENT_TIMESTAMP, "
+            + "p.version = p.version + 1 WHERE p.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Integer> ids, @Param("status") PaymentStatus status);
 }
 
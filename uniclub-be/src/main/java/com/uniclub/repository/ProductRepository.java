@@ -2,6 +2,7 @@ package com.uniclub.repository;
 
 import com.uniclub.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +16,8 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     List<Product> findByCategory_Id(Integer categoryId);
 
     boolean existsByNameIgnoreCase(String name);
+
+    // Nạp search index: brand + category trong cùng 1 query
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.category")
+    List<Product> findAllWithBrandAndCategory();
 }
@@ -1,8 +1,12 @@
 package com.uniclub.repository;
 
 import com.uniclub.entity.Variant;
+import com.uniclub.repository.projection.VariantFacetView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VariantRepository extends JpaRepository<Variant, Integer>{
@@ -14,4 +18,17 @@ public interface VariantRepository extends JpaRepository<Variant, Integer>{
     List<Variant> findBySizeId(Integer sizeId);
 
     List<Variant> findByColorId(Integer colorId);
+
+    // Load nhiều variant trong 1 query, kèm product/size/color để tránh lazy load từng dòng
+    @Query("SELECT v FROM Variant v LEFT JOIN FETCH v.product LEFT JOIN FETCH v.size LEFT JOIN FETCH v.color WHERE v.sku IN :skus")
+    List<Variant> findAllWithDetailsBySkuIn(@Param("skus") Collection<Integer> skus);
+
+    // Facet index: size/color/giá của variant, LEFT JOIN vì size/color có thể null
+    @Query("SELECT v.product.id AS productId, s.id AS sizeId, c.id AS colorId, v.price AS price, v.status AS status "
+            + "FROM Variant v LEFT JOIN v.size s LEFT JOIN v.color c")
+    List<VariantFacetView> findAllFacetViews();
+
+    @Query("SELECT v.product.id AS productId, s.id AS sizeId, c.id AS colorId, v.price AS price, v.status AS status "
+            + "FROM Variant v LEFT JOIN v.size s LEFT JOIN v.color c WHERE v.product.id = :productId")
+    List<VariantFacetView> findFacetViewsByProductId(@Param("productId") Integer productId);
 }
@@ -0,0 +1,9 @@
+package com.uniclub.repository.projection;
+
+/**
+ * Pending order whose latest VNPay payment has run out of time
+ */
+public interface ExpiredPaymentView {
+    Integer getOrderId();
+    Integer getPaymentId();
+}
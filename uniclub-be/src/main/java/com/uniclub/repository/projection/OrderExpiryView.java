@@ -0,0 +1,11 @@
+package com.uniclub.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order id + payment deadline, used to (re)fill the payment expiry queue
+ */
+public interface OrderExpiryView {
+    Integer getId();
+    LocalDateTime getPaymentExpiresAt();
+}
@@ -0,0 +1,16 @@
+package com.uniclub.repository.projection;
+
+/**
+ * Flat read-only view of one order line with variant/product/size/color names
+ */
+public interface OrderLineView {
+    Integer getOrderId();
+    Integer getVariantSku();
+    Integer getProductId();
+    String getProductName();
+    String getSizeName();
+    String getColorName();
+    String getImages();
+    Integer getQuantity();
+    Integer getPrice();
+}
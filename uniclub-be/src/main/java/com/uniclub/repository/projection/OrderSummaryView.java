@@ -0,0 +1,31 @@
+package com.uniclub.repository.projection;
+
+import java.time.LocalDateTime;
+
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+
+/**
+ * Flat read-only view of an order header (user + first payment method joined in)
+ * Used by keyset listing so no entity / lazy association is loaded
+ */
+public interface OrderSummaryView {
+    Integer getId();
+    Integer getTotal();
+    Integer getShippingFee();
+    String getNote();
+    String getRecipientName();
+    String getRecipientPhone();
+    String getShippingAddress();
+    OrderStatus getStatus();
+    LocalDateTime getPaymentExpiresAt();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+
+    Integer getUserId();
+    String getUserEmail();
+    String getUserFullname();
+    String getUserPhone();
+
+    PaymentMethod getPaymentMethod();
+}
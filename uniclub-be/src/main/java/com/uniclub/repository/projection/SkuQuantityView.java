@@ -0,0 +1,9 @@
+package com.uniclub.repository.projection;
+
+/**
+ * Total quantity per SKU across a set of orders
+ */
+public interface SkuQuantityView {
+    Integer getSku();
+    Long getQuantity();
+}
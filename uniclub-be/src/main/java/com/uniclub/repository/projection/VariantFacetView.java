@@ -0,0 +1,12 @@
+package com.uniclub.repository.projection;
+
+/**
+ * Thuộc tính của variant dùng cho facet index (chỉ id, không load entity)
+ */
+public interface VariantFacetView {
+    Integer getProductId();
+    Integer getSizeId();
+    Integer getColorId();
+    Integer getPrice();
+    Byte getStatus();
+}
@@ -0,0 +1,23 @@
+package com.uniclub.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.uniclub.cart.CartStore;
+
+/**
+ * Ghi trễ giỏ hàng: mỗi tick ghi các giỏ có thay đổi chờ lâu hơn app.cart.max-delay
+ * Batch lỗi được CartStore đánh dấu lại và ghi ở tick sau
+ */
+@Component
+public class CartFlushScheduler {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Scheduled(fixedDelayString = "${app.cart.tick-ms:500}")
+    public void flushDueCarts() {
+        cartStore.flushDue();
+    }
+}
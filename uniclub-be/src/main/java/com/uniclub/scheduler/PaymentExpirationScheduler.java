@@ -2,27 +2,28 @@ package com.uniclub.scheduler;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.uniclub.entity.Order;
-import com.uniclub.entity.Payment;
-import com.uniclub.entity.Variant;
 import com.uniclub.entity.enums.OrderStatus;
-import com.uniclub.entity.enums.PaymentMethod;
-import com.uniclub.entity.enums.PaymentStatus;
 import com.uniclub.repository.OrderRepository;
-import com.uniclub.repository.PaymentRepository;
-import com.uniclub.repository.VariantRepository;
+import com.uniclub.repository.projection.OrderExpiryView;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Scheduler để kiểm tra và hủy các đơn hàng VNPay vượt quá thời gian thanh toán
- * Chạy mỗi 5 phút để kiểm tra các payment đã hết hạn
+ * Scheduler hủy các đơn hàng VNPay vượt quá thời gian thanh toán
+ * Đơn được đưa vào PaymentExpiryQueue khi tạo URL thanh toán, mỗi tick chỉ xử lý các đơn vừa tới hạn
+ * Các đơn tới hạn được chia chunk, mỗi chunk một transaction riêng nên một chunk lỗi không rollback các chunk khác
+ * Khi khởi động, nạp lại hàng đợi từ DB; một lượt quét định kỳ qua index làm lưới an toàn
  */
 @Slf4j
 @Component
@@ -32,63 +33,89 @@ public class PaymentExpirationScheduler {
     private OrderRepository orderRepository;
 
     @Autowired
-    private PaymentRepository paymentRepository;
-    
+    private PaymentExpiryQueue paymentExpiryQueue;
+
+    @Autowired
+    private PaymentExpiryProcessor paymentExpiryProcessor;
+
     @Autowired
-    private VariantRepository variantRepository;
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.payment.expiry.recovery-window-minutes:15}")
+    private long recoveryWindowMinutes;
+
+    @Value("${app.payment.expiry.chunk-size:100}")
+    private int chunkSize;
+
+    /**
+     * Lấy các đơn đã tới hạn khỏi hàng đợi và hủy theo từng chunk
+     * Chunk lỗi chỉ được log lại, lượt quét an toàn sẽ đưa các đơn đó vào hàng đợi lần sau
+     */
+    @Scheduled(fixedDelayString = "${app.payment.expiry.tick-ms:1000}")
+    public void processDueExpirations() {
+        List<Integer> dueOrderIds = paymentExpiryQueue.drainExpired();
+        if (dueOrderIds.isEmpty()) {
+            return;
+        }
+        int cancelled = 0;
+        for (int from = 0; from < dueOrderIds.size(); from += chunkSize) {
+            List<Integer> chunk = dueOrderIds.subList(from, Math.min(from + chunkSize, dueOrderIds.size()));
+            long start = System.nanoTime();
+            try {
+                PaymentExpiryProcessor.ChunkResult result = paymentExpiryProcessor.expireChunk(chunk);
+                recordChunk("success", start, result);
+                cancelled += result.orders();
+            } catch (Exception e) {
+                recordChunk("failure", start, null);
+                log.error("Error expiring payment chunk {}", chunk, e);
+            }
+        }
+        log.info("Payment expiry tick: {} due, {} cancelled", dueOrderIds.size(), cancelled);
+    }
+
+    private void recordChunk(String outcome, long startNanos, PaymentExpiryProcessor.ChunkResult result) {
+        Timer.builder("payment.expiry.chunk")
+                .description("Thời gian xử lý một chunk đơn hết hạn thanh toán")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (result == null) {
+            return;
+        }
+        meterRegistry.counter("payment.expiry.rows", "table", "orders").increment(result.orders());
+        meterRegistry.counter("payment.expiry.rows", "table", "payment").increment(result.payments());
+        meterRegistry.counter("payment.expiry.rows", "table", "variant").increment(result.skus());
+    }
+
+    /**
+     * Nạp lại hàng đợi sau khi restart: chỉ range scan các đơn PENDING có hạn trong cửa sổ thanh toán
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingExpirations() {
+        try {
+            List<OrderExpiryView> pending = orderRepository.findExpiriesBefore(OrderStatus.PENDING,
+                    LocalDateTime.now().plusMinutes(recoveryWindowMinutes));
+            pending.forEach(view -> paymentExpiryQueue.register(view.getId(), view.getPaymentExpiresAt()));
+            log.info("Payment expiry queue recovered {} pending orders", pending.size());
+        } catch (Exception e) {
+            log.error("Error recovering payment expiry queue", e);
+        }
+    }
 
     /**
-     * Kiểm tra mỗi 5 phút (300000ms) xem có payment VNPay nào hết hạn không
-     * Nếu hết hạn, set order status = CANCELLED và payment status = FAILED
+     * Lưới an toàn mỗi 5 phút: đơn đã quá hạn nhưng bị lỡ (VD: đăng ký trước khi commit bị rollback rồi retry)
+     * Chỉ đọc id + hạn thanh toán qua index (status, payment_expires_at)
      */
-    @Scheduled(fixedDelay = 300000, initialDelay = 60000) // 5 phút, khởi động sau 1 phút
-    @Transactional
-    public void checkExpiredPayments() {
+    @Scheduled(fixedDelayString = "${app.payment.expiry.sweep-interval-ms:300000}", initialDelay = 60000)
+    public void sweepMissedExpirations() {
         try {
-            log.info("=== Starting payment expiration check ===");
-            
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Tìm tất cả đơn hàng PENDING với VNPay payment chưa thành công
-            List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
-            
-            for (Order order : pendingOrders) {
-                // Chỉ kiểm tra những đơn dùng VNPay
-                var payment = paymentRepository.findLatestByOrderId(order.getId());
-                
-                if (payment.isPresent() && 
-                    payment.get().getPaymentMethod() == PaymentMethod.VNPay &&
-                    payment.get().getPaymentStatus() != PaymentStatus.SUCCESS) {
-                    
-                    // Nếu payment_expires_at đã qua
-                    if (order.getPaymentExpiresAt() != null && order.getPaymentExpiresAt().isBefore(now)) {
-                        log.warn("Payment expired for order {}, cancelling...", order.getId());
-                        
-                        // Update order status to CANCELLED
-                        order.setStatus(OrderStatus.CANCELLED);
-                        orderRepository.save(order);
-                        
-                        // Update payment status to FAILED
-                        Payment failedPayment = payment.get();
-                        failedPayment.setPaymentStatus(PaymentStatus.FAILED);
-                        paymentRepository.save(failedPayment);
-                        
-                        // Restore variant quantities (hoàn lại tồn kho)
-                        for (var orderVariant : order.getOrderVariants()) {
-                            Variant variant = orderVariant.getVariant();
-                            variant.setQuantity(variant.getQuantity() + orderVariant.getQuantity());
-                            variantRepository.save(variant);
-                            log.info("Restored {} units to variant {}", orderVariant.getQuantity(), variant.getSku());
-                        }
-                        
-                        log.info("Order {} and Payment {} marked as expired and inventory restored", order.getId(), failedPayment.getId());
-                    }
-                }
+            List<OrderExpiryView> overdue = orderRepository.findExpiriesBefore(OrderStatus.PENDING, LocalDateTime.now());
+            overdue.forEach(view -> paymentExpiryQueue.register(view.getId(), view.getPaymentExpiresAt()));
+            if (!overdue.isEmpty()) {
+                log.info("Payment expiry sweep re-queued {} overdue orders", overdue.size());
             }
-            
-            log.info("=== Payment expiration check completed ===");
         } catch (Exception e) {
-            log.error("Error during payment expiration check", e);
+            log.error("Error during payment expiration sweep", e);
         }
     }
 }
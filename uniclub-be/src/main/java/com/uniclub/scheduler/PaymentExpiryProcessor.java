@@ -0,0 +1,87 @@
+package com.uniclub.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.repository.OrderRepository;
+import com.uniclub.repository.OrderVariantRepository;
+import com.uniclub.repository.PaymentRepository;
+import com.uniclub.repository.projection.ExpiredPaymentView;
+import com.uniclub.repository.projection.SkuQuantityView;
+import com.uniclub.service.SalesRollupService;
+import com.uniclub.service.StockReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hủy một chunk đơn VNPay hết hạn thanh toán trong một transaction ngắn
+ * Trạng thái được kiểm tra lại từ DB (có khóa) vì đơn có thể đã được thanh toán / thanh toán lại sau khi vào hàng đợi
+ * Mỗi chunk chỉ tốn: 1 SELECT khóa + 1 UPDATE orders + 1 UPDATE payment + 1 SELECT tổng SKU + 1 batch hoàn kho
+ */
+@Slf4j
+@Component
+public class PaymentExpiryProcessor {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderVariantRepository orderVariantRepository;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    /**
+     * Số dòng đã chạm tới trong một chunk
+     */
+    public record ChunkResult(int orders, int payments, int skus) {
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0);
+    }
+
+    @Transactional
+    public ChunkResult expireChunk(List<Integer> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return ChunkResult.EMPTY;
+        }
+
+        // Thanh toán lại sẽ đẩy payment_expires_at ra sau, entry cũ trong hàng đợi bị bỏ qua
+        List<ExpiredPaymentView> expired = orderRepository.lockExpiredPayments(orderIds, OrderStatus.PENDING,
+                LocalDateTime.now(), PaymentMethod.VNPay, PaymentStatus.SUCCESS);
+        if (expired.isEmpty()) {
+            return ChunkResult.EMPTY;
+        }
+
+        List<Integer> expiredOrderIds = expired.stream().map(ExpiredPaymentView::getOrderId).toList();
+        List<Integer> expiredPaymentIds = expired.stream().map(ExpiredPaymentView::getPaymentId).toList();
+
+        int orders = orderRepository.updateStatusByIdIn(expiredOrderIds, OrderStatus.CANCELLED);
+        int payments = paymentRepository.updateStatusByIdIn(expiredPaymentIds, PaymentStatus.FAILED);
+
+        // Restore variant quantities (hoàn lại tồn kho): cộng dồn theo SKU rồi trả về trong 1 batch
+        Map<Integer, Integer> quantitiesBySku = new TreeMap<>();
+        for (SkuQuantityView line : orderVariantRepository.sumQuantityBySkuForOrderIdIn(expiredOrderIds)) {
+            quantitiesBySku.put(line.getSku(), line.getQuantity().intValue());
+        }
+        stockReservationService.release(quantitiesBySku);
+        // Cùng thứ tự với checkout: khóa variant trước, rollup ghi sau commit
+        salesRollupService.recordCancellations(expiredOrderIds);
+
+        log.info("Orders {} marked as expired and inventory restored", expiredOrderIds);
+        return new ChunkResult(orders, payments, quantitiesBySku.size());
+    }
+}
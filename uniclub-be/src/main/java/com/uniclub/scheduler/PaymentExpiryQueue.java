@@ -0,0 +1,75 @@
+package com.uniclub.scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Hàng đợi in-process sắp theo thời điểm hết hạn thanh toán VNPay
+ * Mỗi tick chỉ lấy ra các đơn đã tới hạn nên chi phí tỉ lệ với số đơn hết hạn, không phải số đơn PENDING
+ */
+@Component
+public class PaymentExpiryQueue {
+
+    private final DelayQueue<Entry> queue = new DelayQueue<>();
+
+    /**
+     * Đăng ký (hoặc đăng ký lại khi thanh toán lại) một đơn sẽ hết hạn tại expiresAt
+     */
+    public void register(Integer orderId, LocalDateTime expiresAt) {
+        if (orderId == null || expiresAt == null) {
+            return;
+        }
+        long epochMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.offer(new Entry(orderId, epochMillis));
+    }
+
+    /**
+     * Lấy ra toàn bộ order id đã tới hạn (không block)
+     */
+    public List<Integer> drainExpired() {
+        List<Entry> expired = new ArrayList<>();
+        queue.drainTo(expired);
+        return expired.stream().map(Entry::orderId).distinct().toList();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private record Entry(Integer orderId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Entry entry) {
+                int byTime = Long.compare(expiresAtMillis, entry.expiresAtMillis);
+                return byTime != 0 ? byTime : Integer.compare(orderId, entry.orderId);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry entry
+                    && expiresAtMillis == entry.expiresAtMillis
+                    && Objects.equals(orderId, entry.orderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderId, expiresAtMillis);
+        }
+    }
+}
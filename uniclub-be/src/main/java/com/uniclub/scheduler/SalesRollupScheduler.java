@@ -0,0 +1,68 @@
+package com.uniclub.scheduler;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.uniclub.service.SalesRollupService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batch job cho sales_daily_rollup:
+ * - Lần đầu chạy (bảng rỗng nhưng đã có đơn): backfill toàn bộ lịch sử trên một virtual thread
+ * - Hằng đêm: dựng lại rebuild-days ngày gần nhất để sửa mọi lệch so với cập nhật cộng dồn
+ */
+@Slf4j
+@Component
+public class SalesRollupScheduler {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.analytics.rollup.rebuild-days:2}")
+    private int rebuildDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        // Chạy nền để không chặn khởi động; lỗi (vd. schema chưa có bảng) chỉ ghi log
+        Thread.ofVirtual().name("sales-rollup-backfill").start(() -> {
+            try {
+                Integer rollups = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_daily_rollup", Integer.class);
+                if (rollups == null || rollups > 0) {
+                    return;
+                }
+                Timestamp firstOrder = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM orders",
+                        Timestamp.class);
+                if (firstOrder == null) {
+                    return;
+                }
+                LocalDate from = firstOrder.toLocalDateTime().toLocalDate();
+                log.info("Sales rollups empty, backfilling from {}", from);
+                salesRollupService.rebuild(from, LocalDate.now());
+            } catch (Exception e) {
+                log.error("Sales rollup backfill failed", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${app.analytics.rollup.rebuild-cron:0 30 2 * * *}")
+    public void rebuildRecentDays() {
+        LocalDate today = LocalDate.now();
+        try {
+            salesRollupService.rebuild(today.minusDays(rebuildDays), today.minusDays(1));
+        } catch (Exception e) {
+            log.error("Nightly sales rollup rebuild failed", e);
+        }
+    }
+}
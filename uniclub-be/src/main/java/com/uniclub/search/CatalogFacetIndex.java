@@ -0,0 +1,287 @@
+package com.uniclub.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+
+/**
+ * Bitmap index cho duyệt danh mục theo facet
+ * Mỗi sản phẩm có một ordinal; mỗi giá trị facet (brand, category, size, color, khoảng giá) là một BitSet trên ordinal
+ * Lọc = AND giữa các facet, OR trong cùng một facet; đếm facet F dùng bộ lọc của các facet còn lại
+ * (chọn brand A vẫn thấy số lượng của brand B)
+ */
+public class CatalogFacetIndex {
+
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String SIZE = "size";
+    public static final String COLOR = "color";
+    public static final String PRICE = "price";
+
+    private static final List<String> FACETS = List.of(BRAND, CATEGORY, SIZE, COLOR, PRICE);
+
+    /**
+     * Một sản phẩm cùng size/color/giá của các variant đang bán
+     */
+    public record Document(ProductResponse product, Set<Integer> sizeIds, Set<Integer> colorIds, Set<Integer> prices) {
+    }
+
+    /**
+     * facet -> các giá trị được chọn; facet không có trong map (hoặc rỗng) thì không lọc
+     */
+    public record Query(Map<String, Set<Integer>> selected) {
+    }
+
+    /**
+     * facet -> (giá trị -> số sản phẩm), giá trị sắp xếp tăng dần
+     */
+    public record Result(List<ProductResponse> hits, int total, Map<String, Map<Integer, Integer>> counts) {
+    }
+
+    private record Entry(ProductResponse product, Map<String, Set<Integer>> values) {
+    }
+
+    // Cận trên (không bao gồm) của các khoảng giá: bucket i = [bounds[i-1], bounds[i]), bucket cuối không giới hạn
+    private final int[] priceBounds;
+
+    // rebuild() dựng bộ mới rồi thay cả bốn dưới write lock
+    private Map<Integer, Integer> ordinalByProductId = new HashMap<>();
+    private List<Entry> entries = new ArrayList<>();
+    private BitSet live = new BitSet();
+    private Map<String, Map<Integer, BitSet>> bitmaps = emptyBitmaps();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CatalogFacetIndex(int[] priceBounds) {
+        this.priceBounds = priceBounds.clone();
+    }
+
+    public int priceBucketCount() {
+        return priceBounds.length + 1;
+    }
+
+    /**
+     * Nhãn khoảng giá, VD "200000-500000" hoặc "1000000+"
+     */
+    public String priceBucketLabel(int bucket) {
+        int from = bucket == 0 ? 0 : priceBounds[bucket - 1];
+        return bucket < priceBounds.length ? from + "-" + priceBounds[bucket] : from + "+";
+    }
+
+    public void upsert(Document document) {
+        if (document == null || document.product() == null || document.product().getId() == null) {
+            return;
+        }
+        Map<String, Set<Integer>> values = values(document);
+        lock.writeLock().lock();
+        try {
+            Integer productId = document.product().getId();
+            Integer ordinal = ordinalByProductId.get(productId);
+            if (ordinal == null) {
+                ordinal = entries.size();
+                entries.add(null);
+                ordinalByProductId.put(productId, ordinal);
+            } else {
+                clearBits(ordinal);
+            }
+            entries.set(ordinal, new Entry(document.product(), values));
+            live.set(ordinal);
+            int bit = ordinal;
+            values.forEach((facet, ids) -> ids.forEach(id ->
+                    bitmaps.get(facet).computeIfAbsent(id, v -> new BitSet()).set(bit)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByProductId.remove(productId);
+            if (ordinal != null) {
+                clearBits(ordinal);
+                entries.set(ordinal, null);
+                live.clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ, ordinal theo id tăng dần (sản phẩm mới nhất có ordinal lớn nhất)
+     * Index mới dựng ngoài lock rồi thay vào một lần, request đang duyệt không thấy danh mục rỗng hay dở dang
+     */
+    public void rebuild(List<Document> documents) {
+        Map<Integer, Document> byId = new TreeMap<>();
+        documents.stream()
+                .filter(d -> d != null && d.product() != null && d.product().getId() != null)
+                .forEach(d -> byId.put(d.product().getId(), d));
+
+        Map<Integer, Integer> newOrdinals = new HashMap<>();
+        List<Entry> newEntries = new ArrayList<>(byId.size());
+        BitSet newLive = new BitSet(byId.size());
+        Map<String, Map<Integer, BitSet>> newBitmaps = emptyBitmaps();
+        byId.forEach((productId, document) -> {
+            int ordinal = newEntries.size();
+            Map<String, Set<Integer>> values = values(document);
+            newEntries.add(new Entry(document.product(), values));
+            newOrdinals.put(productId, ordinal);
+            newLive.set(ordinal);
+            values.forEach((facet, ids) -> ids.forEach(id ->
+                    newBitmaps.get(facet).computeIfAbsent(id, v -> new BitSet()).set(ordinal)));
+        });
+
+        lock.writeLock().lock();
+        try {
+            ordinalByProductId = newOrdinals;
+            entries = newEntries;
+            live = newLive;
+            bitmaps = newBitmaps;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(Query query, int offset, int limit) {
+        Map<String, Set<Integer>> selected = query == null || query.selected() == null ? Map.of() : query.selected();
+
+        lock.readLock().lock();
+        try {
+            // Bộ lọc của từng facet = OR các giá trị được chọn
+            Map<String, BitSet> filters = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                Set<Integer> chosen = selected.get(facet);
+                if (chosen == null || chosen.isEmpty()) {
+                    continue;
+                }
+                BitSet union = new BitSet();
+                for (Integer value : chosen) {
+                    BitSet bits = bitmaps.get(facet).get(value);
+                    if (bits != null) {
+                        union.or(bits);
+                    }
+                }
+                filters.put(facet, union);
+            }
+
+            BitSet matched = (BitSet) live.clone();
+            filters.values().forEach(matched::and);
+
+            Map<String, Map<Integer, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = null;
+                for (Map.Entry<String, BitSet> filter : filters.entrySet()) {
+                    if (!filter.getKey().equals(facet)) {
+                        if (base == null) {
+                            base = (BitSet) filter.getValue().clone();
+                        } else {
+                            base.and(filter.getValue());
+                        }
+                    }
+                }
+                Map<Integer, Integer> facetCounts = new TreeMap<>();
+                for (Map.Entry<Integer, BitSet> value : bitmaps.get(facet).entrySet()) {
+                    // Bitmap chỉ chứa ordinal còn sống, không có bộ lọc khác thì đếm thẳng
+                    int count;
+                    if (base == null) {
+                        count = value.getValue().cardinality();
+                    } else {
+                        BitSet hit = (BitSet) value.getValue().clone();
+                        hit.and(base);
+                        count = hit.cardinality();
+                    }
+                    if (count > 0 || isSelected(selected, facet, value.getKey())) {
+                        facetCounts.put(value.getKey(), count);
+                    }
+                }
+                counts.put(facet, facetCounts);
+            }
+
+            // Mới nhất trước: duyệt ordinal từ cao xuống thấp
+            int total = matched.cardinality();
+            List<ProductResponse> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+            int skipped = 0;
+            for (int i = offset >= total ? -1 : matched.previousSetBit(matched.length() - 1);
+                 i >= 0 && page.size() < limit;
+                 i = matched.previousSetBit(i - 1)) {
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                page.add(entries.get(i).product());
+            }
+            return new Result(page, total, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isSelected(Map<String, Set<Integer>> selected, String facet, Integer value) {
+        Set<Integer> chosen = selected.get(facet);
+        return chosen != null && chosen.contains(value);
+    }
+
+    private void clearBits(int ordinal) {
+        Entry previous = entries.get(ordinal);
+        if (previous == null) {
+            return;
+        }
+        previous.values().forEach((facet, ids) -> ids.forEach(id -> {
+            BitSet bits = bitmaps.get(facet).get(id);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    bitmaps.get(facet).remove(id);
+                }
+            }
+        }));
+    }
+
+    private static Map<String, Map<Integer, BitSet>> emptyBitmaps() {
+        Map<String, Map<Integer, BitSet>> empty = new HashMap<>();
+        FACETS.forEach(facet -> empty.put(facet, new TreeMap<>()));
+        return empty;
+    }
+
+    private Map<String, Set<Integer>> values(Document document) {
+        ProductResponse product = document.product();
+        Map<String, Set<Integer>> values = new HashMap<>();
+        values.put(BRAND, product.getBrandId() != null ? Set.of(product.getBrandId()) : Set.of());
+        values.put(CATEGORY, product.getCategoryId() != null ? Set.of(product.getCategoryId()) : Set.of());
+        values.put(SIZE, document.sizeIds() != null ? Set.copyOf(document.sizeIds()) : Set.of());
+        values.put(COLOR, document.colorIds() != null ? Set.copyOf(document.colorIds()) : Set.of());
+        Set<Integer> buckets = new TreeSet<>();
+        if (document.prices() != null) {
+            document.prices().forEach(price -> buckets.add(priceBucket(price)));
+        }
+        values.put(PRICE, buckets);
+        return values;
+    }
+
+    private int priceBucket(int price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
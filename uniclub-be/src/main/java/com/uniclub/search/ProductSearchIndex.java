@@ -0,0 +1,406 @@
+package com.uniclub.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.util.TextNormalizer;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sản phẩm
+ * term (đã bỏ dấu) -> posting list (product id tăng dần + trọng số); từ điển term được sắp xếp để tra prefix
+ * cho từ cuối đang gõ. Truy vấn AND giữa các từ bằng merge các mảng đã sắp xếp,
+ * điểm = tổng trọng số theo field (name > brand/category > description/information)
+ */
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float BRAND_WEIGHT = 2f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    static final float INFORMATION_WEIGHT = 1f;
+
+    // Term khớp theo prefix (chưa gõ hết) xếp sau term khớp nguyên từ
+    static final float PREFIX_FACTOR = 0.7f;
+
+    // Truy vấn chỉ có 1 ký tự: prefix mở rộng ra gần như toàn bộ từ điển, chỉ tra nguyên từ
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    public record SearchResult(List<ProductResponse> hits, int total) {
+    }
+
+    private record Document(ProductResponse product, Map<String, Float> terms) {
+    }
+
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Thêm mới hoặc cập nhật một sản phẩm (xóa posting cũ rồi ghi lại)
+     */
+    public void upsert(ProductResponse product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Map<String, Float> terms = terms(product);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            documents.put(product.getId(), new Document(product, terms));
+            terms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new Posting()).put(product.getId(), weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Thay toàn bộ nội dung index (dùng khi khởi động)
+     */
+    public void rebuild(List<ProductResponse> products) {
+        // Thêm theo id tăng dần => mọi posting chỉ append vào cuối mảng
+        List<ProductResponse> sorted = products.stream()
+                .filter(p -> p != null && p.getId() != null)
+                .sorted(Comparator.comparing(ProductResponse::getId))
+                .toList();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            for (ProductResponse product : sorted) {
+                Map<String, Float> terms = terms(product);
+                documents.put(product.getId(), new Document(product, terms));
+                terms.forEach((term, weight) ->
+                        postings.computeIfAbsent(term, t -> new Posting()).put(product.getId(), weight));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0 || offset < 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Posting> matches = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean prefix = i == tokens.size() - 1
+                        && (tokens.size() > 1 || token.length() >= MIN_PREFIX_LENGTH);
+                Posting match = prefix ? prefixMatches(token) : postings.get(token);
+                if (match == null || match.size == 0) {
+                    return new SearchResult(List.of(), 0);
+                }
+                matches.add(match);
+            }
+            matches.sort(Comparator.comparingInt(p -> p.size));
+
+            // Duyệt posting ngắn nhất, các posting còn lại chỉ tiến con trỏ (đều sắp xếp theo id)
+            Posting shortest = matches.get(0);
+            int[] cursors = new int[matches.size()];
+            // Số kết quả không vượt quá posting ngắn nhất; offset vượt qua đó thì chỉ đếm total, không xếp hạng
+            int capacity = offset >= shortest.size ? 0 : (int) Math.min((long) offset + limit, shortest.size);
+            TopHits top = new TopHits(capacity);
+            int total = 0;
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                float score = shortest.weights[i];
+                boolean matchedAll = true;
+                for (int m = 1; m < matches.size() && matchedAll; m++) {
+                    Posting other = matches.get(m);
+                    int position = other.seek(id, cursors[m]);
+                    cursors[m] = position;
+                    if (position < other.size && other.ids[position] == id) {
+                        score += other.weights[position];
+                    } else {
+                        matchedAll = false;
+                    }
+                }
+                if (matchedAll) {
+                    total++;
+                    top.offer(id, score);
+                }
+            }
+
+            List<ProductResponse> page = new ArrayList<>();
+            int[] rankedIds = top.rankedIds();
+            for (int i = offset; i < rankedIds.length; i++) {
+                page.add(documents.get(rankedIds[i]).product());
+            }
+            return new SearchResult(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hợp các posting có term bắt đầu bằng prefix; trùng id thì giữ trọng số lớn nhất
+     */
+    private Posting prefixMatches(String prefix) {
+        Posting exact = postings.get(prefix);
+        NavigableMap<String, Posting> extensions =
+                postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+        if (extensions.isEmpty()) {
+            return exact;
+        }
+
+        List<Posting> parts = new ArrayList<>(extensions.size() + 1);
+        List<Float> factors = new ArrayList<>(extensions.size() + 1);
+        if (exact != null) {
+            parts.add(exact);
+            factors.add(1f);
+        }
+        for (Posting extension : extensions.values()) {
+            parts.add(extension);
+            factors.add(PREFIX_FACTOR);
+        }
+
+        int capacity = 0;
+        for (Posting part : parts) {
+            capacity += part.size;
+        }
+        long[] packed = new long[capacity];
+        float[] scores = new float[capacity];
+        int n = 0;
+        for (int p = 0; p < parts.size(); p++) {
+            Posting part = parts.get(p);
+            float factor = factors.get(p);
+            for (int i = 0; i < part.size; i++) {
+                // id ở 32 bit cao, vị trí ở 32 bit thấp => sort một lần theo id
+                packed[n] = ((long) part.ids[i] << 32) | n;
+                scores[n] = part.weights[i] * factor;
+                n++;
+            }
+        }
+        Arrays.sort(packed, 0, n);
+
+        Posting merged = new Posting(n);
+        for (int i = 0; i < n; i++) {
+            int id = (int) (packed[i] >> 32);
+            float score = scores[(int) packed[i]];
+            if (merged.size > 0 && merged.ids[merged.size - 1] == id) {
+                merged.weights[merged.size - 1] = Math.max(merged.weights[merged.size - 1], score);
+            } else {
+                merged.ids[merged.size] = id;
+                merged.weights[merged.size] = score;
+                merged.size++;
+            }
+        }
+        return merged;
+    }
+
+    private void removeUnlocked(Integer productId) {
+        Document previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms().keySet()) {
+            Posting posting = postings.get(term);
+            if (posting != null && posting.remove(productId) && posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static Map<String, Float> terms(ProductResponse product) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getBrandName(), BRAND_WEIGHT);
+        addField(terms, product.getCategoryName(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        addField(terms, product.getInformation(), INFORMATION_WEIGHT);
+        return terms;
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        // Mỗi field chỉ cộng một lần cho một term, tránh mô tả lặp từ được điểm cao
+        for (String token : new HashSet<>(TextNormalizer.tokenize(text))) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Posting list: product id tăng dần, trọng số song song (mảng primitive, không boxing)
+     */
+    private static final class Posting {
+        int[] ids;
+        float[] weights;
+        int size;
+
+        Posting() {
+            this(4);
+        }
+
+        Posting(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            weights = new float[Math.max(capacity, 1)];
+        }
+
+        void put(int id, float weight) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                weights[position] = weight;
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            ids[position] = id;
+            weights[position] = weight;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Vị trí đầu tiên >= id tính từ from (galloping rồi binary search)
+         */
+        int seek(int id, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int position = Arrays.binarySearch(ids, low, Math.min(high + 1, size), id);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+
+    /**
+     * Giữ k kết quả điểm cao nhất bằng min-heap trên mảng primitive; hòa điểm thì id mới hơn xếp trước
+     */
+    private static final class TopHits {
+        private final int capacity;
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        TopHits(int capacity) {
+            this.capacity = capacity;
+            this.ids = new int[Math.min(capacity, 1024)];
+            this.scores = new float[ids.length];
+        }
+
+        void offer(int id, float score) {
+            if (size < capacity) {
+                if (size == ids.length) {
+                    // Chỉ trang rất sâu mới cần giãn heap
+                    ids = Arrays.copyOf(ids, Math.min(capacity, size * 2));
+                    scores = Arrays.copyOf(scores, ids.length);
+                }
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (capacity > 0 && better(id, score, ids[0], scores[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] rankedIds() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> better(ids[a], scores[a], ids[b], scores[b]) ? -1 : 1);
+            int[] ranked = new int[size];
+            for (int i = 0; i < size; i++) {
+                ranked[i] = ids[order[i]];
+            }
+            return ranked;
+        }
+
+        private static boolean better(int id, float score, int otherId, float otherScore) {
+            return score > otherScore || (score == otherScore && id > otherId);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(ids[parent], scores[parent], ids[i], scores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                int right = left + 1;
+                int worst = i;
+                if (left < size && better(ids[worst], scores[worst], ids[left], scores[left])) {
+                    worst = left;
+                }
+                if (right < size && better(ids[worst], scores[worst], ids[right], scores[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import com.uniclub.dto.request.Cart.CreateCartRequest;
 import com.uniclub.dto.request.Cart.UpdateCartRequest;
 import com.uniclub.dto.response.Cart.CartResponse;
+import com.uniclub.dto.response.Cart.CartSummaryResponse;
 
 public interface CartService {
     CartResponse createCart(CreateCartRequest request);
@@ -15,4 +16,5 @@ public interface CartService {
     List<CartResponse> getAllCarts();
     CartResponse getCartById(Integer id);
     CartResponse getCartByUserId(Integer userId);
+    CartSummaryResponse getCartSummary(Integer userId);
 }
@@ -0,0 +1,11 @@
+package com.uniclub.service;
+
+import java.util.Collection;
+
+/**
+ * Evict thủ công cho các thay đổi tồn kho không đi qua VariantService (đặt hàng, hủy đơn, nhập kho)
+ */
+public interface CatalogCacheService {
+
+    void evictVariants(Collection<Integer> skus);
+}
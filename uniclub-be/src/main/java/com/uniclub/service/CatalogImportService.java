@@ -0,0 +1,49 @@
+package com.uniclub.service;
+
+import java.io.InputStream;
+
+import com.uniclub.dto.response.Import.CatalogImportResponse;
+
+/**
+ * Nhập hàng loạt sản phẩm + variant từ file CSV hoặc JSON Lines, đọc streaming từng dòng
+ * Cột / key: product, brand, category, description, information, size, color, price, quantity, images
+ * Mỗi dòng là một variant (bỏ trống size, color, price để chỉ tạo sản phẩm); sản phẩm mới được tạo theo tên
+ */
+public interface CatalogImportService {
+
+    enum Format {
+        CSV, JSONL;
+
+        // Đoán định dạng theo phần mở rộng của file, mặc định CSV
+        public static Format fromFilename(String filename) {
+            if (filename != null) {
+                String lower = filename.toLowerCase();
+                if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson") || lower.endsWith(".json")) {
+                    return JSONL;
+                }
+            }
+            return CSV;
+        }
+
+        // Body gửi thẳng (không multipart): application/x-ndjson, application/jsonl -> JSONL, còn lại CSV
+        public static Format fromContentType(String contentType) {
+            if (contentType != null) {
+                String lower = contentType.toLowerCase();
+                if (lower.contains("ndjson") || lower.contains("jsonl")) {
+                    return JSONL;
+                }
+            }
+            return CSV;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Định dạng import không hỗ trợ: " + value + " (csv | jsonl)");
+            }
+        }
+    }
+
+    CatalogImportResponse importCatalog(InputStream input, Format format);
+}
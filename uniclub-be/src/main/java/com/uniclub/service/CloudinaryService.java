@@ -1,74 +0,0 @@
-package com.uniclub.service;
-
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
-import java.util.Map;
-
-@Service
-public class CloudinaryService {
-
-    @Autowired
-    private Cloudinary cloudinary;
-
-    public String uploadImage(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
-        }
-
-        // Upload image to Cloudinary
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(
-            file.getBytes(),
-            ObjectUtils.asMap(
-                "folder", "uniclub/variants",
-                "resource_type", "image",
-                "transformation", "f_auto,q_auto"
-            )
-        );
-
-        return (String) uploadResult.get("secure_url");
-    }
-
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
-        }
-
-        // Upload image to Cloudinary with custom folder
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(
-            file.getBytes(),
-            ObjectUtils.asMap(
-                "folder", folder,
-                "resource_type", "image",
-                "transformation", "f_auto,q_auto"
-            )
-        );
-
-        return (String) uploadResult.get("secure_url");
-    }
-
-    public void deleteImage(String publicId) throws IOException {
-        if (publicId != null && !publicId.isEmpty()) {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-        }
-    }
-
-    public String getPublicIdFromUrl(String url) {
-        if (url == null || url.isEmpty()) {
-            return null;
-        }
-        
-        // Extract public ID from Cloudinary URL
-        // Example: https://res.cloudinary.com/your-cloud/image/upload/v1234567890/uniclub/variants/abc123.jpg
-        // Returns: uniclub/variants/abc123
-        String[] parts = url.split("/");
-        if (parts.length >= 2) {
-            return parts[parts.length - 2] + "/" + parts[parts.length - 1].split("\\.")[0];
-        }
-        return null;
-    }
-}
@@ -0,0 +1,151 @@
+package com.uniclub.service;
+
+import com.uniclub.image.ImageDerivativeService;
+import com.uniclub.image.ImageStore;
+import com.uniclub.util.ImageTypeDetector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Upload ảnh theo kiểu streaming:
+ * multipart đã được Tomcat ghi ra file tạm (file-size-threshold = 0), file đó được chuyển (rename) sang thư mục
+ * upload rồi đưa cho ImageStore (Cloudinary hoặc local) dưới dạng File, không đọc cả ảnh lên heap
+ * Loại ảnh được kiểm tra bằng magic bytes, không dựa vào Content-Type của client
+ * Ảnh dẫn xuất (thumbnail/medium/large) được tạo luôn từ file tạm trước khi xóa
+ */
+@Slf4j
+@Service
+public class ImageUploadService {
+
+    public static final String DEFAULT_FOLDER = "uniclub/variants";
+    public static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * Kết quả upload một file trong batch: url khi thành công, error khi thất bại
+     */
+    public record UploadResult(String filename, String url, String error) {
+
+        public boolean success() {
+            return url != null;
+        }
+    }
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Value("${app.upload.temp-dir:${java.io.tmpdir}}")
+    private Path tempDir;
+
+    @Value("${app.upload.batch-concurrency:4}")
+    private int batchConcurrency;
+
+    @Value("${app.upload.max-batch-files:20}")
+    private int maxBatchFiles;
+
+    public String uploadImage(MultipartFile file) throws IOException {
+        return uploadImage(file, DEFAULT_FOLDER);
+    }
+
+    public String uploadImage(MultipartFile file, String folder) throws IOException {
+        String mimeType = validateImage(file);
+
+        Path spooled = Files.createTempFile(tempDir, "upload-", extension(mimeType));
+        try {
+            file.transferTo(spooled.toFile());
+            String url = imageStore.save(spooled.toFile(), folder);
+            try {
+                imageDerivativeService.register(url, spooled);
+            } catch (IOException | RuntimeException e) {
+                // Không chặn upload, dẫn xuất sẽ được tạo khi có request đầu tiên
+                log.warn("Cannot generate derivatives for {}: {}", url, e.getMessage());
+            }
+            return url;
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    /**
+     * Upload nhiều ảnh trong một request, tối đa batchConcurrency file cùng lúc (virtual thread)
+     * Kết quả theo đúng thứ tự file gửi lên; file lỗi không làm hỏng các file khác
+     */
+    public List<UploadResult> uploadImages(List<MultipartFile> files, String folder) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files uploaded");
+        }
+        if (files.size() > maxBatchFiles) {
+            throw new IllegalArgumentException("Too many files, maximum is " + maxBatchFiles);
+        }
+
+        Semaphore permits = new Semaphore(batchConcurrency);
+        List<Future<UploadResult>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                futures.add(executor.submit(() -> uploadBatchItem(file, folder, permits)));
+            }
+        }
+
+        List<UploadResult> results = new ArrayList<>(files.size());
+        for (Future<UploadResult> future : futures) {
+            results.add(future.resultNow());
+        }
+        return results;
+    }
+
+    private UploadResult uploadBatchItem(MultipartFile file, String folder, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new UploadResult(file.getOriginalFilename(), null, "Upload interrupted");
+        }
+        try {
+            return new UploadResult(file.getOriginalFilename(), uploadImage(file, folder), null);
+        } catch (IOException | RuntimeException e) {
+            return new UploadResult(file.getOriginalFilename(), null, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Kiểm tra file là ảnh hợp lệ (không rỗng, <= 5MB, magic bytes JPEG/PNG/GIF/WebP), trả về MIME type thực
+     */
+    public String validateImage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (file.getSize() > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("File size must be less than 5MB");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ImageTypeDetector.detect(in)
+                    .orElseThrow(() -> new IllegalArgumentException("File must be an image"));
+        }
+    }
+
+    public void deleteImage(String url) throws IOException {
+        imageStore.delete(url);
+    }
+
+    private static String extension(String mimeType) {
+        return "." + mimeType.substring(mimeType.indexOf('/') + 1);
+    }
+}
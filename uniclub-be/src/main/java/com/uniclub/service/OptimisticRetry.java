@@ -0,0 +1,134 @@
+package com.uniclub.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Variant, Order, Payment, GrnHeader có @Version: mỗi lần ghi (kể cả UPDATE trừ/cộng kho bằng SQL) tăng version,
+ * ghi từ bản đã đọc trước đó bị từ chối thay vì âm thầm ghi đè
+ * Chạy một thao tác ghi tương đối (cộng kho, chuyển trạng thái có kiểm tra trạng thái hiện tại) trong transaction riêng,
+ * gặp xung đột version thì rollback, chờ backoff lũy thừa có jitter rồi chạy lại từ đầu (đọc lại dữ liệu mới)
+ * tối đa max-attempts lần, thay cho khóa dòng giữ suốt transaction
+ * Ghi giá trị tuyệt đối do client gửi (số lượng, số tiền, ...) không được chạy lại: chạy lại sẽ ghi đè đúng thay đổi
+ * vừa gây xung đột. Client gửi kèm version đã đọc, lệch thì trả 409 (xem {@link #requireVersion})
+ * Nếu đã có transaction bên ngoài thì chỉ chạy một lần: xung đột đi lên để lớp ngoài cùng thử lại cả transaction
+ * Tỉ lệ xung đột theo operation: optimistic.lock.conflicts / optimistic.lock.attempts
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${app.optimistic-lock.max-attempts:5}") int maxAttempts,
+                           @Value("${app.optimistic-lock.initial-backoff:10ms}") Duration initialBackoff,
+                           @Value("${app.optimistic-lock.max-backoff:200ms}") Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("app.optimistic-lock.max-attempts phải >= 1");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        Counter attempts = counter("optimistic.lock.attempts", operation, null);
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter("optimistic.lock.conflicts", operation, "exhausted").increment();
+                    log.warn("Optimistic lock conflict on {} after {} attempts", operation, attempt);
+                    throw e;
+                }
+                counter("optimistic.lock.conflicts", operation, "retry").increment();
+                log.debug("Optimistic lock conflict on {} (attempt {}), retrying", operation, attempt);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * So version client đã đọc với version hiện tại, lệch thì ném {@link ObjectOptimisticLockingFailureException} (409)
+     * Bản ghi bị ghi tiếp giữa lúc kiểm tra và lúc commit thì Hibernate cũng từ chối theo cùng version đó
+     */
+    public static void requireVersion(Class<?> entityClass, Object id, Long expected, Long current) {
+        if (expected == null) {
+            throw new IllegalArgumentException("Thiếu version của bản ghi đang sửa");
+        }
+        if (!expected.equals(current)) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        }
+    }
+
+    // Backoff lũy thừa có chặn trên, ngủ ngẫu nhiên trong [backoff/2, backoff] để các request xung đột tản ra
+    private void backoff(int attempt, RuntimeException conflict) {
+        long ceiling = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private Counter counter(String name, String operation, String outcome) {
+        Counter.Builder builder = Counter.builder(name).tag("operation", operation);
+        if (outcome == null) {
+            builder.description("Số lần chạy thao tác ghi có kiểm tra version (kể cả lần thử lại)");
+        } else {
+            builder.description("Xung đột version: retry = sẽ chạy lại, exhausted = hết lượt thử")
+                    .tag("outcome", outcome);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    static boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.uniclub.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.uniclub.entity.enums.OrderStatus;
+
+/**
+ * Xuất đơn hàng cho kế toán: đọc bằng cursor JDBC một chiều và ghi thẳng ra output stream,
+ * bộ nhớ không phụ thuộc số đơn được xuất
+ * CSV: mỗi dòng hàng một bản ghi (kèm thông tin đơn và thanh toán mới nhất)
+ * NDJSON: mỗi đơn một JSON object trên một dòng, dòng hàng nằm trong mảng items
+ */
+public interface OrderExportService {
+
+    enum Format {
+        CSV, NDJSON;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Định dạng export không hỗ trợ: " + value + " (csv | ndjson)");
+            }
+        }
+    }
+
+    /**
+     * from (bao gồm) / to (không bao gồm) lọc theo created_at, statuses rỗng = mọi trạng thái
+     * Trả về số bản ghi đã ghi (CSV: dòng hàng, NDJSON: đơn)
+     */
+    long export(LocalDateTime from, LocalDateTime to, List<OrderStatus> statuses, Format format, OutputStream out)
+            throws IOException;
+}
@@ -1,12 +1,17 @@
 package com.uniclub.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.response.Order.OrderPageResponse;
 import com.uniclub.dto.response.Order.OrderResponse;
+import com.uniclub.entity.enums.OrderStatus;
 
 public interface OrderService {
     List<OrderResponse> getAllOrders();
+    OrderPageResponse getOrdersPage(OrderStatus status, Integer userId, LocalDateTime from, LocalDateTime to,
+                                    String cursor, Integer size); // Keyset pagination, newest first
     List<OrderResponse> getOrdersByUserId(Integer userId);
     OrderResponse getOrderById(Integer id);
     OrderResponse createOrder(CreateOrderRequest request);
@@ -0,0 +1,27 @@
+package com.uniclub.service;
+
+import java.util.List;
+
+import com.uniclub.dto.response.Product.ProductFacetResponse;
+
+/**
+ * Duyệt danh mục theo facet (brand, category, size, color, khoảng giá) trên bitmap index trong bộ nhớ
+ * Trả về một trang sản phẩm kèm số lượng theo từng giá trị facet trong cùng một response
+ */
+public interface ProductFacetService {
+
+    // Dựng lại toàn bộ index từ DB (khởi động, sau khi import hàng loạt)
+    void rebuildIndex();
+
+    ProductFacetResponse browse(List<Integer> brandIds, List<Integer> categoryIds, List<Integer> sizeIds,
+                                List<Integer> colorIds, List<Integer> priceBuckets, Integer page, Integer size);
+
+    // Nạp lại sản phẩm (và variant của nó) từ DB, áp vào index sau khi commit
+    void refreshProduct(Integer productId);
+
+    void removeProduct(Integer productId);
+
+    void refreshBrand(Integer brandId);
+
+    void refreshCategory(Integer categoryId);
+}
@@ -0,0 +1,25 @@
+package com.uniclub.service;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.dto.response.Product.ProductSearchResponse;
+
+/**
+ * Tìm kiếm sản phẩm qua inverted index trong bộ nhớ (bỏ dấu, khớp prefix, xếp hạng, phân trang)
+ * Các thay đổi được áp vào index sau khi transaction commit
+ */
+public interface ProductSearchService {
+
+    // Dựng lại toàn bộ index từ DB (khởi động, sau khi import hàng loạt)
+    void rebuildIndex();
+
+    ProductSearchResponse search(String keyword, Integer page, Integer size);
+
+    void index(ProductResponse product);
+
+    void remove(Integer productId);
+
+    // Tên brand / category nằm trong index nên đổi tên phải index lại các sản phẩm liên quan
+    void reindexBrand(Integer brandId);
+
+    void reindexCategory(Integer categoryId);
+}
@@ -0,0 +1,22 @@
+package com.uniclub.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.uniclub.dto.response.Analytics.DailySalesResponse;
+import com.uniclub.dto.response.Analytics.TopSellerResponse;
+import com.uniclub.entity.enums.SalesDimension;
+
+/**
+ * Truy vấn dashboard chỉ đọc sales_daily_rollup: chi phí theo số ngày x số SKU / sản phẩm có bán,
+ * không phụ thuộc tổng số đơn
+ */
+public interface SalesAnalyticsService {
+
+    // Doanh số từng ngày trong [from, to], ngày không có đơn trả về 0
+    List<DailySalesResponse> getDailySales(LocalDate from, LocalDate to);
+
+    // sortBy: revenue (doanh thu thuần, mặc định) | units (số lượng bán thuần)
+    List<TopSellerResponse> getTopSellers(SalesDimension dimension, LocalDate from, LocalDate to,
+                                          String sortBy, Integer limit);
+}
@@ -0,0 +1,26 @@
+package com.uniclub.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Ghi bảng sales_daily_rollup: cộng dồn theo thay đổi đơn hàng (đọc dòng hàng trong transaction hiện tại,
+ * ghi delta sau khi transaction commit), và dựng lại từ orders / order_variant cho một khoảng ngày (backfill, sửa lệch)
+ * Dòng hàng của đơn phải đã được ghi xuống DB (flush) trước khi gọi
+ */
+public interface SalesRollupService {
+
+    // Đơn mới (hoặc dòng hàng mới sau khi sửa đơn): cộng doanh số, cộng phần hủy nếu đơn đang CANCELLED
+    void recordOrders(Collection<Integer> orderIds);
+
+    // Đơn chuyển sang CANCELLED
+    void recordCancellations(Collection<Integer> orderIds);
+
+    // Trừ toàn bộ phần đóng góp hiện tại của đơn (trước khi xóa đơn hoặc thay dòng hàng)
+    void retractOrders(Collection<Integer> orderIds);
+
+    /**
+     * Tính lại các ngày trong [from, to] từ dữ liệu gốc, mỗi chunk ngày một transaction; trả về số ngày đã dựng
+     */
+    int rebuild(LocalDate from, LocalDate to);
+}
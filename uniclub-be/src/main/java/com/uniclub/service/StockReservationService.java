@@ -0,0 +1,23 @@
+package com.uniclub.service;
+
+import java.util.Map;
+
+/**
+ * Atomic stock adjustments on the variant table.
+ * Every call is a single batched statement, so concurrent checkouts can never oversell.
+ */
+public interface StockReservationService {
+
+    /**
+     * Conditionally decrement stock for every SKU (sku -> quantity).
+     * Throws InsufficientStockException listing the SKUs that could not be reserved,
+     * or ResourceNotFoundException if a SKU does not exist.
+     * Partial decrements are undone by the surrounding transaction rollback.
+     */
+    void reserve(Map<Integer, Integer> quantitiesBySku);
+
+    /**
+     * Give stock back (cancelled / expired orders).
+     */
+    void release(Map<Integer, Integer> quantitiesBySku);
+}
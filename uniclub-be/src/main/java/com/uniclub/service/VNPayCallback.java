@@ -0,0 +1,31 @@
+package com.uniclub.service;
+
+import java.util.Map;
+
+/**
+ * Kết quả giao dịch VNPay gửi về qua IPN hoặc return URL (đã verify chữ ký)
+ *
+ * @param transactionNo mã giao dịch VNPay, null nếu VNPay không cấp mã (giao dịch hủy/lỗi trả về "0")
+ * @param amount        số tiền VND (vnp_Amount đã chia 100)
+ */
+public record VNPayCallback(Integer orderId, String transactionNo, String responseCode,
+                            String transactionStatus, String bankCode, long amount) {
+
+    public static VNPayCallback from(Map<String, String> vnpParams) {
+        String transactionNo = vnpParams.get("vnp_TransactionNo");
+        if (transactionNo == null || transactionNo.isBlank() || "0".equals(transactionNo)) {
+            transactionNo = null;
+        }
+        return new VNPayCallback(
+                Integer.valueOf(vnpParams.get("vnp_TxnRef")),
+                transactionNo,
+                vnpParams.get("vnp_ResponseCode"),
+                vnpParams.get("vnp_TransactionStatus"),
+                vnpParams.get("vnp_BankCode"),
+                Long.parseLong(vnpParams.get("vnp_Amount")) / 100);
+    }
+
+    public boolean isSuccess() {
+        return "00".equals(responseCode) && "00".equals(transactionStatus);
+    }
+}
@@ -0,0 +1,57 @@
+package com.uniclub.service;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Chặn IPN/return lặp lại trước khi chạm DB:
+ * - Cache có giới hạn các mã giao dịch VNPay đã ghi nhận (unique constraint transaction_no là chốt chặn cuối)
+ * - Khóa phân dải theo orderId để các retry đồng thời của cùng một đơn xếp hàng trong JVM
+ *   thay vì cùng mở transaction rồi xung đột version
+ */
+@Component
+public class VNPayCallbackGuard {
+
+    private final Cache<String, Boolean> processedTransactions;
+    private final ReentrantLock[] stripes;
+
+    public VNPayCallbackGuard(@Value("${app.payment.ipn.dedup-size:10000}") long dedupSize,
+                              @Value("${app.payment.ipn.dedup-ttl:24h}") Duration dedupTtl,
+                              @Value("${app.payment.ipn.lock-stripes:64}") int lockStripes) {
+        this.processedTransactions = Caffeine.newBuilder()
+                .maximumSize(dedupSize)
+                .expireAfterWrite(dedupTtl)
+                .build();
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isProcessed(String transactionNo) {
+        return transactionNo != null && processedTransactions.getIfPresent(transactionNo) != null;
+    }
+
+    public void markProcessed(String transactionNo) {
+        if (transactionNo != null) {
+            processedTransactions.put(transactionNo, Boolean.TRUE);
+        }
+    }
+
+    public <T> T withOrderLock(Integer orderId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(orderId.hashCode(), stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.uniclub.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.uniclub.entity.Order;
+import com.uniclub.entity.Payment;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.repository.PaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ghi nhận kết quả thanh toán VNPay trong một transaction ngắn, không khóa dòng
+ * Payment và đơn có @Version: nếu IPN, return URL hoặc job hủy đơn hết hạn đã chuyển trạng thái trước,
+ * transaction này bị từ chối và OptimisticRetry chạy lại, đọc trạng thái mới; chỉ payment còn PENDING mới được cập nhật
+ */
+@Slf4j
+@Component
+public class VNPayCallbackProcessor {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    public enum Outcome {
+        CONFIRMED,
+        FAILED,
+        ALREADY_PROCESSED,
+        NOT_FOUND,
+        INVALID_AMOUNT
+    }
+
+    public Outcome apply(VNPayCallback callback) {
+        return optimisticRetry.execute("payment.vnpayCallback", () -> record(callback));
+    }
+
+    private Outcome record(VNPayCallback callback) {
+        Optional<Payment> latest = paymentRepository.findLatestWithOrderByOrderId(callback.orderId(), PaymentMethod.VNPay);
+        if (latest.isEmpty()) {
+            log.error("VNPay payment not found for order: {}", callback.orderId());
+            return Outcome.NOT_FOUND;
+        }
+
+        Payment payment = latest.get();
+        Order order = payment.getOrder();
+
+        if (order.getTotal() == null || order.getTotal() != callback.amount()) {
+            log.error("Invalid amount. Order total: {}, VNPay amount: {}", order.getTotal(), callback.amount());
+            return Outcome.INVALID_AMOUNT;
+        }
+
+        // Đã được IPN/return khác xử lý, hoặc đã bị hủy do hết hạn
+        if (payment.getPaymentStatus() != PaymentStatus.PENDING) {
+            log.warn("Payment already processed for order: {}", callback.orderId());
+            return Outcome.ALREADY_PROCESSED;
+        }
+        if (callback.transactionNo() != null && paymentRepository.existsByTransactionNo(callback.transactionNo())) {
+            log.warn("VNPay transaction {} already recorded", callback.transactionNo());
+            return Outcome.ALREADY_PROCESSED;
+        }
+
+        payment.setTransactionNo(callback.transactionNo());
+        payment.setVnpayBankCode(callback.bankCode());
+        payment.setVnpayResponseCode(callback.responseCode());
+
+        if (callback.isSuccess()) {
+            payment.setPaymentStatus(PaymentStatus.SUCCESS);
+            payment.setPaidAt(LocalDateTime.now());
+            order.setStatus(OrderStatus.CONFIRMED);
+            log.info("Payment successful for order: {}", callback.orderId());
+            return Outcome.CONFIRMED;
+        }
+
+        payment.setPaymentStatus(PaymentStatus.FAILED);
+        log.warn("Payment failed for order: {}. Response code: {}", callback.orderId(), callback.responseCode());
+        return Outcome.FAILED;
+    }
+}
@@ -4,23 +4,21 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.TimeZone;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.uniclub.config.VNPayConfig;
 import com.uniclub.entity.Order;
 import com.uniclub.entity.Payment;
-import com.uniclub.entity.enums.OrderStatus;
 import com.uniclub.entity.enums.PaymentMethod;
 import com.uniclub.entity.enums.PaymentStatus;
 import com.uniclub.repository.OrderRepository;
 import com.uniclub.repository.PaymentRepository;
-import com.uniclub.util.VNPayUtil;
+import com.uniclub.scheduler.PaymentExpiryQueue;
+import com.uniclub.util.VNPaySigner;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +31,10 @@ public class VNPayService {
     private final VNPayConfig vnPayConfig;
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
+    private final PaymentExpiryQueue paymentExpiryQueue;
+    private final VNPaySigner vnPaySigner;
+    private final VNPayCallbackGuard vnPayCallbackGuard;
+    private final VNPayCallbackProcessor vnPayCallbackProcessor;
     
     /**
      * Create VNPay payment URL
@@ -58,6 +60,9 @@ public class VNPayService {
             // Set payment expires at on order as well
             order.setPaymentExpiresAt(paymentExpiresAt);
             orderRepository.save(order);
+
+            // Đưa vào hàng đợi hết hạn, scheduler sẽ hủy đúng lúc thay vì quét toàn bộ đơn PENDING
+            paymentExpiryQueue.register(orderId, paymentExpiresAt);
             
             // Build VNPay params
             Map<String, String> vnpParams = new HashMap<>();
@@ -83,14 +88,11 @@ public class VNPayService {
             String vnpExpireDate = formatter.format(calendar.getTime());
             vnpParams.put("vnp_ExpireDate", vnpExpireDate);
             
-            // Build query string
-            String queryString = VNPayUtil.buildQueryString(vnpParams);
-            
-            // Generate secure hash
-            String secureHash = VNPayUtil.hmacSHA512(vnPayConfig.getHashSecret(), queryString);
+            // Build query string + secure hash
+            String signedQuery = vnPaySigner.signQuery(vnpParams);
             
             // Build final URL
-            String paymentUrl = vnPayConfig.getVnpayUrl() + "?" + queryString + "&vnp_SecureHash=" + secureHash;
+            String paymentUrl = vnPayConfig.getVnpayUrl() + "?" + signedQuery;
             
             log.info("Created VNPay payment URL for order: {} with expiration at: {}", orderId, paymentExpiresAt);
             return paymentUrl;
@@ -104,97 +106,40 @@ public class VNPayService {
     /**
      * Handle VNPay IPN (Instant Payment Notification)
      * This is called by VNPay server to notify payment result
+     * VNPay retry IPN nhiều lần: giao dịch đã ghi nhận được trả "02" ngay từ cache, không chạm DB
      */
-    @Transactional
     public Map<String, String> handleIPN(Map<String, String> vnpParams) {
         Map<String, String> response = new HashMap<>();
         
         try {
             // Validate secure hash
             String vnpSecureHash = vnpParams.get("vnp_SecureHash");
-            if (!VNPayUtil.validateSecureHash(vnpParams, vnPayConfig.getHashSecret(), vnpSecureHash)) {
+            if (!vnPaySigner.verify(vnpParams, vnpSecureHash)) {
                 log.error("Invalid secure hash from VNPay IPN");
                 response.put("RspCode", "97");
                 response.put("Message", "Invalid signature");
                 return response;
             }
             
-            // Extract data
-            String orderId = vnpParams.get("vnp_TxnRef");
-            String transactionNo = vnpParams.get("vnp_TransactionNo");
-            String responseCode = vnpParams.get("vnp_ResponseCode");
-            String transactionStatus = vnpParams.get("vnp_TransactionStatus");
-            String bankCode = vnpParams.get("vnp_BankCode");
-            String amountStr = vnpParams.get("vnp_Amount");
-            
-            // Find order
-            Optional<Order> orderOpt = orderRepository.findById(Integer.valueOf(orderId));
-            if (orderOpt.isEmpty()) {
-                log.error("Order not found: {}", orderId);
-                response.put("RspCode", "01");
-                response.put("Message", "Order not found");
-                return response;
-            }
-            
-            Order order = orderOpt.get();
-            
-            // Validate amount
-            Integer vnpAmount = Integer.valueOf(amountStr) / 100; // Divide by 100
-            if (!order.getTotal().equals(vnpAmount)) {
-                log.error("Invalid amount. Order total: {}, VNPay amount: {}", order.getTotal(), vnpAmount);
-                response.put("RspCode", "04");
-                response.put("Message", "Invalid amount");
-                return response;
-            }
-            
-            // Find payment record
-            List<Payment> payments = paymentRepository.findByOrderId(order.getId());
-            Payment payment = payments.stream()
-                    .filter(p -> p.getPaymentMethod() == PaymentMethod.VNPay && p.getPaymentStatus() == PaymentStatus.PENDING)
-                    .findFirst()
-                    .orElse(null);
-            
-            if (payment == null) {
-                log.error("Payment record not found for order: {}", orderId);
-                response.put("RspCode", "01");
-                response.put("Message", "Payment record not found");
-                return response;
-            }
-            
-            // Check if already processed
-            if (payment.getPaymentStatus() != PaymentStatus.PENDING) {
-                log.warn("Payment already processed for order: {}", orderId);
-                response.put("RspCode", "02");
-                response.put("Message", "Order already confirmed");
-                return response;
-            }
-            
-            // Update payment status
-            payment.setTransactionNo(transactionNo);
-            payment.setVnpayBankCode(bankCode);
-            payment.setVnpayResponseCode(responseCode);
-            
-            if ("00".equals(responseCode) && "00".equals(transactionStatus)) {
-                // Payment success
-                payment.setPaymentStatus(PaymentStatus.SUCCESS);
-                payment.setPaidAt(LocalDateTime.now());
-                
-                // Update order status to CONFIRMED
-                order.setStatus(OrderStatus.CONFIRMED);
-                
-                log.info("Payment successful for order: {}", orderId);
-            } else {
-                // Payment failed
-                payment.setPaymentStatus(PaymentStatus.FAILED);
-                log.warn("Payment failed for order: {}. Response code: {}", orderId, responseCode);
+            switch (process(VNPayCallback.from(vnpParams))) {
+                case NOT_FOUND -> {
+                    response.put("RspCode", "01");
+                    response.put("Message", "Order not found");
+                }
+                case INVALID_AMOUNT -> {
+                    response.put("RspCode", "04");
+                    response.put("Message", "Invalid amount");
+                }
+                case ALREADY_PROCESSED -> {
+                    response.put("RspCode", "02");
+                    response.put("Message", "Order already confirmed");
+                }
+                case CONFIRMED, FAILED -> {
+                    response.put("RspCode", "00");
+                    response.put("Message", "Confirm Success");
+                }
             }
             
-            paymentRepository.save(payment);
-            orderRepository.save(order);
-            
-            response.put("RspCode", "00");
-            response.put("Message", "Confirm Success");
-            
         } catch (Exception e) {
             log.error("Error handling VNPay IPN", e);
             response.put("RspCode", "99");
@@ -209,14 +154,13 @@ public class VNPayService {
      * This is where user is redirected after payment
      * NOTE: This also updates order status for local/demo environments where IPN cannot be called
      */
-    @Transactional
     public Map<String, Object> handleReturn(Map<String, String> vnpParams) {
         Map<String, Object> result = new HashMap<>();
         
         try {
             // Validate secure hash
             String vnpSecureHash = vnpParams.get("vnp_SecureHash");
-            if (!VNPayUtil.validateSecureHash(vnpParams, vnPayConfig.getHashSecret(), vnpSecureHash)) {
+            if (!vnPaySigner.verify(vnpParams, vnpSecureHash)) {
                 log.error("Invalid secure hash from VNPay return");
                 result.put("success", false);
                 result.put("message", "Chữ ký không hợp lệ");
@@ -224,52 +168,12 @@ public class VNPayService {
             }
             
             String responseCode = vnpParams.get("vnp_ResponseCode");
-            String transactionStatus = vnpParams.get("vnp_TransactionStatus");
-            String orderId = vnpParams.get("vnp_TxnRef");
-            String transactionNo = vnpParams.get("vnp_TransactionNo");
-            String bankCode = vnpParams.get("vnp_BankCode");
+            result.put("orderId", vnpParams.get("vnp_TxnRef"));
+            result.put("transactionNo", vnpParams.get("vnp_TransactionNo"));
             
-            result.put("orderId", orderId);
-            result.put("transactionNo", transactionNo);
-            
-            // Update order status (important for local/demo environments)
+            // Update order status (important for local/demo environments), cùng đường xử lý với IPN
             try {
-                Optional<Order> orderOpt = orderRepository.findById(Integer.valueOf(orderId));
-                if (orderOpt.isPresent()) {
-                    Order order = orderOpt.get();
-                    
-                    // Find payment record
-                    List<Payment> payments = paymentRepository.findByOrderId(order.getId());
-                    Payment payment = payments.stream()
-                            .filter(p -> p.getPaymentMethod() == PaymentMethod.VNPay)
-                            .findFirst()
-                            .orElse(null);
-                    
-                    if (payment != null && payment.getPaymentStatus() == PaymentStatus.PENDING) {
-                        // Update payment
-                        payment.setTransactionNo(transactionNo);
-                        payment.setVnpayBankCode(bankCode);
-                        payment.setVnpayResponseCode(responseCode);
-                        
-                        if ("00".equals(responseCode) && "00".equals(transactionStatus)) {
-                            // Payment success
-                            payment.setPaymentStatus(PaymentStatus.SUCCESS);
-                            payment.setPaidAt(LocalDateTime.now());
-                            
-                            // Update order status to CONFIRMED
-                            order.setStatus(OrderStatus.CONFIRMED);
-                            
-                            log.info("Payment successful via return URL for order: {}", orderId);
-                        } else {
-                            // Payment failed
-                            payment.setPaymentStatus(PaymentStatus.FAILED);
-                            log.warn("Payment failed via return URL for order: {}. Response code: {}", orderId, responseCode);
-                        }
-                        
-                        paymentRepository.save(payment);
-                        orderRepository.save(order);
-                    }
-                }
+                process(VNPayCallback.from(vnpParams));
             } catch (Exception e) {
                 log.error("Error updating order status from return URL", e);
                 // Continue to return result to user even if update fails
@@ -293,4 +197,33 @@ public class VNPayService {
         
         return result;
     }
+
+    /**
+     * Cache mã giao dịch -> khóa phân dải theo đơn -> kiểm tra lại cache -> transaction ghi theo @Version
+     * Cache chỉ được đánh dấu sau khi transaction đã commit
+     */
+    private VNPayCallbackProcessor.Outcome process(VNPayCallback callback) {
+        if (vnPayCallbackGuard.isProcessed(callback.transactionNo())) {
+            return VNPayCallbackProcessor.Outcome.ALREADY_PROCESSED;
+        }
+        return vnPayCallbackGuard.withOrderLock(callback.orderId(), () -> {
+            if (vnPayCallbackGuard.isProcessed(callback.transactionNo())) {
+                return VNPayCallbackProcessor.Outcome.ALREADY_PROCESSED;
+            }
+            VNPayCallbackProcessor.Outcome outcome;
+            try {
+                outcome = vnPayCallbackProcessor.apply(callback);
+            } catch (DataIntegrityViolationException e) {
+                // Instance khác đã ghi cùng transaction_no (unique constraint)
+                log.warn("VNPay transaction {} already recorded", callback.transactionNo());
+                outcome = VNPayCallbackProcessor.Outcome.ALREADY_PROCESSED;
+            }
+            if (outcome == VNPayCallbackProcessor.Outcome.CONFIRMED
+                    || outcome == VNPayCallbackProcessor.Outcome.FAILED
+                    || outcome == VNPayCallbackProcessor.Outcome.ALREADY_PROCESSED) {
+                vnPayCallbackGuard.markProcessed(callback.transactionNo());
+            }
+            return outcome;
+        });
+    }
 }
@@ -1,5 +1,6 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Brand.CreateBrandRequest;
 import com.uniclub.dto.request.Brand.UpdateBrandRequest;
 import com.uniclub.dto.response.Brand.BrandResponse;
@@ -8,9 +9,14 @@ import com.uniclub.entity.Role;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.BrandRepository;
 import com.uniclub.service.BrandService;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.ProductSearchService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,7 +27,14 @@ public class BrandServiceImpl implements BrandService {
     @Autowired
     private BrandRepository brandRepository;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BRANDS, key = CacheConfig.ALL)
     public BrandResponse createBrand(CreateBrandRequest request) {
         Brand brand = new Brand();
         brand.setName(request.getName());
@@ -31,6 +44,12 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BRANDS, key = CacheConfig.ALL),
+            // ProductResponse chứa tên brand
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.BRANDS, key = "#brandId")
+    })
     public BrandResponse updateBrand(Integer brandId, UpdateBrandRequest request) {
         Brand brand = brandRepository.findById(brandId)
                 .orElseThrow(() -> new ResourceNotFoundException("Brand", "id", brandId));
@@ -43,10 +62,13 @@ public class BrandServiceImpl implements BrandService {
         }
 
         Brand updatedBrand = brandRepository.save(brand);
+        productSearchService.reindexBrand(brandId);
+        productFacetService.refreshBrand(brandId);
         return BrandResponse.fromEntity(updatedBrand);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BRANDS, key = CacheConfig.ALL)
     public List<BrandResponse> getAllBrands() {
         return brandRepository.findAll()
                 .stream()
@@ -55,6 +77,7 @@ public class BrandServiceImpl implements BrandService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BRANDS, key = "#brandId")
     public BrandResponse getBrandById(Integer brandId) {
         Brand brand = brandRepository.findById(brandId)
                 .orElseThrow(() -> new ResourceNotFoundException("Brand", "id", brandId));
@@ -63,6 +86,12 @@ public class BrandServiceImpl implements BrandService {
 
     // Hard delete
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BRANDS, key = CacheConfig.ALL),
+            // ProductResponse chứa tên brand
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.BRANDS, key = "#brandId")
+    })
     public void deleteBrand(Integer brandId) {
         if (!brandRepository.existsById(brandId)) {
             throw new ResourceNotFoundException("Brand", "id", brandId);
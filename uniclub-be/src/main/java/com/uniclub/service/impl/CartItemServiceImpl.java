@@ -1,100 +1,77 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.cart.ActiveCart;
+import com.uniclub.cart.CartLine;
+import com.uniclub.cart.CartStore;
 import com.uniclub.dto.request.CartItem.CreateCartItemRequest;
 import com.uniclub.dto.request.CartItem.UpdateCartItemRequest;
 import com.uniclub.dto.response.CartItem.CartItemResponse;
-import com.uniclub.entity.Cart;
-import com.uniclub.entity.CartItem;
-import com.uniclub.entity.Variant;
+import com.uniclub.dto.response.Variant.VariantResponse;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.CartItemRepository;
-import com.uniclub.repository.CartRepository;
-import com.uniclub.repository.VariantRepository;
 import com.uniclub.service.CartItemService;
-import jakarta.transaction.Transactional;
+import com.uniclub.service.VariantService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Thêm / sửa / xóa dòng giỏ hàng đi qua CartStore (bộ nhớ, ghi trễ xuống DB),
+ * tồn kho kiểm tra trên variant đã cache (VariantService.getBySku)
+ * Tồn kho ở đây chỉ là kiểm tra sớm, giữ hàng thật sự diễn ra khi đặt đơn (StockReservationService)
+ */
 @Service
-@Transactional
 public class CartItemServiceImpl implements CartItemService {
     @Autowired
     private CartItemRepository cartItemRepository;
-    
+
     @Autowired
-    private CartRepository cartRepository;
-    
+    private CartStore cartStore;
+
     @Autowired
-    private VariantRepository variantRepository;
+    private VariantService variantService;
 
     @Override
     public CartItemResponse createCartItem(CreateCartItemRequest request) {
         // Check if cart exists
-        Cart cart = cartRepository.findById(request.getCartId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "id", request.getCartId()));
+        ActiveCart cart = cartStore.getByCartId(request.getCartId());
 
         // Check if variant exists
-        Variant variant = variantRepository.findById(request.getVariantSku())
-                .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", request.getVariantSku()));
-
-        // Check if cart item with same variant already exists
-        Optional<CartItem> existingCartItemOpt = cartItemRepository.findByCartIdAndVariantSku(request.getCartId(), request.getVariantSku());
-        if (existingCartItemOpt.isPresent()) {
-            // If exists, increase quantity
-            CartItem existingCartItem = existingCartItemOpt.get();
-            int newQuantity = existingCartItem.getQuantity() + request.getQuantity();
-            
-            // Check if variant has enough quantity
-            if (variant.getQuantity() < newQuantity) {
-                throw new IllegalArgumentException("Số lượng sản phẩm không đủ");
-            }
-            
-            existingCartItem.setQuantity(newQuantity);
-            CartItem updatedCartItem = cartItemRepository.save(existingCartItem);
-            return CartItemResponse.fromEntity(updatedCartItem);
-        }
+        VariantResponse variant = variantService.getBySku(request.getVariantSku());
 
-        // Check if variant has enough quantity
-        if (variant.getQuantity() < request.getQuantity()) {
+        // If cart item with same variant already exists, quantity is increased
+        int inCart = cart.line(request.getVariantSku()).map(CartLine::quantity).orElse(0);
+        if (variant.getQuantity() < inCart + request.getQuantity()) {
             throw new IllegalArgumentException("Số lượng sản phẩm không đủ");
         }
 
-        // Create new cart item
-        CartItem cartItem = new CartItem();
-        cartItem.setCart(cart);
-        cartItem.setVariant(variant);
-        cartItem.setQuantity(request.getQuantity());
-        cartItem.setUnitPrice(request.getUnitPrice());
-
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
-        return CartItemResponse.fromEntity(savedCartItem);
+        CartLine line = cartStore.add(cart, request.getVariantSku(), request.getQuantity(), request.getUnitPrice());
+        return CartItemResponse.fromCartLine(cart.getCartId(), line);
     }
 
     @Override
     public CartItemResponse updateCartItem(Integer cartItemId, UpdateCartItemRequest request) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
+        ActiveCart cart = findCart(cartItemId);
+        CartLine line = cart.lineById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
 
         if (request.getQuantity() != null) {
             // Check if variant has enough quantity
-            if (cartItem.getVariant().getQuantity() < request.getQuantity()) {
+            VariantResponse variant = variantService.getBySku(line.sku());
+            if (variant.getQuantity() < request.getQuantity()) {
                 throw new IllegalArgumentException("Số lượng sản phẩm không đủ");
             }
-            cartItem.setQuantity(request.getQuantity());
-        }
-        if (request.getUnitPrice() != null) {
-            cartItem.setUnitPrice(request.getUnitPrice());
         }
 
-        CartItem updatedCartItem = cartItemRepository.save(cartItem);
-        return CartItemResponse.fromEntity(updatedCartItem);
+        CartLine updated = cartStore.update(cart, cartItemId, request.getQuantity(), request.getUnitPrice());
+        return CartItemResponse.fromCartLine(cart.getCartId(), updated);
     }
 
+    // Danh sách toàn bộ (quản trị): ghi hết thay đổi đang chờ rồi đọc DB
     @Override
     public List<CartItemResponse> getAllCartItems() {
+        cartStore.flushAll();
         return cartItemRepository.findAll()
                 .stream()
                 .map(CartItemResponse::fromEntity)
@@ -103,25 +80,29 @@ public class CartItemServiceImpl implements CartItemService {
 
     @Override
     public CartItemResponse getCartItemById(Integer cartItemId) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
+        ActiveCart cart = findCart(cartItemId);
+        return cart.lineById(cartItemId)
+                .map(line -> CartItemResponse.fromCartLine(cart.getCartId(), line))
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
-        return CartItemResponse.fromEntity(cartItem);
     }
 
     @Override
     public List<CartItemResponse> getCartItemsByCartId(Integer cartId) {
-        return cartItemRepository.findByCartId(cartId)
+        ActiveCart cart = cartStore.getByCartId(cartId);
+        return cart.getLines()
                 .stream()
-                .map(CartItemResponse::fromEntity)
+                .map(line -> CartItemResponse.fromCartLine(cart.getCartId(), line))
                 .toList();
     }
 
     // Hard delete
     @Override
     public void deleteCartItem(Integer cartItemId) {
-        if (!cartItemRepository.existsById(cartItemId)) {
-            throw new ResourceNotFoundException("CartItem", "id", cartItemId);
-        }
-        cartItemRepository.deleteById(cartItemId);
+        cartStore.remove(findCart(cartItemId), cartItemId);
+    }
+
+    private ActiveCart findCart(Integer cartItemId) {
+        return cartStore.findByLineId(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
     }
 }
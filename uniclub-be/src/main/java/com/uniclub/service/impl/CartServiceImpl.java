@@ -5,9 +5,12 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.uniclub.cart.ActiveCart;
+import com.uniclub.cart.CartStore;
 import com.uniclub.dto.request.Cart.CreateCartRequest;
 import com.uniclub.dto.request.Cart.UpdateCartRequest;
 import com.uniclub.dto.response.Cart.CartResponse;
+import com.uniclub.dto.response.Cart.CartSummaryResponse;
 import com.uniclub.entity.Cart;
 import com.uniclub.entity.User;
 import com.uniclub.exception.ResourceNotFoundException;
@@ -26,6 +29,9 @@ public class CartServiceImpl implements CartService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CartStore cartStore;
+
     @Override
     public CartResponse createCart(CreateCartRequest request) {
         // Check if user exists
@@ -79,7 +85,7 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartRepository.findByIdWithUser(cartId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "id", cartId));
         
-        return CartResponse.fromEntity(cart);
+        return withLiveTotals(CartResponse.fromEntity(cart));
     }
 
     @Override
@@ -88,7 +94,13 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId));
         
-        return CartResponse.fromEntity(cart);
+        return withLiveTotals(CartResponse.fromEntity(cart));
+    }
+
+    // Tóm tắt giỏ (badge / mini-cart): không nạp các dòng nếu giỏ không nằm trong bộ nhớ
+    @Override
+    public CartSummaryResponse getCartSummary(Integer userId) {
+        return CartSummaryResponse.from(cartStore.summary(userId));
     }
 
     // Hard delete
@@ -98,14 +110,25 @@ public class CartServiceImpl implements CartService {
             throw new ResourceNotFoundException("Cart", "id", cartId);
         }
         cartRepository.deleteById(cartId);
+        cartStore.evictCart(cartId);
     }
     
-    // Clear all cart items for a user
+    // Giỏ đang trong bộ nhớ có thể có tổng mới hơn bảng cart (chưa tới lượt ghi)
+    private CartResponse withLiveTotals(CartResponse response) {
+        if (response.getUserId() != null) {
+            cartStore.activeSummary(response.getUserId()).ifPresent(summary -> {
+                ActiveCart.Totals totals = summary.totals();
+                response.setTotalPrice(totals.subtotal());
+                response.setShippingFee(totals.shippingFee());
+                response.setItemCount(totals.itemCount());
+            });
+        }
+        return response;
+    }
+
+    // Clear all cart items for a user (checkout): ghi ngay, không chờ write-behind
     @Override
     public void clearCartByUserId(Integer userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId));
-        cart.getCartItems().clear();
-        cartRepository.save(cart);
+        cartStore.clear(userId);
     }
 }
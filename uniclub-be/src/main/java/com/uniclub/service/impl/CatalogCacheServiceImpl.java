@@ -0,0 +1,30 @@
+package com.uniclub.service.impl;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.uniclub.config.CacheConfig;
+import com.uniclub.service.CatalogCacheService;
+
+@Service
+public class CatalogCacheServiceImpl implements CatalogCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Override
+    public void evictVariants(Collection<Integer> skus) {
+        if (skus == null || skus.isEmpty()) {
+            return;
+        }
+        // Danh sách variant (VARIANT_LISTS) chỉ giữ SKU, variant trong danh sách cũng lấy từ cache này
+        Cache variants = cacheManager.getCache(CacheConfig.VARIANTS);
+        if (variants != null) {
+            skus.forEach(variants::evict);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.uniclub.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniclub.config.CacheConfig;
+import com.uniclub.dto.response.Import.CatalogImportResponse;
+import com.uniclub.service.CatalogImportService;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.ProductSearchService;
+import com.uniclub.util.CsvReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import không đi qua JPA: brand / category / size / color / sản phẩm được nạp một lần vào map tên -> id,
+ * mỗi chunk batch-size dòng ghi bằng một câu INSERT nhiều VALUES cho product và một cho variant trong một transaction
+ * Chunk lỗi được rollback rồi ghi lại từng dòng để chỉ ra đúng dòng hỏng, các dòng còn lại vẫn được nhập
+ */
+@Slf4j
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final byte ACTIVE = 1;
+    private static final int MAX_LENGTH = 255;
+
+    private static final String PRODUCT_COLUMNS =
+            "name, description, information, status, id_brand, id_category, created_at, updated_at";
+    private static final String VARIANT_COLUMNS =
+            "id_product, id_size, id_color, price, quantity, images, status, created_at, updated_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Value("${app.catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VARIANT_LISTS, allEntries = true)
+    })
+    public CatalogImportResponse importCatalog(InputStream input, Format format) {
+        long start = System.nanoTime();
+        ImportJob job = new ImportJob();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == Format.JSONL) {
+                readJsonLines(reader, job);
+            } else {
+                readCsv(reader, job);
+            }
+        } catch (IOException e) {
+            // File hỏng giữa chừng: giữ các chunk đã ghi, báo lỗi tại dòng đang đọc
+            job.error(job.lastLine + 1, "Không đọc được file: " + e.getMessage());
+        }
+        job.flush();
+
+        CatalogImportResponse report = job.report;
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        if (report.getProductsCreated() > 0 || report.getVariantsCreated() > 0) {
+            productSearchService.rebuildIndex();
+            productFacetService.rebuildIndex();
+        }
+        log.info("Catalog import: {} rows, {} products, {} variants created, {} failed in {} ms",
+                report.getTotalRows(), report.getProductsCreated(), report.getVariantsCreated(),
+                report.getFailedRows(), report.getElapsedMillis());
+        return report;
+    }
+
+    private void readCsv(Reader reader, ImportJob job) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("File import rỗng");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("product")) {
+            throw new IllegalArgumentException("File CSV thiếu cột product");
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            List<String> values = record;
+            job.accept(csv.getRecordLine(), column -> {
+                Integer index = columns.get(column);
+                return index == null || index >= values.size() ? null : values.get(index);
+            });
+        }
+    }
+
+    private void readJsonLines(BufferedReader reader, ImportJob job) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                job.report.setTotalRows(job.report.getTotalRows() + 1);
+                job.error(lineNumber, "JSON không hợp lệ: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!node.isObject()) {
+                job.report.setTotalRows(job.report.getTotalRows() + 1);
+                job.error(lineNumber, "Mỗi dòng phải là một JSON object");
+                continue;
+            }
+            job.accept(lineNumber, column -> {
+                JsonNode value = node.get(column);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private Map<String, Integer> loadNames(String table) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " ORDER BY id", rs -> {
+            String name = rs.getString(2);
+            if (name != null) {
+                ids.putIfAbsent(key(name), rs.getInt(1));
+            }
+        });
+        return ids;
+    }
+
+    private static String comboKey(String productKey, Integer sizeId, Integer colorId) {
+        return productKey + '|' + sizeId + '|' + colorId;
+    }
+
+    private record NewProduct(String name, String description, String information,
+                              int brandId, int categoryId) {
+    }
+
+    // variant == false: dòng chỉ tạo sản phẩm
+    private record Row(long line, String productKey, boolean variant, Integer sizeId, Integer colorId,
+                       Integer price, Integer quantity, String images, String comboKey) {
+    }
+
+    private final class ImportJob {
+
+        private final CatalogImportResponse report = new CatalogImportResponse();
+        private final Map<String, Integer> brands = loadNames("brand");
+        private final Map<String, Integer> categories = loadNames("category");
+        private final Map<String, Integer> sizes = loadNames("size");
+        private final Map<String, Integer> colors = loadNames("color");
+        private final Map<String, Integer> products = loadNames("product");
+        // (tên sản phẩm, size, color) đã có trong DB hoặc đã gặp trong file
+        private final Set<String> combos = new HashSet<>();
+
+        private final Map<String, NewProduct> chunkProducts = new LinkedHashMap<>();
+        private final List<Row> chunkRows = new ArrayList<>();
+        private long lastLine;
+
+        private ImportJob() {
+            jdbcTemplate.query("SELECT p.name, v.id_size, v.id_color FROM variant v JOIN product p ON p.id = v.id_product",
+                    rs -> {
+                        combos.add(comboKey(key(rs.getString(1)),
+                                rs.getObject(2, Integer.class), rs.getObject(3, Integer.class)));
+                    });
+        }
+
+        void accept(long line, Function<String, String> field) {
+            lastLine = line;
+            report.setTotalRows(report.getTotalRows() + 1);
+
+            String name = trimToNull(field.apply("product"));
+            if (name == null) {
+                error(line, "Thiếu tên sản phẩm");
+                return;
+            }
+            if (name.length() > MAX_LENGTH) {
+                error(line, "Tên sản phẩm không được vượt quá 255 ký tự");
+                return;
+            }
+            String productKey = key(name);
+            boolean productExists = products.containsKey(productKey) || chunkProducts.containsKey(productKey);
+
+            NewProduct newProduct = null;
+            if (!productExists) {
+                String brand = trimToNull(field.apply("brand"));
+                String category = trimToNull(field.apply("category"));
+                String description = trimToNull(field.apply("description"));
+                String information = trimToNull(field.apply("information"));
+                if (brand == null || category == null) {
+                    error(line, "Sản phẩm mới phải có brand và category");
+                    return;
+                }
+                Integer brandId = brands.get(key(brand));
+                if (brandId == null) {
+                    error(line, "Không tìm thấy brand: " + brand);
+                    return;
+                }
+                Integer categoryId = categories.get(key(category));
+                if (categoryId == null) {
+                    error(line, "Không tìm thấy category: " + category);
+                    return;
+                }
+                if ((description != null && description.length() > MAX_LENGTH)
+                        || (information != null && information.length() > MAX_LENGTH)) {
+                    error(line, "Mô tả / thông tin không được vượt quá 255 ký tự");
+                    return;
+                }
+                newProduct = new NewProduct(name, description, information, brandId, categoryId);
+            }
+
+            String size = trimToNull(field.apply("size"));
+            String color = trimToNull(field.apply("color"));
+            String price = trimToNull(field.apply("price"));
+            String quantity = trimToNull(field.apply("quantity"));
+            String images = trimToNull(field.apply("images"));
+            if (size == null && color == null && price == null && quantity == null && images == null) {
+                if (productExists) {
+                    error(line, "Sản phẩm đã tồn tại: " + name);
+                    return;
+                }
+                chunkProducts.put(productKey, newProduct);
+                addRow(new Row(line, productKey, false, null, null, null, null, null, null));
+                return;
+            }
+
+            Integer sizeId = null;
+            if (size != null && (sizeId = sizes.get(key(size))) == null) {
+                error(line, "Không tìm thấy size: " + size);
+                return;
+            }
+            Integer colorId = null;
+            if (color != null && (colorId = colors.get(key(color))) == null) {
+                error(line, "Không tìm thấy color: " + color);
+                return;
+            }
+            if (price == null) {
+                error(line, "Thiếu giá");
+                return;
+            }
+            Integer priceValue = parseNonNegative(line, price, "Giá");
+            Integer quantityValue = quantity == null ? Integer.valueOf(0) : parseNonNegative(line, quantity, "Số lượng");
+            if (priceValue == null || quantityValue == null) {
+                return;
+            }
+            if (images != null && images.length() > MAX_LENGTH) {
+                error(line, "Độ dài tối đa của images là 255 ký tự");
+                return;
+            }
+            String combo = comboKey(productKey, sizeId, colorId);
+            if (!combos.add(combo)) {
+                error(line, "Variant đã tồn tại (sản phẩm, size, color): " + name);
+                return;
+            }
+
+            if (newProduct != null) {
+                chunkProducts.put(productKey, newProduct);
+            }
+            addRow(new Row(line, productKey, true, sizeId, colorId, priceValue, quantityValue, images, combo));
+        }
+
+        private Integer parseNonNegative(long line, String value, String label) {
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed < 0) {
+                    error(line, label + " phải >= 0");
+                    return null;
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                error(line, label + " không hợp lệ: " + value);
+                return null;
+            }
+        }
+
+        private void addRow(Row row) {
+            chunkRows.add(row);
+            if (chunkRows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void error(long line, String message) {
+            report.setFailedRows(report.getFailedRows() + 1);
+            if (report.getErrors().size() < maxErrors) {
+                report.getErrors().add(new CatalogImportResponse.RowError(line, message));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+
+        void flush() {
+            if (chunkRows.isEmpty()) {
+                return;
+            }
+            try {
+                Map<String, Integer> created = transactionTemplate.execute(status ->
+                        insert(chunkProducts.values(), chunkRows));
+                products.putAll(created);
+                report.setProductsCreated(report.getProductsCreated() + created.size());
+                report.setVariantsCreated(report.getVariantsCreated() + chunkRows.stream().filter(Row::variant).count());
+            } catch (DataAccessException e) {
+                log.warn("Import chunk at line {} failed, retrying row by row: {}",
+                        chunkRows.get(0).line(), e.getMostSpecificCause().getMessage());
+                insertRowByRow();
+            }
+            chunkProducts.clear();
+            chunkRows.clear();
+        }
+
+        private void insertRowByRow() {
+            for (Row row : chunkRows) {
+                NewProduct product = products.containsKey(row.productKey()) ? null : chunkProducts.get(row.productKey());
+                try {
+                    Map<String, Integer> created = transactionTemplate.execute(status -> insert(
+                            product == null ? List.of() : List.of(product), List.of(row)));
+                    products.putAll(created);
+                    report.setProductsCreated(report.getProductsCreated() + created.size());
+                    if (row.variant()) {
+                        report.setVariantsCreated(report.getVariantsCreated() + 1);
+                    }
+                } catch (DataAccessException e) {
+                    if (row.comboKey() != null) {
+                        combos.remove(row.comboKey());
+                    }
+                    error(row.line(), "Lỗi ghi dữ liệu: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        /**
+         * Ghi sản phẩm mới rồi variant của chunk, trả về id của các sản phẩm vừa tạo (theo key tên)
+         * Map products chỉ được cập nhật sau khi commit
+         */
+        private Map<String, Integer> insert(Collection<NewProduct> newProducts, List<Row> rows) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            Map<String, Integer> created = Collections.emptyMap();
+            if (!newProducts.isEmpty()) {
+                List<Object[]> values = new ArrayList<>(newProducts.size());
+                for (NewProduct p : newProducts) {
+                    values.add(new Object[]{p.name(), p.description(), p.information(), ACTIVE,
+                            p.brandId(), p.categoryId(), now, now});
+                }
+                multiRowInsert("product", PRODUCT_COLUMNS, values);
+                created = productIds(newProducts);
+            }
+
+            List<Object[]> values = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                if (!row.variant()) {
+                    continue;
+                }
+                Integer productId = products.get(row.productKey());
+                if (productId == null) {
+                    productId = created.get(row.productKey());
+                }
+                values.add(new Object[]{productId, row.sizeId(), row.colorId(), row.price(), row.quantity(),
+                        row.images(), ACTIVE, now, now});
+            }
+            multiRowInsert("variant", VARIANT_COLUMNS, values);
+            return created;
+        }
+
+        // Id tự tăng của sản phẩm vừa chèn: tra lại theo tên (đều là tên chưa có trước đó)
+        private Map<String, Integer> productIds(Collection<NewProduct> newProducts) {
+            Map<String, Integer> ids = new HashMap<>();
+            Object[] names = newProducts.stream().map(NewProduct::name).toArray();
+            String placeholders = String.join(",", Collections.nCopies(names.length, "?"));
+            jdbcTemplate.query("SELECT id, name FROM product WHERE name IN (" + placeholders + ") ORDER BY id", rs -> {
+                ids.put(key(rs.getString(2)), rs.getInt(1));
+            }, names);
+            return ids;
+        }
+    }
+
+    /**
+     * INSERT INTO table (columns) VALUES (?, ...), (?, ...) — một round trip cho cả chunk
+     */
+    private void multiRowInsert(String table, String columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int columnCount = rows.get(0).length;
+        String tuple = "(" + String.join(",", Collections.nCopies(columnCount, "?")) + ")";
+        StringBuilder sql = new StringBuilder(64 + rows.size() * (tuple.length() + 1))
+                .append("INSERT INTO ").append(table).append(" (").append(columns).append(") VALUES ");
+        Object[] args = new Object[rows.size() * columnCount];
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(tuple);
+            System.arraycopy(rows.get(i), 0, args, i * columnCount, columnCount);
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
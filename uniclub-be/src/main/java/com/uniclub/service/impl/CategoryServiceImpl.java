@@ -1,5 +1,6 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Category.CreateCategoryRequest;
 import com.uniclub.dto.request.Category.UpdateCategoryRequest;
 import com.uniclub.dto.response.Category.CategoryResponse;
@@ -7,8 +8,13 @@ import com.uniclub.entity.Category;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.CategoryRepository;
 import com.uniclub.service.CategoryService;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.ProductSearchService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,7 +26,14 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = CacheConfig.ALL)
     public CategoryResponse createCategory(CreateCategoryRequest request) {
         // Kiểm tra trùng tên
         if (categoryRepository.existsByNameIgnoreCase(request.getName())) {
@@ -35,6 +48,12 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = CacheConfig.ALL),
+            // ProductResponse chứa tên category
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
+    })
     public CategoryResponse updateCategory(Integer categoryId, UpdateCategoryRequest request) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
@@ -52,10 +71,13 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        productSearchService.reindexCategory(categoryId);
+        productFacetService.refreshCategory(categoryId);
         return CategoryResponse.fromEntity(updatedCategory);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = CacheConfig.ALL)
     public List<CategoryResponse> getAllCategories() {
         return categoryRepository.findAll()
                 .stream()
@@ -64,6 +86,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
     public CategoryResponse getCategoryById(Integer categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
@@ -71,6 +94,12 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = CacheConfig.ALL),
+            // ProductResponse chứa tên category
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
+    })
     public void deleteCategory(Integer categoryId) {
         if (!categoryRepository.existsById(categoryId)) {
             throw new ResourceNotFoundException("Category", "id", categoryId);
@@ -1,5 +1,6 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Color.CreateColorRequest;
 import com.uniclub.dto.request.Color.UpdateColorRequest;
 import com.uniclub.dto.response.Color.ColorResponse;
@@ -11,6 +12,9 @@ import com.uniclub.service.ColorService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +27,7 @@ public class ColorServiceImpl implements ColorService {
     private ColorRepository colorRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COLORS, key = CacheConfig.ALL)
     public ColorResponse createColor(CreateColorRequest request) {
         // Kiểm tra trùng tên color
         if (colorRepository.existsByNameIgnoreCase(request.getName())) {
@@ -38,6 +43,10 @@ public class ColorServiceImpl implements ColorService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COLORS, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.COLORS, key = "#colorId")
+    })
     public ColorResponse updateColor(Integer colorId, UpdateColorRequest request) {
         Color color = colorRepository.findById(colorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Color", "id", colorId));
@@ -63,6 +72,7 @@ public class ColorServiceImpl implements ColorService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COLORS, key = CacheConfig.ALL)
     public List<ColorResponse> getAllColors() {
         return colorRepository.findAll()
                 .stream()
@@ -71,6 +81,7 @@ public class ColorServiceImpl implements ColorService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COLORS, key = "#colorId")
     public ColorResponse getColorById(Integer colorId) {
         Color color = colorRepository.findById(colorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Color", "id", colorId));
@@ -78,6 +89,10 @@ public class ColorServiceImpl implements ColorService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COLORS, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.COLORS, key = "#colorId")
+    })
     public void deleteColor(Integer colorId) {
         if (!colorRepository.existsById(colorId)) {
             throw new ResourceNotFoundException("Color", "id", colorId);
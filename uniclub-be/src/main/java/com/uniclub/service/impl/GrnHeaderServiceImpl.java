@@ -1,7 +1,9 @@
 package com.uniclub.service.impl;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,8 +20,9 @@ import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.GrnDetailRepository;
 import com.uniclub.repository.GrnHeaderRepository;
 import com.uniclub.repository.SupplierRepository;
-import com.uniclub.repository.VariantRepository;
 import com.uniclub.service.GrnHeaderService;
+import com.uniclub.service.OptimisticRetry;
+import com.uniclub.service.StockReservationService;
 
 import jakarta.transaction.Transactional;
 
@@ -32,12 +35,12 @@ public class GrnHeaderServiceImpl implements GrnHeaderService {
     @Autowired
     private GrnDetailRepository grnDetailRepository;
     
-    @Autowired
-    private VariantRepository variantRepository;
-    
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private StockReservationService stockReservationService;
+
     @Override
     public GrnHeaderResponse createGrnHeader(CreateGrnHeaderRequest request) {
         // Check if supplier exists
@@ -59,6 +62,8 @@ public class GrnHeaderServiceImpl implements GrnHeaderService {
     public GrnHeaderResponse updateGrnHeader(Integer grnHeaderId, UpdateGrnHeaderRequest request) {
         GrnHeader grnHeader = grnHeaderRepository.findById(grnHeaderId)
                 .orElseThrow(() -> new ResourceNotFoundException("GrnHeader", "id", grnHeaderId));
+        // Hai người cùng hoàn tất phiếu thì người sau nhận 409, kho chỉ được cộng một lần
+        OptimisticRetry.requireVersion(GrnHeader.class, grnHeaderId, request.getVersion(), grnHeader.getVersion());
 
         if (request.getNote() != null) {
             grnHeader.setNote(request.getNote());
@@ -120,24 +125,20 @@ public class GrnHeaderServiceImpl implements GrnHeaderService {
         // Get all GRN details for this header
         List<GrnDetail> details = grnDetailRepository.findByGrnHeaderId(grnHeaderId);
         System.out.println("Found " + details.size() + " GRN details");
+        Map<Integer, Integer> receivedBySku = new HashMap<>();
         
         for (GrnDetail detail : details) {
             System.out.println("Processing detail: " + detail.getId() + ", Quantity: " + detail.getQuantity());
             
-            // Update variant quantity
             Variant variant = detail.getVariant();
             if (variant != null) {
-                int oldQuantity = variant.getQuantity();
-                int newQuantity = oldQuantity + detail.getQuantity();
-                System.out.println("Variant SKU: " + variant.getSku() + ", Old quantity: " + oldQuantity + ", Adding: " + detail.getQuantity() + ", New quantity: " + newQuantity);
-                
-                variant.setQuantity(newQuantity);
-                variantRepository.save(variant);
-                System.out.println("Updated variant quantity successfully");
+                receivedBySku.merge(variant.getSku(), detail.getQuantity(), Integer::sum);
             } else {
                 System.out.println("Variant is null for detail: " + detail.getId());
             }
         }
+        // Cộng kho bằng UPDATE quantity = quantity + ? nên checkout trừ kho cùng lúc không làm phiếu nhập xung đột
+        stockReservationService.release(receivedBySku);
         System.out.println("Inventory update completed");
     }
 }
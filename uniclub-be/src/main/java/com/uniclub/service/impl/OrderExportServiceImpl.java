@@ -0,0 +1,264 @@
+package com.uniclub.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.service.OrderExportService;
+import com.uniclub.util.CsvWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Một câu SELECT duy nhất (đơn + dòng hàng + variant + thanh toán mới nhất) sắp theo id đơn, đọc bằng
+ * ResultSet TYPE_FORWARD_ONLY / CONCUR_READ_ONLY: với MySQL Connector/J fetchSize = Integer.MIN_VALUE bật chế độ
+ * streaming từng dòng (hoặc cursor phía server nếu URL có useCursorFetch=true), driver khác dùng fetch-size cấu hình
+ * Không tạo entity, không gom danh sách: mỗi dòng đọc ra được ghi ngay vào output stream
+ */
+@Slf4j
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String SELECT_SQL = """
+            SELECT o.id, o.created_at, o.status, o.id_user, o.recipient_name, o.recipient_phone, o.shipping_address,
+                   o.shipping_fee, o.total, ov.id_sku, p.name AS product_name, s.name AS size_name,
+                   c.name AS color_name, ov.quantity, ov.price, pay.payment_method, pay.payment_status,
+                   pay.transaction_no, pay.amount, pay.paid_at
+            FROM orders o
+            LEFT JOIN order_variant ov ON ov.id_order = o.id
+            LEFT JOIN variant v ON v.sku = ov.id_sku
+            LEFT JOIN product p ON p.id = v.id_product
+            LEFT JOIN size s ON s.id = v.id_size
+            LEFT JOIN color c ON c.id = v.id_color
+            LEFT JOIN payment pay ON pay.id = (SELECT MAX(p2.id) FROM payment p2 WHERE p2.id_order = o.id)
+            """;
+
+    private static final String[] CSV_HEADER = {
+            "order_id", "created_at", "status", "user_id", "recipient_name", "recipient_phone", "shipping_address",
+            "shipping_fee", "order_total", "sku", "product_name", "size", "color", "quantity", "unit_price",
+            "line_total", "payment_method", "payment_status", "transaction_no", "payment_amount", "paid_at"
+    };
+
+    // Excel mở CSV UTF-8 có BOM mới hiển thị đúng tiếng Việt
+    private static final char BOM = '﻿';
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.order.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public long export(LocalDateTime from, LocalDateTime to, List<OrderStatus> statuses, Format format,
+                       OutputStream out) throws IOException {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from phải nhỏ hơn to");
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append("WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND o.status IN (").append(String.join(",", statuses.stream().map(s -> "?").toList()))
+                    .append(')');
+            statuses.forEach(status -> args.add(status.name()));
+        }
+        sql.append(" ORDER BY o.id, ov.id_sku");
+
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowSink sink = format == Format.NDJSON ? new NdjsonSink(writer) : new CsvSink(writer);
+        try {
+            jdbcTemplate.query(con -> prepareStreaming(con, sql.toString(), args), rs -> {
+                try {
+                    sink.row(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng: dừng đọc, trả connection về pool
+            throw e.getCause();
+        }
+        long records = sink.finish();
+        writer.flush();
+        log.info("Exported {} {} records in {} ms", records, format, (System.nanoTime() - start) / 1_000_000);
+        return records;
+    }
+
+    private PreparedStatement prepareStreaming(Connection con, String sql, List<Object> args) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        String url = con.getMetaData().getURL();
+        boolean mysql = url != null && url.startsWith("jdbc:mysql:");
+        ps.setFetchSize(mysql && !url.contains("useCursorFetch=true") ? Integer.MIN_VALUE : fetchSize);
+        new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+        return ps;
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime().toString();
+    }
+
+    private static Integer integer(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Integer.class);
+    }
+
+    private interface RowSink {
+
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        long finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+
+        private final CsvWriter csv;
+        private long records;
+
+        private CsvSink(Writer writer) throws IOException {
+            writer.write(BOM);
+            this.csv = new CsvWriter(writer);
+            csv.record((Object[]) CSV_HEADER);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Integer quantity = integer(rs, "quantity");
+            Integer price = integer(rs, "price");
+            csv.record(rs.getInt("id"), timestamp(rs, "created_at"), rs.getString("status"),
+                    integer(rs, "id_user"), rs.getString("recipient_name"), rs.getString("recipient_phone"),
+                    rs.getString("shipping_address"), integer(rs, "shipping_fee"), integer(rs, "total"),
+                    integer(rs, "id_sku"), rs.getString("product_name"), rs.getString("size_name"),
+                    rs.getString("color_name"), quantity, price,
+                    quantity == null || price == null ? null : (long) quantity * price,
+                    rs.getString("payment_method"), rs.getString("payment_status"), rs.getString("transaction_no"),
+                    integer(rs, "amount"), timestamp(rs, "paid_at"));
+            records++;
+        }
+
+        @Override
+        public long finish() {
+            return records;
+        }
+    }
+
+    /**
+     * Các dòng của cùng một đơn đến liền nhau (ORDER BY o.id) nên chỉ cần giữ id đơn đang ghi
+     */
+    private final class NdjsonSink implements RowSink {
+
+        private final JsonGenerator json;
+        private Integer currentOrder;
+        private long records;
+
+        private NdjsonSink(Writer writer) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            int orderId = rs.getInt("id");
+            if (currentOrder == null || currentOrder != orderId) {
+                endOrder();
+                startOrder(rs, orderId);
+            }
+            Integer sku = integer(rs, "id_sku");
+            if (sku != null) {
+                json.writeStartObject();
+                json.writeNumberField("sku", sku);
+                json.writeStringField("productName", rs.getString("product_name"));
+                json.writeStringField("size", rs.getString("size_name"));
+                json.writeStringField("color", rs.getString("color_name"));
+                writeInteger("quantity", integer(rs, "quantity"));
+                writeInteger("price", integer(rs, "price"));
+                json.writeEndObject();
+            }
+        }
+
+        private void startOrder(ResultSet rs, int orderId) throws SQLException, IOException {
+            currentOrder = orderId;
+            records++;
+            json.writeStartObject();
+            json.writeNumberField("orderId", orderId);
+            json.writeStringField("createdAt", timestamp(rs, "created_at"));
+            json.writeStringField("status", rs.getString("status"));
+            writeInteger("userId", integer(rs, "id_user"));
+            json.writeStringField("recipientName", rs.getString("recipient_name"));
+            json.writeStringField("recipientPhone", rs.getString("recipient_phone"));
+            json.writeStringField("shippingAddress", rs.getString("shipping_address"));
+            writeInteger("shippingFee", integer(rs, "shipping_fee"));
+            writeInteger("total", integer(rs, "total"));
+            String method = rs.getString("payment_method");
+            if (method == null) {
+                json.writeNullField("payment");
+            } else {
+                json.writeObjectFieldStart("payment");
+                json.writeStringField("method", method);
+                json.writeStringField("status", rs.getString("payment_status"));
+                json.writeStringField("transactionNo", rs.getString("transaction_no"));
+                writeInteger("amount", integer(rs, "amount"));
+                json.writeStringField("paidAt", timestamp(rs, "paid_at"));
+                json.writeEndObject();
+            }
+            json.writeArrayFieldStart("items");
+        }
+
+        private void endOrder() throws IOException {
+            if (currentOrder == null) {
+                return;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeInteger(String name, Integer value) throws IOException {
+            if (value == null) {
+                json.writeNullField(name);
+            } else {
+                json.writeNumberField(name, value);
+            }
+        }
+
+        @Override
+        public long finish() throws IOException {
+            endOrder();
+            json.flush();
+            return records;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.uniclub.service.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.request.Order.CreateOrderVariantRequest;
+import com.uniclub.dto.response.Order.OrderPageResponse;
 import com.uniclub.dto.response.Order.OrderResponse;
+import com.uniclub.dto.response.Order.OrderVariantResponse;
 import com.uniclub.entity.Order;
 import com.uniclub.entity.OrderVariant;
 import com.uniclub.entity.Payment;
@@ -18,12 +29,18 @@ import com.uniclub.entity.enums.OrderStatus;
 import com.uniclub.entity.enums.PaymentStatus;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.OrderRepository;
+import com.uniclub.repository.OrderVariantRepository;
 import com.uniclub.repository.PaymentRepository;
 import com.uniclub.repository.UserRepository;
 import com.uniclub.repository.VariantRepository;
+import com.uniclub.repository.projection.OrderSummaryView;
 import com.uniclub.service.CartService;
+import com.uniclub.service.OptimisticRetry;
 import com.uniclub.service.OrderService;
+import com.uniclub.service.SalesRollupService;
+import com.uniclub.service.StockReservationService;
 import com.uniclub.service.VNPayService;
+import com.uniclub.util.OrderPricing;
 
 import jakarta.transaction.Transactional;
 
@@ -31,9 +48,15 @@ import jakarta.transaction.Transactional;
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderVariantRepository orderVariantRepository;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -49,6 +72,15 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private VNPayService vnPayService;
 
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
     @Override
     public List<OrderResponse> getAllOrders() {
         return orderRepository.findAll().stream()
@@ -60,6 +92,49 @@ public class OrderServiceImpl implements OrderService {
                 .toList();
     }
     
+    @Override
+    public OrderPageResponse getOrdersPage(OrderStatus status, Integer userId, LocalDateTime from, LocalDateTime to,
+                                           String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime cursorCreatedAt = null;
+        Integer cursorId = null;
+        if (StringUtils.hasText(cursor)) {
+            try {
+                String[] parts = decodeCursor(cursor);
+                cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                cursorId = Integer.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor không hợp lệ");
+            }
+        }
+
+        // Query 1: header + user + payment method, lấy dư 1 dòng để biết còn trang sau không
+        List<OrderSummaryView> rows = orderRepository.findPageByKeyset(status, userId, from, to,
+                cursorCreatedAt, cursorId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummaryView> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        // Query 2: toàn bộ dòng hàng của trang hiện tại
+        Map<Integer, List<OrderVariantResponse>> linesByOrder = page.isEmpty()
+                ? Map.of()
+                : orderVariantRepository.findLinesByOrderIdIn(page.stream().map(OrderSummaryView::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(line -> line.getOrderId(),
+                                Collectors.mapping(OrderVariantResponse::fromView, Collectors.toList())));
+
+        List<OrderResponse> content = page.stream()
+                .map(view -> OrderResponse.fromView(view, linesByOrder.getOrDefault(view.getId(), List.of())))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryView last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new OrderPageResponse(content, content.size(), hasNext, nextCursor);
+    }
+
     @Override
     public List<OrderResponse> getOrdersByUserId(Integer userId) {
         return orderRepository.findByUserId(userId).stream()
@@ -89,18 +164,14 @@ public class OrderServiceImpl implements OrderService {
 
         validateShippingInfo(request);
 
-        // Check if all variants exist and have enough stock
-        for (var item : request.getOrderVariants()) {
-            Variant variant = variantRepository.findById(item.getVariantSku())
-                    .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", item.getVariantSku()));
-            
-            if (variant.getQuantity() < item.getQuantity()) {
-                throw new IllegalArgumentException("Sản phẩm " + variant.getSku() + " không đủ số lượng");
-            }
-        }
+        // Load all variants of the cart once; every later stage reuses this map
+        Map<Integer, Variant> variants = loadVariants(request.getOrderVariants());
+
+        // Reserve stock for all lines in one conditional batch (fails without overselling)
+        stockReservationService.reserve(quantitiesBySku(request));
 
         // Build and save order
-        Order order = buildOrderFromRequest(request);
+        Order order = buildOrderFromRequest(request, variants);
         Order savedOrder = orderRepository.save(order);
         
         // Create payment record
@@ -111,32 +182,33 @@ public class OrderServiceImpl implements OrderService {
         payment.setPaymentStatus(PaymentStatus.PENDING);
         paymentRepository.save(payment);
         
-        // Reduce variant quantities
-        for (var item : request.getOrderVariants()) {
-            Variant variant = variantRepository.findById(item.getVariantSku())
-                    .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", item.getVariantSku()));
-            variant.setQuantity(variant.getQuantity() - item.getQuantity());
-            variantRepository.save(variant);
-        }
-        
         // Clear user's cart after successful order
         cartService.clearCartByUserId(request.getUserId());
+
+        // Dòng hàng được ghi khi flush, rollup đọc lại chúng bằng JDBC trong cùng transaction, ghi delta sau commit
+        orderRepository.flush();
+        salesRollupService.recordOrders(Collections.singleton(savedOrder.getId()));
         
         return OrderResponse.fromEntity(savedOrder);
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderResponse updateOrder(Integer id, CreateOrderRequest request) {
+        return optimisticRetry.execute("order.update", () -> applyUpdate(id, request));
+    }
+
+    private OrderResponse applyUpdate(Integer id, CreateOrderRequest request) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
         // Validate order variants if provided
-        if (request.getOrderVariants() != null && !request.getOrderVariants().isEmpty()) {
+        boolean hasOrderVariants = request.getOrderVariants() != null && !request.getOrderVariants().isEmpty();
+        Map<Integer, Variant> variants = hasOrderVariants ? loadVariants(request.getOrderVariants()) : Map.of();
+        if (hasOrderVariants) {
             // Check if all variants exist and have enough stock
             for (var item : request.getOrderVariants()) {
-                Variant variant = variantRepository.findById(item.getVariantSku())
-                        .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", item.getVariantSku()));
-                
+                Variant variant = variants.get(item.getVariantSku());
                 if (variant.getQuantity() < item.getQuantity()) {
                     throw new IllegalArgumentException("Sản phẩm " + variant.getSku() + " không đủ số lượng");
                 }
@@ -158,11 +230,13 @@ public class OrderServiceImpl implements OrderService {
 
 
         // Update OrderVariants if provided
-        if (request.getOrderVariants() != null && !request.getOrderVariants().isEmpty()) {
+        if (hasOrderVariants) {
+            salesRollupService.retractOrders(Collections.singleton(id));
+            // Xóa dòng cũ trước khi thêm lại: dòng mới có thể trùng khóa (id_order, id_sku) với dòng cũ
             existingOrder.getOrderVariants().clear();
+            orderRepository.flush();
             List<OrderVariant> updatedVariants = request.getOrderVariants().stream().map(item -> {
-                Variant variant = variantRepository.findById(item.getVariantSku())
-                        .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", item.getVariantSku()));
+                Variant variant = variants.get(item.getVariantSku());
 
                 OrderVariant ov = new OrderVariant();
                 ov.setOrder(existingOrder);
@@ -172,22 +246,27 @@ public class OrderServiceImpl implements OrderService {
                 return ov;
             }).toList();
 
-            existingOrder.setOrderVariants(updatedVariants);
+            existingOrder.getOrderVariants().addAll(updatedVariants);
 
             // Update total with shipping fee
-            int subtotal = updatedVariants.stream().mapToInt(ov -> ov.getPrice() * ov.getQuantity()).sum();
-            int shippingFee = subtotal >= 499000 ? 0 : 30000;
-            existingOrder.setShippingFee(shippingFee);
-            int total = subtotal + shippingFee;
-            existingOrder.setTotal(total);
+            OrderPricing.applyTotals(existingOrder);
         }
 
         Order savedOrder = orderRepository.save(existingOrder);
+        if (hasOrderVariants) {
+            orderRepository.flush();
+            salesRollupService.recordOrders(Collections.singleton(id));
+        }
         return OrderResponse.fromEntity(savedOrder);
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderResponse updateOrderStatus(Integer id, CreateOrderRequest request) {
+        return optimisticRetry.execute("order.updateStatus", () -> applyStatus(id, request));
+    }
+
+    private OrderResponse applyStatus(Integer id, CreateOrderRequest request) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
@@ -199,6 +278,9 @@ public class OrderServiceImpl implements OrderService {
         // Update status if provided
         if (request.getStatus() != null) {
             order.setStatus(request.getStatus());
+            if (OrderStatus.CANCELLED.equals(request.getStatus())) {
+                salesRollupService.recordCancellations(Collections.singleton(id));
+            }
             
             // Auto-update payment to SUCCESS when order is DELIVERED
             if (OrderStatus.DELIVERED.equals(request.getStatus())) {
@@ -218,7 +300,12 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderResponse cancelOrder(Integer id) {
+        return optimisticRetry.execute("order.cancel", () -> applyCancel(id));
+    }
+
+    private OrderResponse applyCancel(Integer id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
@@ -247,11 +334,8 @@ public class OrderServiceImpl implements OrderService {
         }
         
         // Restore variant quantities
-        for (OrderVariant orderVariant : order.getOrderVariants()) {
-            Variant variant = orderVariant.getVariant();
-            variant.setQuantity(variant.getQuantity() + orderVariant.getQuantity());
-            variantRepository.save(variant);
-        }
+        stockReservationService.release(quantitiesBySku(order));
+        salesRollupService.recordCancellations(Collections.singleton(id));
 
         Order savedOrder = orderRepository.save(order);
         OrderResponse response = OrderResponse.fromEntity(savedOrder);
@@ -264,6 +348,7 @@ public class OrderServiceImpl implements OrderService {
         if (!orderRepository.existsById(id)) {
             throw new ResourceNotFoundException("Order", "id", id);
         }
+        salesRollupService.retractOrders(Collections.singleton(id));
         orderRepository.deleteById(id);
     }
 
@@ -285,7 +370,29 @@ public class OrderServiceImpl implements OrderService {
         // Otherwise keep default "COD" value set by OrderResponse.fromEntity()
     }
     
-    private Order buildOrderFromRequest(CreateOrderRequest request) {
+    /**
+     * Load every variant referenced by the order lines in a single query
+     * @return identity map sku -> Variant (product/size/color already fetched)
+     */
+    private Map<Integer, Variant> loadVariants(List<CreateOrderVariantRequest> items) {
+        List<Integer> skus = items.stream()
+                .map(CreateOrderVariantRequest::getVariantSku)
+                .distinct()
+                .toList();
+
+        Map<Integer, Variant> variants = new HashMap<>();
+        for (Variant variant : variantRepository.findAllWithDetailsBySkuIn(skus)) {
+            variants.put(variant.getSku(), variant);
+        }
+        for (Integer sku : skus) {
+            if (!variants.containsKey(sku)) {
+                throw new ResourceNotFoundException("Variant", "sku", sku);
+            }
+        }
+        return variants;
+    }
+
+    private Order buildOrderFromRequest(CreateOrderRequest request, Map<Integer, Variant> variantsBySku) {
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getUserId()));
 
@@ -297,23 +404,9 @@ public class OrderServiceImpl implements OrderService {
         order.setRecipientPhone(request.getRecipientPhone());
         order.setShippingAddress(request.getShippingAddress());
 
-        // Calculate subtotal from order variants
-        int subtotal = request.getOrderVariants().stream()
-                .mapToInt(item -> item.getPrice() * item.getQuantity())
-                .sum();
-        
-        // Calculate shipping fee: free if subtotal >= 499,000, otherwise 30,000
-        int shippingFee = subtotal >= 499000 ? 0 : 30000;
-        order.setShippingFee(shippingFee);
-        
-        // Calculate total = subtotal + shipping fee
-        int total = subtotal + shippingFee;
-        order.setTotal(total);
-
         // Create OrderVariants after order is saved
         List<OrderVariant> variants = request.getOrderVariants().stream().map(item -> {
-            Variant variant = variantRepository.findById(item.getVariantSku())
-                    .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", item.getVariantSku()));
+            Variant variant = variantsBySku.get(item.getVariantSku());
 
             OrderVariant ov = new OrderVariant();
             ov.setOrder(order);
@@ -325,9 +418,39 @@ public class OrderServiceImpl implements OrderService {
 
         order.setOrderVariants(variants);
 
+        // Shipping fee: free if subtotal >= 499,000, otherwise 30,000; total = subtotal + shipping fee
+        OrderPricing.applyTotals(order);
+
         return order;
     }
 
+    private Map<Integer, Integer> quantitiesBySku(CreateOrderRequest request) {
+        return request.getOrderVariants().stream()
+                .collect(Collectors.toMap(CreateOrderVariantRequest::getVariantSku, CreateOrderVariantRequest::getQuantity,
+                        Integer::sum, TreeMap::new));
+    }
+
+    private Map<Integer, Integer> quantitiesBySku(Order order) {
+        return order.getOrderVariants().stream()
+                .collect(Collectors.toMap(ov -> ov.getVariant().getSku(), OrderVariant::getQuantity,
+                        Integer::sum, TreeMap::new));
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, Integer id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor = base64url("createdAt|id") của dòng cuối trang trước
+    private String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+        return parts;
+    }
+
     private void validateShippingInfo(CreateOrderRequest request) {
         if (!StringUtils.hasText(request.getRecipientName())) {
             throw new IllegalArgumentException("Vui lòng nhập tên người nhận");
@@ -9,6 +9,7 @@ import com.uniclub.entity.enums.PaymentStatus;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.OrderRepository;
 import com.uniclub.repository.PaymentRepository;
+import com.uniclub.service.OptimisticRetry;
 import com.uniclub.service.PaymentService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,9 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
     @Override
     public PaymentResponse createPayment(CreatePaymentRequest request) {
         // Check if order exists
@@ -54,6 +58,8 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentResponse updatePayment(Integer paymentId, UpdatePaymentRequest request) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+        // Trạng thái / số tiền gửi lên là giá trị tuyệt đối: callback VNPay hay job hết hạn vừa ghi thì trả 409
+        OptimisticRetry.requireVersion(Payment.class, paymentId, request.getVersion(), payment.getVersion());
 
         // Check if transaction number is being changed and if it already exists
         if (request.getTransactionNo() != null && !request.getTransactionNo().equals(payment.getTransactionNo())) {
@@ -115,7 +121,12 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public PaymentResponse processPayment(Integer paymentId) {
+        return optimisticRetry.execute("payment.process", () -> applyProcess(paymentId));
+    }
+
+    private PaymentResponse applyProcess(Integer paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
 
@@ -0,0 +1,159 @@
+package com.uniclub.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.uniclub.dto.response.Product.FacetCountResponse;
+import com.uniclub.dto.response.Product.ProductFacetResponse;
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.entity.Product;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.repository.projection.VariantFacetView;
+import com.uniclub.search.CatalogFacetIndex;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.util.TransactionUtil;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final byte ACTIVE = 1;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Value("${app.catalog.price-buckets:200000,500000,1000000}")
+    private int[] priceBounds;
+
+    private CatalogFacetIndex index;
+
+    @PostConstruct
+    void init() {
+        index = new CatalogFacetIndex(priceBounds);
+    }
+
+    /**
+     * Dựng index khi khởi động: 1 query sản phẩm (kèm brand, category) + 1 query projection variant
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        try {
+            Map<Integer, List<VariantFacetView>> variantsByProduct = new HashMap<>();
+            for (VariantFacetView variant : variantRepository.findAllFacetViews()) {
+                variantsByProduct.computeIfAbsent(variant.getProductId(), id -> new ArrayList<>()).add(variant);
+            }
+            List<CatalogFacetIndex.Document> documents = productRepository.findAllWithBrandAndCategory()
+                    .stream()
+                    .map(product -> document(product, variantsByProduct.getOrDefault(product.getId(), List.of())))
+                    .toList();
+            index.rebuild(documents);
+            log.info("Catalog facet index built with {} products", documents.size());
+        } catch (Exception e) {
+            log.error("Error building catalog facet index", e);
+        }
+    }
+
+    @Override
+    public ProductFacetResponse browse(List<Integer> brandIds, List<Integer> categoryIds, List<Integer> sizeIds,
+                                       List<Integer> colorIds, List<Integer> priceBuckets, Integer page, Integer size) {
+        int pageNumber = (page == null || page < 0) ? 0 : page;
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // page * size tính bằng long: trang quá lớn thì int bị tràn thành số âm
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+
+        Map<String, Set<Integer>> selected = new HashMap<>();
+        select(selected, CatalogFacetIndex.BRAND, brandIds);
+        select(selected, CatalogFacetIndex.CATEGORY, categoryIds);
+        select(selected, CatalogFacetIndex.SIZE, sizeIds);
+        select(selected, CatalogFacetIndex.COLOR, colorIds);
+        select(selected, CatalogFacetIndex.PRICE, priceBuckets);
+
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(selected),
+                offset, pageSize);
+
+        Map<String, List<FacetCountResponse>> facets = new LinkedHashMap<>();
+        result.counts().forEach((facet, counts) -> {
+            List<FacetCountResponse> values = new ArrayList<>(counts.size());
+            counts.forEach((value, count) -> values.add(new FacetCountResponse(value,
+                    CatalogFacetIndex.PRICE.equals(facet) ? index.priceBucketLabel(value) : null, count)));
+            facets.put(facet, values);
+        });
+        return new ProductFacetResponse(result.hits(), pageNumber, pageSize, result.total(), facets);
+    }
+
+    @Override
+    public void refreshProduct(Integer productId) {
+        productRepository.findById(productId)
+                .ifPresentOrElse(this::refresh, () -> removeProduct(productId));
+    }
+
+    @Override
+    public void removeProduct(Integer productId) {
+        TransactionUtil.afterCommit(() -> index.remove(productId));
+    }
+
+    @Override
+    public void refreshBrand(Integer brandId) {
+        productRepository.findByBrand_Id(brandId).forEach(this::refresh);
+    }
+
+    @Override
+    public void refreshCategory(Integer categoryId) {
+        productRepository.findByCategory_Id(categoryId).forEach(this::refresh);
+    }
+
+    private void refresh(Product product) {
+        CatalogFacetIndex.Document document =
+                document(product, variantRepository.findFacetViewsByProductId(product.getId()));
+        TransactionUtil.afterCommit(() -> index.upsert(document));
+    }
+
+    // Chỉ variant đang bán mới góp size/color/giá vào facet
+    private CatalogFacetIndex.Document document(Product product, List<VariantFacetView> variants) {
+        Set<Integer> sizeIds = new HashSet<>();
+        Set<Integer> colorIds = new HashSet<>();
+        Set<Integer> prices = new HashSet<>();
+        for (VariantFacetView variant : variants) {
+            if (variant.getStatus() != null && variant.getStatus() != ACTIVE) {
+                continue;
+            }
+            if (variant.getSizeId() != null) {
+                sizeIds.add(variant.getSizeId());
+            }
+            if (variant.getColorId() != null) {
+                colorIds.add(variant.getColorId());
+            }
+            if (variant.getPrice() != null) {
+                prices.add(variant.getPrice());
+            }
+        }
+        return new CatalogFacetIndex.Document(ProductResponse.fromEntity(product), sizeIds, colorIds, prices);
+    }
+
+    private static void select(Map<String, Set<Integer>> selected, String facet, List<Integer> values) {
+        if (values != null && !values.isEmpty()) {
+            selected.put(facet, new HashSet<>(values));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.uniclub.service.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.dto.response.Product.ProductSearchResponse;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.search.ProductSearchIndex;
+import com.uniclub.service.ProductSearchService;
+import com.uniclub.util.TransactionUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Nạp toàn bộ sản phẩm (kèm brand, category trong 1 query) vào index khi khởi động
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        try {
+            List<ProductResponse> products = productRepository.findAllWithBrandAndCategory()
+                    .stream()
+                    .map(ProductResponse::fromEntity)
+                    .toList();
+            index.rebuild(products);
+            log.info("Product search index built with {} products", products.size());
+        } catch (Exception e) {
+            log.error("Error building product search index", e);
+        }
+    }
+
+    @Override
+    public ProductSearchResponse search(String keyword, Integer page, Integer size) {
+        int pageNumber = (page == null || page < 0) ? 0 : page;
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // page * size tính bằng long: trang quá lớn thì int bị tràn thành số âm
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+
+        ProductSearchIndex.SearchResult result = index.search(keyword, offset, pageSize);
+        return new ProductSearchResponse(result.hits(), pageNumber, pageSize, result.total());
+    }
+
+    @Override
+    public void index(ProductResponse product) {
+        TransactionUtil.afterCommit(() -> index.upsert(product));
+    }
+
+    @Override
+    public void remove(Integer productId) {
+        TransactionUtil.afterCommit(() -> index.remove(productId));
+    }
+
+    @Override
+    public void reindexBrand(Integer brandId) {
+        List<ProductResponse> products = productRepository.findByBrand_Id(brandId)
+                .stream()
+                .map(ProductResponse::fromEntity)
+                .toList();
+        TransactionUtil.afterCommit(() -> products.forEach(index::upsert));
+    }
+
+    @Override
+    public void reindexCategory(Integer categoryId) {
+        List<ProductResponse> products = productRepository.findByCategory_Id(categoryId)
+                .stream()
+                .map(ProductResponse::fromEntity)
+                .toList();
+        TransactionUtil.afterCommit(() -> products.forEach(index::upsert));
+    }
+}
@@ -1,5 +1,6 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Product.CreateProductRequest;
 import com.uniclub.dto.request.Product.UpdateProductRequest;
 import com.uniclub.dto.response.Product.ProductResponse;
@@ -9,10 +10,15 @@ import com.uniclub.entity.Product;
 import com.uniclub.repository.BrandRepository;
 import com.uniclub.repository.CategoryRepository;
 import com.uniclub.repository.ProductRepository;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.ProductSearchService;
 import com.uniclub.service.ProductService;
 import com.uniclub.exception.ResourceNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,8 +31,11 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = CacheConfig.ALL)
     public ProductResponse createProduct(CreateProductRequest request) {
         // Check if product name already exists
         if (productRepository.existsByNameIgnoreCase(request.getName())) {
@@ -47,10 +56,17 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(category);
 
         Product saved = productRepository.save(product);
-        return ProductResponse.fromEntity(saved);
+        ProductResponse response = ProductResponse.fromEntity(saved);
+        productSearchService.index(response);
+        productFacetService.refreshProduct(saved.getId());
+        return response;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    })
     public ProductResponse updateProduct(Integer id, UpdateProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
@@ -84,11 +100,15 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updated = productRepository.save(product);
-        return ProductResponse.fromEntity(updated);
+        ProductResponse response = ProductResponse.fromEntity(updated);
+        productSearchService.index(response);
+        productFacetService.refreshProduct(updated.getId());
+        return response;
     }
 
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = CacheConfig.ALL)
     public List<ProductResponse> getAllProducts() {
         return productRepository.findAll()
                 .stream()
@@ -97,6 +117,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponse getProductById(Integer id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
@@ -104,11 +125,19 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            // Variant của sản phẩm bị xóa theo cascade
+            @CacheEvict(cacheNames = {CacheConfig.VARIANTS, CacheConfig.VARIANT_LISTS}, allEntries = true)
+    })
     public void deleteProduct(Integer id) {
         if (!productRepository.existsById(id)) {
             throw new ResourceNotFoundException("Product", "id", id);
         }
         productRepository.deleteById(id); // Hard delete
+        productSearchService.remove(id);
+        productFacetService.removeProduct(id);
         // Nếu muốn soft delete: load entity -> setStatus((byte)0) -> save(entity)
     }
 
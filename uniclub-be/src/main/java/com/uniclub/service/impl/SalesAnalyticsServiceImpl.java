@@ -0,0 +1,132 @@
+package com.uniclub.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.uniclub.dto.response.Analytics.DailySalesResponse;
+import com.uniclub.dto.response.Analytics.TopSellerResponse;
+import com.uniclub.entity.enums.SalesDimension;
+import com.uniclub.service.SalesAnalyticsService;
+
+@Service
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_DAYS = 3 * 366;
+
+    private static final String DAILY_SQL = """
+            SELECT sales_date, order_count, units, revenue, cancelled_orders, cancelled_revenue
+            FROM sales_daily_rollup
+            WHERE dimension = 'TOTAL' AND dim_id = 0 AND sales_date >= ? AND sales_date <= ?
+            ORDER BY sales_date
+            """;
+
+    private static final String TOP_SQL = """
+            SELECT dim_id, SUM(order_count) AS orders, SUM(units) AS units, SUM(revenue) AS revenue,
+                   SUM(cancelled_orders) AS cancelled_orders, SUM(units) - SUM(cancelled_units) AS net_units,
+                   SUM(revenue) - SUM(cancelled_revenue) AS net_revenue
+            FROM sales_daily_rollup
+            WHERE dimension = ? AND sales_date >= ? AND sales_date <= ?
+            GROUP BY dim_id
+            ORDER BY %s DESC, dim_id
+            LIMIT ?
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<DailySalesResponse> getDailySales(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<LocalDate, DailySalesResponse> byDate = new HashMap<>();
+        jdbcTemplate.query(DAILY_SQL, rs -> {
+            LocalDate date = rs.getObject("sales_date", LocalDate.class);
+            long revenue = rs.getLong("revenue");
+            long cancelledRevenue = rs.getLong("cancelled_revenue");
+            byDate.put(date, new DailySalesResponse(date, rs.getLong("order_count"), rs.getLong("units"), revenue,
+                    rs.getLong("cancelled_orders"), cancelledRevenue, revenue - cancelledRevenue));
+        }, from, to);
+
+        List<DailySalesResponse> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DailySalesResponse day = byDate.get(date);
+            days.add(day != null ? day : new DailySalesResponse(date, 0, 0, 0, 0, 0, 0));
+        }
+        return days;
+    }
+
+    @Override
+    public List<TopSellerResponse> getTopSellers(SalesDimension dimension, LocalDate from, LocalDate to,
+                                                 String sortBy, Integer limit) {
+        validateRange(from, to);
+        if (dimension == null || dimension == SalesDimension.TOTAL) {
+            throw new IllegalArgumentException("Dimension phải là sku, product, brand hoặc category");
+        }
+        String orderBy;
+        if (sortBy == null || "revenue".equalsIgnoreCase(sortBy)) {
+            orderBy = "net_revenue";
+        } else if ("units".equalsIgnoreCase(sortBy)) {
+            orderBy = "net_units";
+        } else {
+            throw new IllegalArgumentException("sortBy phải là revenue hoặc units");
+        }
+        int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        List<TopSellerResponse> top = jdbcTemplate.query(TOP_SQL.formatted(orderBy), (rs, rowNum) ->
+                new TopSellerResponse(rs.getInt("dim_id"), null, rs.getLong("orders"), rs.getLong("units"),
+                        rs.getLong("revenue"), rs.getLong("cancelled_orders"), rs.getLong("net_units"),
+                        rs.getLong("net_revenue")),
+                dimension.name(), from, to, size);
+        if (!top.isEmpty()) {
+            Map<Integer, String> names = names(dimension, top.stream().map(TopSellerResponse::getId).toList());
+            top.forEach(seller -> seller.setName(names.get(seller.getId())));
+        }
+        return top;
+    }
+
+    // Tên hiển thị cho các id trong trang kết quả (một query)
+    private Map<Integer, String> names(SalesDimension dimension, List<Integer> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = switch (dimension) {
+            case SKU -> "SELECT v.sku, p.name, s.name, c.name FROM variant v JOIN product p ON p.id = v.id_product "
+                    + "LEFT JOIN size s ON s.id = v.id_size LEFT JOIN color c ON c.id = v.id_color "
+                    + "WHERE v.sku IN (" + placeholders + ")";
+            case PRODUCT -> "SELECT id, name FROM product WHERE id IN (" + placeholders + ")";
+            case BRAND -> "SELECT id, name FROM brand WHERE id IN (" + placeholders + ")";
+            case CATEGORY -> "SELECT id, name FROM category WHERE id IN (" + placeholders + ")";
+            case TOTAL -> throw new IllegalArgumentException("TOTAL không có tên");
+        };
+        Map<Integer, String> names = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            StringBuilder name = new StringBuilder(rs.getString(2));
+            if (dimension == SalesDimension.SKU) {
+                for (int column = 3; column <= 4; column++) {
+                    String part = rs.getString(column);
+                    if (part != null) {
+                        name.append(" / ").append(part);
+                    }
+                }
+            }
+            names.put(rs.getInt(1), name.toString());
+        }, ids.toArray());
+        return names;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Khoảng ngày không hợp lệ");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_DAYS) {
+            throw new IllegalArgumentException("Khoảng ngày tối đa là " + MAX_DAYS + " ngày");
+        }
+    }
+}
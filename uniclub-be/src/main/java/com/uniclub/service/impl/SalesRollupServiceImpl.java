@@ -0,0 +1,271 @@
+package com.uniclub.service.impl;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.SalesDimension;
+import com.uniclub.service.SalesRollupService;
+import com.uniclub.util.TransactionUtil;
+
+import jakarta.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cập nhật cộng dồn: 1 query lấy dòng hàng (kèm product / brand / category) của các đơn liên quan trong transaction
+ * của thay đổi đơn, gộp thành delta theo (ngày, dimension, id); delta được upsert một batch sau khi transaction đó
+ * commit, trong transaction riêng theo thứ tự khóa cố định. Checkout / hủy đơn không giữ khóa dòng rollup
+ * (dòng TOTAL của ngày là điểm nóng) và không khóa rollup xen với khóa variant nên không deadlock với nhau
+ * Upsert lỗi sau commit chỉ làm lệch rollup, job dựng lại hằng đêm sửa lại
+ * Dựng lại: xóa các ngày trong khoảng rồi INSERT ... SELECT GROUP BY cho từng dimension
+ */
+@Slf4j
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final int IN_CHUNK = 500;
+
+    private static final String LINES_SQL = """
+            SELECT o.id, o.status, o.created_at, ov.id_sku, v.id_product, p.id_brand, p.id_category,
+                   ov.quantity, ov.price
+            FROM orders o
+            JOIN order_variant ov ON ov.id_order = o.id
+            JOIN variant v ON v.sku = ov.id_sku
+            JOIN product p ON p.id = v.id_product
+            WHERE o.id IN (%s)
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO sales_daily_rollup (sales_date, dimension, dim_id, order_count, units, revenue,
+                                            cancelled_orders, cancelled_units, cancelled_revenue)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count),
+                                    units = units + VALUES(units),
+                                    revenue = revenue + VALUES(revenue),
+                                    cancelled_orders = cancelled_orders + VALUES(cancelled_orders),
+                                    cancelled_units = cancelled_units + VALUES(cancelled_units),
+                                    cancelled_revenue = cancelled_revenue + VALUES(cancelled_revenue)
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO sales_daily_rollup (sales_date, dimension, dim_id, order_count, units, revenue,
+                                            cancelled_orders, cancelled_units, cancelled_revenue)
+            SELECT CAST(o.created_at AS DATE), '%s', %s, COUNT(DISTINCT o.id), SUM(ov.quantity),
+                   SUM(ov.quantity * ov.price),
+                   COUNT(DISTINCT CASE WHEN o.status = 'CANCELLED' THEN o.id END),
+                   COALESCE(SUM(CASE WHEN o.status = 'CANCELLED' THEN ov.quantity END), 0),
+                   COALESCE(SUM(CASE WHEN o.status = 'CANCELLED' THEN ov.quantity * ov.price END), 0)
+            FROM orders o
+            JOIN order_variant ov ON ov.id_order = o.id
+            JOIN variant v ON v.sku = ov.id_sku
+            JOIN product p ON p.id = v.id_product
+            WHERE o.created_at >= ? AND o.created_at < ? AND %s IS NOT NULL
+            GROUP BY %s
+            """;
+
+    private enum Change { PLACED, CANCELLED, RETRACT }
+
+    private record Key(LocalDate date, SalesDimension dimension, int id) {
+
+        static final Comparator<Key> ORDER = Comparator.comparing(Key::date)
+                .thenComparing(Key::dimension)
+                .thenComparingInt(Key::id);
+    }
+
+    private static final class Delta {
+        int orders;
+        long units;
+        long revenue;
+        int cancelledOrders;
+        long cancelledUnits;
+        long cancelledRevenue;
+
+        boolean isZero() {
+            return orders == 0 && units == 0 && revenue == 0
+                    && cancelledOrders == 0 && cancelledUnits == 0 && cancelledRevenue == 0;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.analytics.rollup.rebuild-chunk-days:7}")
+    private int rebuildChunkDays;
+
+    private TransactionTemplate upsertTransaction;
+
+    @PostConstruct
+    void init() {
+        upsertTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        upsertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void recordOrders(Collection<Integer> orderIds) {
+        apply(orderIds, Change.PLACED);
+    }
+
+    @Override
+    public void recordCancellations(Collection<Integer> orderIds) {
+        apply(orderIds, Change.CANCELLED);
+    }
+
+    @Override
+    public void retractOrders(Collection<Integer> orderIds) {
+        apply(orderIds, Change.RETRACT);
+    }
+
+    private void apply(Collection<Integer> orderIds, Change change) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(new HashSet<>(orderIds));
+        Map<Key, Delta> deltas = new TreeMap<>(Key.ORDER);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+            collect(chunk, change, deltas);
+        }
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Key, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        TransactionUtil.afterCommit(() -> {
+            try {
+                upsertTransaction.executeWithoutResult(status -> upsert(rows));
+            } catch (RuntimeException e) {
+                log.error("Sales rollup upsert failed for orders {}, nightly rebuild will correct it", ids, e);
+            }
+        });
+    }
+
+    private void upsert(List<Map.Entry<Key, Delta>> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            Key key = row.getKey();
+            Delta delta = row.getValue();
+            ps.setObject(1, key.date());
+            ps.setString(2, key.dimension().name());
+            ps.setInt(3, key.id());
+            ps.setInt(4, delta.orders);
+            ps.setLong(5, delta.units);
+            ps.setLong(6, delta.revenue);
+            ps.setInt(7, delta.cancelledOrders);
+            ps.setLong(8, delta.cancelledUnits);
+            ps.setLong(9, delta.cancelledRevenue);
+        });
+    }
+
+    private void collect(List<Integer> orderIds, Change change, Map<Key, Delta> deltas) {
+        String placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        // Mỗi key chỉ đếm một lần cho mỗi đơn (đơn có 2 SKU cùng sản phẩm = 1 đơn của sản phẩm đó)
+        Set<String> counted = new HashSet<>();
+        jdbcTemplate.query(LINES_SQL.formatted(placeholders), rs -> {
+            int orderId = rs.getInt("id");
+            boolean cancelled = OrderStatus.CANCELLED.name().equals(rs.getString("status"));
+            LocalDate date = rs.getTimestamp("created_at").toLocalDateTime().toLocalDate();
+            long units = rs.getInt("quantity");
+            long revenue = units * rs.getInt("price");
+
+            int sign = change == Change.RETRACT ? -1 : 1;
+            boolean placed = change != Change.CANCELLED;
+            boolean cancellation = change == Change.CANCELLED || cancelled;
+
+            addLine(deltas, counted, orderId, new Key(date, SalesDimension.TOTAL, 0),
+                    sign, placed, cancellation, units, revenue);
+            addLine(deltas, counted, orderId, new Key(date, SalesDimension.SKU, rs.getInt("id_sku")),
+                    sign, placed, cancellation, units, revenue);
+            addLine(deltas, counted, orderId, new Key(date, SalesDimension.PRODUCT, rs.getInt("id_product")),
+                    sign, placed, cancellation, units, revenue);
+            Integer brandId = rs.getObject("id_brand", Integer.class);
+            if (brandId != null) {
+                addLine(deltas, counted, orderId, new Key(date, SalesDimension.BRAND, brandId),
+                        sign, placed, cancellation, units, revenue);
+            }
+            Integer categoryId = rs.getObject("id_category", Integer.class);
+            if (categoryId != null) {
+                addLine(deltas, counted, orderId, new Key(date, SalesDimension.CATEGORY, categoryId),
+                        sign, placed, cancellation, units, revenue);
+            }
+        }, orderIds.toArray());
+    }
+
+    private static void addLine(Map<Key, Delta> deltas, Set<String> counted, int orderId, Key key, int sign,
+                                boolean placed, boolean cancellation, long units, long revenue) {
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        int order = counted.add(orderId + "|" + key) ? sign : 0;
+        if (placed) {
+            delta.orders += order;
+            delta.units += sign * units;
+            delta.revenue += sign * revenue;
+        }
+        if (cancellation) {
+            delta.cancelledOrders += order;
+            delta.cancelledUnits += sign * units;
+            delta.cancelledRevenue += sign * revenue;
+        }
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Khoảng ngày không hợp lệ");
+        }
+        long start = System.nanoTime();
+        int days = 0;
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(rebuildChunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(rebuildChunkDays);
+            if (chunkEnd.isAfter(to.plusDays(1))) {
+                chunkEnd = to.plusDays(1);
+            }
+            LocalDate chunkFrom = chunkStart;
+            LocalDate chunkTo = chunkEnd;
+            transactionTemplate.executeWithoutResult(status -> rebuildChunk(chunkFrom, chunkTo));
+            days += (int) (chunkEnd.toEpochDay() - chunkStart.toEpochDay());
+        }
+        log.info("Sales rollups rebuilt for {} days ({} .. {}) in {} ms", days, from, to,
+                (System.nanoTime() - start) / 1_000_000);
+        return days;
+    }
+
+    // [from, to) theo ngày
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        jdbcTemplate.update("DELETE FROM sales_daily_rollup WHERE sales_date >= ? AND sales_date < ?", from, to);
+        Timestamp fromTime = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp toTime = Timestamp.valueOf(to.atStartOfDay());
+        for (SalesDimension dimension : SalesDimension.values()) {
+            String column = switch (dimension) {
+                case TOTAL -> "0";
+                case SKU -> "ov.id_sku";
+                case PRODUCT -> "v.id_product";
+                case BRAND -> "p.id_brand";
+                case CATEGORY -> "p.id_category";
+            };
+            // GROUP BY hằng số 0 sẽ bị MySQL hiểu là vị trí cột nên TOTAL chỉ nhóm theo ngày
+            String groupBy = dimension == SalesDimension.TOTAL
+                    ? "CAST(o.created_at AS DATE)"
+                    : "CAST(o.created_at AS DATE), " + column;
+            jdbcTemplate.update(REBUILD_SQL.formatted(dimension.name(), column, column, groupBy), fromTime, toTime);
+        }
+    }
+}
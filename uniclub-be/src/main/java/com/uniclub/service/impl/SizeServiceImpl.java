@@ -1,5 +1,6 @@
 package com.uniclub.service.impl;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Size.CreateSizeRequest;
 import com.uniclub.dto.request.Size.UpdateSizeRequest;
 import com.uniclub.dto.response.Size.SizeResponse;
@@ -9,6 +10,9 @@ import com.uniclub.repository.SizeRepository;
 import com.uniclub.service.SizeService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,6 +25,7 @@ public class SizeServiceImpl implements SizeService {
     private SizeRepository sizeRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.SIZES, key = CacheConfig.ALL)
     public SizeResponse createSize(CreateSizeRequest request) {
         // Kiểm tra trùng tên Size
         if (sizeRepository.existsByNameIgnoreCase(request.getName())) {
@@ -35,6 +40,10 @@ public class SizeServiceImpl implements SizeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SIZES, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.SIZES, key = "#sizeId")
+    })
     public SizeResponse updateSize(Integer sizeId, UpdateSizeRequest request) {
         Size size = sizeRepository.findById(sizeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Size", "id", sizeId));
@@ -56,6 +65,7 @@ public class SizeServiceImpl implements SizeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.SIZES, key = CacheConfig.ALL)
     public List<SizeResponse> getAllSizes() {
         return sizeRepository.findAll()
                 .stream()
@@ -64,6 +74,7 @@ public class SizeServiceImpl implements SizeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.SIZES, key = "#sizeId")
     public SizeResponse getSizeById(Integer sizeId) {
         Size size = sizeRepository.findById(sizeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Size", "id", sizeId));
@@ -71,6 +82,10 @@ public class SizeServiceImpl implements SizeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SIZES, key = CacheConfig.ALL),
+            @CacheEvict(cacheNames = CacheConfig.SIZES, key = "#sizeId")
+    })
     public void deleteSize(Integer sizeId) {
         if (!sizeRepository.existsById(sizeId)) {
             throw new ResourceNotFoundException("Size", "id", sizeId);
@@ -0,0 +1,102 @@
+package com.uniclub.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.uniclub.exception.InsufficientStockException;
+import com.uniclub.exception.ResourceNotFoundException;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.CatalogCacheService;
+import com.uniclub.service.StockReservationService;
+
+import jakarta.transaction.Transactional;
+
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    // Điều kiện quantity >= ? nằm ngay trong câu UPDATE nên không bao giờ bán quá tồn kho
+    // Tăng version để admin đang sửa variant từ bản đọc trước đó bị từ chối thay vì ghi đè số đã trừ
+    private static final String RESERVE_SQL = "UPDATE variant SET quantity = quantity - ?, version = version + 1, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE sku = ? AND quantity >= ?";
+
+    private static final String RELEASE_SQL = "UPDATE variant SET quantity = quantity + ?, version = version + 1, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE sku = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Override
+    public void reserve(Map<Integer, Integer> quantitiesBySku) {
+        if (quantitiesBySku == null || quantitiesBySku.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, Integer>> lines = sortedLines(quantitiesBySku);
+
+        // Batch size = số dòng => một lần gửi duy nhất, updated[0][i] là số row đổi của dòng i
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setInt(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+
+        List<Integer> failedSkus = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                failedSkus.add(lines.get(i).getKey());
+            }
+        }
+        if (failedSkus.isEmpty()) {
+            catalogCacheService.evictVariants(quantitiesBySku.keySet());
+            return;
+        }
+
+        // Chỉ chạy khi thất bại: phân biệt SKU không tồn tại với SKU hết hàng
+        for (Integer sku : failedSkus) {
+            if (!variantRepository.existsById(sku)) {
+                throw new ResourceNotFoundException("Variant", "sku", sku);
+            }
+        }
+        throw new InsufficientStockException(failedSkus);
+    }
+
+    @Override
+    public void release(Map<Integer, Integer> quantitiesBySku) {
+        if (quantitiesBySku == null || quantitiesBySku.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, Integer>> lines = sortedLines(quantitiesBySku);
+
+        jdbcTemplate.batchUpdate(RELEASE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setInt(2, line.getKey());
+        });
+        catalogCacheService.evictVariants(quantitiesBySku.keySet());
+    }
+
+    /**
+     * Lock rows in ascending SKU order so two orders sharing SKUs cannot deadlock
+     */
+    private List<Map.Entry<Integer, Integer>> sortedLines(Map<Integer, Integer> quantitiesBySku) {
+        List<Map.Entry<Integer, Integer>> lines = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> line : new TreeMap<>(quantitiesBySku).entrySet()) {
+            if (line.getValue() == null || line.getValue() <= 0) {
+                throw new IllegalArgumentException("Số lượng phải > 0");
+            }
+            lines.add(Map.entry(line.getKey(), line.getValue()));
+        }
+        return lines;
+    }
+}
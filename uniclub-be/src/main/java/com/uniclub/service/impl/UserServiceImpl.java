@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.uniclub.cart.CartStore;
 import com.uniclub.dto.request.Auth.LoginRequest;
 import com.uniclub.dto.request.User.CreateUserRequest;
 import com.uniclub.dto.request.User.RegisterRequest;
@@ -47,6 +48,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private CartStore cartStore;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -183,6 +187,8 @@ public class UserServiceImpl implements UserService {
                 cartItemRepository.deleteAll(cartItemRepository.findByCartId(cart.getId()));
                 cartRepository.delete(cart);
             });
+            // Bỏ giỏ đang nằm trong bộ nhớ cùng thay đổi chưa ghi của user
+            cartStore.invalidate(userId);
             
             // Note: Comment and Review tables don't have repositories yet
             // If they exist in database with data, deletion will fail with foreign key error
@@ -1,10 +1,20 @@
 package com.uniclub.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Variant.CreateVariantRequest;
 import com.uniclub.dto.request.Variant.UpdateVariantRequest;
 import com.uniclub.dto.response.Variant.VariantResponse;
@@ -12,11 +22,15 @@ import com.uniclub.entity.Color;
 import com.uniclub.entity.Product;
 import com.uniclub.entity.Size;
 import com.uniclub.entity.Variant;
+import com.uniclub.exception.InsufficientStockException;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.ColorRepository;
 import com.uniclub.repository.ProductRepository;
 import com.uniclub.repository.SizeRepository;
 import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.OptimisticRetry;
+import com.uniclub.service.ProductFacetService;
+import com.uniclub.service.StockReservationService;
 import com.uniclub.service.VariantService;
 
 import jakarta.transaction.Transactional;
@@ -37,8 +51,21 @@ public class VariantServiceImpl implements VariantService {
     @Autowired
     private ColorRepository colorRepository;
 
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     // CREATE
     @Override
+    @CacheEvict(cacheNames = CacheConfig.VARIANT_LISTS, allEntries = true)
     public VariantResponse createVariant(CreateVariantRequest request) {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() ->
@@ -67,11 +94,13 @@ public class VariantServiceImpl implements VariantService {
         variant.setPrice(request.getPrice());
 
         Variant savedVariant = variantRepository.save(variant);
+        productFacetService.refreshProduct(product.getId());
         return VariantResponse.fromEntity(savedVariant);
     }
 
     // GET by SKU
     @Override
+    @Cacheable(cacheNames = CacheConfig.VARIANTS, key = "#skuId")
     public VariantResponse getBySku(Integer skuId) {
         Variant v = variantRepository.findById(skuId)
                 .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
@@ -79,20 +108,59 @@ public class VariantServiceImpl implements VariantService {
     }
 
     // GET all (optional filter by status)
+    // Cache danh sách chỉ giữ thứ tự SKU, từng variant lấy từ cache VARIANTS: đặt hàng, hủy đơn, nhập kho chỉ
+    // evict các SKU bị đổi (CatalogCacheService.evictVariants) nên lần đọc sau chỉ nạp lại các SKU đó
     @Override
     public List<VariantResponse> getAllVariants(Byte status) {
-        List<Variant> list = (status == null)
-                ? variantRepository.findAll()
-                : variantRepository.findByStatus(status);
-        return list.stream().map(VariantResponse::fromEntity).toList();
+        Cache lists = cacheManager.getCache(CacheConfig.VARIANT_LISTS);
+        Cache variants = cacheManager.getCache(CacheConfig.VARIANTS);
+        Object key = status == null ? "all" : status;
+        @SuppressWarnings("unchecked")
+        List<Integer> skus = lists.get(key, List.class);
+        if (skus == null) {
+            List<Variant> list = (status == null)
+                    ? variantRepository.findAll()
+                    : variantRepository.findByStatus(status);
+            List<VariantResponse> responses = list.stream().map(VariantResponse::fromEntity).toList();
+            responses.forEach(variant -> variants.put(variant.getSku(), variant));
+            lists.put(key, responses.stream().map(VariantResponse::getSku).toList());
+            return responses;
+        }
+
+        Map<Integer, VariantResponse> bySku = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer sku : skus) {
+            VariantResponse cached = variants.get(sku, VariantResponse.class);
+            if (cached != null) {
+                bySku.put(sku, cached);
+            } else {
+                missing.add(sku);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Variant v : variantRepository.findAllWithDetailsBySkuIn(missing)) {
+                VariantResponse loaded = VariantResponse.fromEntity(v);
+                variants.put(v.getSku(), loaded);
+                bySku.put(v.getSku(), loaded);
+            }
+        }
+        // SKU vừa bị xóa (chưa kịp evict danh sách) thì bỏ qua
+        return skus.stream().map(bySku::get).filter(Objects::nonNull).toList();
     }
 
 
     // UPDATE
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VARIANT_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VARIANTS, key = "#skuId")
+    })
     public VariantResponse updateVariant(Integer skuId, UpdateVariantRequest request) {
         Variant v = variantRepository.findById(skuId)
                 .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
+        // Số lượng gửi lên là giá trị tuyệt đối: checkout vừa trừ kho thì trả 409, không chạy lại để ghi đè
+        OptimisticRetry.requireVersion(Variant.class, skuId, request.getVersion(), v.getVersion());
+        Integer previousProductId = v.getProduct() != null ? v.getProduct().getId() : null;
 
         if (request.getProductId() != null) {
             Product product = productRepository.findById(request.getProductId())
@@ -121,46 +189,62 @@ public class VariantServiceImpl implements VariantService {
         if (request.getStatus() != null) v.setStatus(request.getStatus());
 
         Variant updatedVariant = variantRepository.save(v);
+        // Đổi sản phẩm thì cả sản phẩm cũ và mới đều đổi size/color/giá
+        if (previousProductId != null && !previousProductId.equals(updatedVariant.getProduct().getId())) {
+            productFacetService.refreshProduct(previousProductId);
+        }
+        productFacetService.refreshProduct(updatedVariant.getProduct().getId());
         return VariantResponse.fromEntity(updatedVariant);
     }
 
     // DELETE
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VARIANT_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VARIANTS, key = "#skuId")
+    })
     public void deleteVariantBySku(Integer skuId) {
-        if (!variantRepository.existsById(skuId)) {
-            throw new ResourceNotFoundException("Variant", "id", skuId);
-        }
-        variantRepository.deleteById(skuId); // Hard delete; nếu muốn soft -> set status=0 rồi save
+        Variant v = variantRepository.findById(skuId)
+                .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
+        variantRepository.delete(v); // Hard delete; nếu muốn soft -> set status=0 rồi save
+        productFacetService.refreshProduct(v.getProduct().getId());
     }
 
     // STOCK +
     @Override
+    @CacheEvict(cacheNames = CacheConfig.VARIANTS, key = "#skuId")
+    @Transactional(Transactional.TxType.SUPPORTS)
     public VariantResponse increaseStock(Integer skuId, Integer amount) {
         if (amount == null || amount <= 0) {
             throw new RuntimeException("Số lượng tăng phải > 0");
         }
-        Variant v = variantRepository.findById(skuId)
-                .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
-        v.setQuantity((v.getQuantity() == null ? 0 : v.getQuantity()) + amount);
-        return VariantResponse.fromEntity(variantRepository.save(v));
+        // Xung đột version (checkout / phiếu nhập / admin khác vừa ghi) thì đọc lại và cộng trên số mới
+        return optimisticRetry.execute("variant.increaseStock", () -> {
+            Variant v = variantRepository.findById(skuId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
+            v.setQuantity((v.getQuantity() == null ? 0 : v.getQuantity()) + amount);
+            return VariantResponse.fromEntity(variantRepository.save(v));
+        });
     }
 
     // STOCK -
     @Override
+    @CacheEvict(cacheNames = CacheConfig.VARIANTS, key = "#skuId")
     public VariantResponse decreaseStock(Integer skuId, Integer amount) {
         if (amount == null || amount <= 0) {
             throw new RuntimeException("Số lượng giảm phải > 0");
         }
-        Variant v = variantRepository.findById(skuId)
-                .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
-
-        int current = (v.getQuantity() == null ? 0 : v.getQuantity());
-        int next = current - amount;
-        if (next < 0) {
+        try {
+            stockReservationService.reserve(Map.of(skuId, amount));
+        } catch (InsufficientStockException e) {
+            Variant v = variantRepository.findById(skuId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
+            int current = (v.getQuantity() == null ? 0 : v.getQuantity());
             throw new RuntimeException("Số lượng không đủ. Hiện có: " + current);
         }
-        v.setQuantity(next);
-        return VariantResponse.fromEntity(variantRepository.save(v));
+        Variant v = variantRepository.findById(skuId)
+                .orElseThrow(() -> new ResourceNotFoundException("Variant", "id", skuId));
+        return VariantResponse.fromEntity(v);
     }
 
     @Override
@@ -169,6 +253,10 @@ public class VariantServiceImpl implements VariantService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.VARIANT_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.VARIANTS, key = "#sku")
+    })
     public VariantResponse updateVariantImage(Integer sku, String imageUrl) {
         Variant variant = variantRepository.findById(sku)
                 .orElseThrow(() -> new ResourceNotFoundException("Variant", "sku", sku));
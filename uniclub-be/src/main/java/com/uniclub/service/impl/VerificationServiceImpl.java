@@ -1,76 +1,85 @@
 package com.uniclub.service.impl;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
+import com.uniclub.exception.TooManyAttemptsException;
+import com.uniclub.mail.MailMessage;
+import com.uniclub.mail.MailOutbox;
 import com.uniclub.service.VerificationService;
+import com.uniclub.util.ClientIpUtil;
+import com.uniclub.verification.VerificationCodeStore;
+import com.uniclub.verification.VerificationCodeStore.StoredCode;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Implementation of VerificationService
- * In-memory verification code storage service
- * Used to store verification codes temporarily for email verification after registration
+ * Verification codes are kept in a VerificationCodeStore (bounded, expiring) for email verification after registration
+ * Sending and verifying are rate limited per email and per client IP
  */
+@Slf4j
 @Service
 public class VerificationServiceImpl implements VerificationService {
 
-    @Value("${sendgrid.api-key}")
-    private String sendGridApiKey;
+    private static final Duration CODE_TTL = Duration.ofMinutes(15);
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private MailOutbox mailOutbox;
+
+    @Autowired
+    private VerificationCodeStore codeStore;
+
+    // Số lần gửi/nhập mã tối đa của một email trong attemptWindow
+    @Value("${app.mail.max-attempts:5}")
+    private int maxAttempts;
 
-    @Value("${app.mail.from}")
-    private String fromEmail;
+    // Một IP (có thể sau NAT) được phép nhiều hơn một email
+    @Value("${app.verification.ip-max-attempts:20}")
+    private int ipMaxAttempts;
 
-    // Store: email -> VerificationData
-    private final Map<String, VerificationData> codeStorage = new ConcurrentHashMap<>();
+    @Value("${app.verification.attempt-window:15m}")
+    private Duration attemptWindow;
 
     /**
      * Generate and store a 6-digit verification code for an email
      */
     @Override
     public String generateAndStoreCode(String email) {
-        String code = String.format("%06d", (int) (Math.random() * 1000000));
-        VerificationData data = new VerificationData(code, LocalDateTime.now().plusMinutes(15));
-        codeStorage.put(email.toLowerCase(), data);
+        String key = email.toLowerCase();
+        checkIpAttempts("send");
+        checkEmailAttempts("send", key);
 
-        // Try to send email via SendGrid
-        System.out.println("========================================");
-        System.out.println("📧 Attempting to send verification email to: " + email);
-        System.out.println("Verification Code: " + code);
-        System.out.println("Valid until: " + data.getExpiresAt());
-        System.out.println("========================================");
+        String code = String.format("%06d", random.nextInt(1000000));
+        Instant expiresAt = Instant.now().plus(CODE_TTL);
+        if (!codeStore.saveCode(key, code, expiresAt)) {
+            throw new TooManyAttemptsException("Too many pending verifications, please try again later");
+        }
 
-        try {
-            sendVerificationEmail(email, code);
-            System.out.println("✅ Email sent successfully via SendGrid!");
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send email via SendGrid");
-            System.err.println("Error: " + e.getMessage());
-            System.err.println("⚠️  Note: Verification code is still valid for 15 minutes");
-            System.err.println("💡 User can still verify using the code: " + code);
-            System.err.println("========================================");
-            // Don't throw exception - allow registration to continue with console code
+        // Email được gửi bất đồng bộ qua outbox, đăng ký không phải chờ SendGrid
+        // Không ghi mã ra log: ai đọc được log sẽ xác thực được email của người khác
+        log.info("Queueing verification email to {}, valid until {}", email, expiresAt);
+
+        if (!mailOutbox.enqueue(buildVerificationEmail(email, code))) {
+            // Không ném lỗi: mã vẫn hợp lệ, người dùng có thể yêu cầu gửi lại
+            log.warn("Mail outbox is full, verification email to {} not queued", email);
         }
 
         return code;
     }
 
     /**
-     * Send verification email using SendGrid REST API
+     * Build verification email (text/plain)
      */
-    private void sendVerificationEmail(String toEmail, String code) throws IOException {
-        Email from = new Email(fromEmail, "UniClub");
-        Email to = new Email(toEmail);
+    private MailMessage buildVerificationEmail(String toEmail, String code) {
         String subject = "UniClub - Email Verification Code";
         
         String emailContent = 
@@ -81,51 +90,34 @@ public class VerificationServiceImpl implements VerificationService {
             "Best regards,\n" +
             "UniClub Team";
         
-        Content content = new Content("text/plain", emailContent);
-        Mail mail = new Mail(from, subject, to, content);
-
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
-        
-        request.setMethod(Method.POST);
-        request.setEndpoint("mail/send");
-        request.setBody(mail.build());
-        
-        Response response = sg.api(request);
-        
-        // Log response for debugging
-        System.out.println("SendGrid Response Status: " + response.getStatusCode());
-        if (response.getStatusCode() >= 400) {
-            throw new IOException("SendGrid API error: " + response.getBody());
-        }
+        return new MailMessage(toEmail, subject, emailContent);
     }
 
     /**
      * Verify the code for an email
      * Returns true if valid, false if invalid or expired
+     * Throws TooManyAttemptsException (and drops the code) once the attempt limit is exceeded
      */
     @Override
     public boolean verifyCode(String email, String code) {
         String key = email.toLowerCase();
-        VerificationData data = codeStorage.get(key);
-
-        if (data == null) {
-            return false; // No code found
-        }
-
-        // Check expiration
-        if (LocalDateTime.now().isAfter(data.getExpiresAt())) {
-            codeStorage.remove(key); // Remove expired code
-            return false;
+        // IP bị chặn thì không đụng tới mã của email, nếu không một client xóa được mã của người khác
+        checkIpAttempts("verify");
+        try {
+            checkEmailAttempts("verify", key);
+        } catch (TooManyAttemptsException e) {
+            codeStore.removeCode(key); // Chặn dò mã: phải xin mã mới
+            throw e;
         }
 
-        // Check code match
-        if (!data.getCode().equals(code)) {
-            return false;
+        Optional<StoredCode> stored = codeStore.findCode(key);
+        if (stored.isEmpty() || !stored.get().code().equals(code)) {
+            return false; // No code, expired or mismatched
         }
 
         // Valid code - remove it (one-time use)
-        codeStorage.remove(key);
+        codeStore.removeCode(key);
+        codeStore.resetAttempts("verify:email:" + key);
         return true;
     }
 
@@ -134,20 +126,7 @@ public class VerificationServiceImpl implements VerificationService {
      */
     @Override
     public boolean hasCode(String email) {
-        String key = email.toLowerCase();
-        VerificationData data = codeStorage.get(key);
-
-        if (data == null) {
-            return false;
-        }
-
-        // Remove if expired
-        if (LocalDateTime.now().isAfter(data.getExpiresAt())) {
-            codeStorage.remove(key);
-            return false;
-        }
-
-        return true;
+        return codeStore.findCode(email.toLowerCase()).isPresent();
     }
 
     /**
@@ -155,7 +134,7 @@ public class VerificationServiceImpl implements VerificationService {
      */
     @Override
     public void removeCode(String email) {
-        codeStorage.remove(email.toLowerCase());
+        codeStore.removeCode(email.toLowerCase());
     }
 
     /**
@@ -164,41 +143,26 @@ public class VerificationServiceImpl implements VerificationService {
      */
     @Override
     public String getStoredCode(String email) {
-        String key = email.toLowerCase();
-        VerificationData data = codeStorage.get(key);
-        
-        if (data == null) {
-            return null;
-        }
-        
-        // Check if expired
-        if (LocalDateTime.now().isAfter(data.getExpiresAt())) {
-            codeStorage.remove(key);
-            return null;
-        }
-        
-        return data.getCode();
+        return codeStore.findCode(email.toLowerCase()).map(StoredCode::code).orElse(null);
     }
 
     /**
-     * Inner class to store verification data
+     * Count one attempt of the given action for the current client IP (if any)
+     * Checked before the email counter so a blocked IP cannot keep creating per-email counters
      */
-    private static class VerificationData {
-        private final String code;
-        private final LocalDateTime expiresAt;
-
-        public VerificationData(String code, LocalDateTime expiresAt) {
-            this.code = code;
-            this.expiresAt = expiresAt;
-        }
-
-        public String getCode() {
-            return code;
+    private void checkIpAttempts(String action) {
+        String ip = ClientIpUtil.currentClientIp();
+        if (ip != null && codeStore.incrementClientAttempts(action + ":ip:" + ip, attemptWindow) > ipMaxAttempts) {
+            throw new TooManyAttemptsException("Too many attempts from this address, please try again later");
         }
+    }
 
-        public LocalDateTime getExpiresAt() {
-            return expiresAt;
+    /**
+     * Count one attempt of the given action for the email
+     */
+    private void checkEmailAttempts(String action, String email) {
+        if (codeStore.incrementAttempts(action + ":email:" + email, attemptWindow) > maxAttempts) {
+            throw new TooManyAttemptsException("Too many attempts for this email, please try again later");
         }
     }
 }
-
@@ -0,0 +1,36 @@
+package com.uniclub.util;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Lấy IP client của request: chỉ dùng địa chỉ kết nối (getRemoteAddr), không đọc header do client tự gửi
+ * Khi chạy sau proxy/load balancer, RemoteIpValve của Tomcat (server.forward-headers-strategy=native) đã thay
+ * remoteAddr bằng IP trong X-Forwarded-For, chỉ khi request đến từ proxy tin cậy (server.tomcat.remoteip.internal-proxies)
+ */
+public final class ClientIpUtil {
+
+    private static final String DEFAULT_IP = "127.0.0.1";
+
+    private ClientIpUtil() {
+    }
+
+    public static String getClientIp(HttpServletRequest request) {
+        String ipAddress = request.getRemoteAddr();
+        return ipAddress != null ? ipAddress : DEFAULT_IP;
+    }
+
+    /**
+     * IP client của request đang xử lý trên luồng hiện tại, null nếu không ở trong request HTTP
+     */
+    public static String currentClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return getClientIp(servletAttributes.getRequest());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.uniclub.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) theo kiểu streaming, từng bản ghi một: hỗ trợ trường trong dấu nháy kép,
+ * "" bên trong nháy, dấu phẩy và xuống dòng trong trường, CRLF/LF, BOM UTF-8 ở đầu file
+ */
+public class CsvReader {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+    private boolean first = true;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Bản ghi tiếp theo, null khi hết file; dòng trống bị bỏ qua
+     */
+    public List<String> readRecord() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                consumeNewline(c);
+                continue;
+            }
+            unread(c);
+            recordLine = line;
+            return parseRecord();
+        }
+    }
+
+    /**
+     * Số dòng (bắt đầu từ 1) nơi bản ghi vừa đọc bắt đầu
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> parseRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            field.setLength(0);
+            int c = read();
+            if (c == '"') {
+                c = readQuoted();
+            } else {
+                while (c != ',' && c != '\r' && c != '\n' && c != EOF) {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            fields.add(field.toString());
+            if (c == ',') {
+                continue;
+            }
+            if (c == '\r' || c == '\n') {
+                consumeNewline(c);
+            }
+            return fields;
+        }
+    }
+
+    // Đọc trường trong nháy kép, trả về ký tự ngay sau dấu nháy đóng
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                throw new IOException("Unterminated quoted field starting at line " + recordLine);
+            }
+            if (c == '"') {
+                int next = read();
+                if (next != '"') {
+                    // Ký tự thừa sau dấu nháy đóng được giữ lại cho tới dấu phẩy/xuống dòng
+                    while (next != ',' && next != '\r' && next != '\n' && next != EOF) {
+                        field.append((char) next);
+                        next = read();
+                    }
+                    return next;
+                }
+            } else if (c == '\n') {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private void consumeNewline(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                unread(next);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (first) {
+            first = false;
+            if (c == '﻿') {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,73 @@
+package com.uniclub.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Ghi CSV (RFC 4180) thẳng ra Writer: trường chứa dấu phẩy, nháy kép hoặc xuống dòng được bọc trong nháy kép,
+ * null ghi thành ô trống, mỗi bản ghi kết thúc bằng CRLF
+ * Ô chữ bắt đầu bằng = + - @ tab hoặc CR (Excel / Sheets hiểu là công thức) được thêm ' phía trước và bọc nháy kép,
+ * số giữ nguyên
+ */
+public class CsvWriter {
+
+    private final Writer writer;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public CsvWriter field(Object value) throws IOException {
+        if (!firstField) {
+            writer.write(',');
+        }
+        firstField = false;
+        if (value == null) {
+            return this;
+        }
+        String text = value.toString();
+        boolean formula = value instanceof CharSequence && startsLikeFormula(text);
+        if (formula) {
+            text = "'" + text;
+        }
+        if (formula || needsQuotes(text)) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+        return this;
+    }
+
+    public void endRecord() throws IOException {
+        writer.write("\r\n");
+        firstField = true;
+    }
+
+    public void record(Object... values) throws IOException {
+        for (Object value : values) {
+            field(value);
+        }
+        endRecord();
+    }
+
+    private static boolean startsLikeFormula(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
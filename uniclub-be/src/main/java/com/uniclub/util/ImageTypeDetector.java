@@ -0,0 +1,53 @@
+package com.uniclub.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Nhận diện định dạng ảnh từ magic bytes ở đầu file, không tin Content-Type do client gửi
+ * Hỗ trợ JPEG, PNG, GIF, WebP
+ */
+public final class ImageTypeDetector {
+
+    // Đủ cho chữ ký dài nhất (WebP: "RIFF" + 4 byte kích thước + "WEBP")
+    public static final int HEADER_LENGTH = 12;
+
+    private ImageTypeDetector() {
+    }
+
+    /**
+     * Đọc tối đa HEADER_LENGTH byte đầu của stream (không đóng stream) và trả về MIME type nếu là ảnh hỗ trợ
+     */
+    public static Optional<String> detect(InputStream in) throws IOException {
+        return detect(in.readNBytes(HEADER_LENGTH));
+    }
+
+    public static Optional<String> detect(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return Optional.of("image/jpeg");
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return Optional.of("image/png");
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8') && (startsWith(header, 4, '7', 'a') || startsWith(header, 4, '9', 'a'))) {
+            return Optional.of("image/gif");
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return Optional.of("image/webp");
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... signature) {
+        if (header.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
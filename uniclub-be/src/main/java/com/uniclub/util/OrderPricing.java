@@ -0,0 +1,41 @@
+package com.uniclub.util;
+
+import java.util.List;
+
+import com.uniclub.entity.Order;
+import com.uniclub.entity.OrderVariant;
+
+/**
+ * Tính tiền đơn hàng: tạm tính, phí ship, tổng tiền
+ */
+public final class OrderPricing {
+
+    // Miễn phí ship cho đơn từ 499.000đ
+    public static final int FREE_SHIPPING_THRESHOLD = 499_000;
+    public static final int SHIPPING_FEE = 30_000;
+
+    private OrderPricing() {
+    }
+
+    public static int subtotal(List<OrderVariant> orderVariants) {
+        int subtotal = 0;
+        for (OrderVariant ov : orderVariants) {
+            subtotal += ov.getPrice() * ov.getQuantity();
+        }
+        return subtotal;
+    }
+
+    public static int shippingFee(int subtotal) {
+        return subtotal >= FREE_SHIPPING_THRESHOLD ? 0 : SHIPPING_FEE;
+    }
+
+    /**
+     * Gán phí ship và tổng tiền cho đơn từ danh sách dòng hàng hiện tại
+     */
+    public static void applyTotals(Order order) {
+        int subtotal = subtotal(order.getOrderVariants());
+        int shippingFee = shippingFee(subtotal);
+        order.setShippingFee(shippingFee);
+        order.setTotal(subtotal + shippingFee);
+    }
+}
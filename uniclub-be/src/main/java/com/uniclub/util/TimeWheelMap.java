@@ -0,0 +1,174 @@
+package com.uniclub.util;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Map có hạn dùng theo từng entry và giới hạn số entry, dọn entry hết hạn bằng hashed timing wheel:
+ * mỗi entry được treo vào ô (expiresAt / tick) của vòng, sweep() chỉ duyệt các ô đã trôi qua kể từ lần trước
+ * nên chi phí dọn tỉ lệ với số entry hết hạn, không phải kích thước map
+ * Entry hết hạn nhưng chưa được sweep vẫn bị coi là không tồn tại khi đọc
+ */
+public class TimeWheelMap<V> {
+
+    private record Slot<V>(V value, long expiresAt) {
+    }
+
+    private record Node(String key, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, Slot<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Node>[] wheel;
+    private final int mask;
+    private final long tickMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private volatile long sweptTick;
+
+    @SuppressWarnings("unchecked")
+    public TimeWheelMap(int wheelSize, long tickMillis, int maxEntries, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.tickMillis = tickMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.sweptTick = clock.getAsLong() / tickMillis;
+    }
+
+    /**
+     * Ghi đè giá trị của key với hạn mới; trả về false nếu map đã đầy và key chưa có
+     */
+    public boolean put(String key, V value, long expiresAt) {
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            return false;
+        }
+        entries.put(key, new Slot<>(value, expiresAt));
+        schedule(key, expiresAt);
+        return true;
+    }
+
+    /**
+     * Gộp vào giá trị hiện tại (giữ nguyên hạn cũ), hoặc tạo mới với initial và expiresAt nếu chưa có/đã hết hạn
+     * Trả về null nếu map đã đầy và key chưa có
+     */
+    public V merge(String key, V initial, long expiresAt, BinaryOperator<V> remapping) {
+        long now = clock.getAsLong();
+        boolean[] created = new boolean[1];
+        if (!entries.containsKey(key) && entries.size() >= maxEntries) {
+            return null;
+        }
+        Slot<V> slot = entries.compute(key, (k, current) -> {
+            if (current == null || current.expiresAt() <= now) {
+                created[0] = true;
+                return new Slot<>(initial, expiresAt);
+            }
+            return new Slot<>(remapping.apply(current.value(), initial), current.expiresAt());
+        });
+        if (created[0]) {
+            schedule(key, expiresAt);
+        }
+        return slot.value();
+    }
+
+    public V get(String key) {
+        Slot<V> slot = entries.get(key);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key, slot);
+            return null;
+        }
+        return slot.value();
+    }
+
+    /**
+     * Hạn dùng (epoch millis) của key, -1 nếu không có
+     */
+    public long expiresAt(String key) {
+        Slot<V> slot = entries.get(key);
+        return slot != null && slot.expiresAt() > clock.getAsLong() ? slot.expiresAt() : -1;
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Dọn các ô đã trôi qua, trả về số entry bị xóa; entry thuộc vòng quay sau (hạn xa hơn một vòng) được giữ lại
+     * Chỉ một luồng (scheduler) gọi
+     */
+    public int sweep() {
+        long now = clock.getAsLong();
+        long currentTick = now / tickMillis;
+        long fromTick = sweptTick;
+        // Trễ hơn một vòng thì duyệt cả vòng một lần là đủ
+        if (currentTick - fromTick > wheel.length) {
+            fromTick = currentTick - wheel.length;
+        }
+        int removed = 0;
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            Iterator<Node> it = wheel[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Node node = it.next();
+                if (node.expiresAt() > now) {
+                    continue;
+                }
+                it.remove();
+                // Key đã được ghi lại với hạn khác thì giữ nguyên (node mới nằm ở ô khác)
+                Slot<V> slot = entries.get(node.key());
+                if (slot != null && slot.expiresAt() == node.expiresAt() && entries.remove(node.key(), slot)) {
+                    removed++;
+                }
+            }
+        }
+        sweptTick = currentTick;
+        return removed;
+    }
+
+    /**
+     * Xóa entry hết hạn sớm nhất (entry đã hết hạn nhưng chưa sweep được xóa trước), trả về false nếu map rỗng
+     * Duyệt vòng từ ô chưa quét; node thuộc vòng quay sau hoặc đã cũ (key bị ghi lại/xóa) được bỏ qua
+     */
+    public boolean evictOldest() {
+        long fromTick = sweptTick;
+        for (int i = 0; i < wheel.length; i++) {
+            long tick = fromTick + i;
+            Iterator<Node> it = wheel[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Node node = it.next();
+                if (node.expiresAt() / tickMillis > tick) {
+                    continue;
+                }
+                Slot<V> slot = entries.get(node.key());
+                if (slot == null || slot.expiresAt() != node.expiresAt()) {
+                    it.remove();
+                    continue;
+                }
+                if (entries.remove(node.key(), slot)) {
+                    it.remove();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void schedule(String key, long expiresAt) {
+        // Hạn rơi vào ô đã quét qua thì treo vào ô kế tiếp để không bị bỏ sót
+        long tick = Math.max(expiresAt / tickMillis, sweptTick + 1);
+        wheel[(int) (tick & mask)].offer(new Node(key, expiresAt));
+    }
+}
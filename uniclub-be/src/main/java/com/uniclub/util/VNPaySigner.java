@@ -0,0 +1,240 @@
+package com.uniclub.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Ký và verify tham số VNPay (HMAC-SHA512), cho kết quả giống hệt VNPayUtil nhưng không cấp phát trên đường nóng:
+ * - Mac đã init sẵn với hash secret, tái sử dụng qua pool chia slot theo thread (hợp cả virtual thread)
+ * - Query string (sort theo key, URL-encode kiểu URLEncoder) ghi thẳng vào byte buffer tái sử dụng
+ * - Hex encode bằng bảng tra, so sánh chữ ký thời gian hằng
+ */
+public final class VNPaySigner {
+
+    public static final String SECURE_HASH = "vnp_SecureHash";
+    public static final String SECURE_HASH_TYPE = "vnp_SecureHashType";
+
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final int HASH_HEX_LENGTH = 128;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SECURE_HASH_PARAM = ("&" + SECURE_HASH + "=").getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final AtomicReferenceArray<Signer> pool;
+    private final int mask;
+
+    public VNPaySigner(String hashSecret) {
+        this.key = new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        int slots = Integer.highestOneBit(Math.max(2, Runtime.getRuntime().availableProcessors() * 2) - 1) << 1;
+        this.pool = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+        release(acquire()); // Kiểm tra secret/thuật toán ngay khi khởi tạo
+    }
+
+    /**
+     * Query string đã ký, dùng nối sau "?" của URL thanh toán: "a=1&b=2&vnp_SecureHash=..."
+     */
+    public String signQuery(Map<String, String> params) {
+        Signer signer = acquire();
+        try {
+            signer.writeQuery(params);
+            signer.sign();
+            signer.append(SECURE_HASH_PARAM);
+            signer.appendDigestHex();
+            return new String(signer.buf, 0, signer.len, StandardCharsets.US_ASCII);
+        } finally {
+            release(signer);
+        }
+    }
+
+    /**
+     * Chữ ký hex (chữ thường) của tham số, bỏ qua vnp_SecureHash/vnp_SecureHashType và giá trị rỗng
+     */
+    public String sign(Map<String, String> params) {
+        Signer signer = acquire();
+        try {
+            signer.writeQuery(params);
+            signer.sign();
+            int start = signer.len;
+            signer.appendDigestHex();
+            return new String(signer.buf, start, HASH_HEX_LENGTH, StandardCharsets.US_ASCII);
+        } finally {
+            release(signer);
+        }
+    }
+
+    /**
+     * Verify chữ ký callback IPN/return (không phân biệt hoa thường như VNPayUtil.validateSecureHash)
+     */
+    public boolean verify(Map<String, String> params, String secureHash) {
+        if (secureHash == null || secureHash.length() != HASH_HEX_LENGTH) {
+            return false;
+        }
+        Signer signer = acquire();
+        try {
+            signer.writeQuery(params);
+            signer.sign();
+            int diff = 0;
+            for (int i = 0; i < signer.digest.length; i++) {
+                int b = signer.digest[i] & 0xFF;
+                diff |= HEX[b >>> 4] ^ toLowerHex(secureHash.charAt(2 * i));
+                diff |= HEX[b & 0x0F] ^ toLowerHex(secureHash.charAt(2 * i + 1));
+            }
+            return diff == 0;
+        } finally {
+            release(signer);
+        }
+    }
+
+    private static int toLowerHex(char c) {
+        return c >= 'A' && c <= 'F' ? c + ('a' - 'A') : c;
+    }
+
+    private Signer acquire() {
+        Signer signer = pool.getAndSet(slot(), null);
+        return signer != null ? signer : new Signer(key);
+    }
+
+    private void release(Signer signer) {
+        signer.len = 0;
+        pool.compareAndSet(slot(), null, signer);
+    }
+
+    private int slot() {
+        return (int) Thread.currentThread().threadId() & mask;
+    }
+
+    /**
+     * Trạng thái ký của một luồng: Mac đã init, buffer query string, buffer digest, mảng key để sort
+     */
+    private static final class Signer {
+
+        private final Mac mac;
+        private final byte[] digest;
+        private byte[] buf = new byte[1024];
+        private int len;
+        private String[] keys = new String[32];
+
+        private Signer(SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Không khởi tạo được " + ALGORITHM, e);
+            }
+            digest = new byte[mac.getMacLength()];
+        }
+
+        // Giống VNPayUtil.buildQueryString: sort theo key, bỏ giá trị null/rỗng, URL-encode key và value
+        private void writeQuery(Map<String, String> params) {
+            int count = 0;
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                String name = entry.getKey();
+                String value = entry.getValue();
+                if (value == null || value.isEmpty() || SECURE_HASH.equals(name) || SECURE_HASH_TYPE.equals(name)) {
+                    continue;
+                }
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                keys[count++] = name;
+            }
+            Arrays.sort(keys, 0, count);
+
+            len = 0;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    put((byte) '&');
+                }
+                encode(keys[i]);
+                put((byte) '=');
+                encode(params.get(keys[i]));
+                keys[i] = null;
+            }
+        }
+
+        private void sign() {
+            try {
+                mac.update(buf, 0, len);
+                mac.doFinal(digest, 0); // doFinal reset Mac về trạng thái đã init, dùng lại được
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Lỗi ký " + ALGORITHM, e);
+            }
+        }
+
+        private void appendDigestHex() {
+            ensure(HASH_HEX_LENGTH);
+            for (byte b : digest) {
+                buf[len++] = HEX[(b >>> 4) & 0x0F];
+                buf[len++] = HEX[b & 0x0F];
+            }
+        }
+
+        private void append(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+        }
+
+        // application/x-www-form-urlencoded theo UTF-8, cùng quy tắc với java.net.URLEncoder
+        private void encode(String s) {
+            ensure(s.length() * 9); // Tối đa 3 byte UTF-8 mỗi char, mỗi byte thành %XX
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    if (isUnreserved(c)) {
+                        buf[len++] = (byte) c;
+                    } else if (c == ' ') {
+                        buf[len++] = '+';
+                    } else {
+                        percent(c);
+                    }
+                } else if (c < 0x800) {
+                    percent(0xC0 | (c >> 6));
+                    percent(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    percent(0xF0 | (cp >> 18));
+                    percent(0x80 | ((cp >> 12) & 0x3F));
+                    percent(0x80 | ((cp >> 6) & 0x3F));
+                    percent(0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    percent('?'); // Surrogate lẻ: encoder UTF-8 thay bằng '?'
+                } else {
+                    percent(0xE0 | (c >> 12));
+                    percent(0x80 | ((c >> 6) & 0x3F));
+                    percent(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private static boolean isUnreserved(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '*' || c == '_';
+        }
+
+        private void percent(int b) {
+            buf[len++] = '%';
+            buf[len++] = HEX_UPPER[(b >> 4) & 0x0F];
+            buf[len++] = HEX_UPPER[b & 0x0F];
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            buf[len++] = b;
+        }
+
+        private void ensure(int extra) {
+            if (len + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.uniclub.verification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.uniclub.util.TimeWheelMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Store mã xác thực trong bộ nhớ: mã và bộ đếm đều có hạn, bị giới hạn số entry và được dọn định kỳ
+ * bằng timing wheel nên đăng ký bỏ dở hay bot đăng ký không làm phình bộ nhớ
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.verification.store", havingValue = "memory", matchIfMissing = true)
+public class TimeWheelVerificationCodeStore implements VerificationCodeStore {
+
+    private static final int WHEEL_SIZE = 4096;
+
+    private final Clock clock;
+    private final TimeWheelMap<String> codes;
+    private final TimeWheelMap<Integer> attempts;
+    private final TimeWheelMap<Integer> clientAttempts;
+
+    @Autowired
+    public TimeWheelVerificationCodeStore(@Value("${app.verification.max-entries:100000}") int maxEntries,
+                                          @Value("${app.verification.tick-ms:1000}") long tickMillis) {
+        this(maxEntries, tickMillis, Clock.systemUTC());
+    }
+
+    public TimeWheelVerificationCodeStore(int maxEntries, long tickMillis, Clock clock) {
+        this.clock = clock;
+        this.codes = new TimeWheelMap<>(WHEEL_SIZE, tickMillis, maxEntries, clock::millis);
+        this.attempts = new TimeWheelMap<>(WHEEL_SIZE, tickMillis, maxEntries, clock::millis);
+        this.clientAttempts = new TimeWheelMap<>(WHEEL_SIZE, tickMillis, maxEntries, clock::millis);
+    }
+
+    @Override
+    public boolean saveCode(String email, String code, Instant expiresAt) {
+        return codes.put(email, code, expiresAt.toEpochMilli());
+    }
+
+    @Override
+    public Optional<StoredCode> findCode(String email) {
+        String code = codes.get(email);
+        long expiresAt = codes.expiresAt(email);
+        if (code == null || expiresAt < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredCode(code, Instant.ofEpochMilli(expiresAt)));
+    }
+
+    @Override
+    public void removeCode(String email) {
+        codes.remove(email);
+    }
+
+    @Override
+    public int incrementAttempts(String key, Duration window) {
+        return increment(attempts, key, window);
+    }
+
+    @Override
+    public int incrementClientAttempts(String key, Duration window) {
+        return increment(clientAttempts, key, window);
+    }
+
+    private int increment(TimeWheelMap<Integer> counters, String key, Duration window) {
+        long expiresAt = clock.millis() + window.toMillis();
+        Integer count = counters.merge(key, 1, expiresAt, Integer::sum);
+        // Bộ đếm đầy: bỏ bộ đếm sắp hết hạn nhất thay vì chặn mọi key mới,
+        // nếu không một client lấp đầy map là khóa gửi/nhập mã của tất cả người dùng
+        while (count == null && counters.evictOldest()) {
+            count = counters.merge(key, 1, expiresAt, Integer::sum);
+        }
+        if (count == null) {
+            log.warn("Verification attempt counters full, rejecting {}", key);
+            return Integer.MAX_VALUE;
+        }
+        return count;
+    }
+
+    @Override
+    public void resetAttempts(String key) {
+        attempts.remove(key);
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public int attemptKeys() {
+        return attempts.size() + clientAttempts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.verification.tick-ms:1000}")
+    public void sweep() {
+        int removed = codes.sweep() + attempts.sweep() + clientAttempts.sweep();
+        if (removed > 0) {
+            log.debug("Swept {} expired verification entries", removed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.uniclub.verification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Nơi lưu mã xác thực email và bộ đếm số lần thử
+ * Mặc định là TimeWheelVerificationCodeStore (trong bộ nhớ, một node); chạy nhiều node thì cung cấp bean khác
+ * dùng store chung (Redis, DB...) và đặt app.verification.store khác "memory"
+ */
+public interface VerificationCodeStore {
+
+    record StoredCode(String code, Instant expiresAt) {
+    }
+
+    /**
+     * Lưu (ghi đè) mã cho email, trả về false nếu store đã đầy
+     */
+    boolean saveCode(String email, String code, Instant expiresAt);
+
+    /**
+     * Mã còn hạn của email
+     */
+    Optional<StoredCode> findCode(String email);
+
+    void removeCode(String email);
+
+    /**
+     * Tăng bộ đếm của key trong cửa sổ window (cửa sổ tính từ lần đếm đầu tiên), trả về giá trị sau khi tăng
+     * Store có giới hạn thì khi đầy bỏ bộ đếm cũ nhất, không từ chối key mới
+     */
+    int incrementAttempts(String key, Duration window);
+
+    /**
+     * Như incrementAttempts nhưng cho bộ đếm theo IP client, giữ riêng để flood bộ đếm theo email không đẩy được nó ra
+     */
+    int incrementClientAttempts(String key, Duration window);
+
+    void resetAttempts(String key);
+}
@@ -0,0 +1,12 @@
+-- Index cho các truy vấn nóng khi dữ liệu lớn dần
+-- orders(status, payment_expires_at), orders(created_at) khai báo trên entity Order; payment(transaction_no) có
+-- unique uk_payment_transaction_no; variant(id_product) dùng index của khóa ngoại
+
+-- Lịch sử đơn của user: WHERE id_user = ? ORDER BY created_at DESC
+CREATE INDEX idx_orders_user_created ON orders (id_user, created_at);
+
+-- Payment mới nhất của đơn (findLatestByOrderId): WHERE id_order = ? ORDER BY created_at DESC LIMIT 1
+CREATE INDEX idx_payment_order_created ON payment (id_order, created_at);
+
+-- Dòng giỏ theo giỏ + SKU (nạp giỏ, cộng dồn khi thêm cùng SKU)
+CREATE INDEX idx_cart_item_cart_sku ON cart_item (id_cart, id_sku);
@@ -11,7 +11,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 	"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
 	"spring.jpa.hibernate.ddl-auto=none",
 	"spring.jpa.generate-ddl=false",
-	"spring.jpa.properties.hibernate.globally_quoted_identifiers=true"
+	"spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+	// Không có bảng nào (ddl-auto=none) nên không có gì để migrate
+	"spring.flyway.enabled=false"
 })
 class UniclubApplicationTests {
 
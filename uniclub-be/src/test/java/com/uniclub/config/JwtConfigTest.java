@@ -0,0 +1,92 @@
+package com.uniclub.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtConfigTest {
+
+    private JwtConfig jwtConfig;
+
+    @BeforeEach
+    void setUp() {
+        jwtConfig = newJwtConfig(86_400_000L);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validateToken_shouldAcceptRepeatedCallsFromCache() {
+        String token = jwtConfig.generateToken("a@uniclub.vn", "CUSTOMER");
+
+        assertThat(jwtConfig.validateToken(token, "a@uniclub.vn")).isTrue();
+        assertThat(jwtConfig.validateToken(token, "a@uniclub.vn")).isTrue();
+        assertThat(jwtConfig.validateToken(token, "b@uniclub.vn")).isFalse();
+    }
+
+    @Test
+    void getAllClaimsFromToken_shouldRejectTamperedToken() {
+        String token = jwtConfig.generateToken("a@uniclub.vn", "CUSTOMER");
+        jwtConfig.getAllClaimsFromToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtConfig.getAllClaimsFromToken(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void getAllClaimsFromToken_shouldRejectExpiredToken() {
+        JwtConfig shortLived = newJwtConfig(-1_000L);
+        String token = shortLived.generateToken("a@uniclub.vn", "CUSTOMER");
+
+        assertThatThrownBy(() -> shortLived.getAllClaimsFromToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void filter_shouldAuthenticateBearerToken() throws Exception {
+        String token = jwtConfig.generateToken("a@uniclub.vn", "ADMIN");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        new JwtAuthenticationFilter(jwtConfig).doFilter(request, new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo("a@uniclub.vn");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(chain.getRequest()).isNotNull();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filter_shouldIgnoreInvalidToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+        MockFilterChain chain = new MockFilterChain();
+
+        new JwtAuthenticationFilter(jwtConfig).doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static JwtConfig newJwtConfig(long expiration) {
+        JwtConfig config = new JwtConfig();
+        ReflectionTestUtils.setField(config, "secret", "uniclub-secret-key-for-jwt-token-generation-2024");
+        ReflectionTestUtils.setField(config, "expiration", expiration);
+        ReflectionTestUtils.setField(config, "claimsCacheSize", 100L);
+        config.init();
+        return config;
+    }
+}
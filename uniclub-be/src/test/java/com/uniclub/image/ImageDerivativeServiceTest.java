@@ -0,0 +1,195 @@
+package com.uniclub.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocalImageStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalImageStore(tempDir.resolve("store"));
+    }
+
+    @Test
+    void register_shouldCreateAllSizesKeepingAspectRatio() throws IOException {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64));
+        Path original = writeImage("photo.jpg", 2000, 1000, false);
+        String url = store.save(original.toFile(), "uniclub/variants");
+
+        service.register(url, original);
+
+        assertDimensions(service.get(url, ImageSize.THUMBNAIL), 150, 75);
+        assertDimensions(service.get(url, ImageSize.MEDIUM), 480, 240);
+        ImageDerivativeCache.CachedImage large = service.get(url, ImageSize.LARGE);
+        assertDimensions(large, 1080, 540);
+        assertThat(large.contentType()).isEqualTo("image/jpeg");
+        assertThat(large.etag()).matches("\"[0-9a-f]{64}-large\"");
+        assertThat(counter("hit")).isEqualTo(3);
+    }
+
+    @Test
+    void get_shouldLazilyGenerateFromStoreOnce() throws Exception {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64));
+        String url = store.save(writeImage("logo.png", 300, 300, true).toFile(), "uniclub/variants");
+
+        List<Callable<ImageDerivativeCache.CachedImage>> requests = IntStream.range(0, 20)
+                .mapToObj(i -> (Callable<ImageDerivativeCache.CachedImage>) () -> service.get(url, ImageSize.MEDIUM))
+                .toList();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<ImageDerivativeCache.CachedImage> future : executor.invokeAll(requests)) {
+                ImageDerivativeCache.CachedImage image = future.get();
+                // Ảnh nhỏ hơn kích thước đích không bị phóng to, PNG có alpha giữ PNG
+                assertDimensions(image, 300, 300);
+                assertThat(image.contentType()).isEqualTo("image/png");
+            }
+        }
+        // Chỉ tải và tạo một lần: đúng 3 file dẫn xuất, mọi request đều hit
+        try (Stream<Path> files = Files.list(tempDir.resolve("cache"))) {
+            assertThat(files.count()).isEqualTo(ImageSize.values().length);
+        }
+        assertThat(counter("hit")).isEqualTo(20);
+    }
+
+    @Test
+    void sameContent_shouldShareDerivatives() throws IOException {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64));
+        Path original = writeImage("photo.jpg", 800, 600, false);
+        String first = store.save(original.toFile(), "a");
+        String second = store.save(original.toFile(), "b");
+
+        service.register(first, original);
+        service.register(second, original);
+
+        assertThat(service.get(first, ImageSize.LARGE).path()).isEqualTo(service.get(second, ImageSize.LARGE).path());
+    }
+
+    @Test
+    void cache_shouldEvictLeastRecentlyUsedAndRegenerateOnDemand() throws IOException {
+        ImageDerivativeCache cache = new ImageDerivativeCache(tempDir.resolve("cache"), DataSize.ofBytes(200), meterRegistry);
+        cache.put("a".repeat(64), ImageSize.THUMBNAIL, new byte[80], "jpg");
+        cache.put("b".repeat(64), ImageSize.THUMBNAIL, new byte[80], "jpg");
+        cache.get("a".repeat(64), ImageSize.THUMBNAIL); // a mới được dùng, b cũ nhất
+        cache.put("c".repeat(64), ImageSize.THUMBNAIL, new byte[80], "jpg");
+
+        assertThat(cache.get("a".repeat(64), ImageSize.THUMBNAIL)).isPresent();
+        assertThat(cache.get("b".repeat(64), ImageSize.THUMBNAIL)).isEmpty();
+        assertThat(cache.get("c".repeat(64), ImageSize.THUMBNAIL)).isPresent();
+        assertThat(cache.totalBytes()).isEqualTo(160);
+        assertThat(Files.list(tempDir.resolve("cache")).count()).isEqualTo(2);
+
+        // Nạp lại từ đĩa sau khi restart
+        ImageDerivativeCache reloaded = new ImageDerivativeCache(tempDir.resolve("cache"), DataSize.ofBytes(200), new SimpleMeterRegistry());
+        assertThat(reloaded.size()).isEqualTo(2);
+        assertThat(reloaded.totalBytes()).isEqualTo(160);
+    }
+
+    @Test
+    void evictedDerivative_shouldBeRegeneratedFromOriginal() throws IOException {
+        String first = store.save(writeImage("1.jpg", 1200, 1200, false).toFile(), "v");
+        String second = store.save(writeImage("2.png", 1200, 1200, false).toFile(), "v");
+        // Cache chỉ đủ chỗ cho dẫn xuất của khoảng một ảnh
+        ImageDerivativeCache probe = new ImageDerivativeCache(tempDir.resolve("probe"), DataSize.ofMegabytes(64), new SimpleMeterRegistry());
+        new ImageDerivativeService(store, probe, new SimpleMeterRegistry(), 100, DataSize.ofMegabytes(5), 50_000_000, 4).get(first, ImageSize.LARGE);
+        ImageDerivativeService service = service(DataSize.ofBytes(probe.totalBytes() * 3 / 2));
+
+        ImageDerivativeCache.CachedImage image = service.get(first, ImageSize.LARGE);
+        service.get(second, ImageSize.LARGE);
+        ImageDerivativeCache.CachedImage again = service.get(first, ImageSize.LARGE);
+
+        assertThat(again.etag()).isEqualTo(image.etag());
+        assertThat(again.path()).exists();
+        assertThat(counter("miss")).isPositive();
+    }
+
+    @Test
+    void largeImage_shouldBeSubsampledToLargestSize() throws IOException {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64));
+        String url = store.save(writeImage("wide.jpg", 4000, 2000, false).toFile(), "v");
+
+        assertDimensions(service.get(url, ImageSize.LARGE), 1080, 540);
+        assertDimensions(service.get(url, ImageSize.THUMBNAIL), 150, 75);
+    }
+
+    @Test
+    void imageOverPixelLimit_shouldBeRejectedBeforeDecode() throws IOException {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64), DataSize.ofMegabytes(5), 1_000_000);
+        String url = store.save(writeImage("huge.png", 2000, 1000, false).toFile(), "v");
+
+        assertThatThrownBy(() -> service.get(url, ImageSize.THUMBNAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2000x1000");
+    }
+
+    @Test
+    void originalOverSizeLimit_shouldNotBeDownloaded() throws IOException {
+        ImageDerivativeService service = service(DataSize.ofMegabytes(64), DataSize.ofKilobytes(1), 50_000_000);
+        String url = store.save(writeImage("big.png", 500, 500, false).toFile(), "v");
+
+        assertThatThrownBy(() -> service.get(url, ImageSize.THUMBNAIL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("larger than");
+    }
+
+    private ImageDerivativeService service(DataSize cacheSize) throws IOException {
+        return service(cacheSize, DataSize.ofMegabytes(5), 50_000_000);
+    }
+
+    private ImageDerivativeService service(DataSize cacheSize, DataSize maxOriginalSize, long maxPixels) throws IOException {
+        ImageDerivativeCache cache = new ImageDerivativeCache(tempDir.resolve("cache"), cacheSize, meterRegistry);
+        return new ImageDerivativeService(store, cache, meterRegistry, 100, maxOriginalSize, maxPixels, 4);
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("image.derivative.requests").tag("result", result).counter().count();
+    }
+
+    private Path writeImage(String name, int width, int height, boolean alpha) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int x = 0; x < width; x += 10) {
+            g.setColor(new Color((x * 37) % 256, (x * 11) % 256, (x * 53) % 256, alpha ? 128 : 255));
+            g.fillRect(x, 0, 10, height);
+        }
+        g.dispose();
+        Path file = tempDir.resolve(name);
+        ImageIO.write(image, name.endsWith(".png") ? "png" : "jpg", file.toFile());
+        return file;
+    }
+
+    private static void assertDimensions(ImageDerivativeCache.CachedImage image, int width, int height) throws IOException {
+        try (InputStream in = Files.newInputStream(image.path())) {
+            BufferedImage decoded = ImageIO.read(in);
+            assertThat(decoded.getWidth()).isEqualTo(width);
+            assertThat(decoded.getHeight()).isEqualTo(height);
+        }
+        assertThat(image.length()).isEqualTo(Files.size(image.path()));
+    }
+}
@@ -0,0 +1,349 @@
+package com.uniclub.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy EXPLAIN cho SQL của mọi @Query trong repository (gọi thật với tham số mẫu trên dữ liệu mẫu)
+ * và báo lỗi khi có bảng bị quét toàn bộ:
+ * - MySQL: type = ALL mà không có index nào dùng được (possible_keys rỗng); bảng nhỏ thì MySQL vẫn có thể chọn ALL
+ *   dù có index nên chỉ bắt trường hợp thiếu index
+ * - H2 (stand-in khi không có Docker): plan có tableScan
+ * Tham số được thay thẳng vào SQL như Connector/J gửi lên server, để optimizer rút gọn được các điều kiện
+ * kiểu (:status IS NULL OR o.status = :status)
+ */
+@Import(AbstractQueryPlanTest.RecordingConfig.class)
+abstract class AbstractQueryPlanTest {
+
+    // Danh sách đầy đủ không có WHERE, quét toàn bảng là đúng ý đồ
+    private static final Set<String> FULL_LISTINGS = Set.of(
+            "CartRepository.findAllWithUsers",
+            "ProductRepository.findAllWithBrandAndCategory",
+            "VariantRepository.findAllFacetViews");
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* ([\\w.]+)\\.tableScan");
+
+    private static final int USERS = 50;
+    private static final int PRODUCTS = 20;
+    private static final int VARIANTS_PER_PRODUCT = 5;
+    private static final int ORDERS_PER_USER = 10;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void customQueries_shouldNotScanWholeTables() {
+        seed();
+
+        List<String> checked = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType)
+                    .getRepositoryInterface();
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            List<Method> methods = new ArrayList<>(List.of(repositoryInterface.getDeclaredMethods()));
+            methods.sort(Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                if (!method.isAnnotationPresent(Query.class) || FULL_LISTINGS.contains(name)) {
+                    continue;
+                }
+                for (RecordedStatement statement : record(repository, method)) {
+                    checked.add(name);
+                    List<String> scanned = fullScans(statement);
+                    if (!scanned.isEmpty()) {
+                        violations.add(name + " quét toàn bảng " + scanned + ": " + statement.sql());
+                    }
+                }
+            }
+        }
+
+        assertThat(checked).contains("OrderRepository.findPageByKeyset", "OrderRepository.lockExpiredPayments",
+                "PaymentRepository.findLatestByOrderId", "CartRepository.findByUserId");
+        assertThat(violations).isEmpty();
+    }
+
+    // Gọi method trong transaction rollback (có @Modifying, @Lock), trả về các câu SQL đã chạy
+    private List<RecordedStatement> record(Object repository, Method method) {
+        Object[] args = new Object[method.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = sample(method.getParameterTypes()[i]);
+        }
+        RecordingDataSource.RECORDED.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            RecordingDataSource.recording = true;
+            try {
+                method.invoke(repository, args);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Không gọi được " + method, e);
+            } finally {
+                RecordingDataSource.recording = false;
+                status.setRollbackOnly();
+            }
+        });
+        return List.copyOf(RecordingDataSource.RECORDED);
+    }
+
+    private static Object sample(Class<?> type) {
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1, 2, 3);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        }
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        throw new IllegalArgumentException("Chưa có tham số mẫu cho " + type);
+    }
+
+    private List<String> fullScans(RecordedStatement statement) {
+        String explain = "EXPLAIN " + inline(statement);
+        List<String> scanned = new ArrayList<>();
+        if (isMySql()) {
+            for (Map<String, Object> row : jdbcTemplate.queryForList(explain)) {
+                if ("ALL".equals(row.get("type")) && row.get("possible_keys") == null) {
+                    scanned.add(String.valueOf(row.get("table")));
+                }
+            }
+        } else {
+            for (String plan : jdbcTemplate.queryForList(explain, String.class)) {
+                Matcher matcher = H2_TABLE_SCAN.matcher(plan);
+                while (matcher.find()) {
+                    scanned.add(matcher.group(1));
+                }
+            }
+        }
+        return scanned;
+    }
+
+    private boolean isMySql() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")));
+    }
+
+    private static String inline(RecordedStatement statement) {
+        StringBuilder sql = new StringBuilder();
+        boolean quoted = false;
+        int index = 0;
+        for (char c : statement.sql().toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                sql.append(literal(statement.parameters().get(++index)));
+            } else {
+                sql.append(c);
+            }
+        }
+        return sql.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof TemporalAccessor || value instanceof java.util.Date) {
+            return "'" + value.toString().replace('T', ' ') + "'";
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    // Dữ liệu đủ nhiều để optimizer có lý do dùng index
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"plan-" + i + "-" + System.nanoTime() + "@example.com", "secret", now, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user (email, password, created_at, updated_at) VALUES (?, ?, ?, ?)", users);
+        List<Integer> userIds = jdbcTemplate.queryForList("SELECT id FROM user ORDER BY id", Integer.class);
+
+        jdbcTemplate.batchUpdate("INSERT INTO cart (id_user, total_price, shipping_fee, item_count, created_at, updated_at) "
+                + "VALUES (?, 0, 0, 0, ?, ?)", userIds.stream().map(id -> new Object[]{id, now, now}).toList());
+
+        List<Object[]> products = new ArrayList<>();
+        for (int i = 1; i <= PRODUCTS; i++) {
+            products.add(new Object[]{"Sản phẩm " + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (name, created_at, updated_at) VALUES (?, ?, ?)", products);
+        List<Object[]> variants = new ArrayList<>();
+        for (Integer productId : jdbcTemplate.queryForList("SELECT id FROM product", Integer.class)) {
+            for (int i = 0; i < VARIANTS_PER_PRODUCT; i++) {
+                variants.add(new Object[]{productId, 100_000 + i * 10_000, 100, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO variant (id_product, price, quantity, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?)", variants);
+        List<Integer> skus = jdbcTemplate.queryForList("SELECT sku FROM variant ORDER BY sku", Integer.class);
+
+        List<Object[]> cartItems = new ArrayList<>();
+        for (Integer cartId : jdbcTemplate.queryForList("SELECT id FROM cart", Integer.class)) {
+            for (int i = 0; i < 3; i++) {
+                cartItems.add(new Object[]{cartId, skus.get((cartId + i) % skus.size()), 1, 100_000, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_item (id_cart, id_sku, quantity, unit_price, added_at) "
+                + "VALUES (?, ?, ?, ?, ?)", cartItems);
+
+        List<Object[]> orders = new ArrayList<>();
+        String[] statuses = {"PENDING", "CONFIRMED", "DELIVERED", "CANCELLED"};
+        for (Integer userId : userIds) {
+            for (int i = 0; i < ORDERS_PER_USER; i++) {
+                LocalDateTime createdAt = now.minusDays(i).minusMinutes(userId);
+                orders.add(new Object[]{userId, 200_000, 30_000, "Người nhận", "0900000000", "1 Lê Lợi",
+                        statuses[i % statuses.length], createdAt.plusMinutes(15), createdAt, createdAt});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id_user, total, shipping_fee, recipient_name, recipient_phone, "
+                + "shipping_address, status, payment_expires_at, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+
+        List<Object[]> lines = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        for (Integer orderId : jdbcTemplate.queryForList("SELECT id FROM orders", Integer.class)) {
+            lines.add(new Object[]{orderId, skus.get(orderId % skus.size()), 1, 200_000});
+            payments.add(new Object[]{orderId, orderId % 2 == 0 ? "COD" : "VNPAY", 230_000, "PENDING", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO order_variant (id_order, id_sku, quantity, price) VALUES (?, ?, ?, ?)",
+                lines);
+        jdbcTemplate.batchUpdate("INSERT INTO payment (id_order, payment_method, amount, payment_status, created_at, "
+                + "updated_at) VALUES (?, ?, ?, ?, ?, ?)", payments);
+
+        if (isMySql()) {
+            jdbcTemplate.execute("ANALYZE TABLE user, cart, cart_item, product, variant, orders, order_variant, payment");
+        } else {
+            jdbcTemplate.execute("ANALYZE");
+        }
+    }
+
+    record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+                            ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Ghi lại SQL + tham số của PreparedStatement khi recording bật
+     */
+    static class RecordingDataSource extends DelegatingDataSource {
+
+        static final List<RecordedStatement> RECORDED = new CopyOnWriteArrayList<>();
+        static volatile boolean recording;
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(super.getConnection(username, password));
+        }
+
+        private static Connection connection(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return preparedStatement(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement preparedStatement(PreparedStatement target, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, name.equals("setNull") ? null : args[1]);
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0) && recording) {
+                            RECORDED.add(new RecordedStatement(sql, new TreeMap<>(parameters)));
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
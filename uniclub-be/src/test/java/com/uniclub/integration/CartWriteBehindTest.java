@@ -0,0 +1,333 @@
+package com.uniclub.integration;
+
+import com.uniclub.cart.ActiveCart;
+import com.uniclub.cart.CartStore;
+import com.uniclub.dto.request.CartItem.CreateCartItemRequest;
+import com.uniclub.dto.request.CartItem.UpdateCartItemRequest;
+import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.request.Order.CreateOrderVariantRequest;
+import com.uniclub.dto.response.Cart.CartSummaryResponse;
+import com.uniclub.dto.response.CartItem.CartItemResponse;
+import com.uniclub.entity.Cart;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.User;
+import com.uniclub.entity.Variant;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.exception.ResourceNotFoundException;
+import com.uniclub.repository.CartRepository;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.UserRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.CartItemService;
+import com.uniclub.service.CartService;
+import com.uniclub.service.OrderService;
+import com.uniclub.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart_write_behind;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false",
+        // Không để scheduler ghi giữa chừng: test tự gọi flushAll()
+        "app.cart.max-delay=1h"
+})
+class CartWriteBehindTest {
+
+    @Autowired
+    private CartItemService cartItemService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Cart cart;
+    private Variant shirt;
+    private Variant pants;
+
+    @BeforeEach
+    void setUp() {
+        cartStore.flushAll();
+
+        user = new User();
+        user.setEmail("cart-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setFullname("Cart");
+        userRepository.save(user);
+        cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+
+        Product product = new Product();
+        product.setName("Áo " + System.nanoTime());
+        productRepository.save(product);
+        shirt = variant(product, 100);
+        pants = variant(product, 5);
+    }
+
+    @Test
+    void repeatedAdds_shouldStayInMemoryAndFlushAsOneUpdate() {
+        CartItemResponse first = cartItemService.createCartItem(add(shirt, 1));
+        // Dòng mới được INSERT ngay để có id
+        assertThat(dbQuantity(first.getId())).isEqualTo(1);
+
+        CartItemResponse last = first;
+        for (int i = 0; i < 49; i++) {
+            last = cartItemService.createCartItem(add(shirt, 1));
+        }
+
+        assertThat(last.getId()).isEqualTo(first.getId());
+        assertThat(last.getQuantity()).isEqualTo(50);
+        assertThat(last.getSubtotal()).isEqualTo(50 * 100_000);
+        assertThat(cartItemService.getCartItemById(first.getId()).getQuantity()).isEqualTo(50);
+        assertThat(dbQuantity(first.getId())).isEqualTo(1);
+
+        assertThat(cartStore.flushAll()).isEqualTo(1);
+        assertThat(dbQuantity(first.getId())).isEqualTo(50);
+        assertThat(cartStore.flushAll()).isZero();
+    }
+
+    @Test
+    void updateAndDelete_shouldBeWrittenOnFlush() {
+        CartItemResponse shirtLine = cartItemService.createCartItem(add(shirt, 2));
+        CartItemResponse pantsLine = cartItemService.createCartItem(add(pants, 1));
+
+        UpdateCartItemRequest update = new UpdateCartItemRequest();
+        update.setQuantity(7);
+        update.setUnitPrice(90_000);
+        cartItemService.updateCartItem(shirtLine.getId(), update);
+        cartItemService.deleteCartItem(pantsLine.getId());
+
+        assertThat(cartItemService.getCartItemsByCartId(cart.getId()))
+                .extracting(CartItemResponse::getVariantSku, CartItemResponse::getQuantity)
+                .containsExactly(tuple(shirt.getSku(), 7));
+        assertThat(cartStore.flushAll()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT quantity, unit_price FROM cart_item WHERE id_cart = ?",
+                cart.getId())).containsExactly(Map.of("quantity", 7, "unit_price", 90_000));
+    }
+
+    @Test
+    void addBeyondStock_shouldBeRejectedWithoutTouchingCart() {
+        cartItemService.createCartItem(add(pants, 4));
+
+        assertThatThrownBy(() -> cartItemService.createCartItem(add(pants, 2)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Số lượng sản phẩm không đủ");
+        assertThat(cartItemService.getCartItemsByCartId(cart.getId()))
+                .extracting(CartItemResponse::getQuantity)
+                .containsExactly(4);
+    }
+
+    @Test
+    void checkout_shouldClearCartImmediatelyAndDropPendingChanges() {
+        cartItemService.createCartItem(add(shirt, 1));
+        cartItemService.createCartItem(add(shirt, 1));
+        assertThat(cartStore.dirtyCount()).isEqualTo(1);
+
+        CreateOrderVariantRequest line = new CreateOrderVariantRequest();
+        line.setVariantSku(shirt.getSku());
+        line.setQuantity(2);
+        line.setPrice(100_000);
+        CreateOrderRequest order = new CreateOrderRequest();
+        order.setUserId(user.getId());
+        order.setOrderVariants(List.of(line));
+        order.setRecipientName("Cart");
+        order.setRecipientPhone("0900000000");
+        order.setShippingAddress("1 Lê Lợi");
+        order.setPaymentMethod(PaymentMethod.COD);
+        orderService.createOrder(order);
+
+        assertThat(cartStore.dirtyCount()).isZero();
+        assertThat(cartItemService.getCartItemsByCartId(cart.getId())).isEmpty();
+        assertThat(cartService.getCartSummary(user.getId()).getItemCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item WHERE id_cart = ?", Integer.class,
+                cart.getId())).isZero();
+    }
+
+    @Test
+    void deleteUser_shouldDropCartFromMemory() {
+        cartItemService.createCartItem(add(shirt, 1));
+        cartItemService.createCartItem(add(shirt, 1));
+        assertThat(cartStore.activeSummary(user.getId())).isPresent();
+
+        userService.deleteUser(user.getId());
+
+        assertThat(cartStore.activeSummary(user.getId())).isEmpty();
+        assertThat(cartStore.dirtyCount()).isZero();
+        assertThatThrownBy(() -> cartItemService.getCartItemsByCartId(cart.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void checkout_shouldWaitForFlushAlreadyWritingTheCart() throws Exception {
+        CountDownLatch totalsWriting = new CountDownLatch(1);
+        CountDownLatch releaseTotals = new CountDownLatch(1);
+        // Lượt flush đã lấy thay đổi ra nhưng dừng ngay trước câu UPDATE tổng của giỏ
+        JdbcTemplate gated = new JdbcTemplate(dataSource) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (sql.startsWith("UPDATE cart SET")) {
+                    totalsWriting.countDown();
+                    try {
+                        releaseTotals.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.batchUpdate(sql, batchArgs);
+            }
+        };
+        CartStore store = new CartStore(gated, transactionTemplate, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(30), Duration.ofHours(1), 200);
+        ActiveCart active = store.getByUserId(user.getId());
+        store.add(active, shirt.getSku(), 2, 100_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> flush = pool.submit(store::flushAll);
+            assertThat(totalsWriting.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<?> checkout = pool.submit(() ->
+                    transactionTemplate.executeWithoutResult(status -> store.clear(user.getId())));
+            assertThatThrownBy(() -> checkout.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            releaseTotals.countDown();
+            flush.get(10, TimeUnit.SECONDS);
+            checkout.get(10, TimeUnit.SECONDS);
+        } finally {
+            releaseTotals.countDown();
+            pool.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForMap("SELECT total_price, item_count FROM cart WHERE id = ?", cart.getId()))
+                .isEqualTo(Map.of("total_price", 0, "item_count", 0));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item WHERE id_cart = ?", Integer.class,
+                cart.getId())).isZero();
+    }
+
+    @Test
+    void summary_shouldFollowEveryChangeAndBePersistedOnFlush() {
+        CartItemResponse shirtLine = cartItemService.createCartItem(add(shirt, 2));
+        cartItemService.createCartItem(add(pants, 1));
+
+        CartSummaryResponse summary = cartService.getCartSummary(user.getId());
+        assertThat(summary.getItemCount()).isEqualTo(3);
+        assertThat(summary.getLineCount()).isEqualTo(2);
+        assertThat(summary.getSubtotal()).isEqualTo(300_000);
+        assertThat(summary.getShippingFee()).isEqualTo(30_000);
+        assertThat(summary.getTotal()).isEqualTo(330_000);
+
+        UpdateCartItemRequest update = new UpdateCartItemRequest();
+        update.setQuantity(5);
+        cartItemService.updateCartItem(shirtLine.getId(), update);
+
+        summary = cartService.getCartSummary(user.getId());
+        assertThat(summary.getItemCount()).isEqualTo(6);
+        assertThat(summary.getSubtotal()).isEqualTo(600_000);
+        assertThat(summary.getShippingFee()).isZero();
+        assertThat(cartService.getCartByUserId(user.getId()).getTotalPrice()).isEqualTo(600_000);
+
+        // Giỏ ra khỏi bộ nhớ: tóm tắt đọc từ bảng cart đã được ghi
+        cartStore.flushAll();
+        cartStore.invalidate(user.getId());
+        assertThat(jdbcTemplate.queryForMap("SELECT total_price, shipping_fee, item_count FROM cart WHERE id = ?",
+                cart.getId())).isEqualTo(Map.of("total_price", 600_000, "shipping_fee", 0, "item_count", 6));
+        summary = cartService.getCartSummary(user.getId());
+        assertThat(summary.getItemCount()).isEqualTo(6);
+        assertThat(summary.getLineCount()).isEqualTo(2);
+        assertThat(summary.getTotal()).isEqualTo(600_000);
+    }
+
+    @Test
+    void summary_shouldRecomputeStaleTotalsOnLoad() {
+        cartItemService.createCartItem(add(shirt, 2));
+        cartStore.flushAll();
+        cartStore.invalidate(user.getId());
+        // Dữ liệu cũ: tổng trong bảng cart chưa từng được tính
+        jdbcTemplate.update("UPDATE cart SET total_price = 0, shipping_fee = 0, item_count = NULL WHERE id = ?",
+                cart.getId());
+
+        CartSummaryResponse summary = cartService.getCartSummary(user.getId());
+
+        assertThat(summary.getItemCount()).isEqualTo(2);
+        assertThat(summary.getTotal()).isEqualTo(230_000);
+        cartStore.flushAll();
+        assertThat(jdbcTemplate.queryForObject("SELECT item_count FROM cart WHERE id = ?", Integer.class,
+                cart.getId())).isEqualTo(2);
+    }
+
+    private Variant variant(Product product, int stock) {
+        Variant variant = new Variant();
+        variant.setProduct(product);
+        variant.setPrice(100_000);
+        variant.setQuantity(stock);
+        return variantRepository.save(variant);
+    }
+
+    private CreateCartItemRequest add(Variant variant, int quantity) {
+        CreateCartItemRequest request = new CreateCartItemRequest();
+        request.setCartId(cart.getId());
+        request.setVariantSku(variant.getSku());
+        request.setQuantity(quantity);
+        request.setUnitPrice(variant.getPrice());
+        return request;
+    }
+
+    private Integer dbQuantity(Integer cartItemId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM cart_item WHERE id = ?", Integer.class, cartItemId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.request.Brand.CreateBrandRequest;
+import com.uniclub.dto.request.Brand.UpdateBrandRequest;
+import com.uniclub.config.CacheConfig;
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.dto.response.Variant.VariantResponse;
+import com.uniclub.entity.Brand;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.Variant;
+import com.uniclub.repository.BrandRepository;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.BrandService;
+import com.uniclub.service.ProductService;
+import com.uniclub.service.StockReservationService;
+import com.uniclub.service.VariantService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class CatalogCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private VariantService variantService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllProducts_shouldBeServedFromCacheUntilBrandRename() {
+        Brand brand = new Brand();
+        brand.setName("Brand " + System.nanoTime());
+        brandRepository.save(brand);
+        Product product = new Product();
+        product.setName("Áo polo " + System.nanoTime());
+        product.setBrand(brand);
+        productRepository.save(product);
+
+        productService.getAllProducts();
+        statistics.clear();
+        productService.getAllProducts();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.find("cache.gets").tags("cache", "products", "result", "hit").functionCounter())
+                .isNotNull();
+
+        UpdateBrandRequest rename = new UpdateBrandRequest();
+        rename.setName("Renamed " + System.nanoTime());
+        brandService.updateBrand(brand.getId(), rename);
+
+        assertThat(productService.getAllProducts())
+                .filteredOn(p -> p.getId().equals(product.getId()))
+                .extracting(ProductResponse::getBrandName)
+                .containsExactly(rename.getName());
+    }
+
+    @Test
+    void createBrand_shouldEvictBrandList() {
+        int before = brandService.getAllBrands().size();
+
+        CreateBrandRequest request = new CreateBrandRequest();
+        request.setName("New brand " + System.nanoTime());
+        brandService.createBrand(request);
+
+        assertThat(brandService.getAllBrands()).hasSize(before + 1);
+    }
+
+    @Test
+    void reserve_shouldEvictCachedVariantStock() {
+        Product product = new Product();
+        product.setName("Quần short " + System.nanoTime());
+        productRepository.save(product);
+        Variant variant = new Variant();
+        variant.setProduct(product);
+        variant.setPrice(100_000);
+        variant.setQuantity(10);
+        variantRepository.save(variant);
+
+        assertThat(variantService.getBySku(variant.getSku()).getQuantity()).isEqualTo(10);
+        statistics.clear();
+        variantService.getBySku(variant.getSku());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        stockReservationService.reserve(Map.of(variant.getSku(), 3));
+
+        assertThat(variantService.getBySku(variant.getSku()).getQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void reserve_shouldKeepVariantListCachedAndReloadOnlyReservedSku() {
+        Product product = new Product();
+        product.setName("Áo len " + System.nanoTime());
+        productRepository.save(product);
+        Variant variant = new Variant();
+        variant.setProduct(product);
+        variant.setPrice(100_000);
+        variant.setQuantity(10);
+        variantRepository.save(variant);
+        variantService.getAllVariants(null);
+        statistics.clear();
+        variantService.getAllVariants(null);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        stockReservationService.reserve(Map.of(variant.getSku(), 3));
+
+        assertThat(cacheManager.getCache(CacheConfig.VARIANT_LISTS).get("all")).isNotNull();
+        statistics.clear();
+        assertThat(variantService.getAllVariants(null))
+                .filteredOn(v -> v.getSku().equals(variant.getSku()))
+                .extracting(VariantResponse::getQuantity)
+                .containsExactly(7);
+        // Chỉ nạp lại SKU vừa đổi tồn kho, không nạp lại cả danh sách
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
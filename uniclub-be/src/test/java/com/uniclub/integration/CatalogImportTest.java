@@ -0,0 +1,188 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.response.Import.CatalogImportResponse;
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.entity.Brand;
+import com.uniclub.entity.Category;
+import com.uniclub.entity.Color;
+import com.uniclub.entity.Size;
+import com.uniclub.repository.BrandRepository;
+import com.uniclub.repository.CategoryRepository;
+import com.uniclub.repository.ColorRepository;
+import com.uniclub.repository.SizeRepository;
+import com.uniclub.service.CatalogImportService;
+import com.uniclub.service.ProductSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog_import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class CatalogImportTest {
+
+    private static final int PRODUCTS = 400;
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL", "28", "29", "30", "31"};
+    private static final String[] COLORS = {"Đen", "Trắng", "Xanh", "Đỏ", "Be"};
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SizeRepository sizeRepository;
+
+    @Autowired
+    private ColorRepository colorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (brandRepository.count() > 0) {
+            return;
+        }
+        Brand brand = new Brand();
+        brand.setName("Uniclub");
+        brandRepository.save(brand);
+        Category category = new Category();
+        category.setName("Áo thun");
+        categoryRepository.save(category);
+        for (String name : SIZES) {
+            Size size = new Size();
+            size.setName(name);
+            sizeRepository.save(size);
+        }
+        for (String name : COLORS) {
+            Color color = new Color();
+            color.setName(name);
+            colorRepository.save(color);
+        }
+    }
+
+    @Test
+    void csvImport_shouldInsertValidRowsAndReportBadOnes() {
+        String prefix = "Áo " + System.nanoTime() + " ";
+        StringBuilder csv = new StringBuilder("﻿product,brand,category,description,information,size,color,price,quantity,images\r\n");
+        for (int p = 0; p < PRODUCTS; p++) {
+            for (String size : SIZES) {
+                for (String color : COLORS) {
+                    csv.append(prefix).append(p).append(",uniclub,áo thun,Cotton,,").append(size).append(',')
+                            .append(color).append(",199000,10,\r\n");
+                }
+            }
+        }
+        // line = header + số variant hợp lệ phía trên
+        long firstBadLine = 2L + PRODUCTS * SIZES.length * COLORS.length;
+        csv.append(prefix).append("x,NoSuchBrand,Áo thun,,,M,Đen,100,1,\r\n");
+        csv.append(prefix).append("0,,,,,M,Đen,100,1,\r\n");
+        csv.append(prefix).append("1,,,,,L,Đen,-5,1,\r\n");
+        csv.append(prefix).append("2,,,,,XL,Xanh,100,abc,\r\n");
+        csv.append(prefix).append("0,,,,,Size lạ,Đen,100,1,\r\n");
+        // Trường trong nháy kép chứa dấu phẩy, xuống dòng và "" ở dòng cuối (không có xuống dòng kết thúc)
+        csv.append('"').append(prefix).append("quoted\",Uniclub,Áo thun,\"Mềm, mát\nthoáng \"\"khí\"\"\",,M,,150000,,");
+
+        long start = System.nanoTime();
+        CatalogImportResponse report = importCsv(csv.toString());
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        int variants = PRODUCTS * SIZES.length * COLORS.length;
+        assertThat(report.getElapsedMillis()).isBetween(0L, elapsedMillis);
+        assertThat(report.isErrorsTruncated()).isFalse();
+        assertThat(report.getTotalRows()).isEqualTo(variants + 6);
+        assertThat(report.getProductsCreated()).isEqualTo(PRODUCTS + 1);
+        assertThat(report.getVariantsCreated()).isEqualTo(variants + 1);
+        assertThat(report.getFailedRows()).isEqualTo(5);
+        assertThat(report.getErrors())
+                .extracting(CatalogImportResponse.RowError::getLine)
+                .containsExactly(firstBadLine, firstBadLine + 1, firstBadLine + 2, firstBadLine + 3, firstBadLine + 4);
+        assertThat(report.getErrors())
+                .extracting(CatalogImportResponse.RowError::getMessage)
+                .containsExactly(
+                        "Không tìm thấy brand: NoSuchBrand",
+                        "Variant đã tồn tại (sản phẩm, size, color): " + prefix + "0",
+                        "Giá phải >= 0",
+                        "Số lượng không hợp lệ: abc",
+                        "Không tìm thấy size: Size lạ");
+
+        assertThat(countVariants(prefix)).isEqualTo(variants + 1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT description FROM product WHERE name = ?", String.class, prefix + "quoted"))
+                .isEqualTo("Mềm, mát\nthoáng \"khí\"");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT v.quantity FROM variant v JOIN product p ON p.id = v.id_product WHERE p.name = ?",
+                Integer.class, prefix + "quoted")).isZero();
+        assertThat(productSearchService.search(prefix + "quoted", 0, 10).getContent())
+                .extracting(ProductResponse::getName)
+                .contains(prefix + "quoted");
+
+        // Nhập lại cùng file: mọi variant đều trùng, không ghi thêm dòng nào
+        CatalogImportResponse again = importCsv(csv.toString());
+        assertThat(again.getProductsCreated()).isZero();
+        assertThat(again.getVariantsCreated()).isZero();
+        assertThat(again.getFailedRows()).isEqualTo(again.getTotalRows());
+        assertThat(again.isErrorsTruncated()).isTrue();
+        assertThat(countVariants(prefix)).isEqualTo(variants + 1);
+    }
+
+    @Test
+    void jsonLinesImport_shouldCreateProductsAndVariants() {
+        String name = "Quần " + System.nanoTime();
+        String jsonl = String.join("\n",
+                "{\"product\":\"" + name + "\",\"brand\":\"Uniclub\",\"category\":\"Áo thun\",\"information\":\"Kaki\"}",
+                "",
+                "{\"product\":\"" + name + "\",\"size\":\"30\",\"color\":\"Be\",\"price\":350000,\"quantity\":5}",
+                "{\"product\":\"" + name + "\",\"size\":\"31\",\"price\":\"350000\"}",
+                "not json",
+                "{\"product\":\"" + name + "\",\"size\":\"30\",\"color\":\"be\",\"price\":1}");
+
+        CatalogImportResponse report = catalogImportService.importCatalog(
+                new ByteArrayInputStream(jsonl.getBytes(StandardCharsets.UTF_8)), CatalogImportService.Format.JSONL);
+
+        assertThat(report.getTotalRows()).isEqualTo(5);
+        assertThat(report.getProductsCreated()).isEqualTo(1);
+        assertThat(report.getVariantsCreated()).isEqualTo(2);
+        assertThat(report.getErrors())
+                .extracting(CatalogImportResponse.RowError::getLine)
+                .containsExactly(5L, 6L);
+        assertThat(countVariants(name)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(v.quantity) FROM variant v JOIN product p ON p.id = v.id_product WHERE p.name = ?",
+                Integer.class, name)).isEqualTo(5);
+    }
+
+    private CatalogImportResponse importCsv(String csv) {
+        return catalogImportService.importCatalog(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CatalogImportService.Format.CSV);
+    }
+
+    private int countVariants(String productPrefix) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM variant v JOIN product p ON p.id = v.id_product WHERE p.name LIKE ?",
+                Integer.class, productPrefix + "%");
+    }
+}
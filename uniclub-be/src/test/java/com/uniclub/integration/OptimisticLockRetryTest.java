@@ -0,0 +1,201 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.request.Variant.UpdateVariantRequest;
+import com.uniclub.dto.response.Variant.VariantResponse;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.Variant;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.StockReservationService;
+import com.uniclub.service.VariantService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:optimistic_lock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false",
+        "app.optimistic-lock.max-attempts=50",
+        "app.optimistic-lock.initial-backoff=1ms",
+        "app.optimistic-lock.max-backoff=20ms"
+})
+class OptimisticLockRetryTest {
+
+    private static final int STOCK = 1000;
+    private static final int RESTOCKS = 100;
+    private static final int CHECKOUTS = 100;
+
+    @Autowired
+    private VariantService variantService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Variant variant;
+
+    @BeforeEach
+    void setUp() {
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Product product = new Product();
+        product.setName("Áo khoác");
+        productRepository.save(product);
+
+        variant = new Variant();
+        variant.setProduct(product);
+        variant.setPrice(250_000);
+        variant.setQuantity(STOCK);
+        variantRepository.save(variant);
+    }
+
+    @Test
+    void increaseStock_shouldNotLoseUpdatesUnderConcurrentRestockAndCheckout() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < RESTOCKS + CHECKOUTS; i++) {
+            boolean restock = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (restock) {
+                    variantService.increaseStock(variant.getSku(), 2);
+                } else {
+                    stockReservationService.reserve(Map.of(variant.getSku(), 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Variant stored = variantRepository.findById(variant.getSku()).orElseThrow();
+        assertThat(stored.getQuantity()).isEqualTo(STOCK + RESTOCKS * 2 - CHECKOUTS);
+        assertThat(stored.getVersion()).isEqualTo(RESTOCKS + CHECKOUTS);
+        assertThat(meterRegistry.get("optimistic.lock.attempts").tag("operation", "variant.increaseStock")
+                .counter().count()).isGreaterThanOrEqualTo(RESTOCKS);
+        assertThat(meterRegistry.find("optimistic.lock.conflicts")
+                .tags("operation", "variant.increaseStock", "outcome", "exhausted").counter()).isNull();
+    }
+
+    @Test
+    void staleWrite_shouldBeRejectedAfterCheckoutDecrement() {
+        Variant stale = variantRepository.findById(variant.getSku()).orElseThrow();
+
+        stockReservationService.reserve(Map.of(variant.getSku(), 5));
+
+        stale.setQuantity(STOCK + 10);
+        assertThatThrownBy(() -> variantRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(variantRepository.findById(variant.getSku()).orElseThrow().getQuantity()).isEqualTo(STOCK - 5);
+    }
+
+    @Test
+    void updateVariant_shouldApplyWhenVersionMatches() {
+        stockReservationService.reserve(Map.of(variant.getSku(), 3));
+
+        UpdateVariantRequest request = new UpdateVariantRequest();
+        request.setPrice(199_000);
+        request.setVersion(variantService.getBySku(variant.getSku()).getVersion());
+        VariantResponse updated = variantService.updateVariant(variant.getSku(), request);
+
+        Variant stored = variantRepository.findById(variant.getSku()).orElseThrow();
+        assertThat(stored.getPrice()).isEqualTo(199_000);
+        assertThat(stored.getQuantity()).isEqualTo(STOCK - 3);
+        assertThat(stored.getVersion()).isEqualTo(2);
+        assertThat(updated.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void updateVariant_shouldRejectStaleVersionWithoutRetry() {
+        Long readVersion = variantService.getBySku(variant.getSku()).getVersion();
+        stockReservationService.reserve(Map.of(variant.getSku(), 3));
+
+        UpdateVariantRequest request = new UpdateVariantRequest();
+        request.setQuantity(STOCK + 50);
+        request.setVersion(readVersion);
+        assertThatThrownBy(() -> variantService.updateVariant(variant.getSku(), request))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(variantRepository.findById(variant.getSku()).orElseThrow().getQuantity()).isEqualTo(STOCK - 3);
+        assertThat(meterRegistry.find("optimistic.lock.attempts").tag("operation", "variant.update").counter()).isNull();
+    }
+
+    @Test
+    void updateVariant_shouldNotOverwriteConcurrentCheckouts() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> updates = new ArrayList<>();
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            checkouts.add(pool.submit(() -> {
+                start.await();
+                stockReservationService.reserve(Map.of(variant.getSku(), 1));
+                return null;
+            }));
+            // Admin đọc variant rồi ghi lại đúng số lượng vừa đọc kèm giá mới
+            updates.add(pool.submit(() -> {
+                start.await();
+                Variant read = variantRepository.findById(variant.getSku()).orElseThrow();
+                UpdateVariantRequest request = new UpdateVariantRequest();
+                request.setQuantity(read.getQuantity());
+                request.setPrice(read.getPrice() + 1);
+                request.setVersion(read.getVersion());
+                try {
+                    variantService.updateVariant(variant.getSku(), request);
+                    return true;
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(60, TimeUnit.SECONDS);
+        }
+        int applied = 0;
+        for (Future<Boolean> update : updates) {
+            if (update.get(60, TimeUnit.SECONDS)) {
+                applied++;
+            }
+        }
+        pool.shutdown();
+
+        Variant stored = variantRepository.findById(variant.getSku()).orElseThrow();
+        assertThat(stored.getQuantity()).isEqualTo(STOCK - CHECKOUTS);
+        assertThat(stored.getVersion()).isEqualTo(CHECKOUTS + applied);
+    }
+}
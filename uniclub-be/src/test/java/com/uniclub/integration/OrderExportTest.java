@@ -0,0 +1,181 @@
+package com.uniclub.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniclub.config.JwtConfig;
+import com.uniclub.config.SecurityConfig;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.service.OrderExportService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order_export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false",
+        "app.order.export.fetch-size=100"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderExportTest {
+
+    private static final int ORDERS = 5_000;
+    private static final int LINES_PER_ORDER = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    private final List<Integer> skus = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        Timestamp now = Timestamp.valueOf(START);
+        jdbcTemplate.update("INSERT INTO product (name, status, created_at, updated_at) VALUES ('Áo, \"polo\"', 1, ?, ?)",
+                now, now);
+        Integer productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM product", Integer.class);
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            jdbcTemplate.update("INSERT INTO variant (id_product, price, quantity, status, created_at, updated_at) "
+                    + "VALUES (?, 100000, 10, 1, ?, ?)", productId, now, now);
+        }
+        skus.addAll(jdbcTemplate.queryForList("SELECT sku FROM variant ORDER BY sku", Integer.class));
+
+        // Mỗi giờ một đơn, đơn chẵn DELIVERED, đơn lẻ CANCELLED
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(START.plusHours(i));
+            orders.add(new Object[]{300000, 30000, "Khách " + i, "0900000000", "Số " + i + ", Hà Nội\nPhường 1",
+                    i % 2 == 0 ? "DELIVERED" : "CANCELLED", createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (total, shipping_fee, recipient_name, recipient_phone, "
+                + "shipping_address, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", orders);
+        List<Integer> orderIds = jdbcTemplate.queryForList("SELECT id FROM orders ORDER BY id", Integer.class);
+
+        List<Object[]> lines = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            Integer orderId = orderIds.get(i);
+            for (Integer sku : skus) {
+                lines.add(new Object[]{orderId, sku, 1, 100000});
+            }
+            if (i % 2 == 0) {
+                // Lần thanh toán đầu lỗi, lần sau thành công: export lấy lần mới nhất
+                payments.add(new Object[]{"VNPay", "FAILED", null, orderId, now, now});
+                payments.add(new Object[]{"VNPay", "SUCCESS", "TX" + orderId, orderId, now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO order_variant (id_order, id_sku, quantity, price) VALUES (?, ?, ?, ?)",
+                lines);
+        jdbcTemplate.batchUpdate("INSERT INTO payment (payment_method, payment_status, transaction_no, amount, "
+                + "id_order, created_at, updated_at) VALUES (?, ?, ?, 300000, ?, ?, ?)", payments);
+    }
+
+    @Test
+    void csvExport_shouldWriteOneRecordPerOrderLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long records = orderExportService.export(null, null, null, OrderExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(records).isEqualTo((long) ORDERS * LINES_PER_ORDER);
+        assertThat(csv).startsWith("﻿order_id,created_at,status,");
+        // Địa chỉ có xuống dòng nằm trong nháy kép nên mỗi bản ghi chiếm 2 dòng vật lý
+        assertThat(csv.split("\r\n")).hasSize(1 + ORDERS * LINES_PER_ORDER);
+        assertThat(csv).contains(",\"Số 0, Hà Nội\nPhường 1\",30000,300000," + skus.get(0)
+                + ",\"Áo, \"\"polo\"\"\",,,1,100000,100000,VNPay,SUCCESS,TX");
+        assertThat(csv).doesNotContain("FAILED");
+    }
+
+    @Test
+    void ndjsonExport_shouldGroupLinesByOrderAndApplyFilters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 10 ngày đầu = 240 đơn, một nửa DELIVERED
+        long records = orderExportService.export(START, START.plusDays(10), List.of(OrderStatus.DELIVERED),
+                OrderExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(records).isEqualTo(120);
+        assertThat(lines).hasSize(120);
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            assertThat(order.get("status").asText()).isEqualTo("DELIVERED");
+            assertThat(LocalDateTime.parse(order.get("createdAt").asText())).isBefore(START.plusDays(10));
+            assertThat(order.get("items")).hasSize(LINES_PER_ORDER);
+            assertThat(order.get("payment").get("status").asText()).isEqualTo("SUCCESS");
+        }
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("shippingAddress").asText()).isEqualTo("Số 0, Hà Nội\nPhường 1");
+        assertThat(first.get("items").get(0).get("productName").asText()).isEqualTo("Áo, \"polo\"");
+    }
+
+    @Test
+    void cancelledOrders_shouldExportWithoutPayment() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long records = orderExportService.export(null, null, List.of(OrderStatus.CANCELLED),
+                OrderExportService.Format.NDJSON, out);
+
+        assertThat(records).isEqualTo(ORDERS / 2);
+        JsonNode first = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).lines().findFirst().orElseThrow());
+        assertThat(first.get("payment").isNull()).isTrue();
+    }
+
+    @Test
+    void exportEndpoint_shouldRequireAdminRole() throws Exception {
+        String from = "?from=2025-01-01T00:00:00&to=2025-01-02T00:00:00";
+        mockMvc.perform(get("/api/orders/export" + from))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders/export" + from)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtConfig.generateToken("buyer@uniclub.vn", "Buyer")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders/export" + from)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtConfig.generateToken("admin@uniclub.vn", SecurityConfig.ADMIN_ROLE)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidRange_shouldBeRejected() {
+        assertThatThrownBy(() -> orderExportService.export(START, START, null,
+                OrderExportService.Format.CSV, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.request.Order.CreateOrderVariantRequest;
+import com.uniclub.dto.response.Order.OrderPageResponse;
+import com.uniclub.dto.response.Order.OrderResponse;
+import com.uniclub.entity.Cart;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.User;
+import com.uniclub.entity.Variant;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.repository.CartRepository;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.UserRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order_query_count;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class OrderQueryCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private final List<Variant> variants = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("counter-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setFullname("Counter");
+        userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+
+        Product product = new Product();
+        product.setName("Áo khoác " + System.nanoTime());
+        productRepository.save(product);
+
+        variants.clear();
+        for (int i = 0; i < 20; i++) {
+            Variant v = new Variant();
+            v.setProduct(product);
+            v.setPrice(50_000);
+            v.setQuantity(100);
+            variants.add(variantRepository.save(v));
+        }
+    }
+
+    @Test
+    void createOrder_statementCountShouldNotGrowWithCartSize() {
+        long smallCart = statementsFor(2);
+        long largeCart = statementsFor(20);
+
+        assertThat(smallCart).isPositive();
+        assertThat(largeCart).isEqualTo(smallCart);
+    }
+
+    @Test
+    void getOrdersPage_shouldWalkAllOrdersWithFixedStatementsPerPage() {
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(orderService.createOrder(orderRequest(1 + i % 3)).getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            OrderPageResponse page = orderService.getOrdersPage(OrderStatus.PENDING, user.getId(), null, null, cursor, 2);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            for (OrderResponse order : page.getContent()) {
+                assertThat(order.getPaymentMethod()).isEqualTo(PaymentMethod.COD.name());
+                assertThat(order.getOrderVariants()).isNotEmpty();
+                seen.add(order.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(created.reversed());
+    }
+
+    private long statementsFor(int lines) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CreateOrderRequest request = orderRequest(lines);
+        statistics.clear();
+        orderService.createOrder(request);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private CreateOrderRequest orderRequest(int lines) {
+        List<CreateOrderVariantRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            CreateOrderVariantRequest item = new CreateOrderVariantRequest();
+            item.setVariantSku(variants.get(i).getSku());
+            item.setQuantity(1);
+            item.setPrice(50_000);
+            items.add(item);
+        }
+
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(user.getId());
+        request.setOrderVariants(items);
+        request.setRecipientName("Counter");
+        request.setRecipientPhone("0900000000");
+        request.setShippingAddress("1 Lê Lợi");
+        request.setPaymentMethod(PaymentMethod.COD);
+        return request;
+    }
+}
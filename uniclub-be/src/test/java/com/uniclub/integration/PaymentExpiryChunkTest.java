@@ -0,0 +1,165 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.request.Order.CreateOrderVariantRequest;
+import com.uniclub.entity.Cart;
+import com.uniclub.entity.Order;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.User;
+import com.uniclub.entity.Variant;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.repository.CartRepository;
+import com.uniclub.repository.OrderRepository;
+import com.uniclub.repository.PaymentRepository;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.UserRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.scheduler.PaymentExpirationScheduler;
+import com.uniclub.scheduler.PaymentExpiryQueue;
+import com.uniclub.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:payment_expiry;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false",
+        "app.payment.expiry.chunk-size=2"
+})
+class PaymentExpiryChunkTest {
+
+    @Autowired
+    private PaymentExpirationScheduler scheduler;
+
+    @Autowired
+    private PaymentExpiryQueue queue;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+    private Variant shared;
+    private Variant other;
+
+    @BeforeEach
+    void setUp() {
+        queue.drainExpired();
+
+        user = new User();
+        user.setEmail("expiry-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setFullname("Expiry");
+        userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+
+        Product product = new Product();
+        product.setName("Quần jean " + System.nanoTime());
+        productRepository.save(product);
+
+        shared = createVariant(product);
+        other = createVariant(product);
+    }
+
+    @Test
+    void processDueExpirations_shouldCancelExpiredOrdersInChunksAndRestoreStock() {
+        List<Integer> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(createVnPayOrder(LocalDateTime.now().minusMinutes(1)));
+        }
+        Integer stillValid = createVnPayOrder(LocalDateTime.now().plusMinutes(10));
+        double ordersBefore = meterRegistry.counter("payment.expiry.rows", "table", "orders").count();
+
+        // Đơn còn hạn nằm trong hàng đợi với hạn cũ (VD: đã thanh toán lại) phải được bỏ qua
+        expired.forEach(id -> queue.register(id, LocalDateTime.now().minusSeconds(1)));
+        queue.register(stillValid, LocalDateTime.now().minusSeconds(1));
+        scheduler.processDueExpirations();
+
+        for (Integer id : expired) {
+            assertThat(orderRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+            assertThat(paymentRepository.findLatestByOrderId(id).orElseThrow().getPaymentStatus())
+                    .isEqualTo(PaymentStatus.FAILED);
+        }
+        assertThat(orderRepository.findById(stillValid).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+
+        // Mỗi đơn giữ 2 shared + 1 other; chỉ đơn còn hạn còn giữ hàng
+        assertThat(variantRepository.findById(shared.getSku()).orElseThrow().getQuantity()).isEqualTo(98);
+        assertThat(variantRepository.findById(other.getSku()).orElseThrow().getQuantity()).isEqualTo(99);
+
+        assertThat(meterRegistry.counter("payment.expiry.rows", "table", "orders").count() - ordersBefore)
+                .isEqualTo(5);
+        assertThat(meterRegistry.find("payment.expiry.chunk").tag("outcome", "success").timer().count())
+                .isGreaterThanOrEqualTo(3);
+    }
+
+    private Integer createVnPayOrder(LocalDateTime paymentExpiresAt) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(user.getId());
+        request.setOrderVariants(List.of(line(shared, 2), line(other, 1)));
+        request.setRecipientName("Expiry");
+        request.setRecipientPhone("0900000000");
+        request.setShippingAddress("1 Lê Lợi");
+        request.setPaymentMethod(PaymentMethod.VNPay);
+        Integer orderId = orderService.createOrder(request).getId();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setPaymentExpiresAt(paymentExpiresAt);
+        orderRepository.save(order);
+        return orderId;
+    }
+
+    private CreateOrderVariantRequest line(Variant variant, int quantity) {
+        CreateOrderVariantRequest item = new CreateOrderVariantRequest();
+        item.setVariantSku(variant.getSku());
+        item.setQuantity(quantity);
+        item.setPrice(50_000);
+        return item;
+    }
+
+    private Variant createVariant(Product product) {
+        Variant v = new Variant();
+        v.setProduct(product);
+        v.setPrice(50_000);
+        v.setQuantity(100);
+        return variantRepository.save(v);
+    }
+}
@@ -0,0 +1,17 @@
+package com.uniclub.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// H2 chế độ MySQL làm stand-in, schema = entity (Hibernate) + migration Flyway
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class QueryPlanTest extends AbstractQueryPlanTest {
+}
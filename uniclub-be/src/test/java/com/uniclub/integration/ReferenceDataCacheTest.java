@@ -0,0 +1,125 @@
+package com.uniclub.integration;
+
+import com.uniclub.config.HibernateCacheConfig;
+import com.uniclub.entity.Brand;
+import com.uniclub.entity.Category;
+import com.uniclub.entity.Product;
+import com.uniclub.repository.BrandRepository;
+import com.uniclub.repository.CategoryRepository;
+import com.uniclub.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reference_data_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void lazyReferences_shouldBeResolvedFromSecondLevelCache() {
+        Brand brand = new Brand();
+        brand.setName("Brand " + System.nanoTime());
+        brandRepository.save(brand);
+        Category category = new Category();
+        category.setName("Category " + System.nanoTime());
+        categoryRepository.save(category);
+        Product product = new Product();
+        product.setName("Áo thun " + System.nanoTime());
+        product.setBrand(brand);
+        product.setCategory(category);
+        productRepository.save(product);
+
+        // Lần đọc đầu nạp brand / category vào cache (INSERT kiểu IDENTITY không đưa entity vào cache)
+        assertThat(referenceNames(product.getId())).isEqualTo(brand.getName() + "/" + category.getName());
+
+        statistics.clear();
+        assertThat(referenceNames(product.getId())).isEqualTo(brand.getName() + "/" + category.getName());
+        // Chỉ còn SELECT product, brand / category lấy từ cache
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.BRAND).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.CATEGORY).getHitCount()).isEqualTo(1);
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", HibernateCacheConfig.BRAND, "result", "hit").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void existsByNameIgnoreCase_shouldUseQueryCacheUntilTableChanges() {
+        String name = "Lookup " + System.nanoTime();
+        assertThat(brandRepository.existsByNameIgnoreCase(name)).isFalse();
+
+        statistics.clear();
+        assertThat(brandRepository.existsByNameIgnoreCase(name)).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        // Ghi vào bảng brand làm kết quả cũ hết hiệu lực
+        Brand brand = new Brand();
+        brand.setName(name);
+        brandRepository.save(brand);
+        assertThat(brandRepository.existsByNameIgnoreCase(name.toUpperCase())).isTrue();
+        assertThat(brandRepository.existsByNameIgnoreCase(name)).isTrue();
+    }
+
+    @Test
+    void update_shouldRefreshCachedEntity() {
+        Brand brand = new Brand();
+        brand.setName("Before " + System.nanoTime());
+        brandRepository.save(brand);
+        brandRepository.findById(brand.getId());
+
+        brand.setName("After " + System.nanoTime());
+        brandRepository.save(brand);
+
+        statistics.clear();
+        assertThat(brandRepository.findById(brand.getId())).get().extracting(Brand::getName).isEqualTo(brand.getName());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private String referenceNames(Integer productId) {
+        return transactionTemplate.execute(status -> {
+            Product loaded = productRepository.findById(productId).orElseThrow();
+            return loaded.getBrand().getName() + "/" + loaded.getCategory().getName();
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package com.uniclub.integration;
+
+import com.uniclub.dto.request.Order.CreateOrderRequest;
+import com.uniclub.dto.request.Order.CreateOrderVariantRequest;
+import com.uniclub.dto.response.Analytics.DailySalesResponse;
+import com.uniclub.dto.response.Analytics.TopSellerResponse;
+import com.uniclub.entity.Brand;
+import com.uniclub.entity.Cart;
+import com.uniclub.entity.Category;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.User;
+import com.uniclub.entity.Variant;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.SalesDimension;
+import com.uniclub.repository.BrandRepository;
+import com.uniclub.repository.CartRepository;
+import com.uniclub.repository.CategoryRepository;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.UserRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.OrderService;
+import com.uniclub.service.SalesAnalyticsService;
+import com.uniclub.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sales_rollup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class SalesRollupTest {
+
+    private static final String ROLLUP_ROWS = "SELECT sales_date, dimension, dim_id, order_count, units, revenue, "
+            + "cancelled_orders, cancelled_units, cancelled_revenue FROM sales_daily_rollup "
+            + "ORDER BY sales_date, dimension, dim_id";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Variant shirtS;
+    private Variant shirtM;
+    private Variant pants;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM sales_daily_rollup");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM order_variant");
+        jdbcTemplate.update("DELETE FROM orders");
+
+        user = new User();
+        user.setEmail("rollup-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setFullname("Rollup");
+        userRepository.save(user);
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+
+        Brand brand = new Brand();
+        brand.setName("Brand " + System.nanoTime());
+        brandRepository.save(brand);
+        Category tops = new Category();
+        tops.setName("Áo");
+        categoryRepository.save(tops);
+        Category bottoms = new Category();
+        bottoms.setName("Quần");
+        categoryRepository.save(bottoms);
+
+        Product shirt = product("Áo thun " + System.nanoTime(), brand, tops);
+        shirtS = variant(shirt, 200_000);
+        shirtM = variant(shirt, 200_000);
+        pants = variant(product("Quần jean " + System.nanoTime(), brand, bottoms), 450_000);
+    }
+
+    @Test
+    void orderLifecycle_shouldKeepRollupsEqualToFullRebuild() {
+        LocalDate today = LocalDate.now();
+
+        Integer first = orderService.createOrder(order(line(shirtS, 2), line(shirtM, 1))).getId();
+        orderService.createOrder(order(line(pants, 1), line(shirtS, 1)));
+        Integer third = orderService.createOrder(order(line(pants, 3))).getId();
+        orderService.cancelOrder(third);
+
+        DailySalesResponse day = salesAnalyticsService.getDailySales(today, today).get(0);
+        assertThat(day.getOrders()).isEqualTo(3);
+        assertThat(day.getUnits()).isEqualTo(8);
+        assertThat(day.getRevenue()).isEqualTo(4 * 200_000 + 4 * 450_000);
+        assertThat(day.getCancelledOrders()).isEqualTo(1);
+        assertThat(day.getNetRevenue()).isEqualTo(4 * 200_000 + 450_000);
+
+        List<TopSellerResponse> products = salesAnalyticsService.getTopSellers(SalesDimension.PRODUCT, today, today,
+                "units", 10);
+        assertThat(products).extracting(TopSellerResponse::getId)
+                .containsExactly(shirtS.getProduct().getId(), pants.getProduct().getId());
+        // Đơn có 2 SKU của cùng sản phẩm chỉ tính 1 đơn cho sản phẩm đó
+        assertThat(products.get(0).getOrders()).isEqualTo(2);
+        assertThat(products.get(0).getNetUnits()).isEqualTo(4);
+        assertThat(products.get(1).getNetUnits()).isEqualTo(1);
+        assertThat(products.get(1).getCancelledOrders()).isEqualTo(1);
+
+        List<TopSellerResponse> skus = salesAnalyticsService.getTopSellers(SalesDimension.SKU, today, today, null, 1);
+        assertThat(skus).singleElement().satisfies(top -> {
+            assertThat(top.getId()).isEqualTo(shirtS.getSku());
+            assertThat(top.getName()).startsWith("Áo thun");
+        });
+        assertThat(salesAnalyticsService.getTopSellers(SalesDimension.CATEGORY, today, today, null, 10))
+                .extracting(TopSellerResponse::getName)
+                .containsExactly("Áo", "Quần");
+
+        assertIncrementalMatchesRebuild(today);
+
+        // Sửa dòng hàng rồi xóa đơn: phần đóng góp cũ phải được trừ đi
+        CreateOrderRequest update = order(line(shirtS, 1), line(pants, 2));
+        update.setUserId(null);
+        orderService.updateOrder(first, update);
+        assertIncrementalMatchesRebuild(today);
+
+        jdbcTemplate.update("DELETE FROM payment WHERE id_order = ?", third);
+        orderService.deleteOrder(third);
+        assertIncrementalMatchesRebuild(today);
+        assertThat(salesAnalyticsService.getDailySales(today, today).get(0).getCancelledOrders()).isZero();
+    }
+
+    @Test
+    void dailySales_shouldFillDaysWithoutOrders() {
+        LocalDate today = LocalDate.now();
+        orderService.createOrder(order(line(pants, 1)));
+
+        List<DailySalesResponse> week = salesAnalyticsService.getDailySales(today.minusDays(6), today);
+
+        assertThat(week).hasSize(7);
+        assertThat(week.subList(0, 6)).allSatisfy(day -> assertThat(day.getOrders()).isZero());
+        assertThat(week.get(6).getRevenue()).isEqualTo(450_000);
+    }
+
+    @Test
+    void rolledBackOrderChange_shouldNotTouchRollups() {
+        Integer orderId = orderService.createOrder(order(line(pants, 1))).getId();
+        List<Map<String, Object>> before = jdbcTemplate.queryForList(ROLLUP_ROWS);
+
+        // Delta chỉ được ghi sau commit: rollback thì rollup giữ nguyên
+        transactionTemplate.executeWithoutResult(status -> {
+            salesRollupService.recordCancellations(List.of(orderId));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForList(ROLLUP_ROWS)).isEqualTo(before);
+    }
+
+    private void assertIncrementalMatchesRebuild(LocalDate day) {
+        List<Map<String, Object>> incremental = jdbcTemplate.queryForList(ROLLUP_ROWS);
+        assertThat(salesRollupService.rebuild(day, day)).isEqualTo(1);
+        List<Map<String, Object>> rebuilt = jdbcTemplate.queryForList(ROLLUP_ROWS);
+        // Delta về 0 vẫn để lại dòng toàn số 0, bản dựng lại thì không có dòng đó
+        incremental.removeIf(row -> ((Number) row.get("order_count")).intValue() == 0
+                && ((Number) row.get("units")).longValue() == 0);
+        assertThat(incremental).isEqualTo(rebuilt);
+    }
+
+    private Product product(String name, Brand brand, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    private Variant variant(Product product, int price) {
+        Variant variant = new Variant();
+        variant.setProduct(product);
+        variant.setPrice(price);
+        variant.setQuantity(100);
+        return variantRepository.save(variant);
+    }
+
+    private CreateOrderVariantRequest line(Variant variant, int quantity) {
+        CreateOrderVariantRequest item = new CreateOrderVariantRequest();
+        item.setVariantSku(variant.getSku());
+        item.setQuantity(quantity);
+        item.setPrice(variant.getPrice());
+        return item;
+    }
+
+    private CreateOrderRequest order(CreateOrderVariantRequest... items) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(user.getId());
+        request.setOrderVariants(List.of(items));
+        request.setRecipientName("Rollup");
+        request.setRecipientPhone("0900000000");
+        request.setShippingAddress("1 Lê Lợi");
+        request.setPaymentMethod(PaymentMethod.COD);
+        return request;
+    }
+}
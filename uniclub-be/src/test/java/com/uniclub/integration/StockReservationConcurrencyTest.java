@@ -0,0 +1,130 @@
+package com.uniclub.integration;
+
+import com.uniclub.entity.Product;
+import com.uniclub.entity.Variant;
+import com.uniclub.exception.InsufficientStockException;
+import com.uniclub.exception.ResourceNotFoundException;
+import com.uniclub.repository.ProductRepository;
+import com.uniclub.repository.VariantRepository;
+import com.uniclub.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class StockReservationConcurrencyTest {
+
+    private static final int CHECKOUTS = 500;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    private Variant variant;
+    private Variant otherVariant;
+
+    @BeforeEach
+    void setUp() {
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Product product = new Product();
+        product.setName("Áo thun");
+        productRepository.save(product);
+
+        variant = createVariant(product, STOCK);
+        otherVariant = createVariant(product, 1);
+    }
+
+    @Test
+    void reserve_shouldNeverOversellUnderParallelCheckouts() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    stockReservationService.reserve(Map.of(variant.getSku(), 1));
+                    reserved.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(reserved.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(CHECKOUTS - STOCK);
+        assertThat(variantRepository.findById(variant.getSku()).orElseThrow().getQuantity()).isZero();
+    }
+
+    @Test
+    void reserve_shouldReportFailedSkusAndRollBackWholeOrder() {
+        assertThatThrownBy(() -> stockReservationService.reserve(Map.of(variant.getSku(), 5, otherVariant.getSku(), 2)))
+                .isInstanceOf(InsufficientStockException.class)
+                .satisfies(e -> assertThat(((InsufficientStockException) e).getFailedSkus())
+                        .containsExactly(otherVariant.getSku()));
+
+        assertThat(variantRepository.findById(variant.getSku()).orElseThrow().getQuantity()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void reserve_shouldRejectUnknownSku() {
+        assertThatThrownBy(() -> stockReservationService.reserve(Map.of(999_999, 1)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void release_shouldRestoreStock() {
+        stockReservationService.reserve(Map.of(variant.getSku(), 30));
+        stockReservationService.release(Map.of(variant.getSku(), 30));
+
+        assertThat(variantRepository.findById(variant.getSku()).orElseThrow().getQuantity()).isEqualTo(STOCK);
+    }
+
+    private Variant createVariant(Product product, int quantity) {
+        Variant v = new Variant();
+        v.setProduct(product);
+        v.setPrice(100_000);
+        v.setQuantity(quantity);
+        return variantRepository.save(v);
+    }
+}
@@ -0,0 +1,194 @@
+package com.uniclub.integration;
+
+import com.uniclub.entity.Order;
+import com.uniclub.entity.Payment;
+import com.uniclub.entity.User;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.entity.enums.PaymentMethod;
+import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.repository.OrderRepository;
+import com.uniclub.repository.PaymentRepository;
+import com.uniclub.repository.UserRepository;
+import com.uniclub.service.VNPayService;
+import com.uniclub.util.VNPaySigner;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:vnpay_ipn;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false"
+})
+class VNPayIpnIdempotencyTest {
+
+    private static final int TOTAL = 180_000;
+
+    @Autowired
+    private VNPayService vnPayService;
+
+    @Autowired
+    private VNPaySigner vnPaySigner;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("ipn-" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setFullname("IPN");
+        userRepository.save(user);
+    }
+
+    @Test
+    void handleIPN_shouldApplyRetryStormExactlyOnce() throws Exception {
+        Order order = createVnPayOrder();
+        Map<String, String> ipn = signedCallback(order.getId(), "14000001", "00");
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return vnPayService.handleIPN(ipn).get("RspCode");
+            }));
+        }
+        start.countDown();
+        List<String> codes = new ArrayList<>();
+        for (Future<String> future : futures) {
+            codes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertThat(codes).filteredOn("00"::equals).hasSize(1);
+        assertThat(codes).filteredOn("02"::equals).hasSize(49);
+
+        Payment payment = paymentRepository.findLatestByOrderId(order.getId()).orElseThrow();
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(payment.getTransactionNo()).isEqualTo("14000001");
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void handleIPN_shouldAnswerKnownTransactionWithoutQueries() {
+        Order order = createVnPayOrder();
+        Map<String, String> ipn = signedCallback(order.getId(), "14000002", "00");
+        assertThat(vnPayService.handleIPN(ipn)).containsEntry("RspCode", "00");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(vnPayService.handleIPN(ipn)).containsEntry("RspCode", "02");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void handleIPN_shouldNotReapplyAfterReturnUrl() {
+        Order order = createVnPayOrder();
+        Map<String, String> callback = signedCallback(order.getId(), "14000003", "24");
+
+        assertThat(vnPayService.handleReturn(callback)).containsEntry("success", false);
+        assertThat(vnPayService.handleIPN(callback)).containsEntry("RspCode", "02");
+
+        Payment payment = paymentRepository.findLatestByOrderId(order.getId()).orElseThrow();
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void handleIPN_shouldNotConfirmExpiredPayment() {
+        Order order = createVnPayOrder();
+        Payment payment = paymentRepository.findLatestByOrderId(order.getId()).orElseThrow();
+        payment.setPaymentStatus(PaymentStatus.FAILED);
+        paymentRepository.save(payment);
+
+        assertThat(vnPayService.handleIPN(signedCallback(order.getId(), "14000004", "00")))
+                .containsEntry("RspCode", "02");
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void handleIPN_shouldRejectTamperedAmountAndSignature() {
+        Order order = createVnPayOrder();
+        Map<String, String> wrongAmount = signedCallback(order.getId(), "14000005", "00", TOTAL / 2);
+        Map<String, String> tampered = signedCallback(order.getId(), "14000005", "00");
+        tampered.put("vnp_ResponseCode", "01");
+
+        assertThat(vnPayService.handleIPN(wrongAmount)).containsEntry("RspCode", "04");
+        assertThat(vnPayService.handleIPN(tampered)).containsEntry("RspCode", "97");
+        assertThat(paymentRepository.findLatestByOrderId(order.getId()).orElseThrow().getPaymentStatus())
+                .isEqualTo(PaymentStatus.PENDING);
+    }
+
+    private Order createVnPayOrder() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotal(TOTAL);
+        order.setRecipientName("IPN");
+        order.setRecipientPhone("0900000000");
+        order.setShippingAddress("1 Lê Lợi");
+        orderRepository.save(order);
+
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setPaymentMethod(PaymentMethod.VNPay);
+        payment.setAmount(TOTAL);
+        paymentRepository.save(payment);
+        return order;
+    }
+
+    private Map<String, String> signedCallback(Integer orderId, String transactionNo, String responseCode) {
+        return signedCallback(orderId, transactionNo, responseCode, TOTAL);
+    }
+
+    private Map<String, String> signedCallback(Integer orderId, String transactionNo, String responseCode, int amount) {
+        Map<String, String> params = new HashMap<>();
+        params.put("vnp_TmnCode", "CGEJ0TI4");
+        params.put("vnp_Amount", String.valueOf(amount * 100L));
+        params.put("vnp_BankCode", "NCB");
+        params.put("vnp_TxnRef", String.valueOf(orderId));
+        params.put("vnp_TransactionNo", transactionNo);
+        params.put("vnp_ResponseCode", responseCode);
+        params.put("vnp_TransactionStatus", responseCode);
+        params.put("vnp_OrderInfo", "Thanh toan don hang " + orderId);
+        params.put("vnp_SecureHash", vnPaySigner.sign(params));
+        return params;
+    }
+}
@@ -0,0 +1,107 @@
+package com.uniclub.integration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2.000 kết nối đồng thời, mỗi request phần lớn thời gian chỉ chờ I/O (giả lập upload Cloudinary/SendGrid chậm)
+ * Với platform thread, số request được xử lý cùng lúc bị chặn ở server.tomcat.threads.max (200);
+ * với virtual thread, request đang chờ không giữ thread nên số request đồng thời vượt xa giới hạn đó
+ * Chạy riêng: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtual_threads;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.task.scheduling.enabled=false",
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=200",
+        "server.tomcat.accept-count=2048"
+})
+@Import(VirtualThreadLoadTest.SlowUpstreamController.class)
+class VirtualThreadLoadTest {
+
+    private static final int CONNECTIONS = 2_000;
+    private static final int PLATFORM_MAX_THREADS = 200;
+    private static final long UPSTREAM_MILLIS = 3_000;
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @RestController
+    static class SlowUpstreamController {
+
+        @GetMapping("/test/slow-upstream")
+        public String slowUpstream() throws InterruptedException {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(UPSTREAM_MILLIS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }
+    }
+
+    @Test
+    void mostlyIdleConnections_shouldNotBeCappedByThreadPool() {
+        URI uri = URI.create("http://localhost:" + port + "/test/slow-upstream");
+        AtomicInteger virtual = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> responses = new ArrayList<>();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .handle((response, error) -> {
+                            if (error != null || response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                            } else if ("virtual".equals(response.body())) {
+                                virtual.incrementAndGet();
+                            }
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertThat(failed.get()).isZero();
+            assertThat(virtual.get()).isEqualTo(CONNECTIONS);
+            assertThat(peakInFlight.get()).isGreaterThan(PLATFORM_MAX_THREADS);
+            // 200 platform thread cần CONNECTIONS / 200 lượt chờ upstream nối tiếp nhau
+            assertThat(elapsedMillis).isLessThan(CONNECTIONS / PLATFORM_MAX_THREADS * UPSTREAM_MILLIS);
+        }
+    }
+}
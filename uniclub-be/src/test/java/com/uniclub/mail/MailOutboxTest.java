@@ -0,0 +1,127 @@
+package com.uniclub.mail;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailOutboxTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MailOutbox outbox;
+
+    @AfterEach
+    void tearDown() {
+        if (outbox != null) {
+            outbox.stop();
+        }
+    }
+
+    @Test
+    void enqueue_shouldReturnImmediatelyAndDeliverInBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<MailMessage> sent = new CopyOnWriteArrayList<>();
+        outbox = start(message -> {
+            await(release);
+            sent.add(message);
+        }, 10, 3);
+
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertThat(outbox.enqueue(message(i))).isTrue();
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofMillis(200));
+        assertThat(meterRegistry.get("mail.outbox.depth").gauge().value()).isEqualTo(5);
+
+        release.countDown();
+        awaitDepthZero();
+
+        assertThat(sent).hasSize(5);
+        assertThat(meterRegistry.get("mail.delivery").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void deliver_shouldRetryWithBackoffUntilTransportRecovers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        outbox = start(message -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IOException("SendGrid API error 503");
+            }
+        }, 10, 5);
+
+        outbox.enqueue(message(1));
+        awaitDepthZero();
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(failures("retry")).isEqualTo(2);
+        assertThat(meterRegistry.get("mail.delivery").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deliver_shouldDropAfterMaxAttempts() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        outbox = start(message -> {
+            calls.incrementAndGet();
+            throw new IOException("boom");
+        }, 10, 3);
+
+        outbox.enqueue(message(1));
+        awaitDepthZero();
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(failures("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void enqueue_shouldRejectWhenFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        outbox = start(message -> await(release), 2, 3);
+
+        assertThat(outbox.enqueue(message(1))).isTrue();
+        assertThat(outbox.enqueue(message(2))).isTrue();
+        assertThat(outbox.enqueue(message(3))).isFalse();
+        assertThat(failures("rejected")).isEqualTo(1);
+        release.countDown();
+    }
+
+    private MailOutbox start(MailTransport transport, int capacity, int maxAttempts) {
+        MailOutbox created = new MailOutbox(transport, meterRegistry, capacity, 2, maxAttempts,
+                Duration.ofMillis(10), Duration.ofMillis(50));
+        created.start();
+        return created;
+    }
+
+    private void awaitDepthZero() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outbox.depth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(outbox.depth()).isZero();
+    }
+
+    private double failures(String outcome) {
+        return meterRegistry.get("mail.delivery.failures").tag("outcome", outcome).counter().count();
+    }
+
+    private static MailMessage message(int i) {
+        return new MailMessage("user" + i + "@example.com", "UniClub", "Code " + i);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
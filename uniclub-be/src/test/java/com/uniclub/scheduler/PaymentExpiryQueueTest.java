@@ -0,0 +1,32 @@
+package com.uniclub.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentExpiryQueueTest {
+
+    private final PaymentExpiryQueue queue = new PaymentExpiryQueue();
+
+    @Test
+    void drainExpired_shouldReturnOnlyDueOrdersInDeadlineOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        queue.register(3, now.minusSeconds(1));
+        queue.register(1, now.minusMinutes(1));
+        queue.register(2, now.plusMinutes(15));
+
+        assertThat(queue.drainExpired()).containsExactly(1, 3);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void drainExpired_shouldCollapseDuplicateRegistrations() {
+        LocalDateTime past = LocalDateTime.now().minusSeconds(5);
+        queue.register(7, past);
+        queue.register(7, past.plusSeconds(1));
+
+        assertThat(queue.drainExpired()).containsExactly(7);
+    }
+}
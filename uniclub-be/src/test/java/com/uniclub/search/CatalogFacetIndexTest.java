@@ -0,0 +1,135 @@
+package com.uniclub.search;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogFacetIndexTest {
+
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogFacetIndex(new int[]{200_000, 500_000});
+        // id, brand, category, sizes, colors, prices
+        index.rebuild(List.of(
+                document(1, 10, 100, Set.of(1, 2), Set.of(7), Set.of(150_000)),
+                document(2, 10, 200, Set.of(2), Set.of(8), Set.of(300_000)),
+                document(3, 20, 100, Set.of(3), Set.of(7, 8), Set.of(600_000, 180_000))
+        ));
+    }
+
+    @Test
+    void search_withoutFilters_shouldReturnNewestFirstWithAllCounts() {
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of()), 0, 10);
+
+        assertThat(ids(result)).containsExactly(3, 2, 1);
+        assertThat(result.counts().get(CatalogFacetIndex.BRAND)).containsExactly(Map.entry(10, 2), Map.entry(20, 1));
+        assertThat(result.counts().get(CatalogFacetIndex.PRICE))
+                .containsExactly(Map.entry(0, 2), Map.entry(1, 1), Map.entry(2, 1));
+    }
+
+    @Test
+    void search_shouldOrWithinFacetAndAndAcrossFacets() {
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of(
+                CatalogFacetIndex.COLOR, Set.of(7, 8),
+                CatalogFacetIndex.CATEGORY, Set.of(100))), 0, 10);
+
+        assertThat(ids(result)).containsExactly(3, 1);
+        assertThat(result.total()).isEqualTo(2);
+    }
+
+    @Test
+    void counts_shouldIgnoreOwnFacetSelection() {
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of(
+                CatalogFacetIndex.BRAND, Set.of(10))), 0, 10);
+
+        assertThat(ids(result)).containsExactly(2, 1);
+        // Brand vẫn đếm trên toàn bộ để chuyển sang brand khác; các facet khác đếm trong brand 10
+        assertThat(result.counts().get(CatalogFacetIndex.BRAND)).containsExactly(Map.entry(10, 2), Map.entry(20, 1));
+        assertThat(result.counts().get(CatalogFacetIndex.SIZE)).containsExactly(Map.entry(1, 1), Map.entry(2, 2));
+    }
+
+    @Test
+    void upsertAndRemove_shouldUpdateBitmapsIncrementally() {
+        index.upsert(document(1, 20, 100, Set.of(3), Set.of(9), Set.of(900_000)));
+        index.remove(2);
+
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of(
+                CatalogFacetIndex.BRAND, Set.of(20))), 0, 10);
+
+        assertThat(ids(result)).containsExactly(3, 1);
+        assertThat(result.counts().get(CatalogFacetIndex.BRAND)).containsExactly(Map.entry(20, 2));
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void search_shouldPaginate() {
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of()), 1, 1);
+
+        assertThat(ids(result)).containsExactly(2);
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void search_beyondLastPage_shouldReturnEmptyPageWithTotal() {
+        CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of()), Integer.MAX_VALUE, 20);
+
+        assertThat(result.hits()).isEmpty();
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuild_shouldNeverExposeEmptyOrPartialCatalog() throws Exception {
+        List<CatalogFacetIndex.Document> catalog = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            catalog.add(document(id, id % 10, 100, Set.of(id % 5), Set.of(7), Set.of(150_000)));
+        }
+        index.rebuild(catalog);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread rebuilder = new Thread(() -> {
+            while (running.get()) {
+                index.rebuild(catalog);
+            }
+        });
+        rebuilder.start();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                CatalogFacetIndex.Result result = index.search(new CatalogFacetIndex.Query(Map.of()), 0, 1);
+                assertThat(result.total()).isEqualTo(2_000);
+                assertThat(result.counts().get(CatalogFacetIndex.BRAND).get(0)).isEqualTo(200);
+            }
+        } finally {
+            running.set(false);
+            rebuilder.join();
+        }
+    }
+
+    @Test
+    void priceBucketLabel_shouldDescribeRange() {
+        assertThat(index.priceBucketLabel(0)).isEqualTo("0-200000");
+        assertThat(index.priceBucketLabel(2)).isEqualTo("500000+");
+    }
+
+    private static List<Integer> ids(CatalogFacetIndex.Result result) {
+        return result.hits().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static CatalogFacetIndex.Document document(int id, int brandId, int categoryId,
+                                                       Set<Integer> sizes, Set<Integer> colors, Set<Integer> prices) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setBrandId(brandId);
+        product.setCategoryId(categoryId);
+        return new CatalogFacetIndex.Document(product, sizes, colors, prices);
+    }
+}
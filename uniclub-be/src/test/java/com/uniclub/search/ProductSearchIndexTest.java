@@ -0,0 +1,110 @@
+package com.uniclub.search;
+
+import com.uniclub.dto.response.Product.ProductResponse;
+import com.uniclub.dto.response.Product.ProductSearchResponse;
+import com.uniclub.service.impl.ProductSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.upsert(product(1, "Áo thun trắng", "Cotton", "Nike", "Áo Thun"));
+        index.upsert(product(2, "Quần jean đen", "Dáng ôm, vải áo khoác", "Levi's", "Quần"));
+        index.upsert(product(3, "Áo khoác dù", "Chống nước", "Adidas", "Áo Khoác"));
+    }
+
+    @Test
+    void search_shouldIgnoreDiacriticsAndCase() {
+        assertThat(ids(index.search("AO THUN", 0, 10))).containsExactly(1);
+        assertThat(ids(index.search("quan jean đen", 0, 10))).containsExactly(2);
+    }
+
+    @Test
+    void search_shouldMatchPrefixOfLastToken() {
+        assertThat(ids(index.search("ao kho", 0, 10))).containsExactly(3, 2);
+    }
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        // "khoác" nằm trong tên + category của #3, chỉ nằm trong mô tả của #2
+        assertThat(ids(index.search("khoac", 0, 10))).containsExactly(3, 2);
+    }
+
+    @Test
+    void search_shouldMatchBrandAndCategory() {
+        assertThat(ids(index.search("nike", 0, 10))).containsExactly(1);
+        assertThat(ids(index.search("levi", 0, 10))).containsExactly(2);
+    }
+
+    @Test
+    void search_shouldPaginateAndReportTotal() {
+        ProductSearchIndex.SearchResult first = index.search("ao", 0, 2);
+        ProductSearchIndex.SearchResult second = index.search("ao", 2, 2);
+
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.hits()).hasSize(2);
+        assertThat(second.hits()).hasSize(1);
+        assertThat(ids(first)).doesNotContainAnyElementsOf(ids(second));
+    }
+
+    @Test
+    void search_beyondLastPage_shouldReturnEmptyPageWithTotal() {
+        ProductSearchIndex.SearchResult deep = index.search("ao", Integer.MAX_VALUE - 10, 100);
+        assertThat(deep.hits()).isEmpty();
+        assertThat(deep.total()).isEqualTo(3);
+
+        // offset + limit vượt Integer.MAX_VALUE
+        assertThat(index.search("ao", 2, Integer.MAX_VALUE).hits()).hasSize(1);
+    }
+
+    @Test
+    void serviceSearch_withHugePage_shouldNotOverflowOffset() {
+        ProductSearchServiceImpl service = new ProductSearchServiceImpl();
+        service.index(product(1, "Áo thun trắng", "Cotton", "Nike", "Áo Thun"));
+
+        ProductSearchResponse response = service.search("ao", 21474836, 100);
+
+        assertThat(response.getContent()).isEmpty();
+        assertThat(response.getTotalElements()).isEqualTo(1);
+        assertThat(response.getPage()).isEqualTo(21474836);
+    }
+
+    @Test
+    void upsertAndRemove_shouldKeepIndexInSync() {
+        index.upsert(product(1, "Mũ lưỡi trai", null, "Nike", "Phụ kiện"));
+        assertThat(ids(index.search("thun", 0, 10))).isEmpty();
+        assertThat(ids(index.search("mu luoi", 0, 10))).containsExactly(1);
+
+        index.remove(3);
+        assertThat(ids(index.search("du", 0, 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void search_shouldReturnNothingForBlankQuery() {
+        assertThat(index.search("  ", 0, 10).total()).isZero();
+    }
+
+    private static List<Integer> ids(ProductSearchIndex.SearchResult result) {
+        return result.hits().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static ProductResponse product(int id, String name, String description, String brand, String category) {
+        ProductResponse response = new ProductResponse();
+        response.setId(id);
+        response.setName(name);
+        response.setDescription(description);
+        response.setBrandName(brand);
+        response.setCategoryName(category);
+        return response;
+    }
+}
@@ -1,8 +1,12 @@
 package com.uniclub.service;
 
+import com.uniclub.cart.ActiveCart;
+import com.uniclub.cart.CartStore;
+import com.uniclub.cart.CartSummary;
 import com.uniclub.dto.request.Cart.CreateCartRequest;
 import com.uniclub.dto.request.Cart.UpdateCartRequest;
 import com.uniclub.dto.response.Cart.CartResponse;
+import com.uniclub.dto.response.Cart.CartSummaryResponse;
 import com.uniclub.entity.Cart;
 import com.uniclub.entity.User;
 import com.uniclub.exception.ResourceNotFoundException;
@@ -22,6 +26,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,6 +40,9 @@ class CartServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CartStore cartStore;
+
     @InjectMocks
     private CartServiceImpl cartService;
 
@@ -159,18 +167,14 @@ class CartServiceImplTest {
 
     @Test
     void clearCartByUserId_shouldClearCartItems() {
-        when(cartRepository.findByUserId(1)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
         cartService.clearCartByUserId(1);
 
-        verify(cartRepository).save(cart);
-        assertThat(cart.getCartItems()).isEmpty();
+        verify(cartStore).clear(1);
     }
 
     @Test
     void clearCartByUserId_shouldThrowWhenCartNotFound() {
-        when(cartRepository.findByUserId(999)).thenReturn(Optional.empty());
+        doThrow(new ResourceNotFoundException("Cart", "userId", 999)).when(cartStore).clear(999);
 
         assertThatThrownBy(() -> cartService.clearCartByUserId(999))
                 .isInstanceOf(ResourceNotFoundException.class);
@@ -183,6 +187,7 @@ class CartServiceImplTest {
         cartService.deleteCart(1);
 
         verify(cartRepository).deleteById(1);
+        verify(cartStore).evictCart(1);
     }
 
     @Test
@@ -224,17 +229,36 @@ class CartServiceImplTest {
     }
 
     @Test
-    void clearCartByUserId_shouldMaintainCartButClearItems() {
-        // Setup: Cart has items, then clear
-        cart.setTotalPrice(120_000);
+    void getCartByUserId_shouldUseLiveTotalsOfActiveCart() {
         when(cartRepository.findByUserId(1)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartStore.activeSummary(1))
+                .thenReturn(Optional.of(new CartSummary(1, 1, new ActiveCart.Totals(2, 1, 200_000))));
+
+        CartResponse response = cartService.getCartByUserId(1);
 
+        assertThat(response.getTotalPrice()).isEqualTo(200_000);
+        assertThat(response.getShippingFee()).isEqualTo(30_000);
+        assertThat(response.getItemCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getCartSummary_shouldApplyFreeShippingThreshold() {
+        when(cartStore.summary(1)).thenReturn(new CartSummary(1, 1, new ActiveCart.Totals(5, 2, 500_000)));
+
+        CartSummaryResponse summary = cartService.getCartSummary(1);
+
+        assertThat(summary.getSubtotal()).isEqualTo(500_000);
+        assertThat(summary.getShippingFee()).isZero();
+        assertThat(summary.getTotal()).isEqualTo(500_000);
+    }
+
+    @Test
+    void clearCartByUserId_shouldMaintainCartButClearItems() {
+        // Setup: Cart has items, then clear
         cartService.clearCartByUserId(1);
 
-        verify(cartRepository).save(cart);
-        assertThat(cart.getCartItems()).isEmpty();
+        verify(cartStore).clear(1);
+        verify(cartRepository, never()).deleteById(any());
         // Cart still exists, but items are cleared
     }
 }
-
@@ -0,0 +1,158 @@
+package com.uniclub.service;
+
+import com.uniclub.image.ImageDerivativeService;
+import com.uniclub.image.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageUploadServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1};
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @InjectMocks
+    private ImageUploadService imageUploadService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageUploadService, "tempDir", tempDir);
+        ReflectionTestUtils.setField(imageUploadService, "batchConcurrency", 2);
+        ReflectionTestUtils.setField(imageUploadService, "maxBatchFiles", 5);
+    }
+
+    @Test
+    void uploadImage_shouldStreamSpooledFileAndDeleteIt() throws IOException {
+        List<File> uploaded = Collections.synchronizedList(new ArrayList<>());
+        // Dẫn xuất được tạo từ chính file tạm, trước khi file bị xóa
+        doAnswer(invocation -> {
+            Path original = invocation.getArgument(1);
+            assertThat(Files.readAllBytes(original)).isEqualTo(PNG);
+            return null;
+        }).when(imageDerivativeService).register(anyString(), any(Path.class));
+        when(imageStore.save(any(File.class), anyString())).thenAnswer(invocation -> {
+            File file = invocation.getArgument(0);
+            uploaded.add(file);
+            assertThat(Files.readAllBytes(file.toPath())).isEqualTo(PNG);
+            return "https://cdn/" + file.getName();
+        });
+
+        String url = imageUploadService.uploadImage(new MockMultipartFile("file", "a.png", "image/png", PNG));
+
+        assertThat(uploaded).hasSize(1);
+        assertThat(uploaded.get(0).getName()).endsWith(".png");
+        assertThat(url).isEqualTo("https://cdn/" + uploaded.get(0).getName());
+        assertThat(uploaded.get(0)).doesNotExist();
+        verify(imageDerivativeService).register(eq(url), any(Path.class));
+    }
+
+    @Test
+    void uploadImage_shouldSucceedWhenDerivativesFail() throws IOException {
+        when(imageStore.save(any(File.class), anyString())).thenReturn("https://cdn/a.png");
+        doAnswer(invocation -> {
+            throw new IOException("disk full");
+        }).when(imageDerivativeService).register(anyString(), any(Path.class));
+
+        String url = imageUploadService.uploadImage(new MockMultipartFile("file", "a.png", "image/png", PNG));
+
+        assertThat(url).isEqualTo("https://cdn/a.png");
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void uploadImage_shouldRejectSpoofedContentType() throws IOException {
+        MultipartFile file = new MockMultipartFile("file", "evil.png", "image/png", "<?php echo 1; ?>".getBytes());
+
+        assertThatThrownBy(() -> imageUploadService.uploadImage(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("File must be an image");
+        verify(imageStore, never()).save(any(File.class), anyString());
+    }
+
+    @Test
+    void uploadImage_shouldAcceptImageDespiteWrongContentType() throws IOException {
+        when(imageStore.save(any(File.class), anyString())).thenReturn("https://cdn/a.jpg");
+
+        String url = imageUploadService.uploadImage(
+                new MockMultipartFile("file", "a.bin", "application/octet-stream", JPEG), "uniclub/products");
+
+        assertThat(url).isEqualTo("https://cdn/a.jpg");
+    }
+
+    @Test
+    void uploadImage_shouldRejectEmptyAndOversizedFiles() {
+        assertThatThrownBy(() -> imageUploadService.uploadImage(new MockMultipartFile("file", new byte[0])))
+                .hasMessage("File is empty");
+
+        byte[] oversized = new byte[(int) ImageUploadService.MAX_FILE_SIZE + 1];
+        System.arraycopy(PNG, 0, oversized, 0, PNG.length);
+        assertThatThrownBy(() -> imageUploadService.uploadImage(new MockMultipartFile("file", oversized)))
+                .hasMessage("File size must be less than 5MB");
+    }
+
+    @Test
+    void uploadImages_shouldReturnResultPerFileInOrder() throws IOException {
+        when(imageStore.save(any(File.class), anyString())).thenAnswer(invocation -> {
+            File file = invocation.getArgument(0);
+            return "https://cdn/" + file.getName();
+        });
+
+        List<ImageUploadService.UploadResult> results = imageUploadService.uploadImages(List.of(
+                new MockMultipartFile("files", "1.png", "image/png", PNG),
+                new MockMultipartFile("files", "2.txt", "image/png", "not an image".getBytes()),
+                new MockMultipartFile("files", "3.jpg", "image/jpeg", JPEG)
+        ), ImageUploadService.DEFAULT_FOLDER);
+
+        assertThat(results).extracting(ImageUploadService.UploadResult::filename).containsExactly("1.png", "2.txt", "3.jpg");
+        assertThat(results).extracting(ImageUploadService.UploadResult::success).containsExactly(true, false, true);
+        assertThat(results.get(1).error()).isEqualTo("File must be an image");
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void uploadImages_shouldRejectTooManyFiles() {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            files.add(new MockMultipartFile("files", i + ".png", "image/png", PNG));
+        }
+
+        assertThatThrownBy(() -> imageUploadService.uploadImages(files, ImageUploadService.DEFAULT_FOLDER))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Too many files, maximum is 5");
+    }
+}
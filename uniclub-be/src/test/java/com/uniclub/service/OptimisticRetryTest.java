@@ -0,0 +1,111 @@
+package com.uniclub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OptimisticRetryTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticRetry = new OptimisticRetry(transactionManager, meterRegistry, 3,
+                Duration.ofMillis(1), Duration.ofMillis(4));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void execute_shouldRetryConflictInNewTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = optimisticRetry.execute("variant.update", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertThat(count("optimistic.lock.attempts", null)).isEqualTo(3);
+        assertThat(count("optimistic.lock.conflicts", "retry")).isEqualTo(2);
+    }
+
+    @Test
+    void execute_shouldRethrowWhenAttemptsExhausted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        // Xung đột lúc commit: JPA bọc OptimisticLockException trong exception khác
+        assertThatThrownBy(() -> optimisticRetry.execute("variant.update", () -> {
+            calls.incrementAndGet();
+            throw new TransactionSystemException("commit failed", new OptimisticLockException());
+        })).isInstanceOf(TransactionSystemException.class);
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(count("optimistic.lock.conflicts", "retry")).isEqualTo(2);
+        assertThat(count("optimistic.lock.conflicts", "exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void execute_shouldNotRetryOtherErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.execute("order.cancel", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Đơn hàng đã được hủy trước đó");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.find("optimistic.lock.conflicts").counter()).isNull();
+    }
+
+    @Test
+    void execute_shouldRunOnceInsideOuterTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> optimisticRetry.execute("variant.increaseStock", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Object.class, 1);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    private double count(String name, String outcome) {
+        var search = meterRegistry.find(name).tag("operation", "variant.update");
+        if (outcome != null) {
+            search = search.tag("outcome", outcome);
+        }
+        return search.counter().count();
+    }
+}
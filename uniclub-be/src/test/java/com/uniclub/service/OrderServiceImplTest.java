@@ -11,27 +11,38 @@ import com.uniclub.entity.Variant;
 import com.uniclub.entity.enums.OrderStatus;
 import com.uniclub.entity.enums.PaymentMethod;
 import com.uniclub.entity.enums.PaymentStatus;
+import com.uniclub.exception.InsufficientStockException;
 import com.uniclub.exception.ResourceNotFoundException;
 import com.uniclub.repository.OrderRepository;
 import com.uniclub.repository.PaymentRepository;
 import com.uniclub.repository.UserRepository;
 import com.uniclub.repository.VariantRepository;
 import com.uniclub.service.impl.OrderServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,6 +62,13 @@ class OrderServiceImplTest {
     private CartService cartService;
     @Mock
     private VNPayService vnPayService;
+    @Mock
+    private StockReservationService stockReservationService;
+    @Mock
+    private SalesRollupService salesRollupService;
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ZERO);
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -115,7 +133,9 @@ class OrderServiceImplTest {
                 buildVariantRequest(variantA.getSku(), 5, 200_000)
         ));
 
-        when(variantRepository.findById(variantA.getSku())).thenReturn(Optional.of(variantA));
+        stubCommonRepositories();
+        doThrow(new InsufficientStockException(List.of(variantA.getSku())))
+                .when(stockReservationService).reserve(Map.of(variantA.getSku(), 5));
 
         assertThatThrownBy(() -> orderService.createOrder(request))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -199,6 +219,7 @@ class OrderServiceImplTest {
         assertThat(response.getStatus()).isEqualTo(OrderStatus.PENDING.name());
         verify(paymentRepository).save(any(Payment.class));
         verify(cartService).clearCartByUserId(1);
+        verify(salesRollupService).recordOrders(Set.of(1));
     }
 
     // M3-02: Tạo đơn hàng thành công (thanh toán VNPay)
@@ -269,7 +290,9 @@ class OrderServiceImplTest {
                 buildVariantRequest(variantA.getSku(), 1, 200_000)
         ));
 
-        when(variantRepository.findById(variantA.getSku())).thenReturn(Optional.of(variantA));
+        stubCommonRepositories();
+        doThrow(new InsufficientStockException(List.of(variantA.getSku())))
+                .when(stockReservationService).reserve(Map.of(variantA.getSku(), 1));
 
         assertThatThrownBy(() -> orderService.createOrder(request))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -307,8 +330,8 @@ class OrderServiceImplTest {
         OrderResponse response = orderService.cancelOrder(1);
 
         assertThat(response.getStatus()).isEqualTo(OrderStatus.CANCELLED.name());
-        verify(variantRepository).save(variantA);
-        assertThat(variantA.getQuantity()).isEqualTo(7); // 5 + 2 restored
+        verify(stockReservationService).release(Map.of(variantA.getSku(), 2)); // 2 units restored
+        verify(salesRollupService).recordCancellations(Set.of(1));
     }
 
     @Test
@@ -352,7 +375,6 @@ class OrderServiceImplTest {
 
     @Test
     void createOrder_shouldDeductVariantQuantity() {
-        int initialQuantity = variantA.getQuantity();
         CreateOrderRequest request = buildRequest(List.of(
                 buildVariantRequest(variantA.getSku(), 2, 200_000)
         ));
@@ -363,8 +385,9 @@ class OrderServiceImplTest {
 
         orderService.createOrder(request);
 
-        verify(variantRepository).save(variantA);
-        assertThat(variantA.getQuantity()).isEqualTo(initialQuantity - 2);
+        verify(stockReservationService).reserve(Map.of(variantA.getSku(), 2));
+        verify(variantRepository, never()).save(any());
+        verify(variantRepository, never()).findById(any());
     }
 
     @Test
@@ -392,9 +415,10 @@ class OrderServiceImplTest {
 
     private void stubCommonRepositories() {
         lenient().when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        lenient().when(variantRepository.findById(variantA.getSku())).thenReturn(Optional.of(variantA));
-        lenient().when(variantRepository.findById(variantB.getSku())).thenReturn(Optional.of(variantB));
-        lenient().when(variantRepository.save(any(Variant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(variantRepository.findAllWithDetailsBySkuIn(any())).thenAnswer(invocation -> {
+            Collection<Integer> skus = invocation.getArgument(0);
+            return Stream.of(variantA, variantB).filter(v -> skus.contains(v.getSku())).toList();
+        });
     }
 
     private CreateOrderRequest buildRequest(List<CreateOrderVariantRequest> variants) {
@@ -431,10 +455,7 @@ class OrderServiceImplTest {
         OrderResponse response = orderService.createOrder(request);
 
         assertThat(response.getTotal()).isEqualTo(900_000); // Current logic: no shipping fee applied
-        verify(variantRepository).save(variantA);
-        verify(variantRepository).save(variantB);
-        assertThat(variantA.getQuantity()).isEqualTo(17); // 20 - 3
-        assertThat(variantB.getQuantity()).isEqualTo(18); // 20 - 2
+        verify(stockReservationService).reserve(Map.of(variantA.getSku(), 3, variantB.getSku(), 2));
     }
 
     @Test
@@ -445,7 +466,9 @@ class OrderServiceImplTest {
                 buildVariantRequest(variantB.getSku(), 1, 150_000)
         ));
 
-        when(variantRepository.findById(variantA.getSku())).thenReturn(Optional.of(variantA));
+        stubCommonRepositories();
+        doThrow(new InsufficientStockException(List.of(variantA.getSku())))
+                .when(stockReservationService).reserve(Map.of(variantA.getSku(), 1, variantB.getSku(), 1));
 
         assertThatThrownBy(() -> orderService.createOrder(request))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -473,7 +496,6 @@ class OrderServiceImplTest {
         ));
 
         stubCommonRepositories();
-        when(variantRepository.findById(999)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> orderService.createOrder(request))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -515,8 +537,7 @@ class OrderServiceImplTest {
         OrderResponse response = orderService.cancelOrder(1);
 
         assertThat(response.getStatus()).isEqualTo(OrderStatus.CANCELLED.name());
-        assertThat(variantA.getQuantity()).isEqualTo(8); // 5 + 3 restored
-        assertThat(variantB.getQuantity()).isEqualTo(10); // 8 + 2 restored
+        verify(stockReservationService).release(Map.of(variantA.getSku(), 3, variantB.getSku(), 2));
     }
 
     @Test
@@ -1,5 +1,6 @@
 package com.uniclub.service;
 
+import com.uniclub.config.CacheConfig;
 import com.uniclub.dto.request.Variant.CreateVariantRequest;
 import com.uniclub.dto.response.Variant.VariantResponse;
 import com.uniclub.entity.Color;
@@ -17,7 +18,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +50,12 @@ class VariantServiceImplTest {
     @Mock
     private ColorRepository colorRepository;
 
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager();
+
     @InjectMocks
     private VariantServiceImpl variantService;
 
@@ -223,5 +234,25 @@ class VariantServiceImplTest {
         assertThat(responses).hasSize(1);
         assertThat(responses.get(0).getSku()).isEqualTo(100);
     }
-}
 
+    @Test
+    void getAllVariants_shouldReloadOnlyEvictedSkus() {
+        Variant variant2 = new Variant();
+        variant2.setSku(101);
+        variant2.setQuantity(5);
+        when(variantRepository.findAll()).thenReturn(List.of(variant, variant2));
+        variantService.getAllVariants(null);
+
+        // Checkout trừ kho SKU 100: chỉ SKU đó bị evict khỏi cache variants
+        variant.setQuantity(7);
+        cacheManager.getCache(CacheConfig.VARIANTS).evict(100);
+        when(variantRepository.findAllWithDetailsBySkuIn(List.of(100))).thenReturn(List.of(variant));
+
+        List<VariantResponse> responses = variantService.getAllVariants(null);
+
+        assertThat(responses).extracting(VariantResponse::getSku).containsExactly(100, 101);
+        assertThat(responses).extracting(VariantResponse::getQuantity).containsExactly(7, 5);
+        verify(variantRepository, times(1)).findAll();
+        verify(variantRepository).findAllWithDetailsBySkuIn(List.of(100));
+    }
+}
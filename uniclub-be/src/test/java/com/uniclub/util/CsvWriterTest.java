@@ -0,0 +1,36 @@
+package com.uniclub.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=HYPERLINK(\"http://x\")", "+1+2", "-2+3", "@SUM(A1)", "\tcmd", "\rcmd"})
+    void formulaText_shouldBePrefixedAndQuoted(String text) throws IOException {
+        assertThat(write(text)).isEqualTo("\"'" + text.replace("\"", "\"\"") + "\"\r\n");
+    }
+
+    @Test
+    void numbers_shouldBeWrittenAsIs() throws IOException {
+        assertThat(write(-30000)).isEqualTo("-30000\r\n");
+    }
+
+    @Test
+    void plainText_shouldOnlyBeQuotedWhenNeeded() throws IOException {
+        assertThat(write("Áo, \"polo\"")).isEqualTo("\"Áo, \"\"polo\"\"\"\r\n");
+        assertThat(write("Hà Nội")).isEqualTo("Hà Nội\r\n");
+    }
+
+    private static String write(Object value) throws IOException {
+        StringWriter out = new StringWriter();
+        new CsvWriter(out).record(value);
+        return out.toString();
+    }
+}
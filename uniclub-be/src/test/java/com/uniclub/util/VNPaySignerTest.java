@@ -0,0 +1,102 @@
+package com.uniclub.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VNPaySignerTest {
+
+    private static final String SECRET = "GNUPBN07YMSNSDZPJ1ZLBIKXVNDSOTUI";
+
+    private final VNPaySigner signer = new VNPaySigner(SECRET);
+
+    @Test
+    void signQuery_shouldMatchVNPayUtil() {
+        Map<String, String> params = paymentParams();
+
+        String query = VNPayUtil.buildQueryString(params);
+        String expected = query + "&vnp_SecureHash=" + VNPayUtil.hmacSHA512(SECRET, query);
+
+        assertThat(signer.signQuery(params)).isEqualTo(expected);
+    }
+
+    @Test
+    void sign_shouldEncodeLikeUrlEncoder() {
+        Map<String, String> params = new HashMap<>();
+        params.put("vnp_OrderInfo", "Thanh toán đơn hàng #12 & quà 🎁 ~ (50%) +*-._");
+        params.put("vnp_ReturnUrl", "https://uniclub.vn/payment/vnpay-return?x=1&y=Đ");
+        params.put("vnp_Broken", "a\uD800b");
+        params.put("vnp_Empty", "");
+        params.put("vnp_Null", null);
+
+        assertThat(signer.sign(params))
+                .isEqualTo(VNPayUtil.hmacSHA512(SECRET, VNPayUtil.buildQueryString(params)));
+    }
+
+    @Test
+    void verify_shouldAcceptValidHashInAnyCaseAndIgnoreHashParams() {
+        Map<String, String> params = paymentParams();
+        String hash = VNPayUtil.hmacSHA512(SECRET, VNPayUtil.buildQueryString(params));
+        params.put("vnp_SecureHash", hash);
+        params.put("vnp_SecureHashType", "HmacSHA512");
+
+        assertThat(signer.verify(params, hash)).isTrue();
+        assertThat(signer.verify(params, hash.toUpperCase())).isTrue();
+    }
+
+    @Test
+    void verify_shouldRejectTamperedOrMalformedHash() {
+        Map<String, String> params = paymentParams();
+        String hash = signer.sign(params);
+
+        Map<String, String> tampered = new HashMap<>(params);
+        tampered.put("vnp_Amount", "100");
+        String flipped = (hash.charAt(0) == '0' ? '1' : '0') + hash.substring(1);
+
+        assertThat(signer.verify(tampered, hash)).isFalse();
+        assertThat(signer.verify(params, flipped)).isFalse();
+        assertThat(signer.verify(params, hash.substring(2))).isFalse();
+        assertThat(signer.verify(params, null)).isFalse();
+    }
+
+    @Test
+    void verify_shouldBeThreadSafe() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = IntStream.range(0, 2_000).mapToObj(i -> pool.submit(() -> {
+            Map<String, String> params = paymentParams();
+            params.put("vnp_TxnRef", String.valueOf(i));
+            return signer.verify(params, VNPayUtil.hmacSHA512(SECRET, VNPayUtil.buildQueryString(params)));
+        })).toList();
+
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+        }
+        pool.shutdown();
+    }
+
+    private static Map<String, String> paymentParams() {
+        Map<String, String> params = new HashMap<>();
+        params.put("vnp_Version", "2.1.0");
+        params.put("vnp_Command", "pay");
+        params.put("vnp_TmnCode", "CGEJ0TI4");
+        params.put("vnp_Amount", "149900000");
+        params.put("vnp_CurrCode", "VND");
+        params.put("vnp_TxnRef", "123456");
+        params.put("vnp_OrderInfo", "Thanh toan don hang 123456");
+        params.put("vnp_OrderType", "other");
+        params.put("vnp_Locale", "vn");
+        params.put("vnp_ReturnUrl", "http://localhost/admin/payment/vnpay-return");
+        params.put("vnp_IpAddr", "127.0.0.1");
+        params.put("vnp_CreateDate", "20250101120000");
+        return params;
+    }
+}
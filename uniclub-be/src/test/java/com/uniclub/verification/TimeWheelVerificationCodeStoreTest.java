@@ -0,0 +1,221 @@
+package com.uniclub.verification;
+
+import com.uniclub.exception.TooManyAttemptsException;
+import com.uniclub.mail.MailOutbox;
+import com.uniclub.service.impl.VerificationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TimeWheelVerificationCodeStoreTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void millionsOfAbandonedCodes_shouldKeepStoreAndHeapBounded() {
+        int maxEntries = 100_000;
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(maxEntries, 100, clock);
+        long heapBefore = usedHeapAfterGc();
+
+        // 2 triệu đăng ký bỏ dở, mỗi ms một mã sống 60s, sweep mỗi 10s như scheduler
+        int rejected = 0;
+        for (int i = 0; i < 2_000_000; i++) {
+            clock.advance(Duration.ofMillis(1));
+            if (!store.saveCode("bot" + i + "@example.com", "123456", clock.instant().plusSeconds(60))) {
+                rejected++;
+            }
+            store.incrementAttempts("send:email:bot" + i + "@example.com", Duration.ofSeconds(60));
+            if (i % 10_000 == 0) {
+                store.sweep();
+            }
+            assertThat(store.size()).isLessThanOrEqualTo(maxEntries);
+        }
+
+        assertThat(rejected).isZero();
+        assertThat(store.size()).isBetween(60_000, 70_000);
+        assertThat(store.attemptKeys()).isBetween(60_000, 70_000);
+        long heapGrowth = usedHeapAfterGc() - heapBefore;
+        assertThat(heapGrowth).isLessThan(96L * 1024 * 1024);
+
+        clock.advance(Duration.ofSeconds(61));
+        store.sweep();
+        assertThat(store.size()).isZero();
+        assertThat(store.attemptKeys()).isZero();
+    }
+
+    @Test
+    void saveCode_shouldRejectNewEmailsWhenFull() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(3, 1000, clock);
+        Instant expiresAt = clock.instant().plusSeconds(900);
+
+        assertThat(store.saveCode("a@x.com", "1", expiresAt)).isTrue();
+        assertThat(store.saveCode("b@x.com", "2", expiresAt)).isTrue();
+        assertThat(store.saveCode("c@x.com", "3", expiresAt)).isTrue();
+
+        assertThat(store.saveCode("d@x.com", "4", expiresAt)).isFalse();
+        // Email đã có vẫn được cấp lại mã
+        assertThat(store.saveCode("a@x.com", "5", expiresAt)).isTrue();
+        assertThat(store.findCode("a@x.com")).map(VerificationCodeStore.StoredCode::code).contains("5");
+    }
+
+    @Test
+    void expiredCodes_shouldBeHiddenAndSwept() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(10, 1000, clock);
+        store.saveCode("a@x.com", "111111", clock.instant().plusSeconds(900));
+
+        clock.advance(Duration.ofSeconds(899));
+        assertThat(store.findCode("a@x.com")).isPresent();
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(store.findCode("a@x.com")).isEmpty();
+
+        store.saveCode("b@x.com", "222222", clock.instant().plusSeconds(10));
+        clock.advance(Duration.ofSeconds(11));
+        store.sweep();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void resentCode_shouldSurviveSweepOfPreviousExpiry() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(10, 1000, clock);
+        store.saveCode("a@x.com", "111111", clock.instant().plusSeconds(10));
+        clock.advance(Duration.ofSeconds(5));
+        store.saveCode("a@x.com", "222222", clock.instant().plusSeconds(900));
+
+        clock.advance(Duration.ofSeconds(6));
+        store.sweep();
+
+        assertThat(store.findCode("a@x.com")).map(VerificationCodeStore.StoredCode::code).contains("222222");
+    }
+
+    @Test
+    void attempts_shouldCountWithinWindowAndResetAfter() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(10, 1000, clock);
+        Duration window = Duration.ofMinutes(15);
+
+        assertThat(store.incrementAttempts("verify:email:a@x.com", window)).isEqualTo(1);
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(store.incrementAttempts("verify:email:a@x.com", window)).isEqualTo(2);
+
+        // Cửa sổ tính từ lần đầu, không bị kéo dài bởi các lần sau
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(store.incrementAttempts("verify:email:a@x.com", window)).isEqualTo(1);
+
+        store.resetAttempts("verify:email:a@x.com");
+        assertThat(store.incrementAttempts("verify:email:a@x.com", window)).isEqualTo(1);
+    }
+
+    @Test
+    void attempts_shouldEvictOldestCounterWhenFull() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(3, 1000, clock);
+        Duration window = Duration.ofMinutes(15);
+
+        store.incrementAttempts("send:email:a@x.com", window);
+        clock.advance(Duration.ofSeconds(5));
+        store.incrementAttempts("send:email:b@x.com", window);
+        store.incrementAttempts("send:email:c@x.com", window);
+
+        assertThat(store.incrementAttempts("send:email:d@x.com", window)).isEqualTo(1);
+        assertThat(store.attemptKeys()).isEqualTo(3);
+        // Bộ đếm cũ nhất bị bỏ, các bộ đếm còn lại giữ nguyên giá trị
+        assertThat(store.incrementAttempts("send:email:b@x.com", window)).isEqualTo(2);
+        assertThat(store.incrementAttempts("send:email:a@x.com", window)).isEqualTo(1);
+    }
+
+    @Test
+    void sendCodeFloodFromOneIp_shouldNotLockOutOtherUsers() {
+        TimeWheelVerificationCodeStore store = new TimeWheelVerificationCodeStore(30, 1000, clock);
+        VerificationServiceImpl service = new VerificationServiceImpl();
+        ReflectionTestUtils.setField(service, "codeStore", store);
+        ReflectionTestUtils.setField(service, "mailOutbox", mock(MailOutbox.class));
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "ipMaxAttempts", 20);
+        ReflectionTestUtils.setField(service, "attemptWindow", Duration.ofMinutes(15));
+
+        String victimCode = withClientIp("10.0.0.2", () -> service.generateAndStoreCode("victim@x.com"));
+
+        // Bot gửi mã cho hàng nghìn email khác nhau từ một IP
+        int throttled = withClientIp("10.0.0.1", () -> {
+            int count = 0;
+            for (int i = 0; i < 10_000; i++) {
+                try {
+                    service.generateAndStoreCode("bot" + i + "@x.com");
+                } catch (TooManyAttemptsException e) {
+                    count++;
+                }
+                try {
+                    service.verifyCode("bot" + i + "@x.com", "000000");
+                } catch (TooManyAttemptsException e) {
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        // IP bị chặn từ lần thứ 21 và không còn tạo bộ đếm theo email; bộ đếm đầy thì bỏ bộ đếm cũ
+        assertThat(throttled).isEqualTo(2 * (10_000 - 20));
+        assertThat(store.attemptKeys()).isLessThanOrEqualTo(30 + 3);
+        // Người dùng khác vẫn gửi và xác thực được, mã của nạn nhân không bị bot xóa
+        withClientIp("10.0.0.3", () -> service.generateAndStoreCode("other@x.com"));
+        assertThat(withClientIp("10.0.0.2", () -> service.verifyCode("victim@x.com", victimCode))).isTrue();
+    }
+
+    private static <T> T withClientIp(String ip, Supplier<T> action) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
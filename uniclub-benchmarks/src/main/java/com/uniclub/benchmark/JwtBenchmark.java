@@ -0,0 +1,98 @@
+package com.uniclub.benchmark;
+
+import com.uniclub.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtConfig: ký token và so sánh đường verify cũ (dựng key + parser mới, parse 2 lần)
+ * với đường mới (parser dựng sẵn + cache claims)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "uniclub-secret-key-for-jwt-token-generation-2024";
+    private static final String USERNAME = "customer@uniclub.vn";
+
+    private JwtConfig jwtConfig;
+    private JwtConfig uncachedJwtConfig;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtConfig = newJwtConfig(10_000);
+        uncachedJwtConfig = newJwtConfig(0);
+        token = jwtConfig.generateToken(USERNAME, "CUSTOMER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtConfig.generateToken(USERNAME, "CUSTOMER");
+    }
+
+    /**
+     * Trước: JwtConfig.validateToken gọi getUsernameFromToken + getExpirationDateFromToken,
+     * mỗi lần dựng lại SecretKey và Jwts.parser()
+     */
+    @Benchmark
+    public boolean legacyValidate() {
+        String subject = legacyParse(token).getSubject();
+        Date expiration = legacyParse(token).getExpiration();
+        return USERNAME.equals(subject) && !expiration.before(new Date());
+    }
+
+    /**
+     * Parser dựng sẵn, parse một lần, không cache (lần đầu gặp token)
+     */
+    @Benchmark
+    public boolean prebuiltParserValidate() {
+        return uncachedJwtConfig.validateToken(token, USERNAME);
+    }
+
+    /**
+     * Đường nóng: token đã verify, lấy claims từ cache theo SHA-256 của token
+     */
+    @Benchmark
+    public boolean cachedValidate() {
+        return jwtConfig.validateToken(token, USERNAME);
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static JwtConfig newJwtConfig(long cacheSize) {
+        JwtConfig config = new JwtConfig();
+        ReflectionTestUtils.setField(config, "secret", SECRET);
+        ReflectionTestUtils.setField(config, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(config, "claimsCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(config, "init");
+        return config;
+    }
+}
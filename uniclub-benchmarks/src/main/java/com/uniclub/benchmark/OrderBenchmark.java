@@ -0,0 +1,109 @@
+package com.uniclub.benchmark;
+
+import com.uniclub.dto.response.Order.OrderResponse;
+import com.uniclub.entity.Color;
+import com.uniclub.entity.Order;
+import com.uniclub.entity.OrderVariant;
+import com.uniclub.entity.Product;
+import com.uniclub.entity.Size;
+import com.uniclub.entity.User;
+import com.uniclub.entity.Variant;
+import com.uniclub.entity.enums.OrderStatus;
+import com.uniclub.util.OrderPricing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đơn hàng nhiều dòng: map entity -> OrderResponse và tính tạm tính/phí ship/tổng tiền
+ * như OrderServiceImpl.buildOrderFromRequest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1);
+        user.setEmail("customer@uniclub.vn");
+        user.setFullname("Nguyễn Văn A");
+        user.setPhone("0901234567");
+        user.setAddress("12 Nguyễn Huệ, Quận 1");
+
+        order = new Order();
+        order.setId(1);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setRecipientName("Nguyễn Văn A");
+        order.setRecipientPhone("0901234567");
+        order.setShippingAddress("12 Nguyễn Huệ, Quận 1");
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+
+        List<OrderVariant> orderVariants = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setId(i / 4 + 1);
+            product.setName("Áo thun " + (i / 4 + 1));
+
+            Size size = new Size();
+            size.setId(i % 4 + 1);
+            size.setName(new String[]{"S", "M", "L", "XL"}[i % 4]);
+
+            Color color = new Color();
+            color.setId(i % 3 + 1);
+            color.setName(new String[]{"Đen", "Trắng", "Xanh"}[i % 3]);
+
+            Variant variant = new Variant();
+            variant.setSku(i + 1);
+            variant.setProduct(product);
+            variant.setSize(size);
+            variant.setColor(color);
+            variant.setPrice(99_000 + i * 1_000);
+            variant.setImages("https://res.cloudinary.com/uniclub/variant-" + (i + 1) + ".jpg");
+
+            OrderVariant ov = new OrderVariant();
+            ov.setOrder(order);
+            ov.setVariant(variant);
+            ov.setQuantity(i % 3 + 1);
+            ov.setPrice(variant.getPrice());
+            orderVariants.add(ov);
+        }
+        order.setOrderVariants(orderVariants);
+        OrderPricing.applyTotals(order);
+    }
+
+    @Benchmark
+    public OrderResponse fromEntity() {
+        return OrderResponse.fromEntity(order);
+    }
+
+    @Benchmark
+    public Order applyTotals() {
+        OrderPricing.applyTotals(order);
+        return order;
+    }
+}
@@ -0,0 +1,101 @@
+package com.uniclub.benchmark;
+
+import com.uniclub.util.VNPaySigner;
+import com.uniclub.util.VNPayUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VNPayUtil và VNPaySigner: dựng query string, ký HMAC-SHA512 và verify chữ ký IPN/return
+ * với bộ tham số giống VNPayService.createPaymentUrl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VNPayUtilBenchmark {
+
+    private static final String HASH_SECRET = "GNUPBN07YMSNSDZPJ1ZLBIKXVNDSOTUI";
+
+    private Map<String, String> params;
+    private String hashData;
+    private Map<String, String> callbackParams;
+    private String secureHash;
+    private VNPaySigner signer;
+
+    @Setup
+    public void setUp() {
+        params = new HashMap<>();
+        params.put("vnp_Version", "2.1.0");
+        params.put("vnp_Command", "pay");
+        params.put("vnp_TmnCode", "CGEJ0TI4");
+        params.put("vnp_Amount", "149900000");
+        params.put("vnp_CurrCode", "VND");
+        params.put("vnp_TxnRef", "123456");
+        params.put("vnp_OrderInfo", "Thanh toan don hang 123456");
+        params.put("vnp_OrderType", "other");
+        params.put("vnp_Locale", "vn");
+        params.put("vnp_ReturnUrl", "http://localhost/admin/payment/vnpay-return");
+        params.put("vnp_IpAddr", "127.0.0.1");
+        params.put("vnp_CreateDate", "20250101120000");
+        params.put("vnp_ExpireDate", "20250101121500");
+
+        hashData = VNPayUtil.buildQueryString(params);
+
+        // Callback VNPay trả về thêm kết quả giao dịch, chữ ký tính trên toàn bộ tham số
+        callbackParams = new HashMap<>(params);
+        callbackParams.put("vnp_ResponseCode", "00");
+        callbackParams.put("vnp_TransactionNo", "14226112");
+        callbackParams.put("vnp_BankCode", "NCB");
+        callbackParams.put("vnp_PayDate", "20250101120500");
+        secureHash = VNPayUtil.hmacSHA512(HASH_SECRET, VNPayUtil.buildQueryString(callbackParams));
+        callbackParams.put("vnp_SecureHash", secureHash);
+
+        signer = new VNPaySigner(HASH_SECRET);
+    }
+
+    @Benchmark
+    public String buildQueryString() {
+        return VNPayUtil.buildQueryString(params);
+    }
+
+    @Benchmark
+    public String hmacSHA512() {
+        return VNPayUtil.hmacSHA512(HASH_SECRET, hashData);
+    }
+
+    /**
+     * Đường IPN/return: bỏ vnp_SecureHash, dựng lại query string và ký lại để so sánh
+     */
+    @Benchmark
+    public boolean validateSecureHash() {
+        return VNPayUtil.validateSecureHash(callbackParams, HASH_SECRET, secureHash);
+    }
+
+    /**
+     * Tạo URL thanh toán: query string + chữ ký bằng Mac dùng lại và buffer tái sử dụng
+     */
+    @Benchmark
+    public String signerSignQuery() {
+        return signer.signQuery(params);
+    }
+
+    @Benchmark
+    public boolean signerVerify() {
+        return signer.verify(callbackParams, secureHash);
+    }
+}
@@ -112,10 +112,10 @@ export const api = {
     return data || []
   },
 
-  approveGrn: async (id) => {
+  approveGrn: async (id, version) => {
     return await fetchAPI(`/grn-headers/${id}`, { 
       method: "PUT",
-      data: { status: "COMPLETED" }
+      data: { status: "COMPLETED", version }
     })
   },
 
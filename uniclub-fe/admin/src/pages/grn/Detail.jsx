@@ -49,7 +49,7 @@ export default function GrnDetail() {
   }
 
   const handleApprove = async () => {
-    await api.approveGrn(id)
+    await api.approveGrn(id, grn.version)
     setToast({ message: "Đã duyệt phiếu nhập và cộng tồn kho", type: "success" })
     setConfirmApprove(false)
     loadData()
@@ -61,6 +61,7 @@ export default function VariantForm() {
         price: data.price || "",
         images: data.images || "",
         status: data.status || 1,
+        version: data.version,
       }
       console.log('Setting form data:', formData)
       setForm(formData)